@@ -0,0 +1,84 @@
+package fwcd.fructose;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import fwcd.fructose.structs.AliasTable;
+
+/**
+ * An immutable, weighted collection of items from
+ * which items can be sampled in constant time
+ * (using Walker's alias method).
+ * 
+ * <p>This class is thread-safe.</p>
+ * 
+ * @param <E> - The item type
+ */
+public class AliasSampler<E> {
+	private final List<E> items;
+	private final Map<E, Integer> indices = new HashMap<>();
+	private final AliasTable table;
+	
+	/**
+	 * Creates a new sampler in linear time.
+	 * 
+	 * @param weights - The non-negative (not necessarily normalized) weights of the items
+	 */
+	public AliasSampler(Map<? extends E, ? extends Number> weights) {
+		List<E> items = new ArrayList<>(weights.size());
+		double[] values = new double[weights.size()];
+		
+		for (Map.Entry<? extends E, ? extends Number> entry : weights.entrySet()) {
+			indices.put(entry.getKey(), items.size());
+			values[items.size()] = entry.getValue().doubleValue();
+			items.add(entry.getKey());
+		}
+		
+		this.items = Collections.unmodifiableList(items);
+		table = new AliasTable(values);
+	}
+	
+	AliasSampler(List<E> items, AliasTable table) {
+		this.items = Collections.unmodifiableList(new ArrayList<>(items));
+		this.table = table;
+		
+		for (int i=0; i<items.size(); i++) {
+			indices.putIfAbsent(items.get(i), i);
+		}
+	}
+	
+	public E sample() {
+		return sample(RandomStreams.current());
+	}
+	
+	public E sample(Random random) {
+		return items.get(table.sample(random));
+	}
+	
+	public int sampleIndex(Random random) {
+		return table.sample(random);
+	}
+	
+	/**
+	 * Fetches the normalized probability of an item in constant time.
+	 * 
+	 * @param item - The item
+	 * @return The probability or zero if the item is not present
+	 */
+	public double getProbability(E item) {
+		Integer index = indices.get(item);
+		return (index == null) ? 0 : table.getProbability(index);
+	}
+	
+	public List<E> getItems() {
+		return items;
+	}
+	
+	public int size() {
+		return items.size();
+	}
+}
@@ -5,29 +5,40 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Random;
 import java.util.Set;
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
+import fwcd.fructose.structs.AliasTable;
 import fwcd.fructose.structs.DoubleList;
 
 /**
  * Represents a weighted list of items from
  * which an item may be picked stochastically.
  * 
- * <p>NOTE that this implementation is NOT thread-safe.</p>
+ * <p>Repeated picks use an alias table, which is built
+ * once after the distribution has been modified, thus
+ * picking takes constant time. For distributions whose weights
+ * change frequently, consider a {@link FenwickSampler}.</p>
+ * 
+ * <p>NOTE that modifying this distribution is NOT thread-safe,
+ * concurrently picking items is.</p>
  * 
  * @author Fredrik
  *
  * @param <E> - The item type
  */
 public class Distribution<E> implements BiIterable<E, Double> {
-	private static final ThreadLocalRandom RANDOM = ThreadLocalRandom.current();
 	private final List<E> items = new ArrayList<>();
+	private final Map<E, Integer> indices = new HashMap<>();
 	private DoubleList probabilities = new DoubleList();
 	private double total = 0;
 	
+	private volatile AliasTable aliasTable = null;
+	private volatile boolean pickedSinceChange = false;
+	
 	public static enum Normalizer {
 		NONE, NORMALIZE, SOFTMAX, SCALED_SOFTMAX;
 	}
@@ -55,6 +66,7 @@ public class Distribution<E> implements BiIterable<E, Double> {
 		exponentiated.mapInPlace(v -> v / sum);
 		probabilities = exponentiated;
 		total = 1;
+		invalidateSampler();
 	}
 	
 	public void addAll(Map<? extends E, ? extends Number> distribution) {
@@ -124,7 +136,11 @@ public class Distribution<E> implements BiIterable<E, Double> {
 	}
 	
 	public double getProbability(E item) {
-		return probabilities.get(items.indexOf(item));
+		Integer index = indices.get(item);
+		if (index == null) {
+			throw new NoSuchElementException("Item " + item + " is not part of the distribution");
+		}
+		return probabilities.get(index);
 	}
 	
 	public void add(E item, double probability) {
@@ -134,19 +150,76 @@ public class Distribution<E> implements BiIterable<E, Double> {
 			throw new IllegalArgumentException("Probability has to be finite: " + Double.toString(probability));
 		}
 		
+		indices.putIfAbsent(item, items.size());
 		items.add(item);
 		probabilities.add(probability);
 		total += probability;
+		invalidateSampler();
+	}
+	
+	private void invalidateSampler() {
+		aliasTable = null;
+		pickedSinceChange = false;
+	}
+	
+	/**
+	 * Creates an immutable sampler from this distribution.
+	 * 
+	 * @return An alias sampler
+	 */
+	public AliasSampler<E> toAliasSampler() {
+		return new AliasSampler<>(items, getAliasTable());
+	}
+	
+	/**
+	 * Creates a sampler whose weights can be updated.
+	 * 
+	 * @return A fenwick sampler
+	 */
+	public FenwickSampler<E> toFenwickSampler() {
+		FenwickSampler<E> sampler = new FenwickSampler<>();
+		for (int i=0; i<items.size(); i++) {
+			sampler.setWeight(items.get(i), sampler.getWeight(items.get(i)) + probabilities.get(i));
+		}
+		return sampler;
+	}
+	
+	private AliasTable getAliasTable() {
+		AliasTable table = aliasTable;
+		
+		if (table == null) {
+			synchronized (this) {
+				table = aliasTable;
+				if (table == null) {
+					table = new AliasTable(probabilities.toArray());
+					aliasTable = table;
+				}
+			}
+		}
+		
+		return table;
 	}
 	
 	public int pickIndexStochastically() {
-		int resultingIndex = -1;
-		double random = RANDOM.nextDouble() * total;
+		return pickIndexStochastically(RandomStreams.current());
+	}
+	
+	public int pickIndexStochastically(Random rng) {
+		if (items.isEmpty()) {
+			return -1;
+		} else if (pickedSinceChange || total <= 0) {
+			return getAliasTable().sample(rng);
+		}
+		
+		// Building the alias table only pays off for repeated picks
+		pickedSinceChange = true;
+		int resultingIndex = items.size() - 1; // In case of rounding errors
+		double random = rng.nextDouble() * total;
 		
 		for (int i=0; i<items.size(); i++) {
 			random -= probabilities.get(i);
 			
-			if (random <= 0) {
+			if (random < 0) {
 				resultingIndex = i;
 				break;
 			}
@@ -159,6 +232,10 @@ public class Distribution<E> implements BiIterable<E, Double> {
 		return items.get(pickIndexStochastically());
 	}
 	
+	public E pickStochastically(Random random) {
+		return items.get(pickIndexStochastically(random));
+	}
+	
 	@Override
 	public String toString() {
 		StringBuilder s = new StringBuilder("{");
@@ -0,0 +1,135 @@
+package fwcd.fructose;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import fwcd.fructose.structs.FenwickTree;
+
+/**
+ * A weighted collection of items whose weights may change,
+ * backed by a Fenwick tree. Updating a weight and sampling
+ * an item both take logarithmic time.
+ * 
+ * <p>This class is thread-safe. Concurrent samples do not
+ * block each other.</p>
+ * 
+ * @param <E> - The item type
+ */
+public class FenwickSampler<E> {
+	private final List<E> items = new ArrayList<>();
+	private final Map<E, Integer> indices = new HashMap<>();
+	private final FenwickTree weights = new FenwickTree();
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	
+	public FenwickSampler() {}
+	
+	public FenwickSampler(Map<? extends E, ? extends Number> weights) {
+		for (Map.Entry<? extends E, ? extends Number> entry : weights.entrySet()) {
+			setWeight(entry.getKey(), entry.getValue().doubleValue());
+		}
+	}
+	
+	/**
+	 * Sets the weight of an item, adding it if necessary.
+	 * 
+	 * @param item - The item
+	 * @param weight - The non-negative, finite weight
+	 */
+	public void setWeight(E item, double weight) {
+		if (weight < 0 || !Double.isFinite(weight)) {
+			throw new IllegalArgumentException("Invalid weight: " + weight);
+		}
+		
+		lock.writeLock().lock();
+		try {
+			Integer index = indices.get(item);
+			
+			if (index == null) {
+				indices.put(item, items.size());
+				items.add(item);
+				weights.add(weight);
+			} else {
+				weights.set(index, weight);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * @return The weight of the item or zero if it is not present
+	 */
+	public double getWeight(E item) {
+		lock.readLock().lock();
+		try {
+			Integer index = indices.get(item);
+			return (index == null) ? 0 : weights.get(index);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * @return The normalized probability of the item or zero if it is not present
+	 */
+	public double getProbability(E item) {
+		lock.readLock().lock();
+		try {
+			Integer index = indices.get(item);
+			double total = weights.sum();
+			
+			if (index == null) {
+				return 0;
+			} else if (total <= 0) {
+				return 1D / items.size();
+			} else {
+				return weights.get(index) / total;
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	public E sample() {
+		return sample(RandomStreams.current());
+	}
+	
+	/**
+	 * Samples an item proportionally to its weight. If
+	 * all weights are zero, items are sampled uniformly.
+	 * 
+	 * @param random - The random number generator
+	 * @return The sampled item
+	 */
+	public E sample(Random random) {
+		lock.readLock().lock();
+		try {
+			if (items.isEmpty()) {
+				throw new IllegalStateException("Can not sample from an empty sampler");
+			}
+			
+			double total = weights.sum();
+			if (total <= 0) {
+				return items.get(random.nextInt(items.size()));
+			} else {
+				return items.get(weights.search(random.nextDouble() * total));
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return items.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+}
@@ -9,7 +9,6 @@ import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Random;
 import java.util.Set;
-import java.util.concurrent.ThreadLocalRandom;
 
 import fwcd.fructose.util.ListUtils;
 
@@ -35,7 +34,10 @@ public class Permutations<T> implements Iterable<List<T>> {
 	}
 	
 	public List<T> pickRandom() {
-		Random random = ThreadLocalRandom.current();
+		return pickRandom(RandomStreams.current());
+	}
+	
+	public List<T> pickRandom(Random random) {
 		return permutations.stream()
 				.skip((long) (permutations.size() * random.nextDouble()))
 				.findFirst()
@@ -0,0 +1,134 @@
+package fwcd.fructose;
+
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * A seedable source of random number generators
+ * for (possibly parallel) stochastic algorithms.
+ * 
+ * <p>Every thread receives its own stream (see {@link #current()}),
+ * which is split from a common, seedable root. Thus threads never
+ * contend for a shared generator. For reproducible results,
+ * tasks can be bound to a generator of their own (see {@link #runWith}),
+ * for example one derived from a seed and the index of the task
+ * (see {@link #forTask}), which does not depend on the order
+ * in which the tasks are scheduled.</p>
+ */
+public final class RandomStreams {
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+	private static final ThreadLocal<Stream> CURRENT = new ThreadLocal<>();
+	private static SplitRandom root = new SplitRandom();
+	private static volatile long epoch = 0;
+	
+	private RandomStreams() {}
+	
+	/**
+	 * Fetches the random number generator of the current
+	 * thread (or task). The generator should not be
+	 * passed to other threads.
+	 * 
+	 * @return The generator
+	 */
+	public static Random current() {
+		Stream stream = CURRENT.get();
+		
+		if (stream == null || (!stream.bound && stream.epoch != epoch)) {
+			stream = new Stream(split(), epoch, false);
+			CURRENT.set(stream);
+		}
+		
+		return stream.random;
+	}
+	
+	/**
+	 * Splits a new, independent generator off the root.
+	 * 
+	 * @return The generator
+	 */
+	public static synchronized SplitRandom split() {
+		return root.split();
+	}
+	
+	/**
+	 * Reseeds the root generator. Afterwards, every (unbound)
+	 * thread receives a new stream that is split from the
+	 * reseeded root on its next call to {@link #current()}.
+	 * 
+	 * @param seed - The seed
+	 */
+	public static synchronized void setSeed(long seed) {
+		root = new SplitRandom(seed);
+		epoch++;
+	}
+	
+	/**
+	 * Creates the generator of a task, which only depends
+	 * on the given seed and the index of the task.
+	 * 
+	 * @param seed - The seed shared by all tasks
+	 * @param taskIndex - The index of the task
+	 * @return The generator
+	 */
+	public static SplitRandom forTask(long seed, long taskIndex) {
+		return new SplitRandom(mix64(seed + ((taskIndex + 1) * GOLDEN_GAMMA)));
+	}
+	
+	/**
+	 * Runs a task that uses the given generator as
+	 * its current one (see {@link #current()}).
+	 * 
+	 * @param random - The generator
+	 * @param task - The task
+	 */
+	public static void runWith(Random random, Runnable task) {
+		callWith(random, () -> {
+			task.run();
+			return null;
+		});
+	}
+	
+	/**
+	 * Computes a result using the given generator as
+	 * the current one (see {@link #current()}).
+	 * 
+	 * @param random - The generator
+	 * @param task - The task
+	 * @return The task's result
+	 */
+	public static <T> T callWith(Random random, Supplier<T> task) {
+		Stream previous = CURRENT.get();
+		CURRENT.set(new Stream(random, epoch, true));
+		
+		try {
+			return task.get();
+		} finally {
+			if (previous == null) {
+				CURRENT.remove();
+			} else {
+				CURRENT.set(previous);
+			}
+		}
+	}
+	
+	/**
+	 * The finalizer of the SplitMix64 generator.
+	 */
+	private static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+	
+	private static class Stream {
+		private final Random random;
+		private final long epoch;
+		private final boolean bound;
+		
+		public Stream(Random random, long epoch, boolean bound) {
+			this.random = random;
+			this.epoch = epoch;
+			this.bound = bound;
+		}
+	}
+}
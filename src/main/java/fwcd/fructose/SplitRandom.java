@@ -0,0 +1,131 @@
+package fwcd.fructose;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link Random} that generates the same values as a
+ * {@link SplittableRandom} (SplitMix64), which is faster and
+ * does not synchronize (thus instances should not be shared
+ * across threads). Instead, independent streams for parallel
+ * tasks can be created using {@link #split()}.
+ * 
+ * <p>In contrast to {@link SplittableRandom}, this class can be passed
+ * to all APIs that expect a {@link Random}. Its whole state consists
+ * of two longs, thus serializing a generator does not affect it and
+ * the deserialized copy continues with the same values.</p>
+ */
+public class SplitRandom extends Random {
+	private static final long serialVersionUID = 4319552738201475816L;
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+	private static final double DOUBLE_UNIT = 0x1.0p-53;
+	private static final AtomicLong DEFAULT_SEEDER = new AtomicLong(mix64(System.currentTimeMillis()) ^ mix64(System.nanoTime()));
+	
+	private long seed;
+	private long gamma; // Always odd
+	
+	/**
+	 * Creates a new random number generator
+	 * with a unique (non-deterministic) seed.
+	 */
+	public SplitRandom() {
+		this(mix64(DEFAULT_SEEDER.getAndAdd(2 * GOLDEN_GAMMA)), mixGamma(DEFAULT_SEEDER.getAndAdd(2 * GOLDEN_GAMMA) + GOLDEN_GAMMA));
+	}
+	
+	public SplitRandom(long seed) {
+		this(seed, GOLDEN_GAMMA);
+	}
+	
+	private SplitRandom(long seed, long gamma) {
+		super(0L);
+		this.seed = seed;
+		this.gamma = gamma;
+	}
+	
+	/**
+	 * Creates a new, statistically independent
+	 * random number generator from this one.
+	 * 
+	 * @return The new generator
+	 */
+	public SplitRandom split() {
+		return new SplitRandom(nextLong(), mixGamma(nextSeed()));
+	}
+	
+	@Override
+	public synchronized void setSeed(long seed) {
+		super.setSeed(seed); // Resets the cached gaussian
+		this.seed = seed;
+		gamma = GOLDEN_GAMMA;
+	}
+	
+	private long nextSeed() {
+		return seed += gamma;
+	}
+	
+	@Override
+	protected int next(int bits) {
+		return (int) (nextLong() >>> (64 - bits));
+	}
+	
+	@Override
+	public int nextInt() {
+		return mix32(nextSeed());
+	}
+	
+	@Override
+	public int nextInt(int bound) {
+		if (bound <= 0) {
+			throw new IllegalArgumentException("The bound must be positive");
+		}
+		
+		int r = mix32(nextSeed());
+		int m = bound - 1;
+		if ((bound & m) == 0) {
+			// Power of two
+			r &= m;
+		} else {
+			// Reject values from the incomplete last interval
+			for (int u = r >>> 1; u + m - (r = u % bound) < 0; u = mix32(nextSeed()) >>> 1);
+		}
+		return r;
+	}
+	
+	@Override
+	public long nextLong() {
+		return mix64(nextSeed());
+	}
+	
+	@Override
+	public double nextDouble() {
+		return (nextLong() >>> 11) * DOUBLE_UNIT;
+	}
+	
+	@Override
+	public boolean nextBoolean() {
+		return mix32(nextSeed()) < 0;
+	}
+	
+	private static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+	
+	private static int mix32(long z) {
+		z = (z ^ (z >>> 33)) * 0x62A9D9ED799705F5L;
+		return (int) (((z ^ (z >>> 28)) * 0xCB24D0A5C88C35B3L) >>> 32);
+	}
+	
+	/**
+	 * Derives an odd gamma with enough bit transitions.
+	 */
+	private static long mixGamma(long z) {
+		z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+		z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+		z = (z ^ (z >>> 33)) | 1L;
+		int n = Long.bitCount(z ^ (z >>> 1));
+		return (n < 24) ? z ^ 0xAAAAAAAAAAAAAAAAL : z;
+	}
+}
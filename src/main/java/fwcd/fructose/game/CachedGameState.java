@@ -0,0 +1,216 @@
+package fwcd.fructose.game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A decorator that memoizes the legal moves, the winners
+ * and the terminal status of a game state until the next move
+ * is performed. This is useful for games that compute their
+ * legal moves on demand, since search algorithms usually query
+ * them (and {@link #isGameOver()}) several times per position.
+ * 
+ * <p>Additionally, the legal moves are stored in a hash set,
+ * thus {@link #isLegal} runs in constant time (assuming
+ * that the moves implement {@code hashCode} and {@code equals}).</p>
+ * 
+ * <p>Copies and children of a cached state are cached too. Use
+ * {@link #of} to wrap a state, which will preserve
+ * {@link ReversibleGameState reversibility}. Note that the decorator
+ * assumes the default definition of {@link GameState#isGameOver()}.</p>
+ * 
+ * @param <M> - The move type
+ * @param <R> - The role type
+ */
+public class CachedGameState<M extends GameMove, R extends GameRole> implements GameState<M, R> {
+	private final GameState<M, R> delegate;
+	private Cache<M, R> cache;
+	
+	/**
+	 * Wraps the given state, which may no longer
+	 * be mutated directly afterwards.
+	 * 
+	 * @param delegate - The underlying game state
+	 */
+	public CachedGameState(GameState<M, R> delegate) {
+		this(delegate, new Cache<>());
+	}
+	
+	private CachedGameState(GameState<M, R> delegate, Cache<M, R> cache) {
+		this.delegate = delegate;
+		this.cache = cache;
+	}
+	
+	/**
+	 * Wraps the given state in a caching decorator. If the state is
+	 * a {@link ReversibleGameState}, the decorator will be reversible too
+	 * and restore the cached values of the previous position on undo.
+	 * 
+	 * @param state - The underlying game state
+	 * @return The cached state (or the state itself if it is already cached)
+	 */
+	public static <M extends GameMove, R extends GameRole> CachedGameState<M, R> of(GameState<M, R> state) {
+		if (state instanceof CachedGameState) {
+			return (CachedGameState<M, R>) state;
+		} else if (state instanceof ReversibleGameState) {
+			return reversible((ReversibleGameState<M, R, ?>) state);
+		} else {
+			return new CachedGameState<>(state);
+		}
+	}
+	
+	private static <M extends GameMove, R extends GameRole, U> CachedGameState<M, R> reversible(ReversibleGameState<M, R, U> state) {
+		return new Reversible<>(state, new Cache<>());
+	}
+	
+	/**
+	 * @return The underlying game state
+	 */
+	public GameState<M, R> getDelegate() {
+		return delegate;
+	}
+	
+	@Override
+	public GameState<M, R> unwrap() {
+		return delegate.unwrap();
+	}
+	
+	@Override
+	public List<? extends M> getLegalMoves() {
+		if (cache.legalMoves == null) {
+			// Copied since the delegate might reuse its list
+			cache.legalMoves = Collections.unmodifiableList(new ArrayList<M>(delegate.getLegalMoves()));
+		}
+		return cache.legalMoves;
+	}
+	
+	/**
+	 * Fetches the legal moves as a hash set.
+	 * 
+	 * @return An unmodifiable set of the legal moves
+	 */
+	public Set<M> getLegalMoveSet() {
+		if (cache.legalMoveSet == null) {
+			cache.legalMoveSet = Collections.unmodifiableSet(new HashSet<M>(getLegalMoves()));
+		}
+		return cache.legalMoveSet;
+	}
+	
+	@Override
+	public Set<? extends R> getWinners() {
+		if (cache.winners == null) {
+			cache.winners = Collections.unmodifiableSet(new HashSet<R>(delegate.getWinners()));
+		}
+		return cache.winners;
+	}
+	
+	@Override
+	public boolean isGameOver() {
+		if (cache.gameOver == null) {
+			cache.gameOver = !getWinners().isEmpty() || getLegalMoves().isEmpty();
+		}
+		return cache.gameOver;
+	}
+	
+	@Override
+	public boolean isLegal(M move) {
+		return getLegalMoveSet().contains(move);
+	}
+	
+	@Override
+	public R getCurrentRole() {
+		return delegate.getCurrentRole();
+	}
+	
+	@Override
+	public boolean perform(M move) {
+		cache = new Cache<>();
+		return delegate.perform(move);
+	}
+	
+	@Override
+	public int getMoveCount() {
+		return delegate.getMoveCount();
+	}
+	
+	@Override
+	public CachedGameState<M, R> copy() {
+		return new CachedGameState<>(delegate.copy(), cache.copy());
+	}
+	
+	@Override
+	public String toString() {
+		return delegate.toString();
+	}
+	
+	/**
+	 * A cached state that can revert moves. Undoing
+	 * a move restores the cached values of the previous position.
+	 */
+	public static class Reversible<M extends GameMove, R extends GameRole, U> extends CachedGameState<M, R> implements ReversibleGameState<M, R, Reversible.Undo<M, R, U>> {
+		private final ReversibleGameState<M, R, U> delegate;
+		
+		private Reversible(ReversibleGameState<M, R, U> delegate, Cache<M, R> cache) {
+			super(delegate, cache);
+			this.delegate = delegate;
+		}
+		
+		@Override
+		public Undo<M, R, U> performReversibly(M move) {
+			Undo<M, R, U> token = new Undo<>(delegate.performReversibly(move), super.cache);
+			super.cache = new Cache<>();
+			return token;
+		}
+		
+		@Override
+		public void undo(Undo<M, R, U> token) {
+			delegate.undo(token.delegateToken);
+			super.cache = token.previousCache;
+		}
+		
+		@Override
+		public Reversible<M, R, U> copy() {
+			// A copy of a reversible state is reversible with the same token type
+			@SuppressWarnings("unchecked")
+			ReversibleGameState<M, R, U> delegateCopy = (ReversibleGameState<M, R, U>) delegate.copy();
+			return new Reversible<>(delegateCopy, super.cache.copy());
+		}
+		
+		/**
+		 * The undo token of a cached state.
+		 */
+		public static class Undo<M extends GameMove, R extends GameRole, U> {
+			private final U delegateToken;
+			private final Cache<M, R> previousCache;
+			
+			private Undo(U delegateToken, Cache<M, R> previousCache) {
+				this.delegateToken = delegateToken;
+				this.previousCache = previousCache;
+			}
+		}
+	}
+	
+	/**
+	 * The memoized values of a single position, each
+	 * of which is computed lazily.
+	 */
+	private static class Cache<M, R> {
+		private List<M> legalMoves = null;
+		private Set<M> legalMoveSet = null;
+		private Set<R> winners = null;
+		private Boolean gameOver = null;
+		
+		public Cache<M, R> copy() {
+			// The cached collections are unmodifiable and thus can be shared
+			Cache<M, R> copy = new Cache<>();
+			copy.legalMoves = legalMoves;
+			copy.legalMoveSet = legalMoveSet;
+			copy.winners = winners;
+			copy.gameOver = gameOver;
+			return copy;
+		}
+	}
+}
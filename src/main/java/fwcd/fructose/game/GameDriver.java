@@ -4,14 +4,24 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.function.Supplier;
 
+import fwcd.fructose.concurrent.ClosingExecutor;
+import fwcd.fructose.exception.Rethrow;
 import fwcd.fructose.game.ai.GamePlayer;
 
 /**
  * A class that automatically plays games
  * using {@link GamePlayer} instances.
  * 
+ * <p>Games can either be played sequentially using
+ * the players set via {@link #setPlayer} or concurrently
+ * using fresh players from the factories set via
+ * {@link #setPlayerFactory} (see {@link #playConcurrently}).</p>
+ * 
  * @author Fredrik
  *
  * @param <M> - The move type
@@ -19,8 +29,10 @@ import fwcd.fructose.game.ai.GamePlayer;
  */
 public class GameDriver<M extends GameMove, R extends GameRole> {
 	private final Supplier<GameState<M, R>> gameCreator;
-	private final List<GameObserver<M, R>> observers = new ArrayList<>();
+	private final List<GameObserver<M, R>> observers = new CopyOnWriteArrayList<>();
+	private final Object observerLock = new Object();
 	private final Map<R, GamePlayer<M, R>> players = new HashMap<>();
+	private final Map<R, Supplier<? extends GamePlayer<M, R>>> playerFactories = new HashMap<>();
 
 	private long hardMoveTimeLimit = Long.MAX_VALUE;
 	private long softMoveTimeLimit = Long.MAX_VALUE;
@@ -36,6 +48,19 @@ public class GameDriver<M extends GameMove, R extends GameRole> {
 		players.put(role, player);
 	}
 	
+	/**
+	 * Sets the factory used to create the players of the given
+	 * role when playing concurrently. Every worker thread
+	 * creates its own players, thus no player is shared
+	 * across threads.
+	 * 
+	 * @param role - The role
+	 * @param factory - Creates new, independent players
+	 */
+	public void setPlayerFactory(R role, Supplier<? extends GamePlayer<M, R>> factory) {
+		playerFactories.put(role, factory);
+	}
+	
 	/**
 	 * Plays the given amount of matches. The players
 	 * are taking turns in the order provided. This
@@ -46,62 +71,142 @@ public class GameDriver<M extends GameMove, R extends GameRole> {
 	 * 
 	 * @param matches - The amount of matches
 	 * @param players - The players used to play the game
+	 * @return Statistics about the played matches
 	 */
-	public synchronized void play(int matches) {
+	public synchronized TournamentStats<R> play(int matches) {
 		int playersCount = players.size();
 		
 		if (playersCount == 0) {
 			throw new IllegalArgumentException("Needs at least one player to play a game!");
 		}
 		
+		applyTimeLimits(players);
+		TournamentStats<R> stats = new TournamentStats<>();
+		
+		for (int i=0; i<matches; i++) {
+			playMatch(players, i, stats);
+		}
+		
+		stats.finish();
+		return stats;
+	}
+	
+	/**
+	 * Plays the given amount of independent matches concurrently
+	 * on a pool of worker threads, each of which uses its own
+	 * players created by the player factories. This method
+	 * will "block" until all games are played.
+	 * 
+	 * <p>Observers are notified from the worker threads, but
+	 * never concurrently.</p>
+	 * 
+	 * @param matches - The amount of matches
+	 * @param threads - The number of worker threads
+	 * @return Statistics about the played matches
+	 */
+	public TournamentStats<R> playConcurrently(int matches, int threads) {
+		if (playerFactories.isEmpty()) {
+			throw new IllegalArgumentException("Needs at least one player factory to play games concurrently!");
+		}
+		if (threads <= 0) {
+			throw new IllegalArgumentException("Needs at least one worker thread!");
+		}
+		
+		Map<R, Supplier<? extends GamePlayer<M, R>>> factories = new HashMap<>(playerFactories);
+		TournamentStats<R> stats = new TournamentStats<>();
+		int workers = Math.min(threads, Math.max(matches, 1));
+		
+		try (ClosingExecutor executor = new ClosingExecutor(workers)) {
+			List<Future<?>> results = new ArrayList<>();
+			
+			for (int w=0; w<workers; w++) {
+				int worker = w;
+				results.add(executor.submit(() -> {
+					Map<R, GamePlayer<M, R>> workerPlayers = new HashMap<>();
+					for (R role : factories.keySet()) {
+						workerPlayers.put(role, factories.get(role).get());
+					}
+					applyTimeLimits(workerPlayers);
+					
+					// Distribute the matches evenly among the workers
+					for (int i=worker; i<matches; i+=workers) {
+						playMatch(workerPlayers, i, stats);
+					}
+				}));
+			}
+			
+			for (Future<?> result : results) {
+				result.get();
+			}
+		} catch (ExecutionException e) {
+			throw new Rethrow("A game failed while playing concurrently", e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new Rethrow("Interrupted while playing concurrently", e);
+		}
+		
+		stats.finish();
+		return stats;
+	}
+	
+	private void applyTimeLimits(Map<R, GamePlayer<M, R>> players) {
 		for (GamePlayer<M, R> ai : players.values()) {
 			ai.setHardMaxTime(hardMoveTimeLimit);
 			ai.setSoftMaxTime(softMoveTimeLimit);
 		}
+	}
+	
+	private void playMatch(Map<R, GamePlayer<M, R>> players, int matchIndex, TournamentStats<R> stats) {
+		GameState<M, R> game = gameCreator.get();
+		fireStartListeners(players, game);
 		
-		for (int i=0; i<matches; i++) {
-			GameState<M, R> game = gameCreator.get();
-			fireStartListeners(game);
+		while (!game.isGameOver()) {
+			GamePlayer<M, R> ai = players.get(game.getCurrentRole());
 			
-			while (!game.isGameOver()) {
-				GamePlayer<M, R> ai = players.get(game.getCurrentRole());
-				
-				if (ai == null) {
-					throw new IllegalStateException("GameDriver is missing a player for " + game.getCurrentRole().toString());
-				}
-				
-				
-				M move = ai.chooseMove(game);
-				fireMoveListeners(game, move);
-				game.perform(move);
+			if (ai == null) {
+				throw new IllegalStateException("GameDriver is missing a player for " + game.getCurrentRole().toString());
 			}
 			
-			if (outputToConsole) {
-				System.out.println(game.getWinners().toString() + " won the " + Integer.toString(i) + ". match");
-			}
+			long startNanos = System.nanoTime();
+			M move = ai.chooseMove(game);
+			stats.recordMove(System.nanoTime() - startNanos);
 			
-			fireEndListeners(game);
+			fireMoveListeners(game, move);
+			game.perform(move);
+		}
+		
+		if (outputToConsole) {
+			System.out.println(game.getWinners().toString() + " won the " + Integer.toString(matchIndex) + ". match");
 		}
+		
+		stats.recordGame(players.keySet(), game.getWinners());
+		fireEndListeners(players, game);
 	}
 	
 	private void fireMoveListeners(GameState<M, R> stateBeforeMove, M move) {
-		for (GameObserver<M, R> observer : observers) {
-			observer.onGameMove(stateBeforeMove, move);
+		synchronized (observerLock) {
+			for (GameObserver<M, R> observer : observers) {
+				observer.onGameMove(stateBeforeMove, move);
+			}
 		}
 	}
 	
-	private void fireStartListeners(GameState<M, R> state) {
-		for (GameObserver<M, R> observer : observers) {
-			observer.onGameStart(state);
+	private void fireStartListeners(Map<R, GamePlayer<M, R>> players, GameState<M, R> state) {
+		synchronized (observerLock) {
+			for (GameObserver<M, R> observer : observers) {
+				observer.onGameStart(state);
+			}
 		}
 		for (R r : players.keySet()) {
 			players.get(r).onGameStart(state, r);
 		}
 	}
 	
-	private void fireEndListeners(GameState<M, R> state) {
-		for (GameObserver<M, R> observer : observers) {
-			observer.onGameEnd(state);
+	private void fireEndListeners(Map<R, GamePlayer<M, R>> players, GameState<M, R> state) {
+		synchronized (observerLock) {
+			for (GameObserver<M, R> observer : observers) {
+				observer.onGameEnd(state);
+			}
 		}
 		for (R r : players.keySet()) {
 			players.get(r).onGameEnd(state, r);
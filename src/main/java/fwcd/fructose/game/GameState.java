@@ -18,7 +18,7 @@ import fwcd.fructose.structs.TreeNode;
 public interface GameState<M extends GameMove, R extends GameRole> extends TreeNode, Copyable<GameState<M, R>> {
 	/**
 	 * Fetches the legal moves. Caching these might
-	 * be a good idea.
+	 * be a good idea (see {@link CachedGameState}).
 	 * 
 	 * @return The list of possible moves
 	 */
@@ -56,6 +56,18 @@ public interface GameState<M extends GameMove, R extends GameRole> extends TreeN
 	@Override
 	GameState<M, R> copy();
 	
+	/**
+	 * Fetches the actual game state behind this one. States that
+	 * decorate another state (like {@link CachedGameState}) return
+	 * the unwrapped decorated state, which allows consumers such as
+	 * {@link PlayoutState#load} to access the implementation directly.
+	 * 
+	 * @return The undecorated state (this state by default)
+	 */
+	default GameState<M, R> unwrap() {
+		return this;
+	}
+	
 	/**
 	 * @return Whether this game is over
 	 */
@@ -63,6 +75,16 @@ public interface GameState<M extends GameMove, R extends GameRole> extends TreeN
 		return !getWinners().isEmpty() || getLegalMoves().isEmpty();
 	}
 	
+	/**
+	 * Creates a copy of this state with the given move performed.
+	 * 
+	 * <p>Since this copies the whole state, search algorithms
+	 * walk the tree in place instead if the state implements
+	 * {@link ReversibleGameState} (see {@link GameTreeWalker}).</p>
+	 * 
+	 * @param move - The move to be performed on the copy
+	 * @return The child state
+	 */
 	default GameState<M, R> spawnChild(M move) {
 		GameState<M, R> child = copy();
 		child.perform(move);
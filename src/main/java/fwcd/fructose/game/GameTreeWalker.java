@@ -0,0 +1,112 @@
+package fwcd.fructose.game;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves through a game tree during a depth-first search.
+ * Depending on the game state, moves are either applied to copies
+ * of the state ({@link GameState#spawnChild}) or performed and
+ * reverted in place (if it is a {@link ReversibleGameState}).
+ * 
+ * <p>Every {@link #enter} has to be followed by exactly
+ * one matching {@link #leave} (in reverse order). An in-place
+ * walker mutates the state it was created for and
+ * thus may only be used by a single thread.</p>
+ */
+public abstract class GameTreeWalker<M extends GameMove, R extends GameRole> {
+	/**
+	 * Creates a walker that copies the state for every node.
+	 */
+	public static <M extends GameMove, R extends GameRole> GameTreeWalker<M, R> copying() {
+		return new Copying<>();
+	}
+	
+	/**
+	 * Creates a walker that operates in place on the given state.
+	 */
+	public static <M extends GameMove, R extends GameRole, U> GameTreeWalker<M, R> inPlace(ReversibleGameState<M, R, U> state) {
+		return new InPlace<>(state);
+	}
+	
+	/**
+	 * Creates an in-place walker if the given state is
+	 * reversible and a copying walker otherwise.
+	 * 
+	 * @param state - The state at the root of the walk
+	 * @return A walker suitable for the state
+	 */
+	public static <M extends GameMove, R extends GameRole> GameTreeWalker<M, R> of(GameState<M, R> state) {
+		if (state instanceof ReversibleGameState) {
+			return inPlace((ReversibleGameState<M, R, ?>) state);
+		} else {
+			return copying();
+		}
+	}
+	
+	/**
+	 * Performs a move.
+	 * 
+	 * @param state - The current state
+	 * @param move - The move to be performed
+	 * @return The state after the move, which may be the same instance
+	 */
+	public abstract GameState<M, R> enter(GameState<M, R> state, M move);
+	
+	/**
+	 * Returns to the parent of the given state.
+	 * 
+	 * @param stateAfterMove - The state returned by the last {@link #enter}
+	 */
+	public abstract void leave(GameState<M, R> stateAfterMove);
+	
+	/**
+	 * @return Whether the states before and after a move are the same instance
+	 */
+	public abstract boolean isInPlace();
+	
+	private static class Copying<M extends GameMove, R extends GameRole> extends GameTreeWalker<M, R> {
+		@Override
+		public GameState<M, R> enter(GameState<M, R> state, M move) {
+			return state.spawnChild(move);
+		}
+		
+		@Override
+		public void leave(GameState<M, R> stateAfterMove) {
+			// The parent state is left untouched
+		}
+		
+		@Override
+		public boolean isInPlace() {
+			return false;
+		}
+	}
+	
+	private static class InPlace<M extends GameMove, R extends GameRole, U> extends GameTreeWalker<M, R> {
+		private final ReversibleGameState<M, R, U> state;
+		private final List<U> tokens = new ArrayList<>(); // May contain null tokens
+		
+		public InPlace(ReversibleGameState<M, R, U> state) {
+			this.state = state;
+		}
+		
+		@Override
+		public GameState<M, R> enter(GameState<M, R> current, M move) {
+			if (current != state) {
+				throw new IllegalArgumentException("In-place walker can only operate on the state it was created for");
+			}
+			tokens.add(state.performReversibly(move));
+			return state;
+		}
+		
+		@Override
+		public void leave(GameState<M, R> stateAfterMove) {
+			state.undo(tokens.remove(tokens.size() - 1));
+		}
+		
+		@Override
+		public boolean isInPlace() {
+			return true;
+		}
+	}
+}
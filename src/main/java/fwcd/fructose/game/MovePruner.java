@@ -9,4 +9,16 @@ public interface MovePruner<M extends GameMove, R extends GameRole> {
 			M move,
 			double incrementalDepth
 	);
+	
+	/**
+	 * Whether this pruner reads the game state before the move.
+	 * If not, search algorithms may walk the game tree in place and pass
+	 * a state that does not reflect the position before the move
+	 * (e.g. the same instance as the state after the move).
+	 * 
+	 * @return Whether gameBeforeMove is accessed
+	 */
+	default boolean usesStateBeforeMove() {
+		return true;
+	}
 }
@@ -11,4 +11,9 @@ public class NeverPruner<M extends GameMove, R extends GameRole> implements Move
 	) {
 		return false;
 	}
+	
+	@Override
+	public boolean usesStateBeforeMove() {
+		return false;
+	}
 }
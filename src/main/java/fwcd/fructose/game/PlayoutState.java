@@ -0,0 +1,84 @@
+package fwcd.fructose.game;
+
+import java.util.Random;
+
+/**
+ * A lightweight, mutable representation of a game position
+ * that is only used to play random games ("playouts") as fast
+ * as possible. Moves are encoded as ints in the range
+ * {@code [0, getMoveCodeCount())}, thus a playout does not need
+ * to allocate any objects.
+ * 
+ * <p>Implementations are reused: a scratch state is loaded
+ * with the position of a {@link GameState} before every playout.
+ * Every thread uses its own scratch state.</p>
+ * 
+ * @param <M> - The move type
+ * @param <R> - The role type
+ */
+public interface PlayoutState<M extends GameMove, R extends GameRole> {
+	/**
+	 * Overwrites this scratch state with the given position.
+	 * 
+	 * @param state - The game state to be loaded (already unwrapped, see {@link GameState#unwrap()})
+	 */
+	void load(GameState<M, R> state);
+	
+	/**
+	 * @return An exclusive upper bound of the move codes
+	 */
+	int getMoveCodeCount();
+	
+	/**
+	 * Encodes a move. Equal moves have to be encoded
+	 * using the same code.
+	 * 
+	 * @param move - The move
+	 * @return The move code
+	 */
+	int encode(M move);
+	
+	/**
+	 * Writes the codes of the legal moves to the
+	 * given buffer, which has a length of at least
+	 * {@link #getMoveCodeCount()}.
+	 * 
+	 * @param buffer - The destination buffer
+	 * @return The number of legal moves
+	 */
+	int generateMoves(int[] buffer);
+	
+	/**
+	 * Performs a legal move.
+	 * 
+	 * @param moveCode - The encoded move
+	 */
+	void play(int moveCode);
+	
+	R getCurrentRole();
+	
+	boolean isGameOver();
+	
+	/**
+	 * Fetches the outcome of the game from the
+	 * perspective of the given role.
+	 * 
+	 * @param role - The role
+	 * @return 1: Win for the role - 0: Draw or not determined - -1: Win for another role
+	 */
+	int getOutcome(GameRole role);
+	
+	/**
+	 * Chooses the next move of the playout. Uniformly
+	 * random by default, but implementations may bias
+	 * this choice with cheap domain knowledge.
+	 * 
+	 * @param moves - The buffer containing the legal moves
+	 * @param count - The number of legal moves
+	 * @param random - The random number generator of the current thread
+	 * @return The chosen move code
+	 */
+	default int choose(int[] moves, int count, Random random) {
+		return moves[random.nextInt(count)];
+	}
+}
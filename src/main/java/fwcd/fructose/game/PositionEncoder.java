@@ -0,0 +1,28 @@
+package fwcd.fructose.game;
+
+/**
+ * Maps the positions of a game to a dense range of
+ * indices, which allows storing per-position data
+ * (e.g. in a tablebase) in flat arrays or files.
+ * 
+ * <p>Unlike a {@link PositionHasher}, an encoder has to be
+ * collision-free: Two states describing different positions
+ * (including the current role) have to be encoded differently.</p>
+ * 
+ * @param <M> - The move type
+ * @param <R> - The role type
+ */
+public interface PositionEncoder<M extends GameMove, R extends GameRole> {
+	/**
+	 * @return An exclusive upper bound of the position indices
+	 */
+	long getPositionCount();
+	
+	/**
+	 * Encodes a position.
+	 * 
+	 * @param state - The game state
+	 * @return The index of the position in the range {@code [0, getPositionCount())}
+	 */
+	long encode(GameState<? extends M, ? extends R> state);
+}
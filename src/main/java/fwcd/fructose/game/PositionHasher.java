@@ -0,0 +1,29 @@
+package fwcd.fructose.game;
+
+/**
+ * Computes a hash of the position represented
+ * by a game state. Two states describing the same
+ * position (including the current role) should yield
+ * the same hash, different positions should collide
+ * as rarely as possible (e.g. by using Zobrist hashing).
+ * 
+ * <p>Position hashes are used to identify transpositions
+ * in game tree searches.</p>
+ */
+@FunctionalInterface
+public interface PositionHasher<M extends GameMove, R extends GameRole> {
+	long hash(GameState<? extends M, ? extends R> state);
+	
+	/**
+	 * Hashes the position together with a role. This is
+	 * useful for caching ratings, which are relative to
+	 * the rating role.
+	 * 
+	 * @param state - The position
+	 * @param role - The role the rating is relative to
+	 * @return The combined hash
+	 */
+	default long hash(GameState<? extends M, ? extends R> state, R role) {
+		return hash(state) ^ (role.hashCode() * 0x9E3779B97F4A7C15L);
+	}
+}
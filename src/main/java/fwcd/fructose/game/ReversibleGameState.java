@@ -0,0 +1,32 @@
+package fwcd.fructose.game;
+
+/**
+ * A game state whose moves can be taken back. This allows
+ * search algorithms to walk the game tree in place instead of
+ * copying the state for every node (see {@link GameTreeWalker}).
+ * 
+ * <p>Implementing this interface is optional, but
+ * highly recommended for games with expensive copies.</p>
+ * 
+ * @param <M> - The move type
+ * @param <R> - The role type
+ * @param <U> - The undo token type, which holds everything needed to revert a move
+ */
+public interface ReversibleGameState<M extends GameMove, R extends GameRole, U> extends GameState<M, R> {
+	/**
+	 * Executes the given move and returns a token
+	 * that can be used to revert it.
+	 * 
+	 * @param move - The game move to be performed
+	 * @return The undo token
+	 */
+	U performReversibly(M move);
+	
+	/**
+	 * Reverts the most recently performed move. Moves have
+	 * to be reverted in the opposite order they were performed in.
+	 * 
+	 * @param token - The token returned by the corresponding {@link #performReversibly}
+	 */
+	void undo(U token);
+}
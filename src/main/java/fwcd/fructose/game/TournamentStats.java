@@ -0,0 +1,152 @@
+package fwcd.fructose.game;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe statistics about a series of played games,
+ * including win/draw/loss counts per role, Elo estimates,
+ * the throughput and the average move latency.
+ * 
+ * @param <R> - The game role type
+ */
+public class TournamentStats<R extends GameRole> {
+	private static final double MIN_SCORE = 1e-3; // Keeps the Elo estimate finite
+	
+	private final Set<R> roles = ConcurrentHashMap.newKeySet();
+	private final Map<R, LongAdder> wins = new ConcurrentHashMap<>();
+	private final Map<R, LongAdder> losses = new ConcurrentHashMap<>();
+	private final LongAdder games = new LongAdder();
+	private final LongAdder draws = new LongAdder();
+	private final LongAdder moves = new LongAdder();
+	private final LongAdder moveNanos = new LongAdder();
+	private final long startNanos = System.nanoTime();
+	private volatile long endNanos = -1;
+	
+	/**
+	 * Records the outcome of a finished game.
+	 * 
+	 * @param roles - The roles that took part in the game
+	 * @param winners - The winners of the game (empty if the game ended in a draw)
+	 */
+	public void recordGame(Set<? extends R> roles, Set<? extends R> winners) {
+		this.roles.addAll(roles);
+		games.increment();
+		
+		if (winners.isEmpty()) {
+			draws.increment();
+		} else {
+			for (R role : roles) {
+				Map<R, LongAdder> counts = winners.contains(role) ? wins : losses;
+				counts.computeIfAbsent(role, k -> new LongAdder()).increment();
+			}
+		}
+	}
+	
+	/**
+	 * Records the time a player took to choose a move.
+	 * 
+	 * @param nanos - The latency in nanoseconds
+	 */
+	public void recordMove(long nanos) {
+		moves.increment();
+		moveNanos.add(nanos);
+	}
+	
+	/**
+	 * Stops the clock used to compute the throughput.
+	 */
+	public void finish() {
+		endNanos = System.nanoTime();
+	}
+	
+	public long getGames() {
+		return games.sum();
+	}
+	
+	public long getDraws() {
+		return draws.sum();
+	}
+	
+	public long getWins(R role) {
+		return count(wins, role);
+	}
+	
+	public long getLosses(R role) {
+		return count(losses, role);
+	}
+	
+	private long count(Map<R, LongAdder> counts, R role) {
+		LongAdder count = counts.get(role);
+		return (count == null) ? 0 : count.sum();
+	}
+	
+	/**
+	 * Computes the share of points a role has scored,
+	 * where a win counts as one and a draw as half a point.
+	 * 
+	 * @param role - The role
+	 * @return The score between 0 and 1
+	 */
+	public double getScore(R role) {
+		long total = getGames();
+		if (total == 0) {
+			return 0.5;
+		}
+		return (getWins(role) + 0.5 * getDraws()) / total;
+	}
+	
+	/**
+	 * Estimates the Elo rating difference of a role relative to its
+	 * opponents from its score using the logistic Elo model.
+	 * 
+	 * @param role - The role
+	 * @return The estimated rating difference
+	 */
+	public double getEloDifference(R role) {
+		double score = Math.max(MIN_SCORE, Math.min(1 - MIN_SCORE, getScore(role)));
+		return -400 * Math.log10((1 / score) - 1);
+	}
+	
+	/**
+	 * @return The number of played games per second
+	 */
+	public double getGamesPerSecond() {
+		long end = (endNanos < 0) ? System.nanoTime() : endNanos;
+		double seconds = (end - startNanos) / 1e9;
+		return (seconds > 0) ? (getGames() / seconds) : 0;
+	}
+	
+	/**
+	 * @return The average time in milliseconds the players took to choose a move
+	 */
+	public double getAverageMoveMillis() {
+		long count = moves.sum();
+		return (count == 0) ? 0 : (moveNanos.sum() / 1e6 / count);
+	}
+	
+	public Set<R> getRoles() {
+		return Collections.unmodifiableSet(roles);
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder str = new StringBuilder()
+				.append(getGames()).append(" games, ")
+				.append(getDraws()).append(" draws");
+		
+		for (R role : getRoles()) {
+			str.append(", ").append(role).append(": ")
+					.append(getWins(role)).append("W/")
+					.append(getLosses(role)).append("L (Elo ")
+					.append(String.format("%+.0f", getEloDifference(role))).append(")");
+		}
+		
+		return str
+				.append(String.format(", %.2f games/s, %.3f ms/move", getGamesPerSecond(), getAverageMoveMillis()))
+				.toString();
+	}
+}
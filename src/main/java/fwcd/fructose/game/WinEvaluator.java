@@ -28,4 +28,9 @@ public class WinEvaluator<M extends GameMove, R extends GameRole> implements Mov
 			return 0;
 		}
 	}
+	
+	@Override
+	public boolean usesStateBeforeMove() {
+		return false;
+	}
 }
@@ -1,11 +1,20 @@
 package fwcd.fructose.game.ai;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import fwcd.fructose.game.GameMove;
 import fwcd.fructose.game.GameRole;
 import fwcd.fructose.game.GameState;
+import fwcd.fructose.game.GameTreeWalker;
 import fwcd.fructose.game.MoveEvaluator;
 import fwcd.fructose.game.MovePruner;
 import fwcd.fructose.game.NeverPruner;
+import fwcd.fructose.game.PositionHasher;
+import fwcd.fructose.game.ReversibleGameState;
 import fwcd.fructose.game.WinEvaluator;
 import fwcd.fructose.time.Timer;
 
@@ -13,13 +22,42 @@ import fwcd.fructose.time.Timer;
  * The alpha-beta tree search, which serves as an
  * optimization of the minimax algorithm.
  * 
+ * <p>Moves are searched in the order suggested by
+ * {@link MoveOrdering} and every move after the first
+ * one is probed using a null window (principal variation search).</p>
+ * 
+ * <p>Optionally the search can be driven by iterative
+ * deepening (see {@link #setIterativeDeepening(boolean)}), in which
+ * case the tree is searched with increasing depth until either the
+ * level or the soft time limit is reached. Only completely
+ * searched iterations are used to pick the move.</p>
+ * 
+ * <p>Iterative deepening can additionally be parallelized using
+ * Lazy SMP (see {@link #setHelperThreads(int)}): Helper threads
+ * search the same root at staggered depths and share their results
+ * through a {@link TranspositionTable}.</p>
+ * 
+ * <p>If the game state is a {@link ReversibleGameState} and neither
+ * the evaluator nor the pruner read the state before a move, the
+ * tree is walked in place instead of copying the state for every node.</p>
+ * 
  * @author Fredrik
  *
  */
 public class AlphaBeta<M extends GameMove, R extends GameRole> extends EvaluatingGameAI<M, R> {
+	/** The largest ply of a final move whose rating is recognized as a win or a loss. */
+	private static final int MAX_WIN_PLY = 1 << 24;
+	private static final double MIN_WIN_RATING = Double.MAX_VALUE / MAX_WIN_PLY;
+	
 	private final MoveEvaluator<M, R> evaluator;
 	private final MovePruner<M, R> pruner;
 	private int depth = 0;
+	private boolean iterativeDeepening = false;
+	private double aspirationWindow = Double.POSITIVE_INFINITY;
+	private int helperThreads = 0;
+	private PositionHasher<M, R> hasher = null;
+	private TranspositionTable<M> table = null;
+	private Tablebase<M, R> tablebase = null;
 	
 	/**
 	 * Creates a new Minimax that attempts to
@@ -43,64 +81,457 @@ public class AlphaBeta<M extends GameMove, R extends GameRole> extends Evaluatin
 		this.pruner = pruner;
 	}
 
+	/**
+	 * Enables or disables the iterative deepening driver,
+	 * which searches with increasing depths (up to the level)
+	 * under the soft time limit.
+	 * 
+	 * @param enabled - Whether iterative deepening should be used
+	 */
+	public void setIterativeDeepening(boolean enabled) {
+		iterativeDeepening = enabled;
+	}
+	
+	/**
+	 * Sets the half-width of the aspiration window that is
+	 * placed around the previous iteration's rating when
+	 * iteratively deepening. If the rating falls outside
+	 * of the window, the iteration is repeated using a full window.
+	 * 
+	 * <p>The default is infinity (no aspiration windows),
+	 * since a sensible width depends on the scale of the evaluator.</p>
+	 * 
+	 * @param halfWidth - The window size in rating units
+	 */
+	public void setAspirationWindow(double halfWidth) {
+		aspirationWindow = halfWidth;
+	}
+	
+	/**
+	 * Sets the transposition table used to store and look up
+	 * previously searched positions. The table is cleared
+	 * at the beginning of every move selection.
+	 * 
+	 * @param hasher - The position hasher used to compute the table keys
+	 * @param table - The transposition table
+	 */
+	public void setTranspositionTable(PositionHasher<M, R> hasher, TranspositionTable<M> table) {
+		this.hasher = hasher;
+		this.table = table;
+	}
+	
+	/**
+	 * Sets a tablebase that is probed for perfect play. If the
+	 * current position is covered, the tablebase move is played
+	 * immediately, otherwise covered positions inside the search
+	 * are not searched any further. Their ratings follow the
+	 * convention of {@link WinEvaluator}, thus the evaluator
+	 * should use a compatible scale.
+	 * 
+	 * @param tablebase - The tablebase
+	 */
+	public void setTablebase(Tablebase<M, R> tablebase) {
+		this.tablebase = tablebase;
+	}
+	
+	/**
+	 * Sets the number of helper threads used by the Lazy SMP
+	 * search. Helpers are only used when iteratively deepening
+	 * and run on the pool of this AI. Since the threads
+	 * only cooperate through the transposition table,
+	 * one should be set too.
+	 * 
+	 * @param count - The number of helper threads (0 disables Lazy SMP)
+	 */
+	public void setHelperThreads(int count) {
+		if (count < 0) {
+			throw new IllegalArgumentException("Helper thread count can not be negative: " + count);
+		}
+		helperThreads = count;
+	}
+	
+	@Override
+	protected M selectMove(GameState<M, R> game, long softMaxTime) {
+		if (tablebase != null) {
+			M move = tablebase.bestMove(game);
+			if (move != null) {
+				return move;
+			}
+		}
+		
+		if (!iterativeDeepening) {
+			return super.selectMove(game, softMaxTime);
+		}
+		
+		Timer timer = new Timer();
+		timer.start(softMaxTime);
+		
+		return iterativelyDeepen(game, timer);
+	}
+	
 	@Override
 	protected double rateMove(GameState<M, R> gameBeforeMove, M move, Timer timer) {
-		if (!gameBeforeMove.getCurrentRole().hasOpponent()) {
+		requireTwoPlayers(gameBeforeMove);
+		
+		SearchContext context = newContext(gameBeforeMove, timer, new AtomicBoolean());
+		return search(context.root, move, 0, depth, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, context);
+	}
+	
+	private SearchContext newContext(GameState<M, R> game, Timer timer, AtomicBoolean stopped) {
+		boolean inPlace = game instanceof ReversibleGameState
+				&& !evaluator.usesStateBeforeMove()
+				&& !pruner.usesStateBeforeMove();
+		
+		if (inPlace) {
+			// Every context walks its own copy, since the caller's state may be shared
+			GameState<M, R> root = game.copy();
+			return new SearchContext(root, GameTreeWalker.of(root), timer, stopped);
+		} else {
+			return new SearchContext(game, GameTreeWalker.copying(), timer, stopped);
+		}
+	}
+	
+	private void requireTwoPlayers(GameState<M, R> game) {
+		if (!game.getCurrentRole().hasOpponent()) {
 			throw new IllegalStateException("Alpha beta can only operate on two-player games!");
 		}
+	}
+	
+	private M iterativelyDeepen(GameState<M, R> game, Timer timer) {
+		requireTwoPlayers(game);
+		
+		List<M> rootMoves = new ArrayList<>(game.getLegalMoves());
+		if (rootMoves.isEmpty()) {
+			throw new NoSuchElementException("Game state does not contain any moves.");
+		}
+		
+		if (table != null) {
+			table.clear();
+		}
+		
+		AtomicBoolean stopped = new AtomicBoolean(false);
+		List<ForkJoinTask<SearchContext>> helpers = new ArrayList<>();
+		
+		for (int i = 0; i < helperThreads; i++) {
+			int startDepth = 1 + (i % 2 == 0 ? 1 : 0);
+			helpers.add(getPool().submit(bindToSearch(() -> deepen(rootMoves, startDepth, newContext(game, timer, stopped), false))));
+		}
+		
+		SearchContext best = deepen(rootMoves, 1, newContext(game, timer, stopped), true);
+		stopped.set(true);
+		
+		for (ForkJoinTask<SearchContext> helper : helpers) {
+			SearchContext result = helper.join();
+			if (result.completedDepth > best.completedDepth) {
+				best = result;
+			}
+		}
 		
-		return alphaBeta(gameBeforeMove.getCurrentRole(), gameBeforeMove, move, depth, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, timer);
+		return (best.bestMove == null) ? rootMoves.get(0) : best.bestMove;
 	}
 	
-	private double alphaBeta(
-			R role,
+	/**
+	 * Iteratively deepens the search of a single thread.
+	 * 
+	 * @param publish - Whether the best move of each iteration should be published
+	 * @return The context holding the best move of the deepest completed iteration
+	 */
+	private SearchContext deepen(List<M> rootMoves, int startDepth, SearchContext context, boolean publish) {
+		double previousRating = Double.NaN;
+		
+		for (int iterationDepth = startDepth; iterationDepth > 0 && iterationDepth <= depth; iterationDepth++) {
+			context.depthLimited = false;
+			
+			double alpha = Double.NEGATIVE_INFINITY;
+			double beta = Double.POSITIVE_INFINITY;
+			boolean aspirated = Double.isFinite(previousRating) && Double.isFinite(aspirationWindow);
+			
+			if (aspirated) {
+				alpha = previousRating - aspirationWindow;
+				beta = previousRating + aspirationWindow;
+			}
+			
+			double rating = searchRoot(context.root, rootMoves, iterationDepth, alpha, beta, context);
+			
+			if (aspirated && context.isRunning() && (rating <= alpha || rating >= beta)) {
+				// Aspiration failed, repeat using a full window
+				rating = searchRoot(context.root, rootMoves, iterationDepth, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, context);
+			}
+			
+			if (!context.isRunning()) {
+				break; // Discard the incomplete iteration
+			}
+			
+			List<M> principalVariation = context.rootLine;
+			context.bestMove = principalVariation.get(0);
+			context.completedDepth = iterationDepth;
+			
+			if (publish) {
+				publishBestMove(context.bestMove);
+			}
+			previousRating = rating;
+			context.ordering.setPrincipalVariation(principalVariation);
+			
+			if (!context.depthLimited) {
+				context.stop(); // The whole game tree has been searched
+				context.completedDepth = Integer.MAX_VALUE;
+				break;
+			}
+		}
+		
+		return context;
+	}
+	
+	private double searchRoot(
+			GameState<M, R> game,
+			List<M> rootMoves,
+			int iterationDepth,
+			double alpha,
+			double beta,
+			SearchContext context
+	) {
+		double bestRating = alpha;
+		M bestMove = null;
+		boolean first = true;
+		
+		for (M move : context.ordering.order(rootMoves, 0)) {
+			if (!context.isRunning()) {
+				break;
+			}
+			
+			double rating = searchWindow(game, move, 0, iterationDepth, bestRating, beta, first, true, context);
+			
+			if (rating > bestRating || bestMove == null) {
+				bestRating = Math.max(rating, bestRating);
+				bestMove = move;
+				context.rootLine = context.prependTo(move, 0);
+				
+				if (bestRating >= beta) {
+					break;
+				}
+			}
+			
+			first = false;
+		}
+		
+		return bestRating;
+	}
+	
+	/**
+	 * Searches a move either using the full window or
+	 * a null window (followed by a re-search if the null
+	 * window search indicates that the move is better).
+	 */
+	private double searchWindow(
+			GameState<M, R> gameBeforeMove,
+			M move,
+			int ply,
+			int decrementalDepth,
+			double alpha,
+			double beta,
+			boolean fullWindow,
+			boolean maximizing,
+			SearchContext context
+	) {
+		if (fullWindow) {
+			return search(gameBeforeMove, move, ply, decrementalDepth, alpha, beta, context);
+		} else if (maximizing) {
+			double rating = search(gameBeforeMove, move, ply, decrementalDepth, alpha, Math.nextUp(alpha), context);
+			if (rating > alpha && rating < beta) {
+				rating = search(gameBeforeMove, move, ply, decrementalDepth, alpha, beta, context);
+			}
+			return rating;
+		} else {
+			double rating = search(gameBeforeMove, move, ply, decrementalDepth, Math.nextDown(beta), beta, context);
+			if (rating < beta && rating > alpha) {
+				rating = search(gameBeforeMove, move, ply, decrementalDepth, alpha, beta, context);
+			}
+			return rating;
+		}
+	}
+	
+	private double search(
 			GameState<M, R> gameBeforeMove,
 			M move,
+			int ply,
 			int decrementalDepth,
 			double alpha,
 			double beta,
-			Timer timer
+			SearchContext context
 	) {
-		GameState<M, R> gameAfterMove = gameBeforeMove.spawnChild(move);
+		GameState<M, R> gameAfterMove = context.walker.enter(gameBeforeMove, move);
 		
-		if (!timer.isRunning()
+		try {
+			return search(gameBeforeMove, gameAfterMove, move, ply, decrementalDepth, alpha, beta, context);
+		} finally {
+			context.walker.leave(gameAfterMove);
+		}
+	}
+	
+	private double search(
+			GameState<M, R> gameBeforeMove,
+			GameState<M, R> gameAfterMove,
+			M move,
+			int ply,
+			int decrementalDepth,
+			double alpha,
+			double beta,
+			SearchContext context
+	) {
+		R role = context.role;
+		context.lineAt(ply).clear();
+		
+		if (tablebase != null) {
+			Tablebase.Result result = tablebase.probe(gameAfterMove);
+			if (result != null) {
+				return rate(result, gameAfterMove.getCurrentRole().equals(role), ply);
+			}
+		}
+		
+		if (!context.isRunning()
 				|| decrementalDepth == 0
-				|| pruner.pruneMove(role, gameBeforeMove, gameAfterMove, move, depth - decrementalDepth)
+				|| pruner.pruneMove(role, gameBeforeMove, gameAfterMove, move, ply)
 				|| gameAfterMove.isGameOver()) {
-			return evaluator.rate(role, gameBeforeMove, gameAfterMove, move, depth - decrementalDepth);
+			if (!gameAfterMove.isGameOver()) {
+				context.depthLimited = true;
+			}
+			return evaluator.rate(role, gameBeforeMove, gameAfterMove, move, ply);
 		} else {
+			long key = 0;
+			M hashMove = null;
+			
+			if (table != null) {
+				key = hasher.hash(gameAfterMove, role);
+				TranspositionTable.Entry<M> entry = table.probe(key);
+				
+				if (entry != null) {
+					hashMove = entry.getBestMove();
+					
+					double stored = fromTableRating(entry.getRating(), ply);
+					TranspositionTable.Bound bound = entry.getBound();
+					
+					if (entry.getDepth() >= decrementalDepth && (
+							bound == TranspositionTable.Bound.EXACT
+							|| (bound == TranspositionTable.Bound.LOWER && stored >= beta)
+							|| (bound == TranspositionTable.Bound.UPPER && stored <= alpha))) {
+						if (entry.getDepth() != Integer.MAX_VALUE) {
+							context.depthLimited = true;
+						}
+						return stored;
+					}
+				}
+			}
+			
 			boolean maximizing = gameAfterMove.getCurrentRole().equals(role);
 			double bestRating = maximizing ? alpha : beta;
+			M bestChildMove = null;
+			boolean first = true;
+			boolean outerDepthLimited = context.depthLimited;
+			context.depthLimited = false;
 			
-			for (M childMove : gameAfterMove.getLegalMoves()) {
-				if (!timer.isRunning()) {
+			for (M childMove : context.ordering.order(gameAfterMove.getLegalMoves(), ply + 1, hashMove)) {
+				if (!context.isRunning()) {
 					break;
 				}
 				
 				double rating;
 				
 				if (maximizing) {
-					rating = alphaBeta(role, gameAfterMove, childMove, decrementalDepth - 1, bestRating, beta, timer);
+					rating = searchWindow(gameAfterMove, childMove, ply + 1, decrementalDepth - 1, bestRating, beta, first, true, context);
 					if (rating > bestRating) {
 						bestRating = rating;
+						bestChildMove = childMove;
+						context.setLine(ply, context.prependTo(childMove, ply + 1));
 						if (bestRating >= beta) {
+							context.ordering.recordCutoff(childMove, ply + 1, decrementalDepth);
 							break; // Beta-cutoff
 						}
 					}
 				} else {
-					rating = alphaBeta(role, gameAfterMove, childMove, decrementalDepth - 1, alpha, bestRating, timer);
+					rating = searchWindow(gameAfterMove, childMove, ply + 1, decrementalDepth - 1, alpha, bestRating, first, false, context);
 					if (rating < bestRating) {
 						bestRating = rating;
+						bestChildMove = childMove;
+						context.setLine(ply, context.prependTo(childMove, ply + 1));
 						if (bestRating <= alpha) {
+							context.ordering.recordCutoff(childMove, ply + 1, decrementalDepth);
 							break; // Alpha-cutoff
 						}
 					}
 				}
+				
+				first = false;
+			}
+			
+			boolean subtreeDepthLimited = context.depthLimited;
+			context.depthLimited |= outerDepthLimited;
+			
+			if (table != null && context.isRunning()) {
+				TranspositionTable.Bound bound;
+				if (bestRating <= alpha) {
+					bound = TranspositionTable.Bound.UPPER;
+				} else if (bestRating >= beta) {
+					bound = TranspositionTable.Bound.LOWER;
+				} else {
+					bound = TranspositionTable.Bound.EXACT;
+				}
+				// Fully searched subtrees are valid for any depth
+				int storedDepth = subtreeDepthLimited ? decrementalDepth : Integer.MAX_VALUE;
+				table.store(key, storedDepth, toTableRating(bestRating, ply), bound, bestChildMove);
 			}
 			
 			return bestRating;
 		}
 	}
+	
+	/**
+	 * Win and loss ratings (see {@link WinEvaluator}) depend on the ply
+	 * of the final move, which is counted from the root. Before storing
+	 * such a rating in the transposition table, it is made relative to
+	 * the current node, thus it remains valid if the position is
+	 * reached at another ply.
+	 */
+	private static double toTableRating(double rating, int ply) {
+		if (!isWinRating(rating)) {
+			return rating;
+		}
+		
+		long plyOfFinalMove = Math.round(Double.MAX_VALUE / Math.abs(rating));
+		long distance = Math.max(plyOfFinalMove - ply, 1);
+		return Math.copySign(Double.MAX_VALUE / distance, rating);
+	}
+	
+	/**
+	 * Converts a rating from the transposition table back
+	 * into a rating relative to the root (see {@link #toTableRating}).
+	 */
+	private static double fromTableRating(double rating, int ply) {
+		if (!isWinRating(rating)) {
+			return rating;
+		}
+		
+		long distance = Math.round(Double.MAX_VALUE / Math.abs(rating));
+		return Math.copySign(Double.MAX_VALUE / (distance + ply), rating);
+	}
+	
+	private static boolean isWinRating(double rating) {
+		return !Double.isInfinite(rating) && Math.abs(rating) >= MIN_WIN_RATING;
+	}
+	
+	/**
+	 * Converts a tablebase result into a rating
+	 * that is compatible with the {@link WinEvaluator}.
+	 */
+	private double rate(Tablebase.Result result, boolean ourTurn, int ply) {
+		Tablebase.Outcome outcome = ourTurn ? result.getOutcome() : result.getOutcome().negate();
+		double depthOfFinalMove = ply + result.getDistance();
+		
+		switch (outcome) {
+			case WIN: return Double.MAX_VALUE / depthOfFinalMove;
+			case LOSS: return -(Double.MAX_VALUE / depthOfFinalMove);
+			default: return 0;
+		}
+	}
 
 	@Override
 	public void setLevel(int depth) {
@@ -111,4 +542,71 @@ public class AlphaBeta<M extends GameMove, R extends GameRole> extends Evaluatin
 	public int getLevel() {
 		return depth;
 	}
+	
+	/**
+	 * The per-thread search state, which includes the heuristics
+	 * and the principal variation lines of the nodes on the
+	 * current path (indexed by ply).
+	 */
+	private class SearchContext {
+		private final GameState<M, R> root;
+		private final GameTreeWalker<M, R> walker;
+		private final R role;
+		private final Timer timer;
+		private final AtomicBoolean stopped;
+		private final MoveOrdering<M> ordering = new MoveOrdering<>();
+		private final List<List<M>> lines = new ArrayList<>();
+		private List<M> rootLine = new ArrayList<>();
+		private boolean depthLimited = false;
+		private M bestMove = null;
+		private int completedDepth = 0;
+		
+		/**
+		 * Creates a new search context.
+		 * 
+		 * @param root - The state to search from
+		 * @param walker - The walker used to move through the tree
+		 * @param timer - The soft time limit
+		 * @param stopped - A flag shared among all threads searching the same root
+		 */
+		public SearchContext(GameState<M, R> root, GameTreeWalker<M, R> walker, Timer timer, AtomicBoolean stopped) {
+			this.root = root;
+			this.walker = walker;
+			role = root.getCurrentRole();
+			this.timer = timer;
+			this.stopped = stopped;
+		}
+		
+		public boolean isRunning() {
+			return timer.isRunning() && !stopped.get() && !isCancelled();
+		}
+		
+		public void stop() {
+			stopped.set(true);
+		}
+		
+		/**
+		 * Fetches the principal variation following
+		 * the move at the given ply.
+		 */
+		public List<M> lineAt(int ply) {
+			while (lines.size() <= ply) {
+				lines.add(new ArrayList<>());
+			}
+			return lines.get(ply);
+		}
+		
+		public void setLine(int ply, List<M> line) {
+			lineAt(ply);
+			lines.set(ply, line);
+		}
+		
+		public List<M> prependTo(M move, int ply) {
+			List<M> tail = lineAt(ply);
+			List<M> line = new ArrayList<>(tail.size() + 1);
+			line.add(move);
+			line.addAll(tail);
+			return line;
+		}
+	}
 }
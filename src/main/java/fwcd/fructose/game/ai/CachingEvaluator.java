@@ -0,0 +1,61 @@
+package fwcd.fructose.game.ai;
+
+import fwcd.fructose.game.GameMove;
+import fwcd.fructose.game.GameRole;
+import fwcd.fructose.game.GameState;
+import fwcd.fructose.game.MoveEvaluator;
+import fwcd.fructose.game.PositionHasher;
+
+/**
+ * A move evaluator that caches the ratings of another
+ * evaluator by position, thus positions that are reached
+ * through different move orders (or again during the next
+ * search) are only rated once.
+ * 
+ * <p>This is only valid if the wrapped evaluator rates a move
+ * solely based on the role and the state after the move (and
+ * neither on the move itself nor on the depth).</p>
+ */
+public class CachingEvaluator<M extends GameMove, R extends GameRole> implements MoveEvaluator<M, R> {
+	private final MoveEvaluator<M, R> delegate;
+	private final PositionHasher<M, R> hasher;
+	private final EvaluationCache cache;
+	
+	public CachingEvaluator(MoveEvaluator<M, R> delegate, PositionHasher<M, R> hasher, int capacity) {
+		this(delegate, hasher, new EvaluationCache(capacity));
+	}
+	
+	/**
+	 * Creates a caching evaluator using the given (possibly shared) cache.
+	 * 
+	 * @param delegate - The evaluator whose ratings are cached
+	 * @param hasher - Computes the position keys
+	 * @param cache - The cache
+	 */
+	public CachingEvaluator(MoveEvaluator<M, R> delegate, PositionHasher<M, R> hasher, EvaluationCache cache) {
+		this.delegate = delegate;
+		this.hasher = hasher;
+		this.cache = cache;
+	}
+	
+	@Override
+	public double rate(
+			R role,
+			GameState<? extends M, ? extends R> gameBeforeMove,
+			GameState<? extends M, ? extends R> gameAfterMove,
+			M move,
+			double incrementalDepth
+	) {
+		long key = hasher.hash(gameAfterMove, role);
+		return cache.getOrCompute(key, () -> delegate.rate(role, gameBeforeMove, gameAfterMove, move, incrementalDepth));
+	}
+	
+	@Override
+	public boolean usesStateBeforeMove() {
+		return delegate.usesStateBeforeMove();
+	}
+	
+	public EvaluationCache getCache() {
+		return cache;
+	}
+}
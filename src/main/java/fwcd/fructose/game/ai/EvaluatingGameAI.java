@@ -1,6 +1,10 @@
 package fwcd.fructose.game.ai;
 
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import fwcd.fructose.game.GameMove;
 import fwcd.fructose.game.GameRole;
@@ -11,45 +15,87 @@ import fwcd.fructose.time.Timer;
  * An evaluation-based game AI that can parallelize the
  * first layer in the game tree.
  * 
+ * <p>When parallelized, every root move is rated exactly
+ * once on a work-stealing pool, after which the best
+ * rated move is selected.</p>
+ * 
  * @author Fredrik
  *
  */
 public abstract class EvaluatingGameAI<M extends GameMove, R extends GameRole> extends TemplateGameAI<M, R> {
 	private boolean shouldParallelize = true;
+	private ForkJoinPool pool = ForkJoinPool.commonPool();
 	
 	protected void setParallelization(boolean enabled) {
 		shouldParallelize = enabled;
 	}
 	
+	/**
+	 * Sets the work-stealing pool used to parallelize
+	 * the search. Defaults to the common pool.
+	 * 
+	 * @param pool - The pool to be used
+	 */
+	public void setPool(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+	
+	protected ForkJoinPool getPool() {
+		return pool;
+	}
+	
 	@Override
 	protected M selectMove(GameState<M, R> game, long softMaxTime) {
 		final Timer timer = new Timer();
 		timer.start(softMaxTime);
 		
+		List<? extends M> moves = game.getLegalMoves();
+		RatedMove best = new RatedMove();
+		
 		if (shouldParallelize) {
-			return game.getLegalMoves()
-					.parallelStream()
-					.max((a, b) -> Double.compare(rateMove(game, a, timer), rateMove(game, b, timer)))
-					.orElseThrow(NoSuchElementException::new);
+			// The ratings run on the pool's threads, thus they are bound to this search
+			List<Runnable> tasks = IntStream.range(0, moves.size())
+					.mapToObj(i -> bindToSearch(() -> best.offer(i, moves.get(i), rateMove(game, moves.get(i), timer))))
+					.collect(Collectors.toList());
+			pool.submit(() -> tasks.parallelStream().forEach(Runnable::run)).join();
 		} else {
-			M bestMove = null;
-			double bestRating = Double.NEGATIVE_INFINITY;
-			
-			for (M move : game.getLegalMoves()) {
-				double rating = rateMove(game, move, timer);
-				
-				if (rating > bestRating) {
-					bestRating = rating;
-					bestMove = move;
-				}
+			for (int i = 0; i < moves.size(); i++) {
+				best.offer(i, moves.get(i), rateMove(game, moves.get(i), timer));
 			}
-			
-			if (bestMove != null) {
-				return bestMove;
-			} else {
-				throw new NoSuchElementException("Game state does not contain any moves.");
+		}
+		
+		M bestMove = best.getMove();
+		
+		if (bestMove != null) {
+			return bestMove;
+		} else {
+			throw new NoSuchElementException("Game state does not contain any moves.");
+		}
+	}
+	
+	/**
+	 * Tracks the best move rated so far and
+	 * publishes it for the case of a timeout. Ties
+	 * are broken by the index of the move, thus the
+	 * result does not depend on the order of the ratings.
+	 */
+	private class RatedMove {
+		private M move = null;
+		private int index = -1;
+		private double rating = Double.NEGATIVE_INFINITY;
+		
+		public synchronized void offer(int candidateIndex, M candidate, double candidateRating) {
+			if (move == null || candidateRating > rating || (candidateRating == rating && candidateIndex < index)) {
+				move = candidate;
+				index = candidateIndex;
+				rating = candidateRating;
+				publishBestMove(candidate);
 			}
 		}
+		
+		public synchronized M getMove() {
+			return move;
+		}
 	}
 	
 	protected abstract double rateMove(GameState<M, R> gameBeforeMove, M move, Timer timer);
@@ -0,0 +1,230 @@
+package fwcd.fructose.game.ai;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+import fwcd.fructose.OptionDouble;
+
+/**
+ * A bounded, thread-safe cache of position evaluations
+ * indexed by position keys (see {@link fwcd.fructose.game.PositionHasher}).
+ * 
+ * <p>The cache is organized in small sets of slots. Every key
+ * maps to exactly one set and, once the set is full, a victim is
+ * chosen using the clock (second chance) algorithm: the hand of
+ * the set skips (and resets) recently accessed entries. Sets are
+ * guarded by striped locks, thus concurrent lookups rarely contend.</p>
+ */
+public class EvaluationCache {
+	private static final int WAYS = 4; // Slots per set
+	private static final int MAX_LOCKS = 64;
+	
+	private final long[] keys;
+	private final double[] values;
+	private final boolean[] occupied;
+	private final boolean[] referenced;
+	private final int[] hands;
+	private final Object[] locks;
+	private final int setMask;
+	
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	
+	/**
+	 * Creates a new evaluation cache.
+	 * 
+	 * @param capacity - The minimum number of entries (rounded up to a power of two)
+	 */
+	public EvaluationCache(int capacity) {
+		if (capacity <= 0 || capacity > (1 << 30)) {
+			throw new IllegalArgumentException("Invalid evaluation cache capacity: " + capacity);
+		}
+		
+		int sets = Integer.highestOneBit(Math.max(1, (capacity + WAYS - 1) / WAYS));
+		if (sets * WAYS < capacity) {
+			sets <<= 1;
+		}
+		
+		keys = new long[sets * WAYS];
+		values = new double[sets * WAYS];
+		occupied = new boolean[sets * WAYS];
+		referenced = new boolean[sets * WAYS];
+		hands = new int[sets];
+		locks = new Object[Math.min(sets, MAX_LOCKS)];
+		setMask = sets - 1;
+		
+		for (int i = 0; i < locks.length; i++) {
+			locks[i] = new Object();
+		}
+	}
+	
+	private int setOf(long key) {
+		long h = key;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return (int) h & setMask;
+	}
+	
+	private Object lockOf(int set) {
+		return locks[set & (locks.length - 1)];
+	}
+	
+	/**
+	 * Looks up the evaluation of a position.
+	 * 
+	 * @param key - The position key
+	 * @return The cached evaluation, if present
+	 */
+	public OptionDouble get(long key) {
+		int set = setOf(key);
+		int start = set * WAYS;
+		
+		synchronized (lockOf(set)) {
+			for (int slot = start; slot < start + WAYS; slot++) {
+				if (occupied[slot] && keys[slot] == key) {
+					referenced[slot] = true;
+					hits.increment();
+					return OptionDouble.of(values[slot]);
+				}
+			}
+		}
+		
+		misses.increment();
+		return OptionDouble.empty();
+	}
+	
+	/**
+	 * Looks up the evaluation of a position and computes
+	 * (and stores) it if it is missing. The computation runs
+	 * outside of any lock, thus concurrent callers may
+	 * compute the same evaluation twice.
+	 * 
+	 * @param key - The position key
+	 * @param evaluation - Computes the evaluation
+	 * @return The (possibly cached) evaluation
+	 */
+	public double getOrCompute(long key, DoubleSupplier evaluation) {
+		int set = setOf(key);
+		int start = set * WAYS;
+		
+		synchronized (lockOf(set)) {
+			for (int slot = start; slot < start + WAYS; slot++) {
+				if (occupied[slot] && keys[slot] == key) {
+					referenced[slot] = true;
+					hits.increment();
+					return values[slot];
+				}
+			}
+		}
+		
+		misses.increment();
+		double value = evaluation.getAsDouble();
+		put(key, value);
+		return value;
+	}
+	
+	public void put(long key, double value) {
+		int set = setOf(key);
+		int start = set * WAYS;
+		
+		synchronized (lockOf(set)) {
+			int free = -1;
+			
+			for (int slot = start; slot < start + WAYS; slot++) {
+				if (occupied[slot]) {
+					if (keys[slot] == key) {
+						values[slot] = value;
+						referenced[slot] = true;
+						return;
+					}
+				} else if (free < 0) {
+					free = slot;
+				}
+			}
+			
+			if (free < 0) {
+				free = evict(set);
+			}
+			
+			keys[free] = key;
+			values[free] = value;
+			occupied[free] = true;
+			referenced[free] = false;
+		}
+	}
+	
+	/**
+	 * Advances the clock hand of a full set until it
+	 * finds an entry that has not been referenced since
+	 * the last pass. Has to be called while holding the lock.
+	 * 
+	 * @param set - The set
+	 * @return The slot of the victim
+	 */
+	private int evict(int set) {
+		int start = set * WAYS;
+		int hand = hands[set];
+		
+		while (referenced[start + hand]) {
+			referenced[start + hand] = false;
+			hand = (hand + 1) % WAYS;
+		}
+		
+		hands[set] = (hand + 1) % WAYS;
+		evictions.increment();
+		return start + hand;
+	}
+	
+	/**
+	 * Removes all entries. The statistics are kept.
+	 */
+	public void clear() {
+		for (int set = 0; set <= setMask; set++) {
+			synchronized (lockOf(set)) {
+				int start = set * WAYS;
+				for (int slot = start; slot < start + WAYS; slot++) {
+					occupied[slot] = false;
+					referenced[slot] = false;
+				}
+			}
+		}
+	}
+	
+	public void resetStatistics() {
+		hits.reset();
+		misses.reset();
+		evictions.reset();
+	}
+	
+	public int capacity() {
+		return keys.length;
+	}
+	
+	public long getHits() {
+		return hits.sum();
+	}
+	
+	public long getMisses() {
+		return misses.sum();
+	}
+	
+	public long getEvictions() {
+		return evictions.sum();
+	}
+	
+	/**
+	 * @return The share of lookups that were served from the cache
+	 */
+	public double getHitRate() {
+		long h = getHits();
+		long total = h + getMisses();
+		return (total == 0) ? 0 : ((double) h / total);
+	}
+	
+	@Override
+	public String toString() {
+		return String.format("EvaluationCache [capacity: %d, hit rate: %.3f, evictions: %d]", capacity(), getHitRate(), getEvictions());
+	}
+}
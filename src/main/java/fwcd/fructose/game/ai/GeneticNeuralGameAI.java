@@ -1,10 +1,18 @@
 package fwcd.fructose.game.ai;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
 import fwcd.fructose.annotation.WIP;
+import fwcd.fructose.concurrent.ClosingExecutor;
 import fwcd.fructose.exception.Rethrow;
 import fwcd.fructose.game.GameMove;
 import fwcd.fructose.game.GameRole;
 import fwcd.fructose.game.GameState;
+import fwcd.fructose.game.PositionHasher;
 import fwcd.fructose.genetic.core.ManualPopulation;
 import fwcd.fructose.genetic.operators.Decoder;
 import fwcd.fructose.genetic.operators.Encoder;
@@ -27,8 +35,12 @@ public class GeneticNeuralGameAI<M extends GameMove, R extends GameRole> extends
 	private final Decoder<float[], Float> neuralDecoder;
 	
 	private final ManualPopulation population = new ManualPopulation();
+	private final int[] networkLayerSizes;
 	private final SimplePerceptron neuralNet;
 	
+	private PositionHasher<M, R> hasher = null;
+	private EvaluationCache cache = null;
+	
 	private boolean debugOutput = false;
 	
 	// TODO: This class needs a lot more testing and experimentation
@@ -54,6 +66,7 @@ public class GeneticNeuralGameAI<M extends GameMove, R extends GameRole> extends
 	) {
 		this.neuralEncoder = neuralEncoder;
 		this.neuralDecoder = neuralDecoder;
+		this.networkLayerSizes = networkLayerSizes;
 		
 		neuralNet = new SimplePerceptron(networkLayerSizes);
 		population.setMutationChance(0.8F);
@@ -66,9 +79,25 @@ public class GeneticNeuralGameAI<M extends GameMove, R extends GameRole> extends
 		neuralNet.setWeights(population.selectBestGenes());
 	}
 
+	/**
+	 * Enables caching of the network's ratings by position.
+	 * Since the network changes between games, the cache is
+	 * cleared at the start of every game.
+	 * 
+	 * @param hasher - Computes the position keys
+	 * @param capacity - The number of cached positions
+	 */
+	public void setEvaluationCache(PositionHasher<M, R> hasher, int capacity) {
+		this.hasher = hasher;
+		cache = new EvaluationCache(capacity);
+	}
+	
 	@Override
 	public void onGameStart(GameState<M, R> initialState, R role) {
 		sampleNetwork();
+		if (cache != null) {
+			cache.clear();
+		}
 	}
 	
 	@Override
@@ -84,14 +113,137 @@ public class GeneticNeuralGameAI<M extends GameMove, R extends GameRole> extends
 
 	@Override
 	protected double rateMove(GameState<M, R> gameBeforeMove, M move, Timer timer) {
+		GameState<M, R> gameAfterMove = gameBeforeMove.spawnChild(move);
+		
+		if (cache == null) {
+			return evaluate(gameAfterMove);
+		} else {
+			return cache.getOrCompute(hasher.hash(gameAfterMove), () -> evaluate(gameAfterMove));
+		}
+	}
+	
+	private double evaluate(GameState<M, R> gameAfterMove) {
+		return evaluate(neuralNet, gameAfterMove);
+	}
+	
+	private double evaluate(SimplePerceptron net, GameState<M, R> gameAfterMove) {
 		try {
-			GameState<M, R> gameAfterMove = gameBeforeMove.spawnChild(move);
-			return neuralDecoder.decode(neuralNet.compute(neuralEncoder.encode(gameAfterMove)));
+			return neuralDecoder.decode(net.compute(neuralEncoder.encode(gameAfterMove)));
 		} catch (Exception e) {
 			throw new Rethrow("An error occurred while rating the move.", e);
 		}
 	}
 	
+	/**
+	 * Trains the population for the given number of
+	 * generations using self-play (see {@link #trainGeneration}).
+	 */
+	public void train(Supplier<? extends GameState<M, R>> gameCreator, int generations, int gamesPerIndividual, int threads) {
+		for (int i = 0; i < generations; i++) {
+			trainGeneration(gameCreator, gamesPerIndividual, threads);
+			if (debugOutput) {
+				System.out.println(population);
+			}
+		}
+	}
+	
+	/**
+	 * Trains the population for a single generation using
+	 * self-play. Every individual plays the given number of
+	 * games against other individuals (alternating between
+	 * moving first and second), which are distributed across
+	 * a pool of worker threads. Each worker uses its own
+	 * networks that greedily pick the best rated move.
+	 * Afterwards the population evolves once.
+	 * 
+	 * @param gameCreator - Creates the initial state of a two-player game
+	 * @param gamesPerIndividual - The number of games played by each individual
+	 * @param threads - The number of worker threads
+	 */
+	public void trainGeneration(Supplier<? extends GameState<M, R>> gameCreator, int gamesPerIndividual, int threads) {
+		if (gamesPerIndividual <= 0 || threads <= 0) {
+			throw new IllegalArgumentException("Needs at least one game per individual and one thread!");
+		}
+		
+		List<float[]> individuals = new ArrayList<>(population.getAllGenes());
+		int individualCount = individuals.size();
+		float[] fitnesses = new float[individualCount];
+		int workers = Math.min(threads, Math.max(individualCount, 1));
+		
+		try (ClosingExecutor executor = new ClosingExecutor(workers)) {
+			List<Future<?>> results = new ArrayList<>();
+			
+			for (int w = 0; w < workers; w++) {
+				int worker = w;
+				results.add(executor.submit(() -> {
+					SimplePerceptron ownNet = new SimplePerceptron(networkLayerSizes);
+					SimplePerceptron opponentNet = new SimplePerceptron(networkLayerSizes);
+					
+					for (int i = worker; i < individualCount; i += workers) {
+						ownNet.setWeights(individuals.get(i));
+						float totalFitness = 0;
+						
+						for (int game = 0; game < gamesPerIndividual; game++) {
+							// Play against the following individuals in a round-robin fashion
+							opponentNet.setWeights(individuals.get((i + 1 + game) % individualCount));
+							totalFitness += playSelfPlayGame(gameCreator.get(), ownNet, opponentNet, game % 2 == 0);
+						}
+						
+						fitnesses[i] = totalFitness / gamesPerIndividual;
+					}
+				}));
+			}
+			
+			for (Future<?> result : results) {
+				result.get();
+			}
+		} catch (ExecutionException e) {
+			throw new Rethrow("Self-play failed", e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new Rethrow("Interrupted during self-play", e);
+		}
+		
+		for (int i = 0; i < individualCount; i++) {
+			population.setFitness(individuals.get(i), fitnesses[i]);
+		}
+		
+		population.evolve();
+		sampleNetwork();
+	}
+	
+	/**
+	 * Plays a single game between two networks.
+	 * 
+	 * @return The fitness of the first network
+	 */
+	private float playSelfPlayGame(GameState<M, R> game, SimplePerceptron ownNet, SimplePerceptron opponentNet, boolean movesFirst) {
+		GameRole firstRole = game.getCurrentRole();
+		if (!firstRole.hasOpponent()) {
+			throw new IllegalStateException("Self-play requires a two-player game!");
+		}
+		GameRole ownRole = movesFirst ? firstRole : firstRole.getOpponent();
+		
+		while (!game.isGameOver()) {
+			SimplePerceptron net = game.getCurrentRole().equals(ownRole) ? ownNet : opponentNet;
+			M bestMove = null;
+			double bestRating = Double.NEGATIVE_INFINITY;
+			
+			for (M move : game.getLegalMoves()) {
+				double rating = evaluate(net, game.spawnChild(move));
+				if (bestMove == null || rating > bestRating) {
+					bestRating = rating;
+					bestMove = move;
+				}
+			}
+			
+			game.perform(bestMove);
+		}
+		
+		int moveCount = game.getMoveCount();
+		return game.getWinners().contains(ownRole) ? (100 - moveCount) : (-100 + moveCount);
+	}
+	
 	public void setDebugOutput(boolean enabled) {
 		debugOutput = enabled;
 	}
@@ -1,9 +1,14 @@
 package fwcd.fructose.game.ai;
 
+import java.util.function.Supplier;
+
 import fwcd.fructose.Option;
+import fwcd.fructose.RandomStreams;
+import fwcd.fructose.SplitRandom;
 import fwcd.fructose.game.GameMove;
 import fwcd.fructose.game.GameRole;
 import fwcd.fructose.game.GameState;
+import fwcd.fructose.game.PlayoutState;
 import fwcd.fructose.swing.TreePlotter;
 import fwcd.fructose.time.Timer;
 
@@ -11,33 +16,116 @@ import fwcd.fructose.time.Timer;
  * A monte-carlo-tree-search. It doesn't need
  * a domain-specific heuristic and thus is very generally applicable.
  * 
+ * <p>Since the playouts query the legal moves and the terminal
+ * status of every visited position, wrapping the game state in a
+ * {@link fwcd.fructose.game.CachedGameState} avoids generating them
+ * repeatedly.</p>
+ * 
  * @author Fredrik
  *
  */
 public class MCTS<M extends GameMove, R extends GameRole> extends TemplateGameAI<M, R> {
+	private static final int PUBLISH_INTERVAL = 64; // Iterations between publishing the best move
 	private Option<TreePlotter> plotter = Option.empty();
+	private Playouts<M, R> playouts = null;
+	private int playoutsPerLeaf = 1;
+	private double raveEquivalence = 0;
+	private SplitRandom seedRandom = null;
 
 	public void setPlotter(TreePlotter plotter) {
 		this.plotter = Option.of(plotter);
 	}
 	
+	/**
+	 * Enables fast, allocation-free playouts. Every search
+	 * thread creates its own scratch state using the factory
+	 * and reuses it across playouts and searches.
+	 * 
+	 * @param factory - Creates new scratch states
+	 */
+	public void setPlayoutState(Supplier<? extends PlayoutState<M, R>> factory) {
+		playouts = new Playouts<>(factory);
+	}
+	
+	/**
+	 * Sets the number of playouts simulated from every
+	 * newly expanded leaf. Batching several playouts amortizes
+	 * the cost of descending the tree.
+	 * 
+	 * @param playoutsPerLeaf - The number of playouts per iteration
+	 */
+	public void setPlayoutsPerLeaf(int playoutsPerLeaf) {
+		if (playoutsPerLeaf <= 0) {
+			throw new IllegalArgumentException("Needs at least one playout per leaf!");
+		}
+		this.playoutsPerLeaf = playoutsPerLeaf;
+	}
+	
+	/**
+	 * Enables RAVE using all-moves-as-first statistics collected
+	 * during fast playouts (see {@link #setPlayoutState}).
+	 * 
+	 * @param equivalence - The number of simulations at which actual and AMAF statistics are weighted equally (0 disables RAVE)
+	 */
+	public void setRaveEquivalence(double equivalence) {
+		raveEquivalence = equivalence;
+	}
+	
+	/**
+	 * Seeds the searches. Every search uses its own random
+	 * number generator, which is split from the seeded one,
+	 * thus a sequence of searches can be replayed as long
+	 * as they perform the same number of iterations.
+	 * 
+	 * @param seed - The seed
+	 */
+	public void setSeed(long seed) {
+		seedRandom = new SplitRandom(seed);
+	}
+	
 	/**
 	 * Selects a move using monte-carlo-tree search. Note that
 	 * this method will block "forever", if not an appropriate
-	 * time limit is provided.
+	 * time limit is provided. Once the hard time limit is reached,
+	 * the most explored move so far is used.
 	 */
 	@Override
 	protected M selectMove(
 			GameState<M, R> game,
 			long softMaxTime
 	) {
+		if (seedRandom == null) {
+			return search(game, softMaxTime);
+		} else {
+			SplitRandom random;
+			synchronized (seedRandom) {
+				random = seedRandom.split();
+			}
+			return RandomStreams.callWith(random, () -> search(game, softMaxTime));
+		}
+	}
+	
+	private M search(GameState<M, R> game, long softMaxTime) {
 		Timer timer = new Timer();
 		timer.start(softMaxTime);
 		
 		MCTSNode<M, R> node = new MCTSNode<>(game.getCurrentRole(), game);
+		node.setPlayoutsPerLeaf(playoutsPerLeaf);
+		
+		if (playouts != null) {
+			node.setPlayouts(playouts);
+			node.setRaveEquivalence(raveEquivalence);
+		}
+		
+		int iterations = 0;
 		
-		while (timer.isRunning()) {
+		while (timer.isRunning() && !isCancelled()) {
 			node.performIteration();
+			iterations++;
+			
+			if (iterations % PUBLISH_INTERVAL == 0) {
+				publishBestMove(node.mostExploredChild().getMove());
+			}
 		}
 		
 		plotter.ifPresent(plotter -> plotter.setTree(node));
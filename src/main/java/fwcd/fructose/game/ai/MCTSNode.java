@@ -3,40 +3,60 @@ package fwcd.fructose.game.ai;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Random;
 import java.util.Set;
 
+import fwcd.fructose.RandomStreams;
 import fwcd.fructose.game.GameMove;
 import fwcd.fructose.game.GameRole;
 import fwcd.fructose.game.GameState;
+import fwcd.fructose.game.GameTreeWalker;
 import fwcd.fructose.game.MoveChooser;
+import fwcd.fructose.game.PlayoutState;
 import fwcd.fructose.game.RandomMoveChooser;
+import fwcd.fructose.game.ReversibleGameState;
 import fwcd.fructose.structs.TreeNode;
 
 /**
  * A node in the game tree which is capable of performing
  * monte-carlo searches.
  * 
+ * <p>If the game state is a {@link ReversibleGameState}, the
+ * nodes do not store states of their own. Instead every iteration
+ * walks a single copy of the root state in place.</p>
+ * 
+ * <p>If {@link PlayoutState fast playouts} are available, simulations
+ * run on a per-thread scratch state instead of a copy of the game
+ * state. In this case, the nodes can additionally collect
+ * all-moves-as-first (AMAF) statistics, which are blended into the
+ * node values using the RAVE heuristic.</p>
+ * 
  * @author Fredrik
  *
  */
 public class MCTSNode<M extends GameMove, R extends GameRole> implements TreeNode, Comparable<MCTSNode<M, R>> {
-	private static final Random RANDOM = new Random();
 	private static final float EPSILON = 1e-8F; // Small value to prevent NaN's
 	
 	private final MCTSNode<M, R> parent;
 	private final GameRole ourPlayer;
 	private final M move;
-	private final GameState<M, R> stateAfterMove;
+	private final GameState<M, R> stateAfterMove; // Only present at the root if the tree is walked in place
+	private final GameTreeWalker<M, R> walker;
+	private final int moveCode; // Only present if fast playouts are used
 	private List<MCTSNode<M, R>> exploredChilds = null;
+	private R roleToMove = null; // Present once expanded
 	
 	private MoveChooser<M, R> moveChooser = new RandomMoveChooser<>();
+	private Playouts<M, R> playouts = null;
 	
 	private int explorationWeight = 2;
 	private int maxSimulationDepth = 36;
+	private int playoutsPerLeaf = 1;
+	private double raveEquivalence = 0;
 	
 	private int wins = 0;
 	private int simulations = 0;
+	private int amafWins = 0;
+	private int amafSimulations = 0;
 	
 	/**
 	 * Creates a new root MCTS-node.
@@ -47,7 +67,9 @@ public class MCTSNode<M extends GameMove, R extends GameRole> implements TreeNod
 	public MCTSNode(GameRole ourPlayer, GameState<M, R> state) {
 		parent = null;
 		move = null;
-		stateAfterMove = state;
+		moveCode = -1;
+		stateAfterMove = (state instanceof ReversibleGameState) ? state.copy() : state;
+		walker = GameTreeWalker.of(stateAfterMove);
 		this.ourPlayer = ourPlayer;
 	}
 	
@@ -55,17 +77,25 @@ public class MCTSNode<M extends GameMove, R extends GameRole> implements TreeNod
 	 * Creates a new non-root MCTS-node.
 	 * 
 	 * @param parent - The parent node
-	 * @param state - The game state
+	 * @param state - The game state or null if the tree is walked in place
 	 */
 	private MCTSNode(MCTSNode<M, R> parent, M move, GameState<M, R> state) {
 		this.parent = parent;
 		this.move = move;
 		stateAfterMove = state;
+		walker = parent.walker;
 		ourPlayer = parent.ourPlayer;
+		moveChooser = parent.moveChooser;
+		playouts = parent.playouts;
+		explorationWeight = parent.explorationWeight;
+		maxSimulationDepth = parent.maxSimulationDepth;
+		playoutsPerLeaf = parent.playoutsPerLeaf;
+		raveEquivalence = parent.raveEquivalence;
+		moveCode = (playouts == null) ? -1 : playouts.get().encode(move);
 	}
 	
-	private void addWins(int wins) {
-		simulations++;
+	private void addWins(int wins, int simulations) {
+		this.simulations += simulations;
 		this.wins += wins;
 	}
 	
@@ -76,8 +106,8 @@ public class MCTSNode<M extends GameMove, R extends GameRole> implements TreeNod
 	 * @return An UCT value
 	 */
 	private float uct() {
-		return getWinRate()
-				+ (RANDOM.nextFloat() * EPSILON)
+		return getValue()
+				+ (RandomStreams.current().nextFloat() * EPSILON)
 				+ (explorationWeight * (float) Math.sqrt(Math.log(parent.simulations + 1) / (float) simulations + EPSILON));
 	}
 	
@@ -85,6 +115,23 @@ public class MCTSNode<M extends GameMove, R extends GameRole> implements TreeNod
 		return (float) wins / (float) simulations + EPSILON;
 	}
 	
+	/**
+	 * Blends the win rate with the AMAF win rate, which
+	 * dominates as long as the node has only few simulations.
+	 * 
+	 * @return The estimated value of this node
+	 */
+	private float getValue() {
+		float winRate = getWinRate();
+		
+		if (raveEquivalence > 0 && amafSimulations > 0) {
+			double beta = Math.sqrt(raveEquivalence / ((3 * simulations) + raveEquivalence));
+			return (float) (((1 - beta) * winRate) + (beta * amafWins / amafSimulations));
+		} else {
+			return winRate;
+		}
+	}
+	
 	/**
 	 * Changes the move chooser used when simulating
 	 * playouts. Will affect performance heavily so it
@@ -96,6 +143,39 @@ public class MCTSNode<M extends GameMove, R extends GameRole> implements TreeNod
 		moveChooser = chooser;
 	}
 	
+	/**
+	 * Enables fast playouts on per-thread scratch states.
+	 * Like the other settings, this has to be set on the
+	 * root before performing any iterations.
+	 * 
+	 * @param playouts - The playout engine
+	 */
+	void setPlayouts(Playouts<M, R> playouts) {
+		this.playouts = playouts;
+	}
+	
+	/**
+	 * Sets the number of playouts simulated from
+	 * every newly expanded leaf.
+	 * 
+	 * @param playoutsPerLeaf - The number of playouts per iteration
+	 */
+	public void setPlayoutsPerLeaf(int playoutsPerLeaf) {
+		this.playoutsPerLeaf = playoutsPerLeaf;
+	}
+	
+	/**
+	 * Enables RAVE, which requires fast playouts. The equivalence
+	 * parameter is (roughly) the number of simulations at which
+	 * the AMAF statistics and the actual statistics of a node
+	 * are weighted equally.
+	 * 
+	 * @param equivalence - The RAVE equivalence parameter or 0 to disable RAVE
+	 */
+	public void setRaveEquivalence(double equivalence) {
+		raveEquivalence = equivalence;
+	}
+	
 	public boolean isRoot() {
 		return parent == null;
 	}
@@ -109,69 +189,165 @@ public class MCTSNode<M extends GameMove, R extends GameRole> implements TreeNod
 	 * Performs one iteration of the monte-carlo-tree-search algorithm.
 	 */
 	public void performIteration() {
-		expand();
+		List<GameState<M, R>> entered = new ArrayList<>();
 		
-		MCTSNode<M, R> leaf = select();
-		leaf.expand();
-		
-		int result = leaf.simulate();
-		
-		if (result > 0) {
-			leaf.backpropagate(1);
-		} else if (result < 0) {
-			leaf.backpropagate(0);
+		try {
+			GameState<M, R> state = walkFromRoot(entered);
+			expand(state);
+			
+			MCTSNode<M, R> leaf = this;
+			do {
+				leaf = Collections.max(leaf.exploredChilds);
+				state = leaf.enter(state, entered);
+			} while (!leaf.isLeaf());
+			
+			leaf.expand(state);
+			leaf.playout(state);
+		} finally {
+			for (int i = entered.size() - 1; i >= 0; i--) {
+				walker.leave(entered.get(i));
+			}
 		}
 	}
 	
-	private MCTSNode<M, R> select() {
-		MCTSNode<M, R> child = Collections.max(exploredChilds);
-		
-		if (child.isLeaf()) {
-			return child;
+	/**
+	 * Fetches the state of this node, which (if the tree
+	 * is walked in place) involves performing the moves on the
+	 * path from the root.
+	 * 
+	 * @param entered - The list to which entered states are appended
+	 * @return The state after this node's move
+	 */
+	private GameState<M, R> walkFromRoot(List<GameState<M, R>> entered) {
+		if (isRoot() || !walker.isInPlace()) {
+			return stateAfterMove;
+		} else {
+			return enter(parent.walkFromRoot(entered), entered);
+		}
+	}
+	
+	private GameState<M, R> enter(GameState<M, R> parentState, List<GameState<M, R>> entered) {
+		if (walker.isInPlace()) {
+			GameState<M, R> state = walker.enter(parentState, move);
+			entered.add(state);
+			return state;
 		} else {
-			return child.select();
+			return stateAfterMove;
 		}
 	}
 	
-	private void backpropagate(int winsDelta) {
-		addWins(winsDelta);
+	private void backpropagate(int winsDelta, int simulationsDelta) {
+		addWins(winsDelta, simulationsDelta);
 		
 		if (!isRoot()) {
-			parent.backpropagate(winsDelta);
+			parent.backpropagate(winsDelta, simulationsDelta);
 		}
 	}
 	
 	/**
-	 * Simulates this game.
+	 * Simulates the configured number of games from this
+	 * node and backpropagates the results. Undetermined
+	 * games are not counted.
 	 * 
-	 * @return 1: Win for our player - 0: Not determined - -1: Win for opponent
+	 * @param state - The state after this node's move
 	 */
-	private int simulate() {
-		GameState<M, R> simulation = stateAfterMove.copy();
+	private void playout(GameState<M, R> state) {
+		int winsDelta = 0;
+		int simulationsDelta = 0;
+		Playouts.Worker<M, R> worker = (playouts == null) ? null : playouts.get();
 		
-		int i = 0;
-		while (!simulation.isGameOver() && i < maxSimulationDepth) {
-			simulation.perform(moveChooser.chooseMove(simulation));
-			i++;
+		for (int i = 0; i < playoutsPerLeaf; i++) {
+			int result = (worker == null) ? simulate(state) : worker.play(state, ourPlayer, maxSimulationDepth);
+			
+			if (result != 0) {
+				int win = (result > 0) ? 1 : 0;
+				winsDelta += win;
+				simulationsDelta++;
+				
+				if (worker != null && raveEquivalence > 0) {
+					updateAmaf(worker, win);
+				}
+			}
+			
+			if (worker != null) {
+				worker.clearPlayed();
+			}
 		}
 		
-		Set<? extends GameRole> winners = simulation.getWinners();
+		if (simulationsDelta > 0) {
+			backpropagate(winsDelta, simulationsDelta);
+		}
+	}
+	
+	/**
+	 * Updates the AMAF statistics of all children along
+	 * the path to the root whose move has been played later
+	 * on (by the same role) during the last playout.
+	 */
+	private void updateAmaf(Playouts.Worker<M, R> worker, int win) {
+		for (MCTSNode<M, R> node = this; node != null; node = node.parent) {
+			if (node.exploredChilds != null) {
+				for (MCTSNode<M, R> child : node.exploredChilds) {
+					if (worker.wasPlayedFirstBy(child.moveCode, node.roleToMove)) {
+						child.amafWins += win;
+						child.amafSimulations++;
+					}
+				}
+			}
+			
+			if (!node.isRoot()) {
+				worker.markPlayedEarlier(node.moveCode, node.parent.roleToMove);
+			}
+		}
+	}
+	
+	/**
+	 * Simulates this game.
+	 * 
+	 * @return 1: Win for our player - 0: Not determined - -1: Win for opponent
+	 */
+	private int simulate(GameState<M, R> state) {
+		boolean inPlace = walker.isInPlace();
+		GameState<M, R> simulation = inPlace ? state : state.copy();
 		
-		if (winners.contains(ourPlayer)) {
-			return 1;
-		} else if (!winners.isEmpty()) {
-			return -1;
-		} else {
-			return 0;
+		int i = 0;
+		try {
+			while (!simulation.isGameOver() && i < maxSimulationDepth) {
+				M simulatedMove = moveChooser.chooseMove(simulation);
+				if (inPlace) {
+					walker.enter(simulation, simulatedMove);
+				} else {
+					simulation.perform(simulatedMove);
+				}
+				i++;
+			}
+			
+			Set<? extends GameRole> winners = simulation.getWinners();
+			
+			if (winners.contains(ourPlayer)) {
+				return 1;
+			} else if (!winners.isEmpty()) {
+				return -1;
+			} else {
+				return 0;
+			}
+		} finally {
+			if (inPlace) {
+				for (int j = 0; j < i; j++) {
+					walker.leave(simulation);
+				}
+			}
 		}
 	}
 	
-	private void expand() {
+	private void expand(GameState<M, R> state) {
 		if (exploredChilds == null) {
 			exploredChilds = new ArrayList<>();
+			roleToMove = state.getCurrentRole();
+			boolean inPlace = walker.isInPlace();
 			
-			for (M move : stateAfterMove.getLegalMoves()) {
-				exploredChilds.add(new MCTSNode<>(this, move, stateAfterMove.spawnChild(move)));
+			for (M move : state.getLegalMoves()) {
+				exploredChilds.add(new MCTSNode<>(this, move, inPlace ? null : state.spawnChild(move)));
 			}
 		}
 	}
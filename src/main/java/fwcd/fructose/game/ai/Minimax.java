@@ -1,14 +1,17 @@
 package fwcd.fructose.game.ai;
 
+import java.util.ArrayList;
 import java.util.OptionalDouble;
 import java.util.stream.DoubleStream;
 
 import fwcd.fructose.game.GameMove;
 import fwcd.fructose.game.GameRole;
 import fwcd.fructose.game.GameState;
+import fwcd.fructose.game.GameTreeWalker;
 import fwcd.fructose.game.MoveEvaluator;
 import fwcd.fructose.game.MovePruner;
 import fwcd.fructose.game.NeverPruner;
+import fwcd.fructose.game.ReversibleGameState;
 import fwcd.fructose.game.WinEvaluator;
 import fwcd.fructose.time.Timer;
 
@@ -19,6 +22,10 @@ import fwcd.fructose.time.Timer;
  * for any production use I highly recommed
  * {@link AlphaBeta} instead.
  * 
+ * <p>Like {@link AlphaBeta}, it walks the tree in place
+ * if the game state is a {@link ReversibleGameState}
+ * and the evaluator/pruner permit it.</p>
+ * 
  * @author Fredrik
  *
  */
@@ -55,7 +62,13 @@ public class Minimax<M extends GameMove, R extends GameRole> extends EvaluatingG
 			throw new IllegalStateException("Minimax can only operate on two-player games!");
 		}
 		
-		return minimax(gameBeforeMove.getCurrentRole(), gameBeforeMove, move, depth, timer);
+		boolean inPlace = gameBeforeMove instanceof ReversibleGameState
+				&& !evaluator.usesStateBeforeMove()
+				&& !pruner.usesStateBeforeMove();
+		GameState<M, R> root = inPlace ? gameBeforeMove.copy() : gameBeforeMove;
+		GameTreeWalker<M, R> walker = inPlace ? GameTreeWalker.of(root) : GameTreeWalker.copying();
+		
+		return minimax(gameBeforeMove.getCurrentRole(), root, move, depth, walker, timer);
 	}
 	
 	private double minimax(
@@ -63,20 +76,38 @@ public class Minimax<M extends GameMove, R extends GameRole> extends EvaluatingG
 			GameState<M, R> gameBeforeMove,
 			M move,
 			int decrementalDepth,
+			GameTreeWalker<M, R> walker,
 			Timer timer
 	) {
-		GameState<M, R> gameAfterMove = gameBeforeMove.spawnChild(move);
+		GameState<M, R> gameAfterMove = walker.enter(gameBeforeMove, move);
 		
+		try {
+			return minimax(role, gameBeforeMove, gameAfterMove, move, decrementalDepth, walker, timer);
+		} finally {
+			walker.leave(gameAfterMove);
+		}
+	}
+	
+	private double minimax(
+			R role,
+			GameState<M, R> gameBeforeMove,
+			GameState<M, R> gameAfterMove,
+			M move,
+			int decrementalDepth,
+			GameTreeWalker<M, R> walker,
+			Timer timer
+	) {
 		if (!timer.isRunning()
+				|| isCancelled()
 				|| decrementalDepth == 0
 				|| pruner.pruneMove(role, gameBeforeMove, gameAfterMove, move, depth - decrementalDepth)
 				|| gameAfterMove.isGameOver()) {
 			return evaluator.rate(role, gameBeforeMove, gameAfterMove, move, depth - decrementalDepth);
 		} else {
-			DoubleStream childRatings = gameAfterMove
-					.getLegalMoves()
+			// The moves are copied since the state might be modified in place
+			DoubleStream childRatings = new ArrayList<M>(gameAfterMove.getLegalMoves())
 					.stream()
-					.mapToDouble(childMove -> minimax(role, gameAfterMove, childMove, decrementalDepth - 1, timer));
+					.mapToDouble(childMove -> minimax(role, gameAfterMove, childMove, decrementalDepth - 1, walker, timer));
 			
 			OptionalDouble result;
 			
@@ -86,7 +117,7 @@ public class Minimax<M extends GameMove, R extends GameRole> extends EvaluatingG
 				result = childRatings.min();
 			}
 			
-			return result.orElse(evaluator.rate(role, gameBeforeMove, gameAfterMove, move, depth - decrementalDepth));
+			return result.orElseGet(() -> evaluator.rate(role, gameBeforeMove, gameAfterMove, move, depth - decrementalDepth));
 		}
 	}
 
@@ -0,0 +1,142 @@
+package fwcd.fructose.game.ai;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import fwcd.fructose.game.GameMove;
+
+/**
+ * Move ordering heuristics for depth-first game tree
+ * searches. Moves are ordered by (in decreasing priority):
+ * 
+ * <ul>
+ * <li>the hash move (the best move stored in a transposition table)</li>
+ * <li>the principal variation of a previous iteration</li>
+ * <li>killer moves (moves that caused cutoffs at the same ply)</li>
+ * <li>the history table (accumulated cutoffs across the whole search)</li>
+ * </ul>
+ * 
+ * <p>Searching good moves first lets alpha-beta cut off
+ * siblings as early as possible. <b>Instances are not thread-safe</b>,
+ * every search thread should use its own ordering.</p>
+ * 
+ * @param <M> - The move type
+ */
+public class MoveOrdering<M extends GameMove> {
+	private static final int KILLER_SLOTS = 2;
+	private static final int HASH_MOVE_SCORE = Integer.MAX_VALUE;
+	private static final int PV_SCORE = Integer.MAX_VALUE - 1;
+	private static final int KILLER_SCORE = Integer.MAX_VALUE - KILLER_SLOTS - 2;
+	
+	private final List<M> principalVariation = new ArrayList<>();
+	private final List<M[]> killers = new ArrayList<>();
+	private final Map<M, Integer> history = new HashMap<>();
+	
+	/**
+	 * Orders the given moves, best candidates first.
+	 * 
+	 * @param moves - The legal moves at the given ply
+	 * @param ply - The ply (distance from the root) at which the moves are played
+	 * @return A new, ordered list of the moves
+	 */
+	public List<M> order(List<? extends M> moves, int ply) {
+		return order(moves, ply, null);
+	}
+	
+	/**
+	 * Orders the given moves, best candidates first.
+	 * 
+	 * @param moves - The legal moves at the given ply
+	 * @param ply - The ply (distance from the root) at which the moves are played
+	 * @param hashMove - A move that should be searched first or null
+	 * @return A new, ordered list of the moves
+	 */
+	public List<M> order(List<? extends M> moves, int ply, M hashMove) {
+		int count = moves.size();
+		List<M> ordered = new ArrayList<>(moves);
+		
+		if (count < 2) {
+			return ordered;
+		}
+		
+		long[] keys = new long[count];
+		for (int i = 0; i < count; i++) {
+			// Pack score and original index to obtain a stable descending sort
+			keys[i] = ((long) score(ordered.get(i), ply, hashMove) << 32) | (Integer.MAX_VALUE - i);
+		}
+		Arrays.sort(keys);
+		
+		for (int i = 0; i < count; i++) {
+			int index = Integer.MAX_VALUE - (int) keys[count - 1 - i];
+			ordered.set(i, moves.get(index));
+		}
+		
+		return ordered;
+	}
+	
+	private int score(M move, int ply, M hashMove) {
+		if (move.equals(hashMove)) {
+			return HASH_MOVE_SCORE;
+		}
+		
+		if (ply < principalVariation.size() && move.equals(principalVariation.get(ply))) {
+			return PV_SCORE;
+		}
+		
+		if (ply < killers.size()) {
+			M[] slots = killers.get(ply);
+			for (int i = 0; i < KILLER_SLOTS; i++) {
+				if (move.equals(slots[i])) {
+					return KILLER_SCORE - i;
+				}
+			}
+		}
+		
+		return Math.min(history.getOrDefault(move, 0), KILLER_SCORE - KILLER_SLOTS);
+	}
+	
+	/**
+	 * Records that the given move caused a cutoff.
+	 * 
+	 * @param move - The refuting move
+	 * @param ply - The ply at which the move was played
+	 * @param remainingDepth - The remaining search depth below the move
+	 */
+	@SuppressWarnings("unchecked")
+	public void recordCutoff(M move, int ply, int remainingDepth) {
+		while (killers.size() <= ply) {
+			killers.add((M[]) new GameMove[KILLER_SLOTS]);
+		}
+		
+		M[] slots = killers.get(ply);
+		if (!move.equals(slots[0])) {
+			System.arraycopy(slots, 0, slots, 1, KILLER_SLOTS - 1);
+			slots[0] = move;
+		}
+		
+		int bonus = Math.min(remainingDepth, 1 << 10);
+		history.merge(move, bonus * bonus, (a, b) -> (int) Math.min((long) a + b, Integer.MAX_VALUE / 2));
+	}
+	
+	public void setPrincipalVariation(List<? extends M> moves) {
+		principalVariation.clear();
+		principalVariation.addAll(moves);
+	}
+	
+	public List<M> getPrincipalVariation() {
+		return Collections.unmodifiableList(principalVariation);
+	}
+	
+	/**
+	 * Forgets all heuristic information.
+	 */
+	public void clear() {
+		principalVariation.clear();
+		killers.clear();
+		history.clear();
+	}
+}
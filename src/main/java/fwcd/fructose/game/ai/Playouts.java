@@ -0,0 +1,103 @@
+package fwcd.fructose.game.ai;
+
+import java.util.Random;
+import java.util.function.Supplier;
+
+import fwcd.fructose.RandomStreams;
+import fwcd.fructose.game.GameMove;
+import fwcd.fructose.game.GameRole;
+import fwcd.fructose.game.GameState;
+import fwcd.fructose.game.PlayoutState;
+
+/**
+ * Runs allocation-free playouts on per-thread
+ * {@link PlayoutState scratch states} and records which
+ * role played a move first (for all-moves-as-first statistics).
+ */
+class Playouts<M extends GameMove, R extends GameRole> {
+	private final ThreadLocal<Worker<M, R>> workers;
+	
+	public Playouts(Supplier<? extends PlayoutState<M, R>> factory) {
+		workers = ThreadLocal.withInitial(() -> new Worker<>(factory.get()));
+	}
+	
+	/**
+	 * @return The scratch data of the current thread
+	 */
+	public Worker<M, R> get() {
+		return workers.get();
+	}
+	
+	static class Worker<M extends GameMove, R extends GameRole> {
+		private final PlayoutState<M, R> scratch;
+		private final int[] moves;
+		private final Object[] firstPlayers; // The role that played a move code first
+		private final int[] played;
+		private int playedCount = 0;
+		
+		private Worker(PlayoutState<M, R> scratch) {
+			this.scratch = scratch;
+			int codes = scratch.getMoveCodeCount();
+			moves = new int[codes];
+			firstPlayers = new Object[codes];
+			played = new int[codes];
+		}
+		
+		public int encode(M move) {
+			return scratch.encode(move);
+		}
+		
+		/**
+		 * Plays a game from the given state on the scratch
+		 * state and records the first player of every move.
+		 * 
+		 * @param state - The start position
+		 * @param ourPlayer - The role whose outcome is returned
+		 * @param maxDepth - The maximum number of moves
+		 * @return The outcome for our player (see {@link PlayoutState#getOutcome})
+		 */
+		public int play(GameState<M, R> state, GameRole ourPlayer, int maxDepth) {
+			// The scratch state expects the actual game state
+			scratch.load(state.unwrap());
+			Random random = RandomStreams.current();
+			
+			for (int depth = 0; depth < maxDepth && !scratch.isGameOver(); depth++) {
+				int count = scratch.generateMoves(moves);
+				if (count == 0) {
+					break;
+				}
+				
+				int move = scratch.choose(moves, count, random);
+				if (firstPlayers[move] == null) {
+					firstPlayers[move] = scratch.getCurrentRole();
+					played[playedCount++] = move;
+				}
+				scratch.play(move);
+			}
+			
+			return scratch.getOutcome(ourPlayer);
+		}
+		
+		/**
+		 * Records a move that was played before the
+		 * moves recorded so far (e.g. inside the tree).
+		 */
+		public void markPlayedEarlier(int moveCode, Object role) {
+			if (firstPlayers[moveCode] == null) {
+				played[playedCount++] = moveCode;
+			}
+			firstPlayers[moveCode] = role;
+		}
+		
+		public boolean wasPlayedFirstBy(int moveCode, Object role) {
+			return role.equals(firstPlayers[moveCode]);
+		}
+		
+		public void clearPlayed() {
+			for (int i = 0; i < playedCount; i++) {
+				firstPlayers[played[i]] = null;
+			}
+			playedCount = 0;
+		}
+	}
+}
@@ -0,0 +1,205 @@
+package fwcd.fructose.game.ai;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import fwcd.fructose.game.GameMove;
+import fwcd.fructose.game.GameRole;
+import fwcd.fructose.game.GameState;
+import fwcd.fructose.game.PositionEncoder;
+
+/**
+ * A memory-mapped endgame tablebase, which stores the
+ * game-theoretic outcome (and the distance to the end of
+ * the game under perfect play) of every covered position.
+ * Probing a position takes constant time.
+ * 
+ * <p>Tablebases are created using a {@link TablebaseBuilder}.
+ * Every position is stored as a 16-bit entry at the index
+ * provided by the {@link PositionEncoder}: The upper two
+ * bits hold the outcome and the remaining bits the distance
+ * in plies (saturated).</p>
+ * 
+ * @param <M> - The move type
+ * @param <R> - The role type
+ */
+public class Tablebase<M extends GameMove, R extends GameRole> {
+	static final int MAGIC = 0x46544231; // "FTB1"
+	static final int HEADER_BYTES = 16; // Magic, reserved int and position count
+	static final int MAX_DISTANCE = (1 << 14) - 1;
+	
+	private final PositionEncoder<M, R> encoder;
+	private final ByteBuffer entries;
+	private final long positionCount;
+	
+	private Tablebase(PositionEncoder<M, R> encoder, ByteBuffer entries, long positionCount) {
+		this.encoder = encoder;
+		this.entries = entries;
+		this.positionCount = positionCount;
+	}
+	
+	/**
+	 * Maps a tablebase file into memory.
+	 * 
+	 * @param file - The tablebase file
+	 * @param encoder - The encoder that was used to build the tablebase
+	 * @return The tablebase
+	 * @throws IOException If the file could not be read or is not a valid tablebase
+	 */
+	public static <M extends GameMove, R extends GameRole> Tablebase<M, R> open(Path file, PositionEncoder<M, R> encoder) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			// The mapping stays valid after closing the channel
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			
+			if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+				throw new IOException("Not a tablebase: " + file);
+			}
+			
+			long positionCount = buffer.getLong(8);
+			if (positionCount != encoder.getPositionCount() || buffer.capacity() < HEADER_BYTES + (2 * positionCount)) {
+				throw new IOException("Tablebase " + file + " does not match the position encoder");
+			}
+			
+			return new Tablebase<>(encoder, buffer, positionCount);
+		}
+	}
+	
+	/**
+	 * Looks up a position.
+	 * 
+	 * @param state - The game state
+	 * @return The result of the position or null if it is not covered
+	 */
+	public Result probe(GameState<? extends M, ? extends R> state) {
+		long index = encoder.encode(state);
+		if (index < 0 || index >= positionCount) {
+			return null;
+		}
+		
+		int entry = entries.getShort(HEADER_BYTES + (int) (2 * index)) & 0xFFFF;
+		Outcome outcome = Outcome.decode(entry >>> 14);
+		return (outcome == null) ? null : new Result(outcome, entry & MAX_DISTANCE);
+	}
+	
+	/**
+	 * Chooses a move that achieves the stored outcome
+	 * as quickly as possible (or, if the position is lost,
+	 * delays the loss as long as possible).
+	 * 
+	 * @param state - The game state
+	 * @return The best move or null if the position (or none of its children) is covered
+	 */
+	public M bestMove(GameState<M, R> state) {
+		if (probe(state) == null) {
+			return null;
+		}
+		
+		R role = state.getCurrentRole();
+		M bestMove = null;
+		int bestScore = Integer.MIN_VALUE;
+		
+		for (M move : state.getLegalMoves()) {
+			GameState<M, R> child = state.spawnChild(move);
+			Result result = probe(child);
+			
+			if (result != null) {
+				Outcome outcome = child.getCurrentRole().equals(role) ? result.getOutcome() : result.getOutcome().negate();
+				int score = outcome.score(result.getDistance());
+				
+				if (score > bestScore) {
+					bestScore = score;
+					bestMove = move;
+				}
+			}
+		}
+		
+		return bestMove;
+	}
+	
+	public long getPositionCount() {
+		return positionCount;
+	}
+	
+	static int encodeEntry(Outcome outcome, int distance) {
+		return (outcome.code << 14) | Math.min(distance, MAX_DISTANCE);
+	}
+	
+	/**
+	 * The game-theoretic outcome of a position from the
+	 * perspective of the role that moves next.
+	 */
+	public static enum Outcome {
+		WIN(1), LOSS(2), DRAW(3);
+		
+		private final int code;
+		
+		private Outcome(int code) {
+			this.code = code;
+		}
+		
+		static Outcome decode(int code) {
+			switch (code) {
+				case 1: return WIN;
+				case 2: return LOSS;
+				case 3: return DRAW;
+				default: return null;
+			}
+		}
+		
+		/**
+		 * @return The outcome from the perspective of the opponent
+		 */
+		public Outcome negate() {
+			switch (this) {
+				case WIN: return LOSS;
+				case LOSS: return WIN;
+				default: return DRAW;
+			}
+		}
+		
+		/**
+		 * Orders outcomes by preference: Quick wins are better
+		 * than slow wins, slow losses are better than quick losses.
+		 */
+		private int score(int distance) {
+			switch (this) {
+				case WIN: return (2 * MAX_DISTANCE) - distance;
+				case LOSS: return distance - (2 * MAX_DISTANCE);
+				default: return 0;
+			}
+		}
+	}
+	
+	/**
+	 * The stored result of a position.
+	 */
+	public static class Result {
+		private final Outcome outcome;
+		private final int distance;
+		
+		private Result(Outcome outcome, int distance) {
+			this.outcome = outcome;
+			this.distance = distance;
+		}
+		
+		public Outcome getOutcome() {
+			return outcome;
+		}
+		
+		/**
+		 * @return The number of plies until the game ends under perfect play (0 for draws)
+		 */
+		public int getDistance() {
+			return distance;
+		}
+		
+		@Override
+		public String toString() {
+			return outcome + " in " + distance;
+		}
+	}
+}
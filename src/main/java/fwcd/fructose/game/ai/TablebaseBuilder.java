@@ -0,0 +1,264 @@
+package fwcd.fructose.game.ai;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+import fwcd.fructose.game.GameMove;
+import fwcd.fructose.game.GameRole;
+import fwcd.fructose.game.GameState;
+import fwcd.fructose.game.PositionEncoder;
+import fwcd.fructose.game.ai.Tablebase.Outcome;
+import fwcd.fructose.structs.IntList;
+
+/**
+ * Builds {@link Tablebase}s for two-player games using
+ * retrograde analysis.
+ * 
+ * <p>First, all positions reachable from the initial state are
+ * enumerated. Starting from the terminal positions, the results are
+ * then propagated backwards through the predecessors, one distance
+ * layer at a time (in parallel): A position is won as soon as one
+ * child is lost for the opponent and lost once all of its children
+ * are won for the opponent. Positions that remain unresolved
+ * are draws.</p>
+ * 
+ * @param <M> - The move type
+ * @param <R> - The role type
+ */
+public class TablebaseBuilder<M extends GameMove, R extends GameRole> {
+	private final PositionEncoder<M, R> encoder;
+	
+	public TablebaseBuilder(PositionEncoder<M, R> encoder) {
+		if (encoder.getPositionCount() > (Integer.MAX_VALUE - Tablebase.HEADER_BYTES) / 2) {
+			throw new IllegalArgumentException("Too many positions for a single tablebase: " + encoder.getPositionCount());
+		}
+		this.encoder = encoder;
+	}
+	
+	/**
+	 * Solves all positions reachable from the given
+	 * state and writes the tablebase to a file.
+	 * 
+	 * @param initialState - The state to start the enumeration from
+	 * @param file - The destination file, which will be overwritten
+	 * @return The memory-mapped tablebase
+	 * @throws IOException If the file could not be written
+	 */
+	public Tablebase<M, R> build(GameState<M, R> initialState, Path file) throws IOException {
+		PositionGraph graph = enumerate(initialState);
+		write(graph, solve(graph), file);
+		return Tablebase.open(file, encoder);
+	}
+	
+	/**
+	 * Enumerates the reachable positions breadth-first
+	 * and assigns consecutive ids to them.
+	 */
+	private PositionGraph enumerate(GameState<M, R> initialState) {
+		PositionGraph graph = new PositionGraph();
+		Map<Long, Integer> ids = new HashMap<>();
+		Queue<GameState<M, R>> queue = new ArrayDeque<>();
+		IntList edgeSources = new IntList();
+		IntList edgeTargets = new IntList();
+		
+		GameState<M, R> root = initialState.copy();
+		ids.put(encoder.encode(root), graph.add(root));
+		queue.add(root);
+		
+		while (!queue.isEmpty()) {
+			GameState<M, R> state = queue.poll();
+			int id = ids.get(encoder.encode(state));
+			
+			if (state.isGameOver()) {
+				graph.results[id] = Tablebase.encodeEntry(terminalOutcome(state), 0);
+				continue;
+			}
+			
+			for (M move : state.getLegalMoves()) {
+				GameState<M, R> child = state.spawnChild(move);
+				long index = encoder.encode(child);
+				Integer childId = ids.get(index);
+				
+				if (childId == null) {
+					childId = graph.add(child);
+					ids.put(index, childId);
+					queue.add(child);
+				}
+				
+				edgeSources.add(id);
+				edgeTargets.add(childId);
+			}
+		}
+		
+		graph.link(edgeSources, edgeTargets);
+		return graph;
+	}
+	
+	private Outcome terminalOutcome(GameState<M, R> state) {
+		Set<? extends R> winners = state.getWinners();
+		
+		if (winners.contains(state.getCurrentRole())) {
+			return Outcome.WIN;
+		} else if (!winners.isEmpty()) {
+			return Outcome.LOSS;
+		} else {
+			return Outcome.DRAW;
+		}
+	}
+	
+	/**
+	 * Propagates the results from the terminal positions
+	 * backwards, processing one distance layer per step.
+	 */
+	private int[] solve(PositionGraph graph) {
+		int n = graph.size;
+		AtomicIntegerArray results = new AtomicIntegerArray(Arrays.copyOf(graph.results, n));
+		AtomicIntegerArray remainingChildren = new AtomicIntegerArray(graph.childCounts);
+		
+		// Draws do not propagate, a position with a drawn child can not be lost
+		int[] layer = IntStream.range(0, n)
+				.filter(id -> results.get(id) != 0 && outcomeOf(results.get(id)) != Outcome.DRAW)
+				.toArray();
+		int distance = 0;
+		
+		while (layer.length > 0) {
+			int parentDistance = ++distance;
+			
+			layer = IntStream.of(layer).parallel().flatMap(child -> {
+				Outcome childOutcome = outcomeOf(results.get(child));
+				IntStream.Builder resolved = IntStream.builder();
+				
+				for (int i = graph.predecessorStarts[child]; i < graph.predecessorStarts[child + 1]; i++) {
+					int parent = graph.predecessors[i];
+					if (results.get(parent) != 0) {
+						continue;
+					}
+					
+					boolean sameRole = graph.roles.get(parent).equals(graph.roles.get(child));
+					Outcome outcome = sameRole ? childOutcome : childOutcome.negate();
+					
+					if (outcome == Outcome.WIN) {
+						if (results.compareAndSet(parent, 0, Tablebase.encodeEntry(Outcome.WIN, parentDistance))) {
+							resolved.add(parent);
+						}
+					} else if (remainingChildren.decrementAndGet(parent) == 0) {
+						// The last child resolved has the longest distance
+						if (results.compareAndSet(parent, 0, Tablebase.encodeEntry(Outcome.LOSS, parentDistance))) {
+							resolved.add(parent);
+						}
+					}
+				}
+				
+				return resolved.build();
+			}).toArray();
+		}
+		
+		int[] solved = new int[n];
+		for (int id = 0; id < n; id++) {
+			int entry = results.get(id);
+			solved[id] = (entry == 0) ? Tablebase.encodeEntry(Outcome.DRAW, 0) : entry;
+		}
+		return solved;
+	}
+	
+	private static Outcome outcomeOf(int entry) {
+		return Outcome.decode(entry >>> 14);
+	}
+	
+	private void write(PositionGraph graph, int[] results, Path file) throws IOException {
+		int positionCount = (int) encoder.getPositionCount();
+		short[] entries = new short[positionCount];
+		
+		for (int id = 0; id < graph.size; id++) {
+			entries[(int) graph.indices[id]] = (short) results[id];
+		}
+		
+		try (FileChannel channel = FileChannel.open(file,
+				StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+			buffer.putInt(Tablebase.MAGIC).putInt(0).putLong(positionCount);
+			
+			for (short entry : entries) {
+				if (!buffer.hasRemaining()) {
+					flush(buffer, channel);
+				}
+				buffer.putShort(entry);
+			}
+			
+			flush(buffer, channel);
+		}
+	}
+	
+	private void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+	
+	/**
+	 * The enumerated positions, indexed by dense ids, along
+	 * with their predecessors (in compressed sparse row format).
+	 */
+	private class PositionGraph {
+		private final List<R> roles = new ArrayList<>();
+		private long[] indices = new long[16];
+		private int[] results = new int[16];
+		private int size = 0;
+		
+		private int[] childCounts;
+		private int[] predecessorStarts;
+		private int[] predecessors;
+		
+		public int add(GameState<M, R> state) {
+			if (size == indices.length) {
+				indices = Arrays.copyOf(indices, size * 2);
+				results = Arrays.copyOf(results, size * 2);
+			}
+			
+			long index = encoder.encode(state);
+			if (index < 0 || index >= encoder.getPositionCount()) {
+				throw new IllegalStateException("Position index out of range: " + index);
+			}
+			
+			indices[size] = index;
+			roles.add(state.getCurrentRole());
+			return size++;
+		}
+		
+		public void link(IntList sources, IntList targets) {
+			childCounts = new int[size];
+			predecessorStarts = new int[size + 1];
+			predecessors = new int[sources.size()];
+			
+			for (int i = 0; i < sources.size(); i++) {
+				childCounts[sources.get(i)]++;
+				predecessorStarts[targets.get(i) + 1]++;
+			}
+			for (int id = 0; id < size; id++) {
+				predecessorStarts[id + 1] += predecessorStarts[id];
+			}
+			
+			int[] offsets = Arrays.copyOf(predecessorStarts, size);
+			for (int i = 0; i < sources.size(); i++) {
+				predecessors[offsets[targets.get(i)]++] = sources.get(i);
+			}
+		}
+	}
+}
@@ -1,10 +1,14 @@
 package fwcd.fructose.game.ai;
 
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.FutureTask;
-import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import fwcd.fructose.game.GameMove;
 import fwcd.fructose.game.GameRole;
@@ -12,6 +16,22 @@ import fwcd.fructose.game.GameState;
 import fwcd.fructose.game.MoveChooser;
 import fwcd.fructose.game.RandomMoveChooser;
 
+/**
+ * A game AI that runs its search as an "anytime" algorithm
+ * on a dedicated worker thread. While searching, implementations
+ * continuously publish their current best move (see {@link #publishBestMove}).
+ * Once the hard time limit is reached, the search is cooperatively
+ * cancelled (see {@link #isCancelled()}) and the last published move
+ * is returned. Only if no move has been published yet, the
+ * timeout move chooser is used instead.
+ * 
+ * <p>A cancelled search that does not stop in time keeps running
+ * in the background, but the worker is replaced, thus the next
+ * search does not have to wait for it. Searches that use helper
+ * threads have to bind their tasks to the search (see
+ * {@link #bindToSearch(Callable)}), so they observe the
+ * cancellation of the right search.</p>
+ */
 public abstract class TemplateGameAI<M extends GameMove, R extends GameRole> implements GamePlayer<M, R> {
 	private long softMaxTime = Long.MAX_VALUE;
 	private long hardMaxTime = Long.MAX_VALUE;
@@ -19,6 +39,15 @@ public abstract class TemplateGameAI<M extends GameMove, R extends GameRole> imp
 	private MoveChooser<M, R> timeoutMoveChooser = new RandomMoveChooser<>();
 	private long hardMaxBuffer = 50; // A small buffer time in which the timeoutMoveChooser is expected to run
 	
+	private ThreadFactory workerFactory = runnable -> {
+		Thread thread = new Thread(runnable, "GameAI worker");
+		thread.setDaemon(true);
+		return thread;
+	};
+	private ThreadPoolExecutor worker = null;
+	private final ThreadLocal<Search<M>> boundSearch = new ThreadLocal<>();
+	private final AtomicReference<Search<M>> latestSearch = new AtomicReference<>();
+	
 	@Override
 	public void setSoftMaxTime(long ms) {
 		softMaxTime = ms;
@@ -31,7 +60,8 @@ public abstract class TemplateGameAI<M extends GameMove, R extends GameRole> imp
 	
 	/**
 	 * Sets the move chooser that should be used when
-	 * the hard time limit has passed. This chooser is
+	 * the hard time limit has passed and the search
+	 * has not published any move. This chooser is
 	 * expected to return very quickly.<br><br>
 	 * 
 	 * Furthermore a maximum time is provided that <b>should never</b> be
@@ -45,17 +75,75 @@ public abstract class TemplateGameAI<M extends GameMove, R extends GameRole> imp
 		hardMaxBuffer = maxMs;
 	}
 	
+	/**
+	 * Sets the factory that creates the worker thread
+	 * on which the search runs. On runtimes supporting them,
+	 * a virtual thread factory can be passed here.
+	 * 
+	 * @param factory - The worker thread factory
+	 */
+	public synchronized void setWorkerThreadFactory(ThreadFactory factory) {
+		workerFactory = factory;
+		if (worker != null) {
+			worker.shutdown();
+			worker = null;
+		}
+	}
+	
+	/**
+	 * Discards a worker whose search did not stop in time. Its thread
+	 * terminates once the search returns, while the next search
+	 * runs on a fresh worker.
+	 */
+	private synchronized void discardWorker(ThreadPoolExecutor staleWorker) {
+		staleWorker.shutdown();
+		if (worker == staleWorker) {
+			worker = null;
+		}
+	}
+	
+	private synchronized ThreadPoolExecutor getWorker() {
+		if (worker == null) {
+			// A single worker that terminates when idle, thus unused AIs do not leak threads
+			worker = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), workerFactory);
+			worker.allowCoreThreadTimeOut(true);
+		}
+		return worker;
+	}
+	
 	@Override
 	public M chooseMove(GameState<M, R> game) {
-		RunnableFuture<M> result = new FutureTask<>(() -> selectMove(game, softMaxTime));
+		Search<M> search = new Search<>();
+		ThreadPoolExecutor searchWorker = getWorker();
+		Future<M> result = searchWorker.submit(() -> {
+			latestSearch.set(search);
+			Search<M> previous = bind(search);
+			try {
+				return selectMove(game, softMaxTime);
+			} finally {
+				unbind(previous);
+				latestSearch.compareAndSet(search, null);
+			}
+		});
 		M move;
 		
 		try {
-			result.run();
-			move = result.get(hardMaxTime - hardMaxBuffer, TimeUnit.MILLISECONDS);
+			move = result.get(Math.max(0, hardMaxTime - hardMaxBuffer), TimeUnit.MILLISECONDS);
 		} catch (TimeoutException e) {
+			search.cancel();
+			if (result.cancel(false)) {
+				discardWorker(searchWorker);
+			}
+			move = search.bestMove.get();
+			
+			if (move == null) {
+				move = timeoutMoveChooser.chooseMove(game);
+			}
+		} catch (InterruptedException e) {
+			search.cancel();
+			Thread.currentThread().interrupt();
 			move = timeoutMoveChooser.chooseMove(game);
-		} catch (InterruptedException | ExecutionException e) {
+		} catch (ExecutionException e) {
 			e.printStackTrace();
 			move = timeoutMoveChooser.chooseMove(game);
 		}
@@ -63,5 +151,106 @@ public abstract class TemplateGameAI<M extends GameMove, R extends GameRole> imp
 		return move;
 	}
 	
+	/**
+	 * Publishes the best move found so far by the current
+	 * search. It will be used if the search does not
+	 * complete in time. This method is thread-safe.
+	 * 
+	 * @param move - The currently best move
+	 */
+	protected void publishBestMove(M move) {
+		Search<M> search = getSearch();
+		if (search != null) {
+			search.bestMove.set(move);
+		}
+	}
+	
+	/**
+	 * Checks whether the current search has been cancelled
+	 * due to the hard time limit. Searches should poll this
+	 * regularly and return as soon as possible once it is set.
+	 * 
+	 * @return Whether the current search should stop
+	 */
+	protected boolean isCancelled() {
+		Search<M> search = getSearch();
+		return search != null && search.cancelled;
+	}
+	
+	/**
+	 * Binds a task that runs on another thread (e.g. a helper of
+	 * a parallel search) to the search of the calling thread. While
+	 * running, the task observes the cancellation of that search and
+	 * publishes its moves to it.
+	 * 
+	 * @param task - The task
+	 * @return The bound task
+	 */
+	protected <T> Callable<T> bindToSearch(Callable<T> task) {
+		Search<M> search = getSearch();
+		return () -> {
+			Search<M> previous = bind(search);
+			try {
+				return task.call();
+			} finally {
+				unbind(previous);
+			}
+		};
+	}
+	
+	/**
+	 * Binds a task that runs on another thread to the
+	 * search of the calling thread (see {@link #bindToSearch(Callable)}).
+	 * 
+	 * @param task - The task
+	 * @return The bound task
+	 */
+	protected Runnable bindToSearch(Runnable task) {
+		Search<M> search = getSearch();
+		return () -> {
+			Search<M> previous = bind(search);
+			try {
+				task.run();
+			} finally {
+				unbind(previous);
+			}
+		};
+	}
+	
+	private Search<M> bind(Search<M> search) {
+		Search<M> previous = boundSearch.get();
+		boundSearch.set(search);
+		return previous;
+	}
+	
+	private void unbind(Search<M> previous) {
+		if (previous == null) {
+			boundSearch.remove();
+		} else {
+			boundSearch.set(previous);
+		}
+	}
+	
+	/**
+	 * Fetches the search the current thread is bound to or,
+	 * for unbound threads, the most recently started search.
+	 */
+	private Search<M> getSearch() {
+		Search<M> search = boundSearch.get();
+		return (search == null) ? latestSearch.get() : search;
+	}
+	
 	protected abstract M selectMove(GameState<M, R> game, long softMaxTime);
+	
+	/**
+	 * The shared state of a single move selection.
+	 */
+	private static class Search<M> {
+		private final AtomicReference<M> bestMove = new AtomicReference<>();
+		private volatile boolean cancelled = false;
+		
+		public void cancel() {
+			cancelled = true;
+		}
+	}
 }
@@ -0,0 +1,133 @@
+package fwcd.fructose.game.ai;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import fwcd.fructose.game.GameMove;
+
+/**
+ * A fixed-size, lock-free hash table storing the results
+ * of previously searched positions. It can safely be
+ * shared among multiple search threads.
+ * 
+ * <p>Entries are indexed by position keys (see
+ * {@link fwcd.fructose.game.PositionHasher}). A colliding
+ * entry is always replaced, an entry of the same position
+ * only if the new result stems from a search at least as deep.</p>
+ * 
+ * @param <M> - The move type
+ */
+public class TranspositionTable<M extends GameMove> {
+	private final AtomicReferenceArray<Entry<M>> entries;
+	private final int mask;
+	
+	/**
+	 * Creates a new transposition table.
+	 * 
+	 * @param capacity - The minimum number of entries (rounded up to a power of two)
+	 */
+	public TranspositionTable(int capacity) {
+		if (capacity <= 0 || capacity > (1 << 30)) {
+			throw new IllegalArgumentException("Invalid transposition table capacity: " + capacity);
+		}
+		
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity) {
+			size <<= 1;
+		}
+		
+		entries = new AtomicReferenceArray<>(size);
+		mask = size - 1;
+	}
+	
+	private int indexOf(long key) {
+		long h = key;
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		return (int) h & mask;
+	}
+	
+	/**
+	 * Looks up the entry of a position.
+	 * 
+	 * @param key - The position key
+	 * @return The entry or null if the position is not stored
+	 */
+	public Entry<M> probe(long key) {
+		Entry<M> entry = entries.get(indexOf(key));
+		return (entry != null && entry.key == key) ? entry : null;
+	}
+	
+	public void store(long key, int depth, double rating, Bound bound, M bestMove) {
+		int index = indexOf(key);
+		Entry<M> existing = entries.get(index);
+		
+		if (existing == null || existing.key != key || existing.depth <= depth) {
+			entries.set(index, new Entry<>(key, depth, rating, bound, bestMove));
+		}
+	}
+	
+	public void clear() {
+		for (int i = 0; i < entries.length(); i++) {
+			entries.set(i, null);
+		}
+	}
+	
+	public int capacity() {
+		return entries.length();
+	}
+	
+	/**
+	 * Describes how a stored rating relates
+	 * to the actual value of the position.
+	 */
+	public static enum Bound {
+		/** The rating is the exact value. */
+		EXACT,
+		/** The value is at least the rating (the search failed high). */
+		LOWER,
+		/** The value is at most the rating (the search failed low). */
+		UPPER;
+	}
+	
+	/**
+	 * An immutable table entry.
+	 */
+	public static class Entry<M extends GameMove> {
+		private final long key;
+		private final int depth;
+		private final double rating;
+		private final Bound bound;
+		private final M bestMove;
+		
+		private Entry(long key, int depth, double rating, Bound bound, M bestMove) {
+			this.key = key;
+			this.depth = depth;
+			this.rating = rating;
+			this.bound = bound;
+			this.bestMove = bestMove;
+		}
+		
+		/**
+		 * @return The remaining search depth below the stored position
+		 */
+		public int getDepth() {
+			return depth;
+		}
+		
+		public double getRating() {
+			return rating;
+		}
+		
+		public Bound getBound() {
+			return bound;
+		}
+		
+		/**
+		 * @return The best (or refuting) move or null if there is none
+		 */
+		public M getBestMove() {
+			return bestMove;
+		}
+	}
+}
@@ -1,22 +1,21 @@
 package fwcd.fructose.genetic.core;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Random;
 import java.util.Set;
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Supplier;
 
-import fwcd.fructose.Distribution;
 import fwcd.fructose.function.ToFloatFunction;
 import fwcd.fructose.genetic.operators.Crossover;
 import fwcd.fructose.genetic.operators.Decoder;
 import fwcd.fructose.genetic.operators.Encoder;
 import fwcd.fructose.genetic.operators.FitnessFunction;
 import fwcd.fructose.genetic.operators.Mutator;
+import fwcd.fructose.genetic.operators.RouletteSelector;
+import fwcd.fructose.genetic.operators.Selector;
 
 /**
  * A simple population implementation that uses
@@ -28,8 +27,10 @@ import fwcd.fructose.genetic.operators.Mutator;
  * @param <G> - The genotype
  */
 public class BreedingPopulation<G> extends TemplatePopulation<G> {
+	private static final int MAX_SELECTION_ATTEMPTS = 16;
 	private Crossover<G> crossover;
 	private Mutator<G> mutator;
+	private Selector selector = new RouletteSelector();
 	
 	public BreedingPopulation(
 			Crossover<G> crossover,
@@ -45,27 +46,35 @@ public class BreedingPopulation<G> extends TemplatePopulation<G> {
 	}
 	
 	/**
-	 * Selects an individual stochastically from the genotype using a
-	 * weighted distribution based of the fitness values.
+	 * Sets the operator used to select the parents. Defaults
+	 * to a fitness-proportionate {@link RouletteSelector}.
 	 * 
-	 * @return The index of the individual in the genotype
+	 * @param selector - The parent selector
 	 */
-	private int select() {
-		Distribution<G> dist = new Distribution<>();
+	public void setSelector(Selector selector) {
+		this.selector = selector;
+	}
+	
+	/**
+	 * Prepares the selector using the fitness values
+	 * of the current generation.
+	 */
+	private void prepareSelection() {
+		evaluateFitness();
+		List<G> individuals = getAllGenes();
+		float[] fitnesses = new float[individuals.size()];
 		
-		for (G individual : getAllGenes()) {
-			System.out.println(Arrays.toString((float[]) individual));
-			dist.add(individual, Math.max(getFitness(individual), 0));
+		for (int i=0; i<fitnesses.length; i++) {
+			fitnesses[i] = getFitness(individuals.get(i));
 		}
 		
-		return dist.pickIndexStochastically();
+		selector.prepare(fitnesses);
 	}
 	
 	/**
 	 * Mutates every individual with the given chance (mutationChance).
 	 */
-	private void mutate() {
-		final Random random = ThreadLocalRandom.current();
+	private void mutate(Random random) {
 		final List<G> individuals = getAllGenes();
 		final float mutationChance = getMutationChance();
 		
@@ -73,7 +82,7 @@ public class BreedingPopulation<G> extends TemplatePopulation<G> {
 		for (int i=0; i<individualsCount; i++) {
 			if (random.nextFloat() < mutationChance) {
 				G mutation = mutator.mutate(individuals.get(i));
-				individuals.set(i, mutation);
+				setGenes(i, mutation);
 			}
 		}
 	}
@@ -84,13 +93,29 @@ public class BreedingPopulation<G> extends TemplatePopulation<G> {
 	 */
 	@Override
 	public void evolve() {
-		int parentA = select();
-		int parentB;
+		if (size() < 2) {
+			throw new IllegalStateException("Breeding requires at least two individuals!");
+		}
+		
+		withRandom(this::breed);
+		incrementGeneration();
+	}
+	
+	private void breed(Random random) {
+		int individualsCount = size();
+		prepareSelection();
 		
-		do {
-			parentB = select();
-		} while (parentA == parentB); // Require two distinct parents
+		int parentA = selector.select(random);
+		int parentB = selector.select(random);
 		
+		// Require two distinct parents
+		for (int attempt = 0; parentA == parentB && attempt < MAX_SELECTION_ATTEMPTS; attempt++) {
+			parentB = selector.select(random);
+		}
+		if (parentA == parentB) {
+			// The selector strongly favors a single individual
+			parentB = (parentA + 1 + random.nextInt(individualsCount - 1)) % individualsCount;
+		}
 		
 		G childA = crossover.crossover(getGenes(parentA), getGenes(parentB));
 		G childB = crossover.crossover(getGenes(parentA), getGenes(parentB));
@@ -98,12 +123,12 @@ public class BreedingPopulation<G> extends TemplatePopulation<G> {
 		setGenes(parentA, childA);
 		setGenes(parentB, childB);
 		
-		mutate();
-		incrementGeneration();
+		mutate(random);
 	}
 	
 	@Override
 	public G selectBestGenes() {
+		evaluateFitness();
 		G bestGenes = null;
 		float maxFitness = Float.NEGATIVE_INFINITY;
 		
@@ -0,0 +1,498 @@
+package fwcd.fructose.genetic.core;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import fwcd.fructose.RandomStreams;
+import fwcd.fructose.SplitRandom;
+import fwcd.fructose.genetic.operators.FitnessFunction;
+import fwcd.fructose.genetic.operators.FloatSliceCrossover;
+import fwcd.fructose.genetic.operators.FloatSliceMutator;
+import fwcd.fructose.genetic.operators.GaussianFloatMutator;
+import fwcd.fructose.genetic.operators.RouletteSelector;
+import fwcd.fructose.genetic.operators.Selector;
+import fwcd.fructose.genetic.operators.UniformFloatCrossover;
+
+/**
+ * A population of fixed-length float genomes that are packed
+ * into a single contiguous array (individual-major), along with
+ * their fitness values, which are stored by index.
+ * 
+ * <p>Every generation, the fittest individuals survive and the
+ * remaining individuals are replaced by the (possibly mutated)
+ * offspring of selected parents. Crossover and mutation operate
+ * directly on slices of a second buffer, thus evolving
+ * does not allocate any genomes.</p>
+ * 
+ * <p>Methods that return genes as float[] return copies.
+ * Use {@link #getGenomeBuffer()} for direct access.</p>
+ */
+public class FlatFloatPopulation implements Population<float[]> {
+	private static final int MAX_SELECTION_ATTEMPTS = 16;
+	private final int geneCount;
+	private float[] genomes = new float[0];
+	private float[] fitnesses = new float[0];
+	private boolean[] scored = new boolean[0];
+	private int size = 0;
+	private int generation = 0;
+	
+	// Buffers for the next generation
+	private float[] offspringGenomes = new float[0];
+	private float[] offspringFitnesses = new float[0];
+	private boolean[] offspringScored = new boolean[0];
+	private float[] scratch;
+	
+	private FitnessFunction<float[]> fitnessFunc = null;
+	private FloatSliceCrossover crossover = new UniformFloatCrossover();
+	private FloatSliceMutator mutator = new GaussianFloatMutator();
+	private Selector selector = new RouletteSelector();
+	private float mutationChance = 0.1F;
+	private int survivorsPerGeneration = 1;
+	private Long seed = null;
+	
+	/**
+	 * Creates a new, empty population.
+	 * 
+	 * @param geneCount - The length of every genome
+	 */
+	public FlatFloatPopulation(int geneCount) {
+		this.geneCount = geneCount;
+		scratch = new float[geneCount];
+	}
+	
+	/**
+	 * Sets the fitness function used to score individuals whose
+	 * fitness has not been set manually. The function receives a
+	 * reused buffer, which it should neither modify nor keep.
+	 * 
+	 * @param fitnessFunc - The fitness function
+	 */
+	public void setFitnessFunction(FitnessFunction<float[]> fitnessFunc) {
+		this.fitnessFunc = fitnessFunc;
+		Arrays.fill(scored, false);
+	}
+	
+	public void setCrossover(FloatSliceCrossover crossover) {
+		this.crossover = crossover;
+	}
+	
+	public void setMutator(FloatSliceMutator mutator) {
+		this.mutator = mutator;
+	}
+	
+	/**
+	 * Sets the operator used to select the parents. Defaults
+	 * to a fitness-proportionate {@link RouletteSelector}.
+	 * 
+	 * @param selector - The parent selector
+	 */
+	public void setSelector(Selector selector) {
+		this.selector = selector;
+	}
+	
+	public void setSurvivorsPerGeneration(int survivors) {
+		survivorsPerGeneration = survivors;
+	}
+	
+	/**
+	 * Seeds the random number generator used for selection
+	 * and breeding, which is also used by the genetic operators
+	 * (see {@link RandomStreams#current()}). Every generation
+	 * uses its own generator derived from the seed and the
+	 * generation counter (see {@link RandomStreams#forTask}).
+	 * Unseeded populations use the generator of the current thread.
+	 * 
+	 * @param seed - The seed
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+	
+	@Override
+	public void setMutationChance(float chance) {
+		mutationChance = chance;
+	}
+	
+	@Override
+	public int size() {
+		return size;
+	}
+	
+	@Override
+	public int getGeneration() {
+		return generation;
+	}
+	
+	public int getGeneCount() {
+		return geneCount;
+	}
+	
+	/**
+	 * Fetches the array holding all genomes. The genes of
+	 * the individual with the index i start at i * geneCount.
+	 * The buffer is replaced when evolving or adding individuals.
+	 * 
+	 * @return The genome buffer
+	 */
+	public float[] getGenomeBuffer() {
+		return genomes;
+	}
+	
+	/**
+	 * @return The offset of an individual's genes in the genome buffer
+	 */
+	public int getOffset(int index) {
+		return index * geneCount;
+	}
+	
+	/**
+	 * Manually sets the fitness of an individual.
+	 * 
+	 * @param index - The individual's index
+	 * @param fitness - The fitness
+	 */
+	public void setFitness(int index, float fitness) {
+		checkIndex(index);
+		fitnesses[index] = fitness;
+		scored[index] = true;
+	}
+	
+	/**
+	 * Fetches the fitness of an individual, evaluating it if
+	 * necessary. Individuals without a fitness have a fitness
+	 * of negative infinity.
+	 * 
+	 * @param index - The individual's index
+	 * @return The fitness
+	 */
+	public float getFitness(int index) {
+		checkIndex(index);
+		
+		if (!scored[index] && fitnessFunc != null) {
+			System.arraycopy(genomes, getOffset(index), scratch, 0, geneCount);
+			fitnesses[index] = fitnessFunc.getFitness(scratch);
+			scored[index] = true;
+		}
+		
+		return scored[index] ? fitnesses[index] : Float.NEGATIVE_INFINITY;
+	}
+	
+	/**
+	 * Discards the fitness of an individual. This has to be
+	 * called after modifying its genes in the genome buffer.
+	 * 
+	 * @param index - The individual's index
+	 */
+	public void invalidateFitness(int index) {
+		checkIndex(index);
+		scored[index] = false;
+	}
+	
+	@Override
+	public float[] getGenes(int index) {
+		checkIndex(index);
+		return Arrays.copyOfRange(genomes, getOffset(index), getOffset(index + 1));
+	}
+	
+	@Override
+	public void clear() {
+		resize(0);
+	}
+	
+	@Override
+	public void addGenes(float[] genes) {
+		checkLength(genes);
+		resize(size + 1);
+		System.arraycopy(genes, 0, genomes, getOffset(size - 1), geneCount);
+	}
+	
+	@Override
+	public void setAllGenes(List<float[]> individuals) {
+		for (float[] genes : individuals) {
+			checkLength(genes);
+		}
+		
+		resize(0);
+		resize(individuals.size());
+		
+		for (int i=0; i<size; i++) {
+			System.arraycopy(individuals.get(i), 0, genomes, getOffset(i), geneCount);
+		}
+	}
+	
+	@Override
+	public List<float[]> getAllGenes() {
+		List<float[]> individuals = new ArrayList<>(size);
+		for (int i=0; i<size; i++) {
+			individuals.add(getGenes(i));
+		}
+		return individuals;
+	}
+	
+	private void resize(int newSize) {
+		genomes = Arrays.copyOf(genomes, newSize * geneCount);
+		fitnesses = Arrays.copyOf(fitnesses, newSize);
+		scored = Arrays.copyOf(scored, newSize);
+		offspringGenomes = new float[genomes.length];
+		offspringFitnesses = new float[newSize];
+		offspringScored = new boolean[newSize];
+		size = newSize;
+	}
+	
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Individual " + index + " is out of bounds (size: " + size + ")");
+		}
+	}
+	
+	private void checkLength(float[] genes) {
+		if (genes.length != geneCount) {
+			throw new IllegalArgumentException("Expected " + geneCount + " genes, but got " + genes.length);
+		}
+	}
+	
+	/**
+	 * Evaluates the fitness of every individual
+	 * whose fitness is not known yet.
+	 */
+	public void evaluateFitness() {
+		for (int i=0; i<size; i++) {
+			fitnesses[i] = getFitness(i);
+		}
+	}
+	
+	@Override
+	public void evolve() {
+		if (size < 2) {
+			throw new IllegalStateException("Breeding requires at least two individuals!");
+		}
+		
+		if (seed == null) {
+			breed(RandomStreams.current());
+		} else {
+			SplitRandom random = RandomStreams.forTask(seed, generation);
+			RandomStreams.runWith(random, () -> breed(random));
+		}
+		generation++;
+	}
+	
+	private void breed(Random random) {
+		evaluateFitness();
+		selector.prepare(fitnesses);
+		
+		int survivors = Math.min(Math.max(survivorsPerGeneration, 0), size);
+		copySurvivors(survivors);
+		
+		for (int i=survivors; i<size; i++) {
+			int parentA = selector.select(random);
+			int parentB = selector.select(random);
+			
+			// Require two distinct parents
+			for (int attempt = 0; parentA == parentB && attempt < MAX_SELECTION_ATTEMPTS; attempt++) {
+				parentB = selector.select(random);
+			}
+			if (parentA == parentB) {
+				parentB = (parentA + 1 + random.nextInt(size - 1)) % size;
+			}
+			
+			crossover.crossover(genomes, getOffset(parentA), genomes, getOffset(parentB), offspringGenomes, getOffset(i), geneCount);
+			if (random.nextFloat() < mutationChance) {
+				mutator.mutate(offspringGenomes, getOffset(i), geneCount);
+			}
+			offspringScored[i] = false;
+		}
+		
+		swapBuffers();
+	}
+	
+	/**
+	 * Copies the fittest individuals (and their fitness)
+	 * to the start of the offspring buffer.
+	 */
+	private void copySurvivors(int survivors) {
+		// Avoids sorting, since the number of survivors is usually small
+		int previous = -1;
+		
+		for (int i=0; i<survivors; i++) {
+			int fittest = -1;
+			
+			for (int j=0; j<size; j++) {
+				if ((previous < 0 || isFitter(previous, j)) && (fittest < 0 || isFitter(j, fittest))) {
+					fittest = j;
+				}
+			}
+			
+			System.arraycopy(genomes, getOffset(fittest), offspringGenomes, getOffset(i), geneCount);
+			offspringFitnesses[i] = fitnesses[fittest];
+			offspringScored[i] = scored[fittest];
+			previous = fittest;
+		}
+	}
+	
+	/**
+	 * Orders the individuals by descending fitness, ties are broken by index.
+	 */
+	private boolean isFitter(int a, int b) {
+		int comparison = Float.compare(fitnesses[a], fitnesses[b]);
+		return (comparison > 0) || (comparison == 0 && a < b);
+	}
+	
+	private void swapBuffers() {
+		float[] tmpGenomes = genomes;
+		genomes = offspringGenomes;
+		offspringGenomes = tmpGenomes;
+		
+		float[] tmpFitnesses = fitnesses;
+		fitnesses = offspringFitnesses;
+		offspringFitnesses = tmpFitnesses;
+		
+		boolean[] tmpScored = scored;
+		scored = offspringScored;
+		offspringScored = tmpScored;
+	}
+	
+	/**
+	 * @return The index of the fittest individual
+	 */
+	public int selectBestIndex() {
+		if (size == 0) {
+			throw new NoSuchElementException("Can't fetch the fittest genes when there are no individuals!");
+		}
+		
+		int fittest = 0;
+		for (int i=1; i<size; i++) {
+			if (getFitness(i) > getFitness(fittest)) {
+				fittest = i;
+			}
+		}
+		return fittest;
+	}
+	
+	@Override
+	public float[] selectBestGenes() {
+		return getGenes(selectBestIndex());
+	}
+	
+	/**
+	 * Saves this population to a single binary file.
+	 * 
+	 * @param file - The checkpoint file
+	 * @throws IOException If the file could not be written
+	 */
+	public void saveCheckpoint(Path file) throws IOException {
+		PopulationCheckpoint.of(this).write(file);
+	}
+	
+	/**
+	 * Saves this population to a single binary file in
+	 * the background. Evolving the population may continue
+	 * immediately, since the population is copied first.
+	 * 
+	 * @param file - The checkpoint file
+	 * @param executor - The executor writing the file
+	 * @return A future that completes once the file is written
+	 */
+	public CompletableFuture<Void> saveCheckpointAsync(Path file, Executor executor) {
+		return PopulationCheckpoint.of(this).writeAsync(file, executor);
+	}
+	
+	/**
+	 * Restores this population from a checkpoint file.
+	 * 
+	 * @param file - The checkpoint file
+	 * @throws IOException If the file could not be read
+	 */
+	public void loadCheckpoint(Path file) throws IOException {
+		PopulationCheckpoint.read(file).restore(this);
+	}
+	
+	/**
+	 * @return The seed or null if the population is unseeded
+	 */
+	Long getSeed() {
+		return seed;
+	}
+	
+	float[] getFitnessBuffer() {
+		return fitnesses;
+	}
+	
+	boolean[] getScoredBuffer() {
+		return scored;
+	}
+	
+	/**
+	 * Replaces the whole state of this population.
+	 */
+	void restore(float[] genomes, float[] fitnesses, boolean[] scored, int generation, Long seed) {
+		size = fitnesses.length;
+		this.genomes = genomes;
+		this.fitnesses = fitnesses;
+		this.scored = scored;
+		this.generation = generation;
+		offspringGenomes = new float[genomes.length];
+		offspringFitnesses = new float[size];
+		offspringScored = new boolean[size];
+		this.seed = seed;
+	}
+	
+	@Override
+	public void saveTo(OutputStream out) {
+		try (DataOutputStream dos = new DataOutputStream(out)) {
+			dos.writeInt(geneCount);
+			dos.writeInt(size);
+			dos.writeInt(generation);
+			
+			for (int i=0; i<size * geneCount; i++) {
+				dos.writeFloat(genomes[i]);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	@Override
+	public void loadFrom(InputStream in) {
+		try (DataInputStream dis = new DataInputStream(in)) {
+			int storedGeneCount = dis.readInt();
+			if (storedGeneCount != geneCount) {
+				throw new IOException("Expected " + geneCount + " genes per individual, but found " + storedGeneCount);
+			}
+			
+			int storedSize = dis.readInt();
+			int storedGeneration = dis.readInt();
+			resize(0);
+			resize(storedSize);
+			
+			for (int i=0; i<size * geneCount; i++) {
+				genomes[i] = dis.readFloat();
+			}
+			generation = storedGeneration;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	@Override
+	public String toString() {
+		String s = "Population:\n";
+		
+		for (int i=0; i<size; i++) {
+			s += Float.toString(getFitness(i)) + "\t-> " + Arrays.toString(getGenes(i)) + "\n";
+		}
+		
+		return s;
+	}
+}
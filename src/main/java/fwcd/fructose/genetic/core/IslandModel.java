@@ -0,0 +1,302 @@
+package fwcd.fructose.genetic.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+import fwcd.fructose.RandomStreams;
+import fwcd.fructose.concurrent.ClosingExecutor;
+import fwcd.fructose.exception.Rethrow;
+
+/**
+ * An island-model genetic algorithm that evolves multiple
+ * populations ("islands") independently on separate threads.
+ * 
+ * <p>Every few generations, each island sends copies of its
+ * fittest individuals to another island, where they replace
+ * the least fit individuals. The migrants are exchanged over
+ * lock-free queues, thus islands never wait for each other.</p>
+ * 
+ * @param <G> - The genotype
+ */
+public class IslandModel<G> {
+	private final List<Island> islands = new ArrayList<>();
+	private Topology topology = Topology.RING;
+	private UnaryOperator<G> migrantCopier = UnaryOperator.identity();
+	private int migrationInterval = 10;
+	private int migrantsPerMigration = 1;
+	private Long seed = null;
+	
+	/**
+	 * Creates a new island model. The populations should not
+	 * be accessed by other threads while evolving.
+	 * 
+	 * @param populations - The islands
+	 */
+	public IslandModel(List<? extends TemplatePopulation<G>> populations) {
+		if (populations.isEmpty()) {
+			throw new IllegalArgumentException("Needs at least one island");
+		}
+		
+		for (TemplatePopulation<G> population : populations) {
+			islands.add(new Island(population));
+		}
+	}
+	
+	public void setTopology(Topology topology) {
+		this.topology = topology;
+	}
+	
+	/**
+	 * @param generations - The number of generations between two migrations
+	 */
+	public void setMigrationInterval(int generations) {
+		if (generations <= 0) {
+			throw new IllegalArgumentException("Invalid migration interval: " + generations);
+		}
+		migrationInterval = generations;
+	}
+	
+	/**
+	 * @param migrants - The number of individuals sent by each island per migration
+	 */
+	public void setMigrantsPerMigration(int migrants) {
+		if (migrants < 0) {
+			throw new IllegalArgumentException("Invalid number of migrants: " + migrants);
+		}
+		migrantsPerMigration = migrants;
+	}
+	
+	/**
+	 * Seeds the random number generators of the islands. Every
+	 * island uses its own generator (unless its population is
+	 * seeded), which only depends on the seed and the index
+	 * of the island (see {@link RandomStreams#forTask}).
+	 * 
+	 * @param seed - The seed
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+	
+	/**
+	 * Sets the function used to copy migrants before they
+	 * are sent. Since the migrants remain on their origin
+	 * island, this is required when the genes are mutated
+	 * in place. Defaults to sharing the genes.
+	 * 
+	 * @param copier - Copies genes
+	 */
+	public void setMigrantCopier(UnaryOperator<G> copier) {
+		migrantCopier = copier;
+	}
+	
+	/**
+	 * Evolves every island by the given number of generations.
+	 * This method will "block" until all islands are done.
+	 * 
+	 * @param generations - The number of generations
+	 */
+	public void evolve(int generations) {
+		for (Island island : islands) {
+			island.inbox.clear();
+		}
+		
+		try (ClosingExecutor executor = new ClosingExecutor(islands.size())) {
+			List<Future<?>> results = new ArrayList<>();
+			
+			for (int i=0; i<islands.size(); i++) {
+				int index = i;
+				if (seed == null) {
+					results.add(executor.submit(() -> run(index, generations)));
+				} else {
+					long islandSeed = seed;
+					results.add(executor.submit(() -> RandomStreams.runWith(
+						RandomStreams.forTask(islandSeed, index),
+						() -> run(index, generations)
+					)));
+				}
+			}
+			
+			for (Future<?> result : results) {
+				result.get();
+			}
+		} catch (ExecutionException e) {
+			throw new Rethrow("Island failed", e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new Rethrow("Interrupted while evolving islands", e);
+		}
+	}
+	
+	private void run(int index, int generations) {
+		Island island = islands.get(index);
+		long startNanos = System.nanoTime();
+		
+		for (int gen=1; gen<=generations && !Thread.currentThread().isInterrupted(); gen++) {
+			island.population.evolve();
+			
+			if (gen % migrationInterval == 0 && islands.size() > 1) {
+				emigrate(index);
+			}
+			immigrate(island);
+			
+			long nanos = System.nanoTime();
+			island.generations.incrementAndGet();
+			island.nanos.addAndGet(nanos - startNanos);
+			startNanos = nanos;
+		}
+	}
+	
+	private void emigrate(int index) {
+		Island target = islands.get(topology.selectTarget(index, islands.size()));
+		
+		for (G migrant : islands.get(index).population.selectFittestGenes(migrantsPerMigration)) {
+			target.inbox.add(migrantCopier.apply(migrant));
+		}
+	}
+	
+	private void immigrate(Island island) {
+		List<G> immigrants = new ArrayList<>();
+		G immigrant;
+		
+		while ((immigrant = island.inbox.poll()) != null) {
+			immigrants.add(immigrant);
+		}
+		
+		if (!immigrants.isEmpty()) {
+			island.population.replaceWorstGenes(immigrants);
+			island.immigrants.addAndGet(immigrants.size());
+		}
+	}
+	
+	/**
+	 * Selects the fittest individual across all islands.
+	 * 
+	 * @return The fittest genes
+	 */
+	public G selectBestGenes() {
+		G bestGenes = null;
+		float maxFitness = Float.NEGATIVE_INFINITY;
+		
+		for (Island island : islands) {
+			for (G genes : island.population.selectFittestGenes(1)) {
+				float fitness = island.population.getFitness(genes);
+				if (bestGenes == null || fitness > maxFitness) {
+					maxFitness = fitness;
+					bestGenes = genes;
+				}
+			}
+		}
+		
+		if (bestGenes == null) {
+			throw new IllegalStateException("Can't fetch the best genes from empty islands");
+		}
+		
+		return bestGenes;
+	}
+	
+	public int getIslandCount() {
+		return islands.size();
+	}
+	
+	public TemplatePopulation<G> getIsland(int index) {
+		return islands.get(index).population;
+	}
+	
+	/**
+	 * Fetches the statistics of every island. The
+	 * statistics may be queried while evolving.
+	 * 
+	 * @return The statistics, indexed like the islands
+	 */
+	public List<IslandStats> getStats() {
+		List<IslandStats> stats = new ArrayList<>();
+		for (Island island : islands) {
+			stats.add(new IslandStats(island.generations.get(), island.nanos.get(), island.immigrants.get()));
+		}
+		return Collections.unmodifiableList(stats);
+	}
+	
+	/**
+	 * Determines where an island sends its migrants.
+	 */
+	public static enum Topology {
+		/** Every island sends its migrants to its successor. */
+		RING {
+			@Override
+			int selectTarget(int source, int islandCount) {
+				return (source + 1) % islandCount;
+			}
+		},
+		/** Every migration targets a different, randomly chosen island. */
+		RANDOM {
+			@Override
+			int selectTarget(int source, int islandCount) {
+				int target = RandomStreams.current().nextInt(islandCount - 1);
+				return (target >= source) ? (target + 1) : target;
+			}
+		};
+		
+		abstract int selectTarget(int source, int islandCount);
+	}
+	
+	/**
+	 * A snapshot of the progress of a single island.
+	 */
+	public static class IslandStats {
+		private final long generations;
+		private final long nanos;
+		private final long immigrants;
+		
+		private IslandStats(long generations, long nanos, long immigrants) {
+			this.generations = generations;
+			this.nanos = nanos;
+			this.immigrants = immigrants;
+		}
+		
+		/**
+		 * @return The number of generations evolved by this island
+		 */
+		public long getGenerations() {
+			return generations;
+		}
+		
+		/**
+		 * @return The number of generations evolved per second
+		 */
+		public double getGenerationsPerSecond() {
+			return (nanos == 0) ? 0 : (generations / (nanos / 1e9));
+		}
+		
+		/**
+		 * @return The number of individuals received from other islands
+		 */
+		public long getImmigrants() {
+			return immigrants;
+		}
+		
+		@Override
+		public String toString() {
+			return String.format("%d generations (%.1f/s), %d immigrants", generations, getGenerationsPerSecond(), immigrants);
+		}
+	}
+	
+	private class Island {
+		private final TemplatePopulation<G> population;
+		private final Queue<G> inbox = new ConcurrentLinkedQueue<>();
+		private final AtomicLong generations = new AtomicLong();
+		private final AtomicLong nanos = new AtomicLong();
+		private final AtomicLong immigrants = new AtomicLong();
+		
+		public Island(TemplatePopulation<G> population) {
+			this.population = population;
+		}
+	}
+}
@@ -14,8 +14,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
-import java.util.concurrent.ThreadLocalRandom;
 
+import fwcd.fructose.RandomStreams;
 import fwcd.fructose.genetic.operators.Encoder;
 import fwcd.fructose.genetic.operators.GaussianFloatMutator;
 import fwcd.fructose.genetic.operators.Mutator;
@@ -67,7 +67,7 @@ public class ManualPopulation extends TemplatePopulation<float[]> {
 		sortByFitnessDescending(genes);
 		
 		int geneCount = genes.size();
-		mutate(genes, survivorsPerGeneration, geneCount);
+		withRandom(random -> mutate(genes, survivorsPerGeneration, geneCount, random));
 	}
 	
 	/**
@@ -76,9 +76,9 @@ public class ManualPopulation extends TemplatePopulation<float[]> {
 	 * @param genes - All genes
 	 * @param startIndex - The start index (inclusive)
 	 * @param endIndex - The end index (exclusive)
+	 * @param r - The random number generator
 	 */
-	private void mutate(List<float[]> genes, int startIndex, int endIndex) {
-		Random r = ThreadLocalRandom.current();
+	private void mutate(List<float[]> genes, int startIndex, int endIndex, Random r) {
 		float mutationChance = getMutationChance();
 		
 		for (int i=startIndex; i<endIndex; i++) {
@@ -153,7 +153,7 @@ public class ManualPopulation extends TemplatePopulation<float[]> {
 
 	@Override
 	public float[] selectBestGenes() {
-		Random random = ThreadLocalRandom.current();
+		Random random = RandomStreams.current();
 		List<float[]> allGenes = getAllGenes();
 		
 		// Use epsilon-greedy strategy to select genes
@@ -0,0 +1,311 @@
+package fwcd.fructose.genetic.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import fwcd.fructose.exception.Rethrow;
+
+/**
+ * An immutable snapshot of a float population, which
+ * can be stored in (and loaded from) a single binary file.
+ * 
+ * <p>A checkpoint contains the genomes, the fitness values,
+ * the generation counter and the seed of the population
+ * (if it is seeded). The file consists
+ * of a 32-byte header, followed by the packed genomes, the
+ * fitness values and one byte per individual that indicates
+ * whether its fitness is known. Checkpoints are written in bulk
+ * to a temporary file that replaces the destination once it is
+ * complete and loaded using a memory-mapping.</p>
+ */
+public class PopulationCheckpoint {
+	static final int MAGIC = 0x46474331; // "FGC1"
+	static final int VERSION = 1;
+	static final int HEADER_BYTES = 32; // Magic, version, gene count, size, generation, flags and seed
+	private static final int FLAG_SEEDED = 1;
+	private static final int CHUNK_BYTES = 1 << 20;
+	
+	private final int geneCount;
+	private final int generation;
+	private final float[] genomes;
+	private final float[] fitnesses;
+	private final boolean[] scored;
+	private final Long seed;
+	
+	private PopulationCheckpoint(int geneCount, int generation, float[] genomes, float[] fitnesses, boolean[] scored, Long seed) {
+		this.geneCount = geneCount;
+		this.generation = generation;
+		this.genomes = genomes;
+		this.fitnesses = fitnesses;
+		this.scored = scored;
+		this.seed = seed;
+	}
+	
+	/**
+	 * Captures the current state of a population without
+	 * modifying it. Since the random numbers of a seeded population
+	 * only depend on its seed and generation, restoring the
+	 * checkpoint continues with the same random numbers.
+	 * 
+	 * @param population - The population
+	 * @return The checkpoint
+	 */
+	public static PopulationCheckpoint of(FlatFloatPopulation population) {
+		int size = population.size();
+		int geneCount = population.getGeneCount();
+		
+		return new PopulationCheckpoint(
+				geneCount,
+				population.getGeneration(),
+				Arrays.copyOf(population.getGenomeBuffer(), size * geneCount),
+				Arrays.copyOf(population.getFitnessBuffer(), size),
+				Arrays.copyOf(population.getScoredBuffer(), size),
+				population.getSeed()
+		);
+	}
+	
+	/**
+	 * Captures the current state of a population whose
+	 * individuals all have the same number of genes.
+	 * 
+	 * @param population - The population
+	 * @return The checkpoint
+	 */
+	public static PopulationCheckpoint of(ManualPopulation population) {
+		List<float[]> individuals = population.getAllGenes();
+		int size = individuals.size();
+		int geneCount = (size == 0) ? 0 : individuals.get(0).length;
+		long genomeLength = (long) size * geneCount;
+		if (genomeLength > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("The population has too many genes (" + genomeLength + ") for a checkpoint");
+		}
+		
+		float[] genomes = new float[(int) genomeLength];
+		float[] fitnesses = new float[size];
+		boolean[] scored = new boolean[size];
+		
+		for (int i=0; i<size; i++) {
+			float[] genes = individuals.get(i);
+			if (genes.length != geneCount) {
+				throw new IllegalArgumentException("All individuals need to have the same number of genes");
+			}
+			
+			System.arraycopy(genes, 0, genomes, i * geneCount, geneCount);
+			fitnesses[i] = population.getFitness(genes);
+			scored[i] = true;
+		}
+		
+		return new PopulationCheckpoint(geneCount, population.getGeneration(), genomes, fitnesses, scored, null);
+	}
+	
+	/**
+	 * Writes this checkpoint to a file, replacing it
+	 * only once the checkpoint has been written completely.
+	 * 
+	 * @param file - The destination file
+	 * @throws IOException If the file could not be written
+	 */
+	public void write(Path file) throws IOException {
+		// Every write uses its own temporary file, thus concurrent writes can't interfere
+		Path tmpFile = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+		
+		try {
+			writeTo(tmpFile);
+			
+			try {
+				Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException | RuntimeException e) {
+			// Do not leave incomplete checkpoints behind
+			try {
+				Files.deleteIfExists(tmpFile);
+			} catch (IOException suppressed) {
+				e.addSuppressed(suppressed);
+			}
+			throw e;
+		}
+	}
+	
+	private void writeTo(Path tmpFile) throws IOException {
+		try (FileChannel channel = FileChannel.open(tmpFile,
+				StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK_BYTES);
+			buffer.putInt(MAGIC)
+				.putInt(VERSION)
+				.putInt(geneCount)
+				.putInt(size())
+				.putInt(generation)
+				.putInt((seed == null) ? 0 : FLAG_SEEDED)
+				.putLong((seed == null) ? 0 : seed);
+			flush(buffer, channel);
+			
+			writeFloats(genomes, buffer, channel);
+			writeFloats(fitnesses, buffer, channel);
+			
+			for (boolean isScored : scored) {
+				if (!buffer.hasRemaining()) {
+					flush(buffer, channel);
+				}
+				buffer.put((byte) (isScored ? 1 : 0));
+			}
+			flush(buffer, channel);
+			channel.force(false);
+		}
+	}
+	
+	/**
+	 * Writes this checkpoint to a file in the background.
+	 * 
+	 * @param file - The destination file
+	 * @param executor - The executor performing the write
+	 * @return A future that completes once the file is written
+	 */
+	public CompletableFuture<Void> writeAsync(Path file, Executor executor) {
+		return CompletableFuture.runAsync(() -> {
+			try {
+				write(file);
+			} catch (IOException e) {
+				throw new Rethrow("Could not write checkpoint " + file, e);
+			}
+		}, executor);
+	}
+	
+	private void writeFloats(float[] values, ByteBuffer buffer, FileChannel channel) throws IOException {
+		int chunkFloats = CHUNK_BYTES / Float.BYTES;
+		
+		for (int offset=0; offset<values.length; offset+=chunkFloats) {
+			int count = Math.min(chunkFloats, values.length - offset);
+			buffer.asFloatBuffer().put(values, offset, count);
+			buffer.position(count * Float.BYTES);
+			flush(buffer, channel);
+		}
+	}
+	
+	private void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+	
+	/**
+	 * Loads a checkpoint from a file.
+	 * 
+	 * @param file - The checkpoint file
+	 * @return The checkpoint
+	 * @throws IOException If the file could not be read or is not a valid checkpoint
+	 */
+	public static PopulationCheckpoint read(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			
+			if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+				throw new IOException("Not a population checkpoint: " + file);
+			} else if (buffer.getInt(4) != VERSION) {
+				throw new IOException("Unsupported checkpoint version " + buffer.getInt(4) + " in " + file);
+			}
+			
+			int geneCount = buffer.getInt(8);
+			int size = buffer.getInt(12);
+			int generation = buffer.getInt(16);
+			Long seed = ((buffer.getInt(20) & FLAG_SEEDED) != 0) ? buffer.getLong(24) : null;
+			
+			if (geneCount < 0 || size < 0) {
+				throw new IOException("Invalid population checkpoint: " + file);
+			}
+			
+			long genomeLength = (long) size * geneCount;
+			if (genomeLength > Integer.MAX_VALUE) {
+				throw new IOException("Population checkpoint has too many genes (" + genomeLength + "): " + file);
+			}
+			
+			long expectedBytes = HEADER_BYTES + (genomeLength * Float.BYTES) + ((long) size * Float.BYTES) + size;
+			if (buffer.capacity() < expectedBytes) {
+				throw new IOException("Truncated population checkpoint: " + file);
+			}
+			
+			float[] genomes = new float[(int) genomeLength];
+			float[] fitnesses = new float[size];
+			boolean[] scored = new boolean[size];
+			
+			buffer.position(HEADER_BYTES);
+			buffer.asFloatBuffer().get(genomes);
+			buffer.position(buffer.position() + (genomes.length * Float.BYTES));
+			buffer.asFloatBuffer().get(fitnesses);
+			buffer.position(buffer.position() + (fitnesses.length * Float.BYTES));
+			
+			for (int i=0; i<size; i++) {
+				scored[i] = buffer.get() != 0;
+			}
+			
+			return new PopulationCheckpoint(geneCount, generation, genomes, fitnesses, scored, seed);
+		}
+	}
+	
+	/**
+	 * Restores the state of a population from this checkpoint.
+	 * 
+	 * @param population - The population to be overwritten
+	 */
+	public void restore(FlatFloatPopulation population) {
+		if (population.getGeneCount() != geneCount) {
+			throw new IllegalArgumentException("Expected " + population.getGeneCount() + " genes per individual, but the checkpoint has " + geneCount);
+		}
+		
+		population.restore(genomes.clone(), fitnesses.clone(), scored.clone(), generation, seed);
+	}
+	
+	/**
+	 * Restores the state of a population from this checkpoint.
+	 * 
+	 * @param population - The population to be overwritten
+	 */
+	public void restore(ManualPopulation population) {
+		List<float[]> individuals = new ArrayList<>();
+		
+		for (int i=0; i<size(); i++) {
+			individuals.add(Arrays.copyOfRange(genomes, i * geneCount, (i + 1) * geneCount));
+		}
+		
+		population.setAllGenes(individuals);
+		population.setGeneration(generation);
+		
+		for (int i=0; i<size(); i++) {
+			if (scored[i]) {
+				population.setFitness(individuals.get(i), fitnesses[i]);
+			}
+		}
+	}
+	
+	/**
+	 * @return The number of individuals
+	 */
+	public int size() {
+		return fitnesses.length;
+	}
+	
+	public int getGeneCount() {
+		return geneCount;
+	}
+	
+	public int getGeneration() {
+		return generation;
+	}
+}
@@ -7,20 +7,56 @@ import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
+import fwcd.fructose.RandomStreams;
+import fwcd.fructose.SplitRandom;
 import fwcd.fructose.exception.Rethrow;
 import fwcd.fructose.genetic.operators.FitnessFunction;
 import fwcd.fructose.text.StringUtils;
 
+/**
+ * A population that stores its individuals in a list
+ * and memoizes the fitness of every individual until
+ * it is replaced or mutated.
+ * 
+ * <p>Optionally, the fitness values of a generation can be
+ * computed in parallel (see {@link #setFitnessExecutor}).</p>
+ * 
+ * @param <G> - The genotype
+ */
 public abstract class TemplatePopulation<G> implements Population<G> {
 	private FitnessFunction<G> fitnessFunc;
 	private List<G> individuals = new ArrayList<>();
+	private Map<G, Float> fitnessCache = new IdentityHashMap<>(); // Keyed by identity, since genes may be mutated in place
+	private ExecutorService fitnessExecutor = null;
+	private SplitRandom random = null;
 	private float mutationChance = 0.1F;
 	private int generation = 0;
 	
 	public void setFitnessFunction(FitnessFunction<G> fitnessFunc) {
 		this.fitnessFunc = fitnessFunc;
+		fitnessCache.clear();
+	}
+	
+	/**
+	 * Sets the executor on which the fitness of the individuals
+	 * is evaluated (see {@link #evaluateFitness()}). If none is set,
+	 * the fitness is evaluated on the calling thread. The fitness
+	 * function has to be thread-safe when using an executor.
+	 * 
+	 * @param executor - The executor or null
+	 */
+	public void setFitnessExecutor(ExecutorService executor) {
+		fitnessExecutor = executor;
 	}
 	
 	@Override
@@ -31,6 +67,7 @@ public abstract class TemplatePopulation<G> implements Population<G> {
 	@Override
 	public void clear() {
 		individuals.clear();
+		fitnessCache.clear();
 	}
 	
 	@Override
@@ -51,7 +88,51 @@ public abstract class TemplatePopulation<G> implements Population<G> {
 		this.generation = generation;
 	}
 	
+	/**
+	 * Seeds the random number generator used while evolving
+	 * this population, which is also used by the genetic
+	 * operators (see {@link RandomStreams#current()}).
+	 * Unseeded populations use the generator of the
+	 * current thread.
+	 * 
+	 * @param seed - The seed
+	 */
+	public void setSeed(long seed) {
+		random = new SplitRandom(seed);
+	}
+	
+	/**
+	 * Runs a task that uses the random number generator
+	 * of this population (see {@link #setSeed}).
+	 * 
+	 * @param task - Receives the generator
+	 */
+	protected void withRandom(Consumer<Random> task) {
+		if (random == null) {
+			task.accept(RandomStreams.current());
+		} else {
+			RandomStreams.runWith(random, () -> task.accept(random));
+		}
+	}
+	
+	/**
+	 * Fetches the (memoized) fitness of an individual.
+	 * 
+	 * @param genes - The individual's genes
+	 * @return The fitness
+	 */
 	protected float getFitness(G genes) {
+		Float fitness = fitnessCache.get(genes);
+		
+		if (fitness == null) {
+			fitness = computeFitness(genes);
+			fitnessCache.put(genes, fitness);
+		}
+		
+		return fitness;
+	}
+	
+	private float computeFitness(G genes) {
 		if (fitnessFunc == null) {
 			throw new IllegalStateException("No fitness function provided.");
 		} else {
@@ -59,6 +140,64 @@ public abstract class TemplatePopulation<G> implements Population<G> {
 		}
 	}
 	
+	/**
+	 * Evaluates the fitness of every individual whose fitness
+	 * is not known yet, in parallel if an executor is set.
+	 * Afterwards the fitness of the individuals can be
+	 * looked up without invoking the fitness function.
+	 */
+	public void evaluateFitness() {
+		// Forget about individuals that are no longer part of the population
+		Map<G, Float> cache = new IdentityHashMap<>();
+		List<G> pending = new ArrayList<>();
+		
+		for (G genes : individuals) {
+			Float fitness = fitnessCache.get(genes);
+			if (fitness == null) {
+				if (!cache.containsKey(genes)) {
+					pending.add(genes);
+					cache.put(genes, null);
+				}
+			} else {
+				cache.put(genes, fitness);
+			}
+		}
+		
+		fitnessCache = cache;
+		
+		if (fitnessExecutor == null || pending.size() < 2) {
+			for (G genes : pending) {
+				cache.put(genes, computeFitness(genes));
+			}
+		} else {
+			List<Future<Float>> results = new ArrayList<>(pending.size());
+			for (G genes : pending) {
+				results.add(fitnessExecutor.submit(() -> computeFitness(genes)));
+			}
+			
+			try {
+				for (int i=0; i<pending.size(); i++) {
+					cache.put(pending.get(i), results.get(i).get());
+				}
+			} catch (ExecutionException e) {
+				throw new Rethrow("Fitness evaluation failed", e.getCause());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new Rethrow("Interrupted during fitness evaluation", e);
+			}
+		}
+	}
+	
+	/**
+	 * Discards the memoized fitness of an individual. This
+	 * has to be called after mutating genes in place.
+	 * 
+	 * @param genes - The individual's genes
+	 */
+	protected void invalidateFitness(G genes) {
+		fitnessCache.remove(genes);
+	}
+	
 	protected void incrementGeneration() {
 		generation++;
 	}
@@ -69,7 +208,7 @@ public abstract class TemplatePopulation<G> implements Population<G> {
 	}
 
 	protected void setGenes(int index, G genes) {
-		individuals.set(index, genes);
+		invalidateFitness(individuals.set(index, genes));
 	}
 	
 	@Override
@@ -80,6 +219,7 @@ public abstract class TemplatePopulation<G> implements Population<G> {
 	@Override
 	public void setAllGenes(List<G> individuals) {
 		this.individuals = individuals;
+		fitnessCache.clear();
 	}
 
 	@Override
@@ -93,6 +233,7 @@ public abstract class TemplatePopulation<G> implements Population<G> {
 			throw new IllegalStateException("Can't fetch the best genes on an empty population");
 		}
 		
+		evaluateFitness();
 		float maxFitness = Float.NEGATIVE_INFINITY;
 		G fittestGenes = null;
 		
@@ -111,6 +252,59 @@ public abstract class TemplatePopulation<G> implements Population<G> {
 		}
 	}
 
+	/**
+	 * Selects the fittest individuals.
+	 * 
+	 * @param count - The maximum number of individuals
+	 * @return The fittest individuals, in descending order of fitness
+	 */
+	public List<G> selectFittestGenes(int count) {
+		List<G> fittest = new ArrayList<>();
+		for (int index : rankByFitness()) {
+			if (fittest.size() >= count) {
+				break;
+			}
+			fittest.add(individuals.get(index));
+		}
+		return fittest;
+	}
+	
+	/**
+	 * Replaces the least fit individuals with the given genes.
+	 * 
+	 * @param genes - The new individuals (at most as many as the population holds)
+	 */
+	protected void replaceWorstGenes(List<G> genes) {
+		int[] ranking = rankByFitness();
+		int count = Math.min(genes.size(), ranking.length);
+		
+		for (int i=0; i<count; i++) {
+			setGenes(ranking[ranking.length - 1 - i], genes.get(i));
+		}
+	}
+	
+	/**
+	 * @return The indices of the individuals, in descending order of fitness
+	 */
+	private int[] rankByFitness() {
+		evaluateFitness();
+		int n = individuals.size();
+		float[] fitnesses = new float[n];
+		Integer[] indices = new Integer[n];
+		
+		for (int i=0; i<n; i++) {
+			fitnesses[i] = getFitness(individuals.get(i));
+			indices[i] = i;
+		}
+		
+		Arrays.sort(indices, (a, b) -> Float.compare(fitnesses[b], fitnesses[a]));
+		int[] ranking = new int[n];
+		for (int i=0; i<n; i++) {
+			ranking[i] = indices[i];
+		}
+		return ranking;
+	}
+	
 	@Override
 	public void saveTo(OutputStream out) {
 		try (ObjectOutputStream oos = new ObjectOutputStream(out)) {
@@ -125,6 +319,7 @@ public abstract class TemplatePopulation<G> implements Population<G> {
 	public void loadFrom(InputStream in) {
 		try (ObjectInputStream ois = new ObjectInputStream(in)) {
 			individuals = (List<G>) ois.readObject();
+			fitnessCache.clear();
 		} catch (IOException e) {
 			throw new UncheckedIOException(e);
 		} catch (ClassNotFoundException e) {
@@ -0,0 +1,33 @@
+package fwcd.fructose.genetic.operators;
+
+import java.util.Random;
+
+import fwcd.fructose.structs.AliasTable;
+
+/**
+ * Fitness-proportionate selection using an alias table,
+ * thus selecting an individual takes constant time. Negative
+ * fitness values are treated as zero and if no individual
+ * has a positive fitness, all are selected with equal probability.
+ */
+public class AliasSelector implements Selector {
+	private volatile AliasTable table = null;
+	
+	@Override
+	public void prepare(float[] fitnesses) {
+		double[] weights = new double[fitnesses.length];
+		for (int i = 0; i < fitnesses.length; i++) {
+			weights[i] = Math.max(fitnesses[i], 0);
+		}
+		table = new AliasTable(weights);
+	}
+	
+	@Override
+	public int select(Random random) {
+		AliasTable current = table;
+		if (current == null) {
+			throw new IllegalStateException("Selector has not been prepared");
+		}
+		return current.sample(random);
+	}
+}
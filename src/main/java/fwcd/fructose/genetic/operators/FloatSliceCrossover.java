@@ -0,0 +1,23 @@
+package fwcd.fructose.genetic.operators;
+
+/**
+ * A crossover operator that works on slices of
+ * (possibly shared) float arrays, thus it can combine
+ * genomes that are stored contiguously without
+ * allocating any memory.
+ */
+public interface FloatSliceCrossover {
+	/**
+	 * "Cross-breeds" two gene slices into a destination slice,
+	 * which should not overlap with the parent slices.
+	 * 
+	 * @param genesA - The array containing the first parent
+	 * @param offsetA - The start of the first parent
+	 * @param genesB - The array containing the second parent
+	 * @param offsetB - The start of the second parent
+	 * @param child - The destination array
+	 * @param childOffset - The start of the destination slice
+	 * @param length - The number of genes
+	 */
+	void crossover(float[] genesA, int offsetA, float[] genesB, int offsetB, float[] child, int childOffset, int length);
+}
@@ -0,0 +1,16 @@
+package fwcd.fructose.genetic.operators;
+
+/**
+ * A mutation operator that mutates slices of (possibly
+ * shared) float arrays in place.
+ */
+public interface FloatSliceMutator {
+	/**
+	 * Mutates a gene slice in place.
+	 * 
+	 * @param genes - The array containing the genes
+	 * @param offset - The start of the slice
+	 * @param length - The number of genes
+	 */
+	void mutate(float[] genes, int offset, int length);
+}
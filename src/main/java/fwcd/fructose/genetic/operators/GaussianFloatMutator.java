@@ -2,9 +2,10 @@ package fwcd.fructose.genetic.operators;
 
 import java.util.Arrays;
 import java.util.Random;
-import java.util.concurrent.ThreadLocalRandom;
 
-public class GaussianFloatMutator implements Mutator<float[]> {
+import fwcd.fructose.RandomStreams;
+
+public class GaussianFloatMutator implements Mutator<float[]>, FloatSliceMutator {
 	private static final long serialVersionUID = 23465873645873645L;
 	
 	private final float upperBound;
@@ -26,10 +27,6 @@ public class GaussianFloatMutator implements Mutator<float[]> {
 		this.bias = bias;
 	}
 	
-	private float probability(float[] genes) {
-		return 1F / genes.length;
-	}
-	
 	@Override
 	public float[] mutate(float[] genes) {
 		float[] result = Arrays.copyOf(genes, genes.length);
@@ -39,10 +36,15 @@ public class GaussianFloatMutator implements Mutator<float[]> {
 
 	@Override
 	public void mutateInPlace(float[] genes) {
-		Random random = ThreadLocalRandom.current();
-		float probability = probability(genes);
+		mutate(genes, 0, genes.length);
+	}
+	
+	@Override
+	public void mutate(float[] genes, int offset, int length) {
+		Random random = RandomStreams.current();
+		float probability = 1F / length;
 
-		for (int i=0; i<genes.length; i++) {
+		for (int i=offset; i<offset+length; i++) {
 			if (random.nextFloat() < probability) {
 				genes[i] = (genes[i] * (float) random.nextGaussian() * multiplier) + bias;
 				
@@ -0,0 +1,61 @@
+package fwcd.fructose.genetic.operators;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import fwcd.fructose.structs.AliasTable;
+
+/**
+ * Linear rank selection, which selects individuals with a
+ * probability that only depends on their rank (not on the
+ * magnitude of their fitness). Ranks are computed once per
+ * generation in O(n log n), after which selecting an
+ * individual takes constant time.
+ */
+public class RankSelector implements Selector {
+	private final double pressure;
+	private volatile AliasTable table = null;
+	
+	public RankSelector() {
+		this(1.5);
+	}
+	
+	/**
+	 * Creates a new rank selector.
+	 * 
+	 * @param pressure - The expected number of selections of the fittest individual per generation, between 1 (uniform) and 2
+	 */
+	public RankSelector(double pressure) {
+		if (pressure < 1 || pressure > 2) {
+			throw new IllegalArgumentException("Selection pressure has to be between 1 and 2: " + pressure);
+		}
+		this.pressure = pressure;
+	}
+	
+	@Override
+	public void prepare(float[] fitnesses) {
+		int n = fitnesses.length;
+		Integer[] ranking = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			ranking[i] = i;
+		}
+		Arrays.sort(ranking, (a, b) -> Float.compare(fitnesses[a], fitnesses[b]));
+		
+		double[] weights = new double[n];
+		for (int rank = 0; rank < n; rank++) {
+			double relativeRank = (n > 1) ? ((double) rank / (n - 1)) : 1;
+			weights[ranking[rank]] = (2 - pressure) + (2 * (pressure - 1) * relativeRank);
+		}
+		
+		table = new AliasTable(weights);
+	}
+	
+	@Override
+	public int select(Random random) {
+		AliasTable current = table;
+		if (current == null) {
+			throw new IllegalStateException("Selector has not been prepared");
+		}
+		return current.sample(random);
+	}
+}
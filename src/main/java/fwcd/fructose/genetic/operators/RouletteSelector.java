@@ -0,0 +1,61 @@
+package fwcd.fructose.genetic.operators;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Fitness-proportionate ("roulette wheel") selection using
+ * prefix sums and a binary search, thus selecting an individual
+ * takes O(log n) time. Negative fitness values are treated
+ * as zero and if no individual has a positive fitness,
+ * all are selected with equal probability.
+ */
+public class RouletteSelector implements Selector {
+	private volatile double[] cumulativeWeights = new double[0];
+	
+	@Override
+	public void prepare(float[] fitnesses) {
+		cumulativeWeights = cumulativeWeights(fitnesses);
+	}
+	
+	static double[] cumulativeWeights(float[] fitnesses) {
+		double[] cumulative = new double[fitnesses.length];
+		double sum = 0;
+		
+		for (int i = 0; i < fitnesses.length; i++) {
+			sum += Math.max(fitnesses[i], 0);
+			cumulative[i] = sum;
+		}
+		
+		if (sum <= 0) {
+			for (int i = 0; i < cumulative.length; i++) {
+				cumulative[i] = i + 1;
+			}
+		}
+		
+		return cumulative;
+	}
+	
+	/**
+	 * Finds the first index whose cumulative weight
+	 * exceeds the given value.
+	 */
+	static int search(double[] cumulative, double value) {
+		int index = Arrays.binarySearch(cumulative, value);
+		// Equal values belong to the next bucket, skip empty buckets
+		index = (index < 0) ? (-index - 1) : (index + 1);
+		while (index < cumulative.length - 1 && cumulative[index] <= value) {
+			index++;
+		}
+		return Math.min(index, cumulative.length - 1);
+	}
+	
+	@Override
+	public int select(Random random) {
+		double[] cumulative = cumulativeWeights;
+		if (cumulative.length == 0) {
+			throw new IllegalStateException("Can not select from an empty population");
+		}
+		return search(cumulative, random.nextDouble() * cumulative[cumulative.length - 1]);
+	}
+}
@@ -0,0 +1,43 @@
+package fwcd.fructose.genetic.operators;
+
+import java.util.Random;
+
+/**
+ * A genetic operator that stochastically selects
+ * individuals (e.g. as parents) based on their fitness.
+ * 
+ * <p>Selectors precompute their data structures once per
+ * generation in {@link #prepare}, after which every selection
+ * is cheap. Selecting is thread-safe, preparing is not.</p>
+ */
+public interface Selector {
+	/**
+	 * Prepares this selector for a new generation.
+	 * 
+	 * @param fitnesses - The fitness of every individual (indexed like the population)
+	 */
+	void prepare(float[] fitnesses);
+	
+	/**
+	 * Selects an individual.
+	 * 
+	 * @param random - The random number generator
+	 * @return The index of the individual
+	 */
+	int select(Random random);
+	
+	/**
+	 * Selects multiple individuals.
+	 * 
+	 * @param count - The number of individuals to be selected
+	 * @param random - The random number generator
+	 * @return The indices of the individuals
+	 */
+	default int[] selectMany(int count, Random random) {
+		int[] selected = new int[count];
+		for (int i = 0; i < count; i++) {
+			selected[i] = select(random);
+		}
+		return selected;
+	}
+}
@@ -1,8 +1,10 @@
 package fwcd.fructose.genetic.operators;
 
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.Random;
 
-public class SinglePointFloatCrossover implements Crossover<float[]> {
+import fwcd.fructose.RandomStreams;
+
+public class SinglePointFloatCrossover implements Crossover<float[]>, FloatSliceCrossover {
 	private static final long serialVersionUID = 5698219405477450864L;
 	
 	private float fixedOffsetPercent = 0.5F;
@@ -15,24 +17,26 @@ public class SinglePointFloatCrossover implements Crossover<float[]> {
 			throw new IllegalArgumentException("Both gene sequences should be of the same length!");
 		}
 		
-		ThreadLocalRandom random = ThreadLocalRandom.current();
+		float[] result = new float[genesA.length];
+		crossover(genesA, 0, genesB, 0, result, 0, result.length);
+		return result;
+	}
+	
+	@Override
+	public void crossover(float[] genesA, int offsetA, float[] genesB, int offsetB, float[] child, int childOffset, int length) {
+		Random random = RandomStreams.current();
 		
 		boolean swapParents = randomlySwapParents ? random.nextBoolean() : false;
 		float offsetPercent = randomlyChooseOffset ? random.nextFloat() : fixedOffsetPercent;
+		int crossoverPoint = (int) (length * offsetPercent);
 		
-		int length = genesA.length;
-		int offset = (int) (length * offsetPercent);
-		float[] result = new float[length];
-		
-		for (int i=0; i<length; i++) {
-			if ((i < offset) ^ swapParents) {
-				result[i] = genesA[i];
-			} else {
-				result[i] = genesB[i];
-			}
-		}
+		float[] head = swapParents ? genesB : genesA;
+		float[] tail = swapParents ? genesA : genesB;
+		int headOffset = swapParents ? offsetB : offsetA;
+		int tailOffset = swapParents ? offsetA : offsetB;
 		
-		return result;
+		System.arraycopy(head, headOffset, child, childOffset, crossoverPoint);
+		System.arraycopy(tail, tailOffset + crossoverPoint, child, childOffset + crossoverPoint, length - crossoverPoint);
 	}
 
 	public void setFixedOffsetPercent(float fixedOffsetPercent) {
@@ -0,0 +1,57 @@
+package fwcd.fructose.genetic.operators;
+
+import java.util.Random;
+
+/**
+ * Stochastic universal sampling, a fitness-proportionate
+ * selection that places evenly spaced pointers on the roulette
+ * wheel when selecting multiple individuals at once. Compared
+ * to repeated roulette selection, this minimizes the spread
+ * between the expected and the actual number of selections.
+ */
+public class StochasticUniversalSelector implements Selector {
+	private volatile double[] cumulativeWeights = new double[0];
+	
+	@Override
+	public void prepare(float[] fitnesses) {
+		cumulativeWeights = RouletteSelector.cumulativeWeights(fitnesses);
+	}
+	
+	@Override
+	public int select(Random random) {
+		double[] cumulative = cumulativeWeights;
+		requireNonEmpty(cumulative);
+		return RouletteSelector.search(cumulative, random.nextDouble() * cumulative[cumulative.length - 1]);
+	}
+	
+	/**
+	 * Selects multiple individuals in O(n + count) time
+	 * using a single random number.
+	 */
+	@Override
+	public int[] selectMany(int count, Random random) {
+		double[] cumulative = cumulativeWeights;
+		requireNonEmpty(cumulative);
+		
+		int[] selected = new int[count];
+		double spacing = cumulative[cumulative.length - 1] / count;
+		double pointer = random.nextDouble() * spacing;
+		int index = 0;
+		
+		for (int i = 0; i < count; i++) {
+			while (index < cumulative.length - 1 && cumulative[index] <= pointer) {
+				index++;
+			}
+			selected[i] = index;
+			pointer += spacing;
+		}
+		
+		return selected;
+	}
+	
+	private void requireNonEmpty(double[] cumulative) {
+		if (cumulative.length == 0) {
+			throw new IllegalStateException("Can not select from an empty population");
+		}
+	}
+}
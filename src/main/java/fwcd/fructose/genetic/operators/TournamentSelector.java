@@ -0,0 +1,47 @@
+package fwcd.fructose.genetic.operators;
+
+import java.util.Random;
+
+/**
+ * Tournament selection, which picks the fittest of a
+ * few randomly chosen individuals. The tournament size
+ * controls the selection pressure and selecting an
+ * individual takes O(tournament size) time.
+ */
+public class TournamentSelector implements Selector {
+	private final int tournamentSize;
+	private volatile float[] fitnesses = new float[0];
+	
+	public TournamentSelector() {
+		this(2);
+	}
+	
+	public TournamentSelector(int tournamentSize) {
+		if (tournamentSize <= 0) {
+			throw new IllegalArgumentException("Tournament size has to be positive: " + tournamentSize);
+		}
+		this.tournamentSize = tournamentSize;
+	}
+	
+	@Override
+	public void prepare(float[] fitnesses) {
+		this.fitnesses = fitnesses.clone();
+	}
+	
+	@Override
+	public int select(Random random) {
+		float[] current = fitnesses;
+		if (current.length == 0) {
+			throw new IllegalStateException("Can not select from an empty population");
+		}
+		
+		int winner = random.nextInt(current.length);
+		for (int i = 1; i < tournamentSize; i++) {
+			int contender = random.nextInt(current.length);
+			if (current[contender] > current[winner]) {
+				winner = contender;
+			}
+		}
+		return winner;
+	}
+}
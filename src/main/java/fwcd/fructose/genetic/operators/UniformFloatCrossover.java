@@ -1,27 +1,31 @@
 package fwcd.fructose.genetic.operators;
 
 import java.util.Random;
-import java.util.concurrent.ThreadLocalRandom;
 
-public class UniformFloatCrossover implements Crossover<float[]> {
+import fwcd.fructose.RandomStreams;
+
+public class UniformFloatCrossover implements Crossover<float[]>, FloatSliceCrossover {
 	private static final long serialVersionUID = -3045467067945622581L;
 	
 	private float mixingRatio = 0.5F;
 	
 	@Override
 	public float[] crossover(float[] genesA, float[] genesB) {
-		Random random = ThreadLocalRandom.current();
-		int length = Math.min(genesA.length, genesB.length);
-		float[] result = new float[length];
+		float[] result = new float[Math.min(genesA.length, genesB.length)];
+		crossover(genesA, 0, genesB, 0, result, 0, result.length);
+		return result;
+	}
+	
+	@Override
+	public void crossover(float[] genesA, int offsetA, float[] genesB, int offsetB, float[] child, int childOffset, int length) {
+		Random random = RandomStreams.current();
 		
 		for (int i=0; i<length; i++) {
 			if (random.nextFloat() < mixingRatio) {
-				result[i] = genesA[i];
+				child[childOffset + i] = genesA[offsetA + i];
 			} else {
-				result[i] = genesB[i];
+				child[childOffset + i] = genesB[offsetB + i];
 			}
 		}
-		
-		return result;
 	}
 }
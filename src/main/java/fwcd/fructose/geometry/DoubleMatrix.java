@@ -9,6 +9,9 @@ import fwcd.fructose.ArrayIterator;
 import fwcd.fructose.GridPos;
 import fwcd.fructose.exception.SizeMismatchException;
 import fwcd.fructose.math.DoubleTensor;
+import fwcd.fructose.math.decomposition.CholeskyDecomposition;
+import fwcd.fructose.math.decomposition.LUDecomposition;
+import fwcd.fructose.math.decomposition.QRDecomposition;
 import fwcd.fructose.operations.Addable;
 import fwcd.fructose.operations.Multipliable;
 import fwcd.fructose.operations.Subtractable;
@@ -16,6 +19,8 @@ import fwcd.fructose.operations.ToleranceEquatable;
 
 /**
  * An immutable, double-valued matrix. (A rank 2-tensor)
+ * 
+ * <p>The values are stored contiguously in row-major order.</p>
  */
 public class DoubleMatrix implements
 		Iterable<double[]>,
@@ -24,59 +29,96 @@ public class DoubleMatrix implements
 		Subtractable<DoubleMatrix, DoubleMatrix>,
 		Multipliable<DoubleMatrix, DoubleMatrix>,
 		ToleranceEquatable<DoubleMatrix> {
-	private static final long serialVersionUID = 6699594319631613838L;
-	private double[][] data;
+	private static final long serialVersionUID = -2750815862569003373L;
+	private final int width;
+	private final int height;
+	private final double[] values;
 	
 	public DoubleMatrix(int width, int height, ToDoubleFunction<GridPos> generator) {
-		data = new double[height][width];
+		this(width, height, new double[width * height]);
 		
 		for (int y=0; y<height; y++) {
 			for (int x=0; x<width; x++) {
-				data[y][x] = generator.applyAsDouble(new GridPos(x, y));
+				values[(y * width) + x] = generator.applyAsDouble(new GridPos(x, y));
 			}
 		}
 	}
 	
+	/**
+	 * Creates a matrix by copying the given rows.
+	 * 
+	 * @param contents - The rows, which all need to have the same length
+	 */
 	public DoubleMatrix(double[][] contents) {
-		data = contents;
+		this((contents.length == 0) ? 0 : contents[0].length, contents.length, new double[(contents.length == 0) ? 0 : (contents.length * contents[0].length)]);
+		
+		for (int y=0; y<height; y++) {
+			if (contents[y].length != width) {
+				throw new IllegalArgumentException("All rows of a matrix need to have the same length");
+			}
+			System.arraycopy(contents[y], 0, values, y * width, width);
+		}
+	}
+	
+	/**
+	 * Wraps the given values without copying them.
+	 */
+	DoubleMatrix(int width, int height, double[] values) {
+		this.width = width;
+		this.height = height;
+		this.values = values;
+	}
+	
+	/**
+	 * Creates a matrix by copying values in row-major order.
+	 * 
+	 * @param width - The number of columns
+	 * @param height - The number of rows
+	 * @param values - The values, row by row
+	 * @return The matrix
+	 */
+	public static DoubleMatrix ofRowMajor(int width, int height, double[] values) {
+		if (values.length != width * height) {
+			throw new IllegalArgumentException("Expected " + (width * height) + " values, but got " + values.length);
+		}
+		return new DoubleMatrix(width, height, values.clone());
 	}
 	
 	public double get(int x, int y) {
-		return data[y][x];
+		return values[(y * width) + x];
+	}
+	
+	/**
+	 * Directly accesses the row-major values, which may not be modified.
+	 */
+	double[] getValues() {
+		return values;
 	}
 	
 	@Override
 	public DoubleMatrix add(DoubleMatrix other) {
 		verifyEqualSize(other);
 		
-		int width = getWidth();
-		int height = getHeight();
-		double[][] sum = new double[width][height];
+		double[] sum = new double[values.length];
 		
-		for (int y=0; y<height; y++) {
-			for (int x=0; x<width; x++) {
-				sum[y][x] = data[y][x] + other.data[y][x];
-			}
+		for (int i=0; i<values.length; i++) {
+			sum[i] = values[i] + other.values[i];
 		}
 		
-		return new DoubleMatrix(sum);
+		return new DoubleMatrix(width, height, sum);
 	}
 	
 	@Override
 	public DoubleMatrix sub(DoubleMatrix other) {
 		verifyEqualSize(other);
 		
-		int width = getWidth();
-		int height = getHeight();
-		double[][] difference = new double[width][height];
+		double[] difference = new double[values.length];
 		
-		for (int y=0; y<height; y++) {
-			for (int x=0; x<width; x++) {
-				difference[y][x] = data[y][x] - other.data[y][x];
-			}
+		for (int i=0; i<values.length; i++) {
+			difference[i] = values[i] - other.values[i];
 		}
 		
-		return new DoubleMatrix(difference);
+		return new DoubleMatrix(width, height, difference);
 	}
 	
 	public boolean isIdentity(double tolerance) {
@@ -84,14 +126,11 @@ public class DoubleMatrix implements
 			return false;
 		}
 		
-		int width = getWidth();
-		int height = getHeight();
-		
 		for (int y=0; y<height; y++) {
 			for (int x=0; x<width; x++) {
 				double expected = (x == y) ? 1 : 0;
 				
-				if (Math.abs(expected - data[y][x]) > tolerance) {
+				if (Math.abs(expected - get(x, y)) > tolerance) {
 					return false;
 				}
 			}
@@ -105,7 +144,8 @@ public class DoubleMatrix implements
 	}
 	
 	/**
-	 * Calculates the determinant of this matrix.
+	 * Calculates the determinant of this matrix
+	 * using an LU decomposition.
 	 * 
 	 * @return The determinant
 	 * @throws IllegalStateException If the matrix is not square-shaped
@@ -115,26 +155,24 @@ public class DoubleMatrix implements
 			throw new IllegalStateException("Can't calculate the determinant of a non-square matrix.");
 		}
 		
-		return determinant(data);
+		return lu().determinant();
 	}
 	
 	public DoubleMatrix transpose() {
-		int width = getWidth();
-		int height = getHeight();
-		
-		double[][] result = new double[width][height];
+		double[] result = new double[values.length];
 		
 		for (int y=0; y<height; y++) {
 			for (int x=0; x<width; x++) {
-				result[x][y] = data[y][x];
+				result[(x * height) + y] = values[(y * width) + x];
 			}
 		}
 		
-		return new DoubleMatrix(result);
+		return new DoubleMatrix(height, width, result);
 	}
 	
 	/**
-	 * Calculates the inverse of this matrix.
+	 * Calculates the inverse of this matrix
+	 * using an LU decomposition.
 	 * 
 	 * @return The inverse
 	 * @throws IllegalStateException If the matrix is not square-shaped or the determinant is zero
@@ -142,74 +180,68 @@ public class DoubleMatrix implements
 	public DoubleMatrix inverse() {
 		if (!isSquareShaped()) {
 			throw new IllegalStateException("Can't calculate the inverse of a non-square matrix.");
-		} else if (determinant() == 0) {
-			throw new IllegalStateException("Can't calculate the inverse matrix when the determinant is zero.");
-		}
-		
-		// Source: https://github.com/rchen8/Algorithms/blob/master/Matrix.java
-		
-		int width = getWidth();
-		int height = getHeight();
-		double[][] inverse = new double[height][width];
-		
-		// minors and cofactors
-		
-		for (int y=0; y<height; y++) {
-			for (int x=0; x<width; x++) {
-				inverse[y][x] = Math.pow(-1, y + x) * determinant(minor(data, y, x));
-			}
 		}
 		
-		// adjugate and determinant
-		
-		double det = 1D / determinant();
-		for (int y=0; y<height; y++) {
-			for (int x=0; x<=y; x++) {
-				double tmp = inverse[y][x];
-				inverse[y][x] = inverse[x][y] * det;
-				inverse[x][y] = tmp * det;
-			}
+		LUDecomposition lu = lu();
+		if (lu.isSingular()) {
+			throw new IllegalStateException("Can't calculate the inverse matrix when the determinant is zero.");
 		}
 		
-		return new DoubleMatrix(inverse);
+		return lu.inverse();
 	}
 	
-	private double determinant(double[][] mat) {
-		// Source: https://github.com/rchen8/Algorithms/blob/master/Matrix.java
-
-		if (mat.length == 2) {
-			return (mat[0][0] * mat[1][1]) - (mat[0][1] * mat[1][0]);
-		} else {
-			double det = 0;
-			
-			for (int x=0; x<mat[0].length; x++) {
-				det += Math.pow(-1, x) * mat[0][x] * determinant(minor(mat, 0, x));
-			}
-			
-			return det;
-		}
+	/**
+	 * Decomposes this matrix into PA = LU. The decomposition
+	 * can be reused to solve multiple linear systems.
+	 * 
+	 * @return The LU decomposition
+	 * @throws IllegalArgumentException If the matrix is not square-shaped
+	 */
+	public LUDecomposition lu() {
+		return new LUDecomposition(this);
 	}
 	
-	private double[][] minor(double[][] mat, int row, int col) {
-		// Source: https://github.com/rchen8/Algorithms/blob/master/Matrix.java
-		
-		int width = mat[0].length;
-		int height = mat.length;
-		
-		double[][] minor = new double[height - 1][width - 1];
-		
-		for (int y=0; y<height; y++) {
-			for (int x=0; y!=row && x<width; x++) {
-				if (x != col) {
-					int resX = (x < col) ? x : x - 1;
-					int resY = (y < row) ? y : y - 1;
-					
-					minor[resY][resX] = mat[y][x];
-				}
-			}
-		}
-		
-		return minor;
+	/**
+	 * Decomposes this matrix into A = QR.
+	 * 
+	 * @return The QR decomposition
+	 * @throws IllegalArgumentException If the matrix is wider than it is high
+	 */
+	public QRDecomposition qr() {
+		return new QRDecomposition(this);
+	}
+	
+	/**
+	 * Decomposes this (symmetric, positive definite) matrix into A = LL^T.
+	 * 
+	 * @return The Cholesky decomposition
+	 * @throws IllegalArgumentException If the matrix is not symmetric and positive definite
+	 */
+	public CholeskyDecomposition cholesky() {
+		return new CholeskyDecomposition(this);
+	}
+	
+	/**
+	 * Solves the linear system(s) AX = B.
+	 * 
+	 * @param rhs - The right-hand side(s) B as columns
+	 * @return The solution(s) X as columns
+	 * @throws ArithmeticException If the matrix is singular
+	 */
+	public DoubleMatrix solve(DoubleMatrix rhs) {
+		return lu().solve(rhs);
+	}
+	
+	/**
+	 * Finds the least squares solution of an overdetermined
+	 * linear system, i.e. the X that minimizes ||AX - B||.
+	 * 
+	 * @param rhs - The right-hand side(s) B as columns
+	 * @return The solution(s) X as columns
+	 * @throws ArithmeticException If the matrix is rank deficient
+	 */
+	public DoubleMatrix leastSquares(DoubleMatrix rhs) {
+		return qr().solve(rhs);
 	}
 	
 	/**
@@ -222,7 +254,18 @@ public class DoubleMatrix implements
 	 * @return The minor
 	 */
 	public DoubleMatrix minor(int row, int col) {
-		return new DoubleMatrix(minor(data, row, col));
+		double[] minor = new double[(width - 1) * (height - 1)];
+		int i = 0;
+		
+		for (int y=0; y<height; y++) {
+			for (int x=0; y!=row && x<width; x++) {
+				if (x != col) {
+					minor[i++] = values[(y * width) + x];
+				}
+			}
+		}
+		
+		return new DoubleMatrix(width - 1, height - 1, minor);
 	}
 
 	public void verifyEqualSize(DoubleMatrix other) {
@@ -236,17 +279,13 @@ public class DoubleMatrix implements
 	}
 	
 	public DoubleMatrix multiply(double scalar) {
-		int width = getWidth();
-		int height = getHeight();
-		double[][] product = new double[width][height];
+		double[] product = new double[values.length];
 		
-		for (int y=0; y<height; y++) {
-			for (int x=0; x<width; x++) {
-				product[y][x] = data[y][x] * scalar;
-			}
+		for (int i=0; i<values.length; i++) {
+			product[i] = values[i] * scalar;
 		}
 		
-		return new DoubleMatrix(product);
+		return new DoubleMatrix(width, height, product);
 	}
 	
 	public DoubleMatrix multiply(DoubleVector vector) {
@@ -264,40 +303,36 @@ public class DoubleMatrix implements
 	/**
 	 * Multiplies this matrix with another one.<br><br>
 	 * 
-	 * this * other
+	 * this * other<br><br>
+	 * 
+	 * Large products are computed in parallel
+	 * (see {@link DoubleMatrixMultiplier}).
 	 * 
 	 * @param right
 	 * @return MatA * MatB
 	 */
 	@Override
 	public DoubleMatrix multiply(DoubleMatrix right) {
-		if (getWidth() != right.getHeight()) {
-			throw new ArithmeticException("The width of this matrix need to equal the height of the other matrix.");
-		}
-		
-		double[][] product = new double[getHeight()][right.getWidth()];
-		
-		for (int y=0; y<getHeight(); y++) {
-			for (int x=0; x<right.getWidth(); x++) {
-				double cell = 0;
-				
-				for (int i=0; i<data[y].length; i++) {
-					cell += data[y][i] * right.data[i][x];
-				}
-				
-				product[y][x] = cell;
-			}
-		}
-		
-		return new DoubleMatrix(product);
+		return DoubleMatrixMultiplier.DEFAULT.multiply(this, right);
 	}
 
+	/**
+	 * @return A copy of the values as rows
+	 */
+	public double[][] toArray() {
+		double[][] copy = new double[height][];
+		for (int y=0; y<height; y++) {
+			copy[y] = Arrays.copyOfRange(values, y * width, (y + 1) * width);
+		}
+		return copy;
+	}
+	
 	public int getWidth() {
-		return data[0].length;
+		return width;
 	}
 
 	public int getHeight() {
-		return data.length;
+		return height;
 	}
 	
 	@Deprecated
@@ -311,7 +346,7 @@ public class DoubleMatrix implements
 	}
 	
 	public DoubleTensor asTensor() {
-		return new DoubleTensor(data);
+		return new DoubleTensor(toArray());
 	}
 	
 	@Override
@@ -320,7 +355,7 @@ public class DoubleMatrix implements
 		
 		for (int y=0; y<getHeight(); y++) {
 			for (int x=0; x<getWidth(); x++) {
-				s += data[y][x] + " ";
+				s += get(x, y) + " ";
 			}
 			
 			s += "\n";
@@ -331,14 +366,15 @@ public class DoubleMatrix implements
 
 	@Override
 	public Iterator<double[]> iterator() {
-		return new ArrayIterator<>(data);
+		return new ArrayIterator<>(toArray());
 	}
 
 	@Override
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
-		result = prime * result + Arrays.deepHashCode(data);
+		result = prime * result + width;
+		result = prime * result + Arrays.hashCode(values);
 		return result;
 	}
 
@@ -348,14 +384,9 @@ public class DoubleMatrix implements
 			return false;
 		}
 		
-		int width = getWidth();
-		int height = getHeight();
-		
-		for (int y=0; y<height; y++) {
-			for (int x=0; x<width; x++) {
-				if (Math.abs(data[y][x] - other.data[y][x]) > tolerance) {
-					return false;
-				}
+		for (int i=0; i<values.length; i++) {
+			if (Math.abs(values[i] - other.values[i]) > tolerance) {
+				return false;
 			}
 		}
 		
@@ -374,7 +405,7 @@ public class DoubleMatrix implements
 			return false;
 		}
 		DoubleMatrix other = (DoubleMatrix) obj;
-		if (!Arrays.deepEquals(data, other.data)) {
+		if (width != other.width || height != other.height || !Arrays.equals(values, other.values)) {
 			return false;
 		}
 		return true;
@@ -0,0 +1,278 @@
+package fwcd.fructose.geometry;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Multiplies dense {@link DoubleMatrix DoubleMatrices}.
+ * 
+ * <p>The product is computed block by block, so that the accessed
+ * parts of both operands fit into the cache, using a kernel that
+ * updates four rows of the result at once. Large products are
+ * recursively split into halves on a {@link ForkJoinPool}. Optionally,
+ * very large square matrices are multiplied using Strassen's
+ * algorithm, which trades a few additions for one of the eight
+ * block multiplications per level (but is numerically
+ * slightly less accurate).</p>
+ */
+public class DoubleMatrixMultiplier {
+	static final DoubleMatrixMultiplier DEFAULT = new DoubleMatrixMultiplier();
+	
+	private static final int BLOCK_SIZE = 64;
+	private static final int ROW_UNROLL = 4;
+	private static final long SEQUENTIAL_THRESHOLD = 1L << 18; // Multiply-adds per task
+	
+	private ForkJoinPool pool = ForkJoinPool.commonPool();
+	private int strassenThreshold = 0;
+	
+	/**
+	 * @param pool - The pool used to compute large products in parallel
+	 */
+	public void setPool(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+	
+	/**
+	 * Enables Strassen's algorithm for square matrices
+	 * whose size is at least the given threshold.
+	 * 
+	 * @param threshold - The minimum size (0 disables Strassen's algorithm)
+	 */
+	public void setStrassenThreshold(int threshold) {
+		if (threshold < 0) {
+			throw new IllegalArgumentException("Invalid Strassen threshold: " + threshold);
+		}
+		strassenThreshold = threshold;
+	}
+	
+	/**
+	 * Multiplies two matrices.
+	 * 
+	 * @param left - The left factor
+	 * @param right - The right factor
+	 * @return left * right
+	 */
+	public DoubleMatrix multiply(DoubleMatrix left, DoubleMatrix right) {
+		if (left.getWidth() != right.getHeight()) {
+			throw new ArithmeticException("The width of this matrix need to equal the height of the other matrix.");
+		}
+		
+		int m = left.getHeight();
+		int k = left.getWidth();
+		int n = right.getWidth();
+		double[] product;
+		
+		if (strassenThreshold > 0 && m == k && k == n && n >= strassenThreshold) {
+			product = strassen(left.getValues(), right.getValues(), n);
+		} else {
+			product = new double[m * n];
+			multiplyBlocked(left.getValues(), right.getValues(), product, m, k, n);
+		}
+		
+		return new DoubleMatrix(n, m, product);
+	}
+	
+	/**
+	 * Computes c += a * b for row-major matrices.
+	 */
+	private void multiplyBlocked(double[] a, double[] b, double[] c, int m, int k, int n) {
+		if ((long) m * k * n <= SEQUENTIAL_THRESHOLD) {
+			multiplyRange(a, b, c, k, n, 0, m, 0, n);
+		} else {
+			pool.invoke(new BlockTask(a, b, c, k, n, 0, m, 0, n));
+		}
+	}
+	
+	/**
+	 * Recursively splits the result into halves along
+	 * its larger dimension, which are computed in parallel.
+	 */
+	private static class BlockTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final double[] a;
+		private final double[] b;
+		private final double[] c;
+		private final int k;
+		private final int n;
+		private final int rowFrom;
+		private final int rowTo;
+		private final int colFrom;
+		private final int colTo;
+		
+		public BlockTask(double[] a, double[] b, double[] c, int k, int n, int rowFrom, int rowTo, int colFrom, int colTo) {
+			this.a = a;
+			this.b = b;
+			this.c = c;
+			this.k = k;
+			this.n = n;
+			this.rowFrom = rowFrom;
+			this.rowTo = rowTo;
+			this.colFrom = colFrom;
+			this.colTo = colTo;
+		}
+		
+		@Override
+		protected void compute() {
+			int rows = rowTo - rowFrom;
+			int cols = colTo - colFrom;
+			
+			if ((long) rows * cols * k <= SEQUENTIAL_THRESHOLD || (rows <= BLOCK_SIZE && cols <= BLOCK_SIZE)) {
+				multiplyRange(a, b, c, k, n, rowFrom, rowTo, colFrom, colTo);
+			} else if (rows >= cols) {
+				int middle = rowFrom + alignedHalf(rows, ROW_UNROLL);
+				invokeAll(
+					new BlockTask(a, b, c, k, n, rowFrom, middle, colFrom, colTo),
+					new BlockTask(a, b, c, k, n, middle, rowTo, colFrom, colTo)
+				);
+			} else {
+				int middle = colFrom + alignedHalf(cols, BLOCK_SIZE);
+				invokeAll(
+					new BlockTask(a, b, c, k, n, rowFrom, rowTo, colFrom, middle),
+					new BlockTask(a, b, c, k, n, rowFrom, rowTo, middle, colTo)
+				);
+			}
+		}
+		
+		private static int alignedHalf(int length, int alignment) {
+			int half = ((length / 2) / alignment) * alignment;
+			return (half == 0) ? (length / 2) : half;
+		}
+	}
+	
+	/**
+	 * Computes a rectangular part of c += a * b using cache-sized blocks.
+	 */
+	private static void multiplyRange(double[] a, double[] b, double[] c, int k, int n, int rowFrom, int rowTo, int colFrom, int colTo) {
+		for (int kBlock=0; kBlock<k; kBlock+=BLOCK_SIZE) {
+			int kEnd = Math.min(kBlock + BLOCK_SIZE, k);
+			
+			for (int colBlock=colFrom; colBlock<colTo; colBlock+=BLOCK_SIZE) {
+				int colEnd = Math.min(colBlock + BLOCK_SIZE, colTo);
+				int row = rowFrom;
+				
+				for (; row+ROW_UNROLL<=rowTo; row+=ROW_UNROLL) {
+					multiplyFourRows(a, b, c, k, n, row, kBlock, kEnd, colBlock, colEnd);
+				}
+				for (; row<rowTo; row++) {
+					multiplyRow(a, b, c, k, n, row, kBlock, kEnd, colBlock, colEnd);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * The micro-kernel, which reuses every loaded value of b for four rows.
+	 */
+	private static void multiplyFourRows(double[] a, double[] b, double[] c, int k, int n, int row, int kFrom, int kTo, int colFrom, int colTo) {
+		int a0 = row * k;
+		int a1 = a0 + k;
+		int a2 = a1 + k;
+		int a3 = a2 + k;
+		int c0 = row * n;
+		int c1 = c0 + n;
+		int c2 = c1 + n;
+		int c3 = c2 + n;
+		
+		for (int p=kFrom; p<kTo; p++) {
+			double v0 = a[a0 + p];
+			double v1 = a[a1 + p];
+			double v2 = a[a2 + p];
+			double v3 = a[a3 + p];
+			int bRow = p * n;
+			
+			for (int col=colFrom; col<colTo; col++) {
+				double bv = b[bRow + col];
+				c[c0 + col] += v0 * bv;
+				c[c1 + col] += v1 * bv;
+				c[c2 + col] += v2 * bv;
+				c[c3 + col] += v3 * bv;
+			}
+		}
+	}
+	
+	private static void multiplyRow(double[] a, double[] b, double[] c, int k, int n, int row, int kFrom, int kTo, int colFrom, int colTo) {
+		int aRow = row * k;
+		int cRow = row * n;
+		
+		for (int p=kFrom; p<kTo; p++) {
+			double v = a[aRow + p];
+			int bRow = p * n;
+			
+			for (int col=colFrom; col<colTo; col++) {
+				c[cRow + col] += v * b[bRow + col];
+			}
+		}
+	}
+	
+	/**
+	 * Multiplies two square matrices using Strassen's algorithm,
+	 * falling back to blocked multiplication for small or odd sizes.
+	 */
+	private double[] strassen(double[] a, double[] b, int size) {
+		if (size < strassenThreshold || (size % 2) != 0) {
+			double[] c = new double[size * size];
+			multiplyBlocked(a, b, c, size, size, size);
+			return c;
+		}
+		
+		int h = size / 2;
+		double[] a11 = quadrant(a, size, 0, 0);
+		double[] a12 = quadrant(a, size, 0, h);
+		double[] a21 = quadrant(a, size, h, 0);
+		double[] a22 = quadrant(a, size, h, h);
+		double[] b11 = quadrant(b, size, 0, 0);
+		double[] b12 = quadrant(b, size, 0, h);
+		double[] b21 = quadrant(b, size, h, 0);
+		double[] b22 = quadrant(b, size, h, h);
+		
+		double[] m1 = strassen(add(a11, a22), add(b11, b22), h);
+		double[] m2 = strassen(add(a21, a22), b11, h);
+		double[] m3 = strassen(a11, sub(b12, b22), h);
+		double[] m4 = strassen(a22, sub(b21, b11), h);
+		double[] m5 = strassen(add(a11, a12), b22, h);
+		double[] m6 = strassen(sub(a21, a11), add(b11, b12), h);
+		double[] m7 = strassen(sub(a12, a22), add(b21, b22), h);
+		
+		double[] c = new double[size * size];
+		for (int y=0; y<h; y++) {
+			int top = y * size;
+			int bottom = (y + h) * size;
+			int q = y * h;
+			
+			for (int x=0; x<h; x++) {
+				int i = q + x;
+				c[top + x] = (m1[i] + m4[i]) - m5[i] + m7[i];
+				c[top + h + x] = m3[i] + m5[i];
+				c[bottom + x] = m2[i] + m4[i];
+				c[bottom + h + x] = (m1[i] - m2[i]) + m3[i] + m6[i];
+			}
+		}
+		
+		return c;
+	}
+	
+	private static double[] quadrant(double[] matrix, int size, int rowOffset, int colOffset) {
+		int h = size / 2;
+		double[] result = new double[h * h];
+		for (int y=0; y<h; y++) {
+			System.arraycopy(matrix, ((y + rowOffset) * size) + colOffset, result, y * h, h);
+		}
+		return result;
+	}
+	
+	private static double[] add(double[] a, double[] b) {
+		double[] sum = new double[a.length];
+		for (int i=0; i<a.length; i++) {
+			sum[i] = a[i] + b[i];
+		}
+		return sum;
+	}
+	
+	private static double[] sub(double[] a, double[] b) {
+		double[] difference = new double[a.length];
+		for (int i=0; i<a.length; i++) {
+			difference[i] = a[i] - b[i];
+		}
+		return difference;
+	}
+}
@@ -0,0 +1,239 @@
+package fwcd.fructose.math;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Exact combinatorial functions on big integers.
+ * 
+ * <p>Factorials are computed using Luschny's prime swing
+ * algorithm and binomial coefficients using their prime
+ * power decomposition (Kummer's theorem), both of which
+ * multiply the resulting prime powers in a balanced product
+ * tree, thus the operands of every multiplication
+ * have similar sizes.</p>
+ */
+public final class Combinatorics {
+	private static final int SEQUENTIAL_PRODUCT_THRESHOLD = 64;
+	private static final int PARALLEL_PRODUCT_THRESHOLD = 4096;
+	
+	private Combinatorics() {}
+	
+	/**
+	 * Computes a Fibonacci number in O(log n) multiplications
+	 * using the "fast doubling" identities
+	 * F(2k) = F(k) * (2F(k + 1) - F(k)) and
+	 * F(2k + 1) = F(k)^2 + F(k + 1)^2.
+	 * 
+	 * @param n - The non-negative index
+	 * @return F(n)
+	 */
+	public static BigInteger fibonacci(long n) {
+		return fibonacciPair(n)[0];
+	}
+	
+	/**
+	 * Computes a Lucas number using L(n) = 2F(n + 1) - F(n).
+	 * 
+	 * @param n - The non-negative index
+	 * @return L(n)
+	 */
+	public static BigInteger lucas(long n) {
+		BigInteger[] pair = fibonacciPair(n);
+		return pair[1].shiftLeft(1).subtract(pair[0]);
+	}
+	
+	/**
+	 * @return F(n) and F(n + 1)
+	 */
+	private static BigInteger[] fibonacciPair(long n) {
+		if (n < 0) {
+			throw new IllegalArgumentException("Negative index: " + n);
+		}
+		
+		BigInteger a = BigInteger.ZERO; // F(k)
+		BigInteger b = BigInteger.ONE; // F(k + 1)
+		
+		for (int bit = 63 - Long.numberOfLeadingZeros(n); bit >= 0; bit--) {
+			BigInteger doubled = a.multiply(b.shiftLeft(1).subtract(a)); // F(2k)
+			BigInteger doubledNext = a.multiply(a).add(b.multiply(b)); // F(2k + 1)
+			
+			if (((n >>> bit) & 1) == 0) {
+				a = doubled;
+				b = doubledNext;
+			} else {
+				a = doubledNext;
+				b = doubled.add(doubledNext);
+			}
+		}
+		
+		return new BigInteger[] {a, b};
+	}
+	
+	/**
+	 * Computes n! using the prime swing algorithm,
+	 * based on n! = (floor(n / 2)!)^2 * swing(n).
+	 * 
+	 * @param n - The non-negative number
+	 * @return n!
+	 */
+	public static BigInteger factorial(int n) {
+		if (n < 0) {
+			throw new IllegalArgumentException("Negative factorial: " + n);
+		} else if (n < 2) {
+			return BigInteger.ONE;
+		}
+		
+		return factorial(n, new ESieve(n).toArray());
+	}
+	
+	private static BigInteger factorial(int n, int[] primes) {
+		if (n < 2) {
+			return BigInteger.ONE;
+		}
+		
+		BigInteger half = factorial(n / 2, primes);
+		return half.multiply(half).multiply(swing(n, primes));
+	}
+	
+	/**
+	 * Computes the swinging factorial n! / (floor(n / 2)!)^2
+	 * from its prime factorization.
+	 */
+	private static BigInteger swing(int n, int[] primes) {
+		int primeCount = upperBound(primes, n);
+		long[] factors = new long[primeCount];
+		int count = 0;
+		int sqrt = (int) OddSieve.isqrt(n);
+		
+		for (int i = 0; i < primeCount; i++) {
+			int p = primes[i];
+			
+			if (p <= sqrt) {
+				long power = 1;
+				for (int q = n / p; q > 0; q /= p) {
+					if ((q & 1) == 1) {
+						power *= p;
+					}
+				}
+				if (power > 1) {
+					factors[count++] = power;
+				}
+			} else if (p <= n / 3) {
+				if (((n / p) & 1) == 1) {
+					factors[count++] = p;
+				}
+			} else if (p > n / 2) {
+				factors[count++] = p;
+			}
+		}
+		
+		return product(factors, count);
+	}
+	
+	/**
+	 * Computes the binomial coefficient from its prime factorization:
+	 * By Kummer's theorem, the exponent of p equals the number of
+	 * carries when adding k and n - k in base p.
+	 * 
+	 * @param n - The non-negative number of elements
+	 * @param k - The number of chosen elements
+	 * @return n choose k (or 0 if k is not in [0, n])
+	 */
+	public static BigInteger binomial(int n, int k) {
+		if (n < 0) {
+			throw new IllegalArgumentException("Negative number of elements: " + n);
+		} else if (k < 0 || k > n) {
+			return BigInteger.ZERO;
+		}
+		
+		int r = Math.min(k, n - k);
+		if (r == 0) {
+			return BigInteger.ONE;
+		}
+		
+		int[] primes = new ESieve(n).toArray();
+		long[] factors = new long[primes.length];
+		int count = 0;
+		
+		for (int p : primes) {
+			if (p > n - r) {
+				factors[count++] = p; // Divides the numerator exactly once, but not the denominator
+				continue;
+			}
+			
+			long power = 1;
+			int carry = 0;
+			for (int a = n, b = r; a > 0; a /= p, b /= p) {
+				// A carry occurs if the digit of n is less than the digits of r (plus the previous carry)
+				carry = ((a % p) < (b % p) + carry) ? 1 : 0;
+				if (carry == 1) {
+					power *= p;
+				}
+			}
+			
+			if (power > 1) {
+				factors[count++] = power;
+			}
+		}
+		
+		return product(factors, count);
+	}
+	
+	/**
+	 * Multiplies numbers using a balanced product tree,
+	 * whose subtrees are computed in parallel.
+	 * 
+	 * @param values - The factors
+	 * @param count - The number of factors to be multiplied
+	 * @return The product
+	 */
+	static BigInteger product(long[] values, int count) {
+		if (count < PARALLEL_PRODUCT_THRESHOLD) {
+			return product(values, 0, count);
+		}
+		
+		int chunks = ExtMath.ceilDivide(count, PARALLEL_PRODUCT_THRESHOLD / 4);
+		return IntStream.range(0, chunks)
+				.parallel()
+				.mapToObj(chunk -> {
+					int from = (int) (((long) chunk * count) / chunks);
+					int to = (int) (((long) (chunk + 1) * count) / chunks);
+					return product(values, from, to);
+				})
+				.reduce(BigInteger.ONE, BigInteger::multiply); // Combined pairwise, since the stream is split in halves
+	}
+	
+	private static BigInteger product(long[] values, int from, int to) {
+		int length = to - from;
+		
+		if (length <= SEQUENTIAL_PRODUCT_THRESHOLD) {
+			BigInteger result = BigInteger.ONE;
+			long partial = 1;
+			
+			for (int i = from; i < to; i++) {
+				long value = values[i];
+				if (partial != 1 && Long.numberOfLeadingZeros(partial) + Long.numberOfLeadingZeros(value) < 65) {
+					result = result.multiply(BigInteger.valueOf(partial)); // The product could overflow
+					partial = value;
+				} else {
+					partial *= value;
+				}
+			}
+			
+			return result.multiply(BigInteger.valueOf(partial));
+		}
+		
+		int middle = from + (length / 2);
+		return product(values, from, middle).multiply(product(values, middle, to));
+	}
+	
+	/**
+	 * @return The number of sorted values less than or equal to the given bound
+	 */
+	private static int upperBound(int[] sorted, int bound) {
+		int index = Arrays.binarySearch(sorted, bound);
+		return (index >= 0) ? (index + 1) : -(index + 1);
+	}
+}
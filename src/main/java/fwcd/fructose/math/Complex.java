@@ -138,6 +138,7 @@ public class Complex implements Numeric<Complex>, FieldElement<Complex> {
 		return multiply(this);
 	}
 	
+	@Override
 	public double abs() {
 		return Math.sqrt((real * real) + (imag * imag));
 	}
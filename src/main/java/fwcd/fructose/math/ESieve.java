@@ -2,52 +2,240 @@ package fwcd.fructose.math;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
 /**
  * Sieve of Eratosthenes (generating primes).
  * 
+ * <p>The sieve only stores odd numbers, one bit per number,
+ * thus sieving up to 2^32 requires 256 MiB. The numbers are
+ * sieved in cache-sized segments, which are processed
+ * in parallel.</p>
+ * 
  * @author Fredrik
  *
  */
 public class ESieve implements Iterable<Integer> {
-	private List<Integer> primes = new ArrayList<>();
+	/** The largest supported bound. */
+	public static final long MAX_BOUND = 1L << 32;
+	private static final int SEGMENT_WORDS = 4096; // 32 KiB
+	private static final int BLOCK_WORDS = 512; // Granularity of the prime counts
+	
+	private final long bound;
+	private final long[] bits; // Bit i represents 2i + 1
+	private final int[] blockCounts; // The number of odd primes preceding each block
+	private volatile int[] primes = null;
 	
 	/**
 	 * Constructs a prime sieve using the algorithm from
 	 * https://de.wikipedia.org/wiki/Sieb_des_Eratosthenes
 	 * 
-	 * @param bound
+	 * @param bound - The (inclusive) upper bound
 	 */
 	public ESieve(int bound) {
-		Map<Integer, Boolean> sieve = new HashMap<>();
+		this((long) bound);
+	}
+	
+	/**
+	 * Sieves the primes up to the given bound
+	 * using the common {@link ForkJoinPool}.
+	 * 
+	 * @param bound - The (inclusive) upper bound, at most {@link #MAX_BOUND}
+	 */
+	public ESieve(long bound) {
+		this(bound, ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Sieves the primes up to the given bound.
+	 * 
+	 * @param bound - The (inclusive) upper bound, at most {@link #MAX_BOUND}
+	 * @param pool - The pool used to sieve the segments in parallel
+	 */
+	public ESieve(long bound, ForkJoinPool pool) {
+		if (bound > MAX_BOUND) {
+			throw new IllegalArgumentException("Bound " + bound + " exceeds the maximum of " + MAX_BOUND);
+		}
+		
+		this.bound = Math.max(bound, 0);
+		long bitCount = (this.bound + 1) / 2;
+		int words = (int) ((bitCount + 63) / 64);
+		bits = new long[words];
+		
+		int[] basePrimes = OddSieve.smallOddPrimes((int) OddSieve.isqrt(this.bound));
+		int segments = ExtMath.ceilDivide(words, SEGMENT_WORDS);
+		
+		pool.submit(() -> IntStream.range(0, segments)
+				.parallel()
+				.forEach(segment -> {
+					int fromWord = segment * SEGMENT_WORDS;
+					int toWord = Math.min(fromWord + SEGMENT_WORDS, words);
+					OddSieve.sieve(bits, fromWord, toWord, (long) fromWord * 64, basePrimes);
+				}))
+			.join();
+		
+		if (bitCount % 64 != 0) {
+			bits[words - 1] &= (1L << (bitCount % 64)) - 1; // Clear the bits beyond the bound
+		}
 		
-		for (int i=2; i<=bound; i++) {
-			sieve.put(i, true);
+		int blocks = ExtMath.ceilDivide(words, BLOCK_WORDS);
+		blockCounts = new int[blocks + 1];
+		pool.submit(() -> IntStream.range(0, blocks)
+				.parallel()
+				.forEach(block -> blockCounts[block + 1] = countBits(block * BLOCK_WORDS, Math.min((block + 1) * BLOCK_WORDS, words))))
+			.join();
+		
+		for (int block = 0; block < blocks; block++) {
+			blockCounts[block + 1] += blockCounts[block];
+		}
+	}
+	
+	private int countBits(int fromWord, int toWord) {
+		int count = 0;
+		for (int w = fromWord; w < toWord; w++) {
+			count += Long.bitCount(bits[w]);
+		}
+		return count;
+	}
+	
+	public long getBound() {
+		return bound;
+	}
+	
+	/**
+	 * Checks whether a number is prime in constant time.
+	 * 
+	 * @param number - A number that does not exceed the bound
+	 * @return Whether the number is prime
+	 */
+	public boolean isPrime(long number) {
+		if (number > bound) {
+			throw new IllegalArgumentException(number + " exceeds the bound of the sieve (" + bound + ")");
+		} else if (number < 3) {
+			return number == 2;
+		} else if ((number & 1) == 0) {
+			return false;
 		}
 		
-		for (int i=2; i<=Math.sqrt(bound); i++) {
-			if (sieve.get(i)) {
-				primes.add(i);
-				
-				for (int j=i*i; j<=bound; j += i) {
-					sieve.put(j, false);
+		long bit = (number - 1) / 2;
+		return (bits[(int) (bit >>> 6)] & (1L << bit)) != 0;
+	}
+	
+	/**
+	 * Counts the primes up to a number (the prime-counting
+	 * function) using precomputed block counts.
+	 * 
+	 * @param x - The (inclusive) limit, which does not exceed the bound
+	 * @return The number of primes less than or equal to x
+	 */
+	public int pi(long x) {
+		if (x > bound) {
+			throw new IllegalArgumentException(x + " exceeds the bound of the sieve (" + bound + ")");
+		} else if (x < 2) {
+			return 0;
+		}
+		
+		long lastBit = (x - 1) / 2;
+		int word = (int) (lastBit >>> 6);
+		int block = word / BLOCK_WORDS;
+		int bitInWord = (int) (lastBit & 63);
+		long mask = (bitInWord == 63) ? -1L : ((1L << (bitInWord + 1)) - 1);
+		
+		return 1 // The only even prime
+				+ blockCounts[block]
+				+ countBits(block * BLOCK_WORDS, word)
+				+ Long.bitCount(bits[word] & mask);
+	}
+	
+	/**
+	 * @return The number of primes up to the bound
+	 */
+	public int count() {
+		return pi(bound);
+	}
+	
+	/**
+	 * Fetches all sieved primes. The array is
+	 * created (in parallel) on the first call.
+	 * 
+	 * @return The primes in ascending order
+	 */
+	public int[] toArray() {
+		return getPrimes().clone();
+	}
+	
+	private int[] getPrimes() {
+		int[] result = primes;
+		
+		if (result == null) {
+			synchronized (this) {
+				result = primes;
+				if (result == null) {
+					if (bound > Integer.MAX_VALUE) {
+						throw new ArithmeticException("The primes up to " + bound + " do not fit into an int[], use longStream() instead");
+					}
+					result = collectPrimes();
+					primes = result;
 				}
 			}
 		}
 		
-		for (int i=(int) Math.sqrt(bound)+1; i<=bound; i++) {
-			if (sieve.get(i)) {
-				primes.add(i);
-			}
+		return result;
+	}
+	
+	private int[] collectPrimes() {
+		int[] result = new int[count()];
+		if (result.length == 0) {
+			return result;
 		}
+		
+		result[0] = 2;
+		IntStream.range(0, blockCounts.length - 1).parallel().forEach(block -> {
+			int index = 1 + blockCounts[block];
+			int toWord = Math.min((block + 1) * BLOCK_WORDS, bits.length);
+			
+			for (int w = block * BLOCK_WORDS; w < toWord; w++) {
+				for (long word = bits[w]; word != 0; word &= word - 1) {
+					result[index++] = (int) (2 * ((w * 64L) + Long.numberOfTrailingZeros(word)) + 1);
+				}
+			}
+		});
+		return result;
+	}
+	
+	/**
+	 * @return The primes in ascending order
+	 */
+	public IntStream stream() {
+		return IntStream.of(getPrimes());
+	}
+	
+	/**
+	 * Streams the primes without materializing them, which also
+	 * works for bounds beyond {@link Integer#MAX_VALUE}.
+	 * 
+	 * @return The primes in ascending order
+	 */
+	public LongStream longStream() {
+		LongStream odd = IntStream.range(0, bits.length)
+				.mapToObj(w -> w)
+				.flatMapToLong(w -> {
+					LongStream.Builder builder = LongStream.builder();
+					for (long word = bits[w]; word != 0; word &= word - 1) {
+						builder.add(2 * ((w * 64L) + Long.numberOfTrailingZeros(word)) + 1);
+					}
+					return builder.build();
+				});
+		return (bound >= 2) ? LongStream.concat(LongStream.of(2), odd) : odd;
 	}
 	
 	public int get(int index) {
-		return primes.get(index);
+		return getPrimes()[index];
 	}
 	
 	/**
@@ -58,15 +246,22 @@ public class ESieve implements Iterable<Integer> {
 	 * @return If the sieved primes contain this number
 	 */
 	public boolean contains(int number) {
-		return primes.contains(number);
+		return number <= bound && isPrime(number);
 	}
 	
+	/**
+	 * @return A new list containing the primes
+	 */
 	public List<Integer> asList() {
-		return primes;
+		List<Integer> list = new ArrayList<>();
+		for (int prime : getPrimes()) {
+			list.add(prime);
+		}
+		return list;
 	}
 	
 	public List<Integer> asReversedList() {
-		List<Integer> reversed = new ArrayList<>(primes);
+		List<Integer> reversed = asList();
 		Collections.reverse(reversed);
 		
 		return reversed;
@@ -74,11 +269,27 @@ public class ESieve implements Iterable<Integer> {
 	
 	@Override
 	public String toString() {
-		return primes.toString();
+		return asList().toString();
 	}
 	
 	@Override
 	public Iterator<Integer> iterator() {
-		return primes.iterator();
+		int[] values = getPrimes();
+		return new Iterator<Integer>() {
+			private int index = 0;
+			
+			@Override
+			public boolean hasNext() {
+				return index < values.length;
+			}
+			
+			@Override
+			public Integer next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return values[index++];
+			}
+		};
 	}
 }
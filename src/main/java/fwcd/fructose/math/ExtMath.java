@@ -3,7 +3,6 @@ package fwcd.fructose.math;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.function.IntUnaryOperator;
 
@@ -20,6 +19,9 @@ import fwcd.fructose.util.ListUtils;
  *
  */
 public final class ExtMath {
+	private static final Factorizer FACTORIZER = new Factorizer(1024);
+	private static final int MAX_LONG_FIBONACCI_INDEX = 92;
+	
 	private ExtMath() {}
 	
 	public static int ceilDivide(int counter, int denominator) {
@@ -101,58 +103,69 @@ public final class ExtMath {
 	}
 
 	public static List<ScalarExponentiation> expPrimeFactors(int number) {
-		return summarizeFactors(primeFactors(number));
+		if (number < 2) {
+			return summarizeFactors(primeFactors(number));
+		}
+		return summarizeFactors(factorize(number));
+	}
+	
+	/**
+	 * Factorizes a positive number using trial division by
+	 * small primes and Pollard's rho algorithm (see {@link Factorizer}).
+	 * Recent results are cached.
+	 * 
+	 * @param number - The positive number
+	 * @return The distinct prime factors and their exponents
+	 */
+	public static Factorization factorize(long number) {
+		return FACTORIZER.factorize(number);
 	}
 
+	/**
+	 * Finds the prime factors of a number.
+	 * 
+	 * @param number - The number to be factorized
+	 * @return The prime factors in ascending order (or the number itself if it is less than 2)
+	 */
 	public static IntList primeFactors(long number) {
-		IntList subFactors = new IntList();
-
-		for (int i = 2; i < number; i++) {
-			if (number % i == 0) {
-				subFactors.addAll(primeFactors(number / i));
-				subFactors.addAll(primeFactors(i));
-				break;
-			}
+		IntList factors = new IntList();
+		
+		if (number < 2) {
+			factors.add(Math.toIntExact(number));
+			return factors;
 		}
-
-		if (subFactors.isEmpty()) {
-			subFactors.add((int) number);
+		
+		Factorization factorization = factorize(number);
+		for (int i = 0; i < factorization.size(); i++) {
+			int prime = Math.toIntExact(factorization.getPrime(i));
+			for (int j = 0; j < factorization.getExponent(i); j++) {
+				factors.add(prime);
+			}
 		}
 
-		return subFactors;
+		return factors;
 	}
 
+	/**
+	 * Computes a binomial coefficient (see {@link Combinatorics#binomial}).
+	 */
 	public static BigInteger binomCoefficient(int n, int k) {
-		return binomCoefficient(BigInteger.valueOf(n), BigInteger.valueOf(k));
+		return Combinatorics.binomial(n, k);
 	}
 
 	public static BigInteger binomCoefficient(BigInteger n, BigInteger k) {
-		if (k.intValue() == 0) {
-			return BigInteger.valueOf(1);
-		} else {
-			return n.divide(k)
-					.multiply(binomCoefficient(n.subtract(BigInteger.valueOf(1)), k.subtract(BigInteger.valueOf(1))));
-		}
+		return Combinatorics.binomial(n.intValueExact(), k.intValueExact());
 	}
 	
 	public static BigInteger largeFactorial(BigInteger number) {
-		BigInteger result = new BigInteger("1");
-
-		for (BigInteger i = number; i.compareTo(BigInteger.ZERO) > 0; i = i.subtract(BigInteger.ONE)) {
-			result = result.multiply(new BigInteger(i.toString()));
-		}
-
-		return result;
+		return largeFactorial(number.intValueExact());
 	}
 	
+	/**
+	 * Computes a factorial (see {@link Combinatorics#factorial}).
+	 */
 	public static BigInteger largeFactorial(int number) {
-		BigInteger result = new BigInteger("1");
-
-		for (int i = number; i > 0; i--) {
-			result = result.multiply(new BigInteger(Integer.toString(i)));
-		}
-
-		return result;
+		return Combinatorics.factorial(Math.max(number, 0));
 	}
 
 	public static int factorial(int number) {
@@ -171,35 +184,28 @@ public final class ExtMath {
 	}
 
 	/**
-	 * Naive and slow (but deterministic) prime tester.
+	 * Deterministic prime tester (see {@link MillerRabin}).
 	 * 
 	 * @param x
 	 *            - The number to be tested
 	 * @return If it's a prime
 	 */
 	public static boolean isPrime(long x) {
-		if (x <= 1) {
-			return false;
-		}
-
-		for (long i = 2; i < x; i++) {
-			if (x % i == 0) {
-				return false;
-			}
-		}
-
-		return true;
+		return MillerRabin.isPrime(x);
 	}
 
 	/**
-	 * Fast, but probabilistic prime tester.
+	 * Fast prime tester. Since {@link MillerRabin} is deterministic
+	 * for every long, the certainty is ignored.
 	 * 
 	 * @param x
 	 *            - The number to be test
-	 * @return If it's probably a prime
+	 * @param certainty
+	 *            - Unused
+	 * @return If it's a prime
 	 */
 	public static boolean fastIsPrime(long x, int certainty) {
-		return BigInteger.valueOf(x).isProbablePrime(certainty);
+		return MillerRabin.isPrime(x);
 	}
 
 	public static BigInteger greatestCommonDivisor(BigInteger a, BigInteger b) {
@@ -278,43 +284,34 @@ public final class ExtMath {
 		return p.reduce();
 	}
 
+	/**
+	 * Computes a Fibonacci number that fits into a long
+	 * (see {@link Combinatorics#fibonacci} for larger ones).
+	 */
 	public static long fibonacci(long index) {
 		if (index < 0) {
 			throw new IllegalArgumentException();
-		} else if (index == 0) {
-			return 0;
-		} else if (index == 1 || index == 2) {
-			return 1;
-		}
-		
-		long lastA = 0;
-		long lastB = 1;
-		
-		for (int i=1; i<index; i++) {
-			long next = Math.addExact(lastA, lastB);
-			lastA = lastB;
-			lastB = next;
+		} else if (index > MAX_LONG_FIBONACCI_INDEX) {
+			throw new ArithmeticException("long overflow");
 		}
 		
-		return lastB;
+		return Combinatorics.fibonacci(index).longValue();
 	}
 	
 	/**
-	 * Calculates euler's totient function.
-	 * (Uses a prime check with a certainty of 15, which
-	 * means that this isn't a deterministic algorithm)
+	 * Calculates euler's totient function by factorizing the number.
 	 * 
 	 * @param number
 	 * @return
 	 */
 	public static int phi(int number) {
-		if (fastIsPrime(number, 15)) {
+		if (number < 1) {
+			return 0;
+		} else if (isPrime(number)) {
 			return primePhi(number);
 		}
 
-		return sigma(new InclusiveIntRange(1, number), (x) -> {
-			return greatestCommonDivisor(x, number) == 1 ? 1 : 0;
-		});
+		return Math.toIntExact(factorize(number).phi());
 	}
 
 	/**
@@ -326,10 +323,16 @@ public final class ExtMath {
 	 * @return
 	 */
 	public static int phi(IntList primeFactors) {
+		int[] factors = primeFactors.toArray();
+		Arrays.sort(factors);
 		int result = 1;
 
-		for (int factor : primeFactors.toArray()) {
-			result *= primePhi(factor);
+		for (int i = 0; i < factors.length; i++) {
+			if (i > 0 && factors[i] == factors[i - 1]) {
+				result *= factors[i]; // p^k contributes p^(k-1) * (p - 1)
+			} else {
+				result *= primePhi(factors[i]);
+			}
 		}
 
 		return result;
@@ -351,30 +354,17 @@ public final class ExtMath {
 	}
 	
 	public static List<ScalarExponentiation> summarizeFactors(IntList factors) {
-		Collections.sort(factors.boxed());
+		long[] longFactors = factors.stream().limit(factors.size()).asLongStream().toArray();
+		return summarizeFactors(Factorization.ofFactors(longFactors, longFactors.length));
+	}
+	
+	public static List<ScalarExponentiation> summarizeFactors(Factorization factorization) {
 		List<ScalarExponentiation> exponentiations = new ArrayList<>();
-
-		int currentBase = 0;
-		int currentExponent = 0;
-		int i = 0;
-
-		while (i < factors.size()) {
-			if (currentBase != factors.get(i)) {
-				if (i != 0) {
-					exponentiations.add(new ScalarExponentiation(term(currentBase), term(currentExponent)));
-				}
-
-				currentBase = factors.get(i);
-				currentExponent = 1;
-			} else {
-				currentExponent++;
-			}
-
-			i++;
+		
+		for (int i = 0; i < factorization.size(); i++) {
+			exponentiations.add(new ScalarExponentiation(term(factorization.getPrime(i)), term(factorization.getExponent(i))));
 		}
 
-		exponentiations.add(new ScalarExponentiation(term(currentBase), term(currentExponent)));
-
 		return exponentiations;
 	}
 	
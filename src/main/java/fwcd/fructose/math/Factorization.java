@@ -0,0 +1,155 @@
+package fwcd.fructose.math;
+
+import java.util.Arrays;
+
+/**
+ * An immutable prime factorization of a positive
+ * integer, stored as parallel arrays of distinct
+ * primes (in ascending order) and their exponents.
+ */
+public class Factorization {
+	private final long[] primes;
+	private final int[] exponents;
+	
+	Factorization(long[] primes, int[] exponents) {
+		this.primes = primes;
+		this.exponents = exponents;
+	}
+	
+	/**
+	 * Creates a factorization from (unsorted) prime factors.
+	 * 
+	 * @param factors - The prime factors, which may repeat (will be sorted)
+	 * @param count - The number of factors
+	 */
+	static Factorization ofFactors(long[] factors, int count) {
+		Arrays.sort(factors, 0, count);
+		long[] primes = new long[count];
+		int[] exponents = new int[count];
+		int distinct = 0;
+		
+		for (int i = 0; i < count; i++) {
+			if (distinct > 0 && primes[distinct - 1] == factors[i]) {
+				exponents[distinct - 1]++;
+			} else {
+				primes[distinct] = factors[i];
+				exponents[distinct] = 1;
+				distinct++;
+			}
+		}
+		
+		return new Factorization(Arrays.copyOf(primes, distinct), Arrays.copyOf(exponents, distinct));
+	}
+	
+	/**
+	 * @return The number of distinct prime factors
+	 */
+	public int size() {
+		return primes.length;
+	}
+	
+	public long getPrime(int index) {
+		return primes[index];
+	}
+	
+	public int getExponent(int index) {
+		return exponents[index];
+	}
+	
+	/**
+	 * @return A copy of the distinct primes in ascending order
+	 */
+	public long[] getPrimes() {
+		return primes.clone();
+	}
+	
+	/**
+	 * @return A copy of the exponents, indexed like the primes
+	 */
+	public int[] getExponents() {
+		return exponents.clone();
+	}
+	
+	/**
+	 * @return Whether the factorized number is a prime
+	 */
+	public boolean isPrime() {
+		return primes.length == 1 && exponents[0] == 1;
+	}
+	
+	/**
+	 * @return The factorized number
+	 */
+	public long value() {
+		long result = 1;
+		for (int i = 0; i < primes.length; i++) {
+			for (int j = 0; j < exponents[i]; j++) {
+				result *= primes[i];
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Computes euler's totient function of
+	 * the factorized number.
+	 * 
+	 * @return The number of coprime integers in [1, n]
+	 */
+	public long phi() {
+		long result = 1;
+		for (int i = 0; i < primes.length; i++) {
+			result *= primes[i] - 1;
+			for (int j = 1; j < exponents[i]; j++) {
+				result *= primes[i];
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * @return The number of divisors of the factorized number
+	 */
+	public long divisorCount() {
+		long result = 1;
+		for (int exponent : exponents) {
+			result *= exponent + 1;
+		}
+		return result;
+	}
+	
+	@Override
+	public String toString() {
+		if (primes.length == 0) {
+			return "1";
+		}
+		
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < primes.length; i++) {
+			if (i > 0) {
+				builder.append(" * ");
+			}
+			builder.append(primes[i]);
+			if (exponents[i] > 1) {
+				builder.append('^').append(exponents[i]);
+			}
+		}
+		return builder.toString();
+	}
+	
+	@Override
+	public int hashCode() {
+		return (31 * Arrays.hashCode(primes)) + Arrays.hashCode(exponents);
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		} else if (obj == null || getClass() != obj.getClass()) {
+			return false;
+		}
+		Factorization other = (Factorization) obj;
+		return Arrays.equals(primes, other.primes) && Arrays.equals(exponents, other.exponents);
+	}
+}
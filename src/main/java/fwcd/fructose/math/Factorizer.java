@@ -0,0 +1,185 @@
+package fwcd.fructose.math;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Factorizes 64-bit integers into primes.
+ * 
+ * <p>Small prime factors are removed by trial division using
+ * a precomputed table of primes, while the remaining cofactors
+ * are split using Brent's variant of Pollard's rho algorithm
+ * until {@link MillerRabin} proves them prime. Optionally,
+ * the most recently used results are cached.</p>
+ */
+public class Factorizer {
+	private static final int TRIAL_LIMIT = 1 << 12;
+	private static final long TRIAL_LIMIT_SQUARED = (long) TRIAL_LIMIT * TRIAL_LIMIT;
+	private static final int[] SMALL_PRIMES = new ESieve(TRIAL_LIMIT).toArray();
+	private static final int RHO_BATCH = 128; // The number of steps between two gcds
+	
+	private final Map<Long, Factorization> cache;
+	
+	/**
+	 * Creates a factorizer without a cache.
+	 */
+	public Factorizer() {
+		this(0);
+	}
+	
+	/**
+	 * Creates a factorizer that caches recent results.
+	 * 
+	 * @param cacheSize - The maximum number of cached factorizations (0 disables the cache)
+	 */
+	public Factorizer(int cacheSize) {
+		if (cacheSize > 0) {
+			cache = Collections.synchronizedMap(new LinkedHashMap<Long, Factorization>(16, 0.75F, true) {
+				private static final long serialVersionUID = 1L;
+				
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Long, Factorization> eldest) {
+					return size() > cacheSize;
+				}
+			});
+		} else {
+			cache = null;
+		}
+	}
+	
+	/**
+	 * Factorizes a positive number.
+	 * 
+	 * @param n - The number (1 yields an empty factorization)
+	 * @return The prime factorization
+	 */
+	public Factorization factorize(long n) {
+		if (n < 1) {
+			throw new ArithmeticException("Can only factorize positive numbers: " + n);
+		} else if (cache == null || n < TRIAL_LIMIT) {
+			return compute(n);
+		}
+		
+		Factorization cached = cache.get(n);
+		if (cached == null) {
+			cached = compute(n);
+			cache.put(n, cached);
+		}
+		return cached;
+	}
+	
+	private Factorization compute(long n) {
+		long[] factors = new long[64]; // A long has at most 63 prime factors
+		int count = 0;
+		long remaining = n;
+		
+		for (int prime : SMALL_PRIMES) {
+			if ((long) prime * prime > remaining) {
+				break;
+			}
+			while (remaining % prime == 0) {
+				factors[count++] = prime;
+				remaining /= prime;
+			}
+		}
+		
+		if (remaining > 1) {
+			if (remaining < TRIAL_LIMIT_SQUARED) {
+				factors[count++] = remaining; // All smaller factors have been removed
+			} else {
+				count = splitLarge(remaining, factors, count);
+			}
+		}
+		
+		return Factorization.ofFactors(factors, count);
+	}
+	
+	/**
+	 * Recursively splits a cofactor without small prime factors.
+	 */
+	private int splitLarge(long n, long[] factors, int count) {
+		if (MillerRabin.isPrime(n)) {
+			factors[count] = n;
+			return count + 1;
+		}
+		
+		long divisor = findDivisor(n);
+		int newCount = splitLarge(divisor, factors, count);
+		return splitLarge(n / divisor, factors, newCount);
+	}
+	
+	/**
+	 * Finds a non-trivial divisor of an odd composite using
+	 * Brent's variant of Pollard's rho algorithm. The iterated
+	 * function x^2 + c is evaluated in Montgomery form, which
+	 * preserves the gcds with the modulus.
+	 */
+	private static long findDivisor(long n) {
+		Montgomery arithmetic = new Montgomery(n);
+		
+		for (long c = 1; ; c++) {
+			long increment = arithmetic.toMontgomery(c);
+			long y = arithmetic.toMontgomery(2);
+			long x = y;
+			long saved = y;
+			long product = arithmetic.one();
+			long divisor = 1;
+			
+			for (long range = 1; divisor == 1; range *= 2) {
+				x = y;
+				for (long i = 0; i < range; i++) {
+					y = arithmetic.addMod(arithmetic.multiply(y, y), increment);
+				}
+				
+				for (long k = 0; k < range && divisor == 1; k += RHO_BATCH) {
+					saved = y;
+					long steps = Math.min(RHO_BATCH, range - k);
+					for (long i = 0; i < steps; i++) {
+						y = arithmetic.addMod(arithmetic.multiply(y, y), increment);
+						product = arithmetic.multiply(product, arithmetic.subtractMod(x, y));
+					}
+					divisor = gcd(product, n);
+				}
+			}
+			
+			if (divisor == n) {
+				// The batch overshot, thus repeat its steps one by one
+				do {
+					saved = arithmetic.addMod(arithmetic.multiply(saved, saved), increment);
+					divisor = gcd(arithmetic.subtractMod(x, saved), n);
+				} while (divisor == 1);
+			}
+			
+			if (divisor != n) {
+				return divisor;
+			}
+		}
+	}
+	
+	/**
+	 * Binary gcd of two non-negative numbers.
+	 */
+	private static long gcd(long a, long b) {
+		if (a == 0) {
+			return b;
+		} else if (b == 0) {
+			return a;
+		}
+		
+		int shift = Long.numberOfTrailingZeros(a | b);
+		a >>= Long.numberOfTrailingZeros(a);
+		
+		while (b != 0) {
+			b >>= Long.numberOfTrailingZeros(b);
+			if (a > b) {
+				long tmp = a;
+				a = b;
+				b = tmp;
+			}
+			b -= a;
+		}
+		
+		return a << shift;
+	}
+}
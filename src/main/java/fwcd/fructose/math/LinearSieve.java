@@ -0,0 +1,247 @@
+package fwcd.fructose.math;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * A linear sieve (sieve of Euler), which finds the smallest
+ * prime factor of every number up to a limit in O(n).
+ * 
+ * <p>Tables of multiplicative functions (like euler's totient
+ * function) are derived from the smallest prime factors in
+ * linear time as well: Since n / p^k is at most n / 2, the values
+ * in the range [2^i, 2^(i+1)) only depend on smaller values and
+ * can thus be computed in parallel.</p>
+ */
+public class LinearSieve {
+	private static final int PARALLEL_THRESHOLD = 1 << 16;
+	
+	private final int limit;
+	private final int[] smallestPrimeFactors;
+	private final int[] primes;
+	private final ForkJoinPool pool;
+	
+	/**
+	 * Sieves the numbers up to a limit.
+	 * 
+	 * @param limit - The (inclusive) limit
+	 */
+	public LinearSieve(int limit) {
+		this(limit, ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Sieves the numbers up to a limit.
+	 * 
+	 * @param limit - The (inclusive) limit
+	 * @param pool - The pool used to compute large tables in parallel
+	 */
+	public LinearSieve(int limit, ForkJoinPool pool) {
+		if (limit < 1 || limit == Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Invalid sieve limit: " + limit);
+		}
+		
+		this.limit = limit;
+		this.pool = pool;
+		smallestPrimeFactors = new int[limit + 1];
+		smallestPrimeFactors[1] = 1;
+		
+		// pi(x) < 1.25506 * x / ln(x) for x > 1
+		int[] foundPrimes = new int[(int) Math.max(16, (1.26 * limit) / Math.log(Math.max(limit, 2)))];
+		int count = 0;
+		
+		for (int i = 2; i <= limit; i++) {
+			if (smallestPrimeFactors[i] == 0) {
+				smallestPrimeFactors[i] = i;
+				foundPrimes[count++] = i;
+			}
+			
+			// Every composite is crossed off exactly once, by its smallest prime factor
+			int spf = smallestPrimeFactors[i];
+			for (int j = 0; j < count; j++) {
+				int p = foundPrimes[j];
+				if (p > spf || (long) i * p > limit) {
+					break;
+				}
+				smallestPrimeFactors[i * p] = p;
+			}
+		}
+		
+		primes = Arrays.copyOf(foundPrimes, count);
+	}
+	
+	public int getLimit() {
+		return limit;
+	}
+	
+	/**
+	 * @return The primes up to the limit in ascending order
+	 */
+	public int[] getPrimes() {
+		return primes.clone();
+	}
+	
+	/**
+	 * @param n - A number in the range [1, limit]
+	 * @return The smallest prime factor of n (or 1 if n is 1)
+	 */
+	public int smallestPrimeFactor(int n) {
+		checkRange(n);
+		return smallestPrimeFactors[n];
+	}
+	
+	/**
+	 * Factorizes a number in O(log n) using the
+	 * smallest prime factors.
+	 * 
+	 * @param n - A number in the range [1, limit]
+	 * @return The prime factorization
+	 */
+	public Factorization factorize(int n) {
+		checkRange(n);
+		long[] factors = new long[32];
+		int count = 0;
+		
+		for (int m = n; m > 1; m /= smallestPrimeFactors[m]) {
+			factors[count++] = smallestPrimeFactors[m];
+		}
+		
+		return Factorization.ofFactors(factors, count); // Already sorted
+	}
+	
+	/**
+	 * @return A new table of the smallest prime factors, indexed by n
+	 */
+	public int[] smallestPrimeFactorTable() {
+		return smallestPrimeFactors.clone();
+	}
+	
+	/**
+	 * @return A new table of euler's totient function phi(n)
+	 */
+	public int[] phiTable() {
+		int[] table = new int[limit + 1];
+		fill(new IntTable(table), (p, e, pe) -> (pe / p) * (p - 1));
+		return table;
+	}
+	
+	/**
+	 * @return A new table of the Moebius function mu(n)
+	 */
+	public int[] mobiusTable() {
+		int[] table = new int[limit + 1];
+		fill(new IntTable(table), (p, e, pe) -> (e == 1) ? -1 : 0);
+		return table;
+	}
+	
+	/**
+	 * @return A new table of the number of divisors sigma_0(n)
+	 */
+	public int[] divisorCountTable() {
+		int[] table = new int[limit + 1];
+		fill(new IntTable(table), (p, e, pe) -> e + 1);
+		return table;
+	}
+	
+	/**
+	 * Computes the sums of divisors, which may exceed
+	 * the int range (thus the table contains longs).
+	 * 
+	 * @return A new table of the sum of divisors sigma_1(n)
+	 */
+	public long[] divisorSumTable() {
+		long[] table = new long[limit + 1];
+		fill(new LongTable(table), (p, e, pe) -> ((pe * p) - 1) / (p - 1));
+		return table;
+	}
+	
+	private void fill(Table table, PrimePowerFunction function) {
+		table.set(1, 1);
+		
+		for (long from = 2; from <= limit; from *= 2) {
+			int start = (int) from;
+			int end = (int) Math.min(2 * from, (long) limit + 1);
+			
+			if (end - start >= PARALLEL_THRESHOLD) {
+				pool.submit(() -> IntStream.range(start, end)
+						.parallel()
+						.forEach(n -> computeValue(n, table, function)))
+					.join();
+			} else {
+				for (int n = start; n < end; n++) {
+					computeValue(n, table, function);
+				}
+			}
+		}
+	}
+	
+	private void computeValue(int n, Table table, PrimePowerFunction function) {
+		int p = smallestPrimeFactors[n];
+		int rest = n / p;
+		int exponent = 1;
+		long primePower = p;
+		
+		while (rest % p == 0) {
+			rest /= p;
+			exponent++;
+			primePower *= p;
+		}
+		
+		// f(n) = f(rest) * f(p^e), since rest and p^e are coprime
+		table.set(n, table.get(rest) * function.apply(p, exponent, primePower));
+	}
+	
+	private void checkRange(int n) {
+		if (n < 1 || n > limit) {
+			throw new IndexOutOfBoundsException(n + " is outside of the sieved range [1, " + limit + "]");
+		}
+	}
+	
+	@FunctionalInterface
+	private static interface PrimePowerFunction {
+		long apply(long p, int exponent, long primePower);
+	}
+	
+	private static interface Table {
+		long get(int index);
+		
+		void set(int index, long value);
+	}
+	
+	private static class IntTable implements Table {
+		private final int[] values;
+		
+		public IntTable(int[] values) {
+			this.values = values;
+		}
+		
+		@Override
+		public long get(int index) {
+			return values[index];
+		}
+		
+		@Override
+		public void set(int index, long value) {
+			values[index] = (int) value;
+		}
+	}
+	
+	private static class LongTable implements Table {
+		private final long[] values;
+		
+		public LongTable(long[] values) {
+			this.values = values;
+		}
+		
+		@Override
+		public long get(int index) {
+			return values[index];
+		}
+		
+		@Override
+		public void set(int index, long value) {
+			values[index] = value;
+		}
+	}
+}
@@ -9,6 +9,7 @@ import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import fwcd.fructose.math.decomposition.NumericLUDecomposition;
 import fwcd.fructose.operations.Addable;
 import fwcd.fructose.operations.Multipliable;
 import fwcd.fructose.operations.Subtractable;
@@ -177,7 +178,8 @@ public class Matrix<V extends Numeric<V>> implements
 	}
 	
 	/**
-	 * Calculates the determinant of this matrix.
+	 * Calculates the determinant of this matrix
+	 * using an LU decomposition.
 	 * 
 	 * @return The determinant
 	 * @throws IllegalStateException If the matrix is not square-shaped
@@ -187,7 +189,29 @@ public class Matrix<V extends Numeric<V>> implements
 			throw new IllegalStateException("Can't calculate the determinant of a non-square matrix.");
 		}
 		
-		return determinant(data);
+		return lu().determinant();
+	}
+	
+	/**
+	 * Decomposes this matrix into PA = LU. The decomposition
+	 * can be reused to solve multiple linear systems.
+	 * 
+	 * @return The LU decomposition
+	 * @throws IllegalArgumentException If the matrix is not square-shaped
+	 */
+	public NumericLUDecomposition<V> lu() {
+		return new NumericLUDecomposition<>(this);
+	}
+	
+	/**
+	 * Solves the linear system Ax = b.
+	 * 
+	 * @param rhs - The right-hand side b
+	 * @return The solution x
+	 * @throws ArithmeticException If the matrix is singular
+	 */
+	public Vector<V> solve(Vector<V> rhs) {
+		return lu().solve(rhs);
 	}
 	
 	public Matrix<V> transpose() {
@@ -206,7 +230,8 @@ public class Matrix<V extends Numeric<V>> implements
 	}
 	
 	/**
-	 * Calculates the inverse of this matrix.
+	 * Calculates the inverse of this matrix
+	 * using an LU decomposition.
 	 * 
 	 * @return The inverse
 	 * @throws IllegalStateException If the matrix is not square-shaped or the determinant is zero
@@ -216,32 +241,12 @@ public class Matrix<V extends Numeric<V>> implements
 			throw new IllegalStateException("Can't calculate the inverse of a non-square matrix.");
 		}
 		
-		// Source: https://github.com/rchen8/Algorithms/blob/master/Matrix.java
-		
-		int width = width();
-		int height = height();
-		List<List<V>> inverse = ListUtils.make2DList(height, width, (x, y) -> null);
-		
-		// minors and cofactors
-		
-		for (int y=0; y<height; y++) {
-			for (int x=0; x<width; x++) {
-				inverse.get(y).set(x, determinant(minor(data, y, x)).multiply(Real.of(Math.pow(-1, y + x))));
-			}
-		}
-		
-		// adjugate and determinant
-		
-		V det = determinant().reciprocal();
-		for (int y=0; y<height; y++) {
-			for (int x=0; x<=y; x++) {
-				V tmp = inverse.get(y).get(x);
-				inverse.get(y).set(x, inverse.get(x).get(y).multiply(det));
-				inverse.get(x).set(y, tmp.multiply(det));
-			}
+		NumericLUDecomposition<V> lu = lu();
+		if (lu.isSingular()) {
+			throw new IllegalStateException("Can't calculate the inverse matrix when the determinant is zero.");
 		}
 		
-		return new Matrix<>(inverse);
+		return lu.inverse();
 	}
 
 	@Override
@@ -264,28 +269,6 @@ public class Matrix<V extends Numeric<V>> implements
 		return true;
 	}
 	
-	private V determinant(List<List<V>> mat) {
-		// Source: https://github.com/rchen8/Algorithms/blob/master/Matrix.java
-
-		if (mat.size() == 2) {
-			V first = mat.get(0).get(0).multiply(mat.get(1).get(1));
-			V second = mat.get(0).get(1).multiply(mat.get(1).get(0));
-			return first.sub(second);
-		} else {
-			V det = mat.get(0).get(0)
-					.multiply(determinant(minor(mat, 0, 0)));
-			
-			for (int x=1; x<mat.get(0).size(); x++) {
-				V delta = mat.get(0).get(x)
-						.multiply(Real.of(Math.pow(-1, x)))
-						.multiply(determinant(minor(mat, 0, x)));
-				det = det.add(delta);
-			}
-			
-			return det;
-		}
-	}
-	
 	/**
 	 * Creates a minor matrix, i.e. this matrix excluding
 	 * a specified row and a specified column. The size
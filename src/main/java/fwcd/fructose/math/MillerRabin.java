@@ -0,0 +1,151 @@
+package fwcd.fructose.math;
+
+import java.util.stream.IntStream;
+
+/**
+ * A deterministic Miller-Rabin primality test
+ * for (non-negative) 64-bit integers.
+ * 
+ * <p>The witnesses are a set found by Jim Sinclair that
+ * correctly classifies every number below 2^64. All
+ * modular arithmetic is performed in Montgomery form,
+ * thus no {@link java.math.BigInteger}s are allocated.</p>
+ */
+public final class MillerRabin {
+	private static final long[] WITNESSES = {2, 325, 9375, 28178, 450775, 9780504, 1795265022};
+	private static final int[] SMALL_PRIMES = {2, 3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37};
+	
+	private MillerRabin() {}
+	
+	/**
+	 * Tests whether a number is prime.
+	 * 
+	 * @param n - The number to be tested
+	 * @return Whether the number is prime
+	 */
+	public static boolean isPrime(long n) {
+		if (n < 2) {
+			return false;
+		}
+		
+		for (int prime : SMALL_PRIMES) {
+			if (n % prime == 0) {
+				return n == prime;
+			}
+		}
+		
+		if (n < 37 * 37) {
+			return true;
+		}
+		
+		return passesWitnesses(new Montgomery(n));
+	}
+	
+	/**
+	 * Tests many numbers in parallel.
+	 * 
+	 * @param numbers - The numbers to be tested
+	 * @return Whether each number is prime
+	 */
+	public static boolean[] isPrime(long[] numbers) {
+		boolean[] results = new boolean[numbers.length];
+		IntStream.range(0, numbers.length)
+			.parallel()
+			.forEach(i -> results[i] = isPrime(numbers[i]));
+		return results;
+	}
+	
+	private static boolean passesWitnesses(Montgomery arithmetic) {
+		long n = arithmetic.getModulus();
+		int s = Long.numberOfTrailingZeros(n - 1);
+		long d = (n - 1) >>> s;
+		long one = arithmetic.one();
+		long minusOne = n - one; // -1 in Montgomery form
+		
+		witnessLoop:
+		for (long witness : WITNESSES) {
+			long a = witness % n;
+			if (a == 0) {
+				continue;
+			}
+			
+			long x = arithmetic.pow(arithmetic.toMontgomery(a), d);
+			if (x == one || x == minusOne) {
+				continue;
+			}
+			
+			for (int r = 1; r < s; r++) {
+				x = arithmetic.multiply(x, x);
+				if (x == minusOne) {
+					continue witnessLoop;
+				}
+			}
+			
+			return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Computes (a * b) mod m without overflowing.
+	 * 
+	 * @param a - The first factor
+	 * @param b - The second factor
+	 * @param m - The positive modulus
+	 * @return The non-negative product modulo m
+	 */
+	public static long mulMod(long a, long b, long m) {
+		if (m <= 0) {
+			throw new ArithmeticException("Modulus must be positive: " + m);
+		}
+		
+		long x = Math.floorMod(a, m);
+		long y = Math.floorMod(b, m);
+		long hi = Montgomery.unsignedMultiplyHigh(x, y);
+		long lo = x * y;
+		
+		if (hi == 0) {
+			return Long.remainderUnsigned(lo, m);
+		}
+		
+		// Shift in the low word bit by bit (hi < m, since x, y < m)
+		long result = hi;
+		for (int bit = 63; bit >= 0; bit--) {
+			result = (result << 1) | ((lo >>> bit) & 1);
+			if (result < 0 || result >= m) {
+				result -= m;
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Computes (base ^ exponent) mod m.
+	 * 
+	 * @param base - The base
+	 * @param exponent - The non-negative exponent
+	 * @param m - The positive modulus
+	 * @return The non-negative power modulo m
+	 */
+	public static long powMod(long base, long exponent, long m) {
+		if (exponent < 0) {
+			throw new ArithmeticException("Negative exponent: " + exponent);
+		} else if (m == 1) {
+			return 0;
+		} else if ((m & 1) != 0 && m > 1) {
+			Montgomery arithmetic = new Montgomery(m);
+			return arithmetic.fromMontgomery(arithmetic.pow(arithmetic.toMontgomery(base), exponent));
+		}
+		
+		long result = 1;
+		long square = Math.floorMod(base, m);
+		for (long e = exponent; e != 0; e >>>= 1) {
+			if ((e & 1) != 0) {
+				result = mulMod(result, square, m);
+			}
+			square = mulMod(square, square, m);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,117 @@
+package fwcd.fructose.math;
+
+/**
+ * Modular arithmetic with a fixed, odd modulus in
+ * Montgomery form (with R = 2^64), which replaces
+ * divisions by multiplications.
+ */
+final class Montgomery {
+	private static final long LOW_MASK = 0xFFFFFFFFL;
+	
+	private final long modulus;
+	private final long inverse; // modulus^-1 mod R
+	private final long one; // R mod modulus
+	private final long rSquared; // R^2 mod modulus
+	
+	/**
+	 * @param modulus - An odd modulus in the range [3, 2^63)
+	 */
+	Montgomery(long modulus) {
+		if ((modulus & 1) == 0 || modulus < 3) {
+			throw new IllegalArgumentException("Montgomery arithmetic requires an odd modulus greater than 1: " + modulus);
+		}
+		this.modulus = modulus;
+		
+		// Newton's iteration doubles the number of correct low bits
+		long inv = modulus; // Correct for 3 bits, since n * n = 1 (mod 8)
+		for (int i = 0; i < 5; i++) {
+			inv *= 2 - (modulus * inv);
+		}
+		inverse = inv;
+		
+		one = Long.remainderUnsigned(-modulus, modulus);
+		long r = one;
+		for (int i = 0; i < 64; i++) {
+			r = addMod(r, r);
+		}
+		rSquared = r;
+	}
+	
+	long getModulus() {
+		return modulus;
+	}
+	
+	/**
+	 * @return The Montgomery representation of 1
+	 */
+	long one() {
+		return one;
+	}
+	
+	long toMontgomery(long value) {
+		return multiply(Math.floorMod(value, modulus), rSquared);
+	}
+	
+	long fromMontgomery(long value) {
+		return reduce(0, value);
+	}
+	
+	/**
+	 * Multiplies two numbers in Montgomery form.
+	 */
+	long multiply(long a, long b) {
+		return reduce(unsignedMultiplyHigh(a, b), a * b);
+	}
+	
+	long addMod(long a, long b) {
+		long sum = a + b; // May exceed 2^63, but not 2^64
+		return (sum < 0 || sum >= modulus) ? (sum - modulus) : sum;
+	}
+	
+	long subtractMod(long a, long b) {
+		long difference = a - b;
+		return (difference < 0) ? (difference + modulus) : difference;
+	}
+	
+	/**
+	 * Exponentiates a number in Montgomery form by squaring.
+	 */
+	long pow(long base, long exponent) {
+		long result = one;
+		long square = base;
+		
+		for (long e = exponent; e != 0; e >>>= 1) {
+			if ((e & 1) != 0) {
+				result = multiply(result, square);
+			}
+			square = multiply(square, square);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Computes (hi * 2^64 + lo) / R mod modulus for values less than modulus * R.
+	 */
+	private long reduce(long hi, long lo) {
+		long m = lo * inverse;
+		// lo - m * modulus = 0 (mod R), thus only the high words remain
+		long result = hi - unsignedMultiplyHigh(m, modulus);
+		return (result < 0) ? (result + modulus) : result;
+	}
+	
+	/**
+	 * Computes the upper 64 bits of the unsigned 128-bit product
+	 * (since Math.multiplyHigh is not available on Java 8).
+	 */
+	static long unsignedMultiplyHigh(long x, long y) {
+		long x0 = x & LOW_MASK;
+		long x1 = x >>> 32;
+		long y0 = y & LOW_MASK;
+		long y1 = y >>> 32;
+		
+		long t = (x1 * y0) + ((x0 * y0) >>> 32);
+		long w1 = (x0 * y1) + (t & LOW_MASK);
+		return (x1 * y1) + (t >>> 32) + (w1 >>> 32);
+	}
+}
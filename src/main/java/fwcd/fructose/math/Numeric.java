@@ -22,4 +22,9 @@ public interface Numeric<V extends Numeric<V>> extends
 	V multiply(Real rhs);
 	
 	V divide(Real rhs);
+	
+	/**
+	 * @return The magnitude (absolute value) of this element
+	 */
+	double abs();
 }
@@ -0,0 +1,93 @@
+package fwcd.fructose.math;
+
+/**
+ * Shared routines for odd-only, bit-packed sieves, where
+ * the bit with the (absolute) index i represents the
+ * odd number 2i + 1 and is set if the number is prime.
+ */
+final class OddSieve {
+	private OddSieve() {}
+	
+	/**
+	 * Sieves a range of odd numbers using the given base primes.
+	 * 
+	 * @param words - The destination bits (will be overwritten)
+	 * @param fromWord - The first word of the range
+	 * @param toWord - The end of the range (exclusive)
+	 * @param firstBit - The absolute bit index represented by the first bit of fromWord
+	 * @param basePrimes - All odd primes up to (at least) the square root of the range's end, in ascending order
+	 */
+	static void sieve(long[] words, int fromWord, int toWord, long firstBit, int[] basePrimes) {
+		for (int w = fromWord; w < toWord; w++) {
+			words[w] = -1L;
+		}
+		
+		long endBit = firstBit + ((long) (toWord - fromWord) * 64);
+		long wordBase = firstBit - ((long) fromWord * 64);
+		
+		for (int p : basePrimes) {
+			long bit = ((long) p * p - 1) / 2; // Smaller multiples are crossed off by smaller primes
+			if (bit >= endBit) {
+				break;
+			}
+			
+			if (bit < firstBit) {
+				// Odd multiples of p have the bit indices (p - 1) / 2 + k * p
+				long residue = (p - 1) / 2;
+				bit = residue + (((firstBit - residue) + p - 1) / p) * p;
+			}
+			
+			for (; bit < endBit; bit += p) {
+				long local = bit - wordBase;
+				words[(int) (local >>> 6)] &= ~(1L << local);
+			}
+		}
+		
+		if (firstBit == 0 && toWord > fromWord) {
+			words[fromWord] &= ~1L; // 1 is not a prime
+		}
+	}
+	
+	/**
+	 * Finds the odd primes up to a (small) limit.
+	 * 
+	 * @param limit - The inclusive limit
+	 * @return The odd primes in ascending order
+	 */
+	static int[] smallOddPrimes(int limit) {
+		boolean[] composite = new boolean[limit + 1];
+		int count = 0;
+		
+		for (int i = 3; i <= limit; i += 2) {
+			if (!composite[i]) {
+				count++;
+				for (long j = (long) i * i; j <= limit; j += 2L * i) {
+					composite[(int) j] = true;
+				}
+			}
+		}
+		
+		int[] primes = new int[count];
+		int index = 0;
+		for (int i = 3; i <= limit; i += 2) {
+			if (!composite[i]) {
+				primes[index++] = i;
+			}
+		}
+		return primes;
+	}
+	
+	/**
+	 * @return The largest integer whose square does not exceed n
+	 */
+	static long isqrt(long n) {
+		long root = (long) Math.sqrt(n);
+		while (root * root > n) {
+			root--;
+		}
+		while ((root + 1) * (root + 1) <= n) {
+			root++;
+		}
+		return root;
+	}
+}
@@ -0,0 +1,261 @@
+package fwcd.fructose.math;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * An unbounded source of primes that sieves successive
+ * segments of odd numbers on demand.
+ * 
+ * <p>The segments start small (thus creating a generator is
+ * cheap) and grow up to a cache-sized maximum. The base primes
+ * used for sieving are shared between all generators and
+ * extended as needed.</p>
+ */
+public class PrimeGenerator implements PrimitiveIterator.OfLong {
+	/** The largest number that can be sieved, since the base primes are ints. */
+	public static final long MAX_VALUE = (long) Integer.MAX_VALUE * Integer.MAX_VALUE;
+	private static final int MIN_SEGMENT_WORDS = 16;
+	private static final int MAX_SEGMENT_WORDS = 4096; // 32 KiB
+	private static final long MIN_SPLIT_NUMBERS = 1L << 22;
+	private static final int SPLITERATOR_CHARACTERISTICS = Spliterator.ORDERED
+			| Spliterator.SORTED
+			| Spliterator.DISTINCT
+			| Spliterator.NONNULL
+			| Spliterator.IMMUTABLE;
+	
+	private static volatile BasePrimes basePrimes = new BasePrimes(1 << 16);
+	
+	private long[] words = new long[MIN_SEGMENT_WORDS];
+	private long segmentFirstBit; // Bit i represents 2i + 1
+	private int wordIndex = 0;
+	private long remainingBits;
+	private boolean includesTwo;
+	private long next = -1;
+	
+	/**
+	 * Creates a generator that produces all primes.
+	 */
+	public PrimeGenerator() {
+		this(2);
+	}
+	
+	/**
+	 * Creates a generator that produces all primes
+	 * greater than or equal to a given number.
+	 * 
+	 * @param start - The (inclusive) lower bound
+	 */
+	public PrimeGenerator(long start) {
+		if (start > MAX_VALUE) {
+			throw new IllegalArgumentException("Can not generate primes beyond " + MAX_VALUE);
+		}
+		
+		long firstBit = Math.max(start, 0) / 2; // The first odd number >= start
+		includesTwo = start <= 2;
+		segmentFirstBit = firstBit & ~63L;
+		sieveSegment();
+		words[0] &= -1L << (firstBit & 63);
+		remainingBits = words[0];
+	}
+	
+	/**
+	 * @return An unbounded, sequential stream of all primes
+	 */
+	public static LongStream stream() {
+		return StreamSupport.longStream(Spliterators.spliteratorUnknownSize(new PrimeGenerator(), SPLITERATOR_CHARACTERISTICS), false);
+	}
+	
+	/**
+	 * Streams the primes within a range. The stream can be
+	 * split into subranges that are sieved independently,
+	 * thus it is well suited for parallel processing.
+	 * 
+	 * @param from - The inclusive lower bound
+	 * @param to - The exclusive upper bound
+	 * @return The primes in the range in ascending order
+	 */
+	public static LongStream range(long from, long to) {
+		if (to - 1 > MAX_VALUE) {
+			throw new IllegalArgumentException("Can not generate primes beyond " + MAX_VALUE);
+		}
+		return StreamSupport.longStream(new RangeSpliterator(Math.max(from, 0), Math.max(from, to)), false);
+	}
+	
+	@Override
+	public boolean hasNext() {
+		if (next < 0) {
+			next = advance();
+		}
+		return next <= MAX_VALUE;
+	}
+	
+	@Override
+	public long nextLong() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		long prime = next;
+		next = -1;
+		return prime;
+	}
+	
+	private long advance() {
+		if (includesTwo) {
+			includesTwo = false;
+			return 2;
+		}
+		
+		while (remainingBits == 0) {
+			wordIndex++;
+			if (wordIndex == words.length) {
+				segmentFirstBit += (long) words.length * 64;
+				if (words.length < MAX_SEGMENT_WORDS) {
+					words = new long[words.length * 2];
+				}
+				sieveSegment();
+				wordIndex = 0;
+			}
+			remainingBits = words[wordIndex];
+		}
+		
+		long bit = segmentFirstBit + ((long) wordIndex * 64) + Long.numberOfTrailingZeros(remainingBits);
+		remainingBits &= remainingBits - 1;
+		return (2 * bit) + 1;
+	}
+	
+	private void sieveSegment() {
+		long endBit = segmentFirstBit + ((long) words.length * 64);
+		long limit = OddSieve.isqrt(Math.min(2 * endBit, MAX_VALUE));
+		OddSieve.sieve(words, 0, words.length, segmentFirstBit, basePrimesUpTo(limit));
+	}
+	
+	/**
+	 * Fetches the odd primes up to (at least) the given
+	 * limit, which are shared among all generators.
+	 * 
+	 * @param limit - The inclusive limit
+	 * @return The odd primes in ascending order
+	 */
+	static int[] basePrimesUpTo(long limit) {
+		BasePrimes base = basePrimes;
+		
+		if (base.limit < limit) {
+			synchronized (PrimeGenerator.class) {
+				base = basePrimes;
+				if (base.limit < limit) {
+					base = new BasePrimes((int) Math.min(Math.max(limit, 2L * base.limit), Integer.MAX_VALUE));
+					basePrimes = base;
+				}
+			}
+		}
+		
+		return base.primes;
+	}
+	
+	private static class BasePrimes {
+		private final int limit;
+		private final int[] primes;
+		
+		public BasePrimes(int limit) {
+			this.limit = limit;
+			int[] allPrimes = new ESieve(limit).toArray();
+			primes = (allPrimes.length == 0) ? allPrimes : Arrays.copyOfRange(allPrimes, 1, allPrimes.length);
+		}
+	}
+	
+	/**
+	 * Generates the primes within a range, which
+	 * is split in halves for parallel processing.
+	 */
+	private static class RangeSpliterator implements Spliterator.OfLong {
+		private long from;
+		private final long to;
+		private PrimeGenerator generator = null;
+		
+		public RangeSpliterator(long from, long to) {
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		public boolean tryAdvance(LongConsumer action) {
+			if (from >= to) {
+				return false;
+			} else if (generator == null) {
+				generator = new PrimeGenerator(from);
+			}
+			
+			long prime = generator.hasNext() ? generator.nextLong() : to;
+			if (prime >= to) {
+				from = to;
+				return false;
+			}
+			
+			from = prime + 1;
+			action.accept(prime);
+			return true;
+		}
+		
+		@Override
+		public void forEachRemaining(LongConsumer action) {
+			if (from >= to) {
+				return;
+			} else if (generator == null) {
+				generator = new PrimeGenerator(from);
+			}
+			
+			while (generator.hasNext()) {
+				long prime = generator.nextLong();
+				if (prime >= to) {
+					break;
+				}
+				action.accept(prime);
+			}
+			from = to;
+		}
+		
+		@Override
+		public Spliterator.OfLong trySplit() {
+			if (generator != null || (to - from) < (2 * MIN_SPLIT_NUMBERS)) {
+				return null;
+			}
+			
+			long middle = (from + ((to - from) / 2)) & ~127L; // Aligned to whole words
+			RangeSpliterator prefix = new RangeSpliterator(from, middle);
+			from = middle;
+			return prefix;
+		}
+		
+		@Override
+		public long estimateSize() {
+			if (from >= to) {
+				return 0;
+			}
+			// The prime number theorem approximates the number of primes
+			double estimate = primesBelow(to) - primesBelow(from);
+			return Math.max((long) estimate, 1);
+		}
+		
+		private double primesBelow(long x) {
+			return (x < 3) ? 0 : (x / Math.log(x));
+		}
+		
+		@Override
+		public int characteristics() {
+			return SPLITERATOR_CHARACTERISTICS;
+		}
+		
+		@Override
+		public Comparator<? super Long> getComparator() {
+			return null;
+		}
+	}
+}
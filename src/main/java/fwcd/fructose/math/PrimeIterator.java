@@ -9,14 +9,20 @@ import java.util.Iterator;
  *
  */
 public class PrimeIterator implements Iterator<Integer>, Iterable<Integer> {
-	private int current;
+	private final PrimeGenerator generator;
 	
 	public PrimeIterator() {
-		current = 1;
+		this(1);
 	}
 	
+	/**
+	 * Creates an iterator over the primes
+	 * greater than the given number.
+	 * 
+	 * @param start - The exclusive lower bound
+	 */
 	public PrimeIterator(int start) {
-		current = start;
+		generator = new PrimeGenerator((long) start + 1);
 	}
 	
 	@Override
@@ -24,13 +30,12 @@ public class PrimeIterator implements Iterator<Integer>, Iterable<Integer> {
 		return true; // As there are infinitely many primes. :)
 	}
 
+	/**
+	 * @throws ArithmeticException If the next prime exceeds the int range
+	 */
 	@Override
 	public Integer next() {
-		do {
-			current++;
-		} while (!ExtMath.isPrime(current));
-		
-		return current;
+		return Math.toIntExact(generator.nextLong());
 	}
 
 	@Override
@@ -44,6 +44,9 @@ public class Real extends Number implements Numeric<Real>, FieldElement<Real> {
 	public Real negate() { return of(-value); }
 	
 	public double getValue() { return value; }
+	
+	@Override
+	public double abs() { return Math.abs(value); }
 
 	@Override
 	public int intValue() { return (int) value; }
@@ -0,0 +1,120 @@
+package fwcd.fructose.math.decomposition;
+
+import fwcd.fructose.geometry.DoubleMatrix;
+
+/**
+ * A Cholesky decomposition, which factorizes a symmetric,
+ * positive definite matrix A into A = LL^T, where L is
+ * lower triangular.
+ * 
+ * <p>This takes about half of the operations of an LU
+ * decomposition and requires no pivoting.</p>
+ */
+public class CholeskyDecomposition {
+	private final int n;
+	private final double[][] l;
+	
+	/**
+	 * Decomposes a symmetric, positive definite matrix.
+	 * 
+	 * @param matrix - The matrix
+	 * @throws IllegalArgumentException If the matrix is not symmetric and positive definite
+	 */
+	public CholeskyDecomposition(DoubleMatrix matrix) {
+		if (!matrix.isSquareShaped()) {
+			throw new IllegalArgumentException("Can't Cholesky-decompose a non-square matrix.");
+		}
+		
+		n = matrix.getHeight();
+		double[][] a = matrix.toArray();
+		double tolerance = Decompositions.roundingTolerance(a);
+		l = new double[n][n];
+		
+		for (int y=0; y<n; y++) {
+			double[] row = l[y];
+			double diagonal = a[y][y];
+			
+			for (int x=0; x<y; x++) {
+				if (Math.abs(a[y][x] - a[x][y]) > tolerance) {
+					throw new IllegalArgumentException("Can't Cholesky-decompose a non-symmetric matrix.");
+				}
+				
+				double[] other = l[x];
+				double s = a[y][x];
+				for (int i=0; i<x; i++) {
+					s -= row[i] * other[i];
+				}
+				row[x] = s / other[x];
+				diagonal -= row[x] * row[x];
+			}
+			
+			if (diagonal <= 0) {
+				throw new IllegalArgumentException("Can't Cholesky-decompose a matrix that is not positive definite.");
+			}
+			row[y] = Math.sqrt(diagonal);
+		}
+	}
+	
+	/**
+	 * @return The lower triangular factor L
+	 */
+	public DoubleMatrix getL() {
+		double[][] copy = new double[n][];
+		for (int y=0; y<n; y++) {
+			copy[y] = l[y].clone();
+		}
+		return new DoubleMatrix(copy);
+	}
+	
+	public double determinant() {
+		double det = 1;
+		for (int i=0; i<n; i++) {
+			det *= l[i][i] * l[i][i];
+		}
+		return det;
+	}
+	
+	/**
+	 * Solves the linear systems AX = B.
+	 * 
+	 * @param b - The right-hand sides as columns
+	 * @return The solutions X as columns
+	 */
+	public DoubleMatrix solve(DoubleMatrix b) {
+		if (b.getHeight() != n) {
+			throw new ArithmeticException("The right-hand side needs to have " + n + " rows, but has " + b.getHeight());
+		}
+		
+		double[][] x = b.toArray();
+		int columns = b.getWidth();
+		
+		// Solve LY = B
+		for (int k=0; k<n; k++) {
+			for (int j=0; j<columns; j++) {
+				for (int i=0; i<k; i++) {
+					x[k][j] -= x[i][j] * l[k][i];
+				}
+				x[k][j] /= l[k][k];
+			}
+		}
+		
+		// Solve L^T X = Y
+		for (int k=n-1; k>=0; k--) {
+			for (int j=0; j<columns; j++) {
+				for (int i=k+1; i<n; i++) {
+					x[k][j] -= x[i][j] * l[i][k];
+				}
+				x[k][j] /= l[k][k];
+			}
+		}
+		
+		return new DoubleMatrix(x);
+	}
+	
+	/**
+	 * @return The inverse matrix
+	 */
+	public DoubleMatrix inverse() {
+		return solve(new DoubleMatrix(Decompositions.identity(n)));
+	}
+}
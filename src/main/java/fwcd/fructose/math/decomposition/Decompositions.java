@@ -0,0 +1,30 @@
+package fwcd.fructose.math.decomposition;
+
+/**
+ * Shared helpers for the matrix decompositions.
+ */
+final class Decompositions {
+	private Decompositions() {}
+	
+	/**
+	 * Determines the magnitude of the rounding errors that
+	 * can be expected relative to the largest entry.
+	 */
+	static double roundingTolerance(double[][] matrix) {
+		double max = 0;
+		for (double[] row : matrix) {
+			for (double value : row) {
+				max = Math.max(max, Math.abs(value));
+			}
+		}
+		return Math.max(matrix.length, 1) * Math.ulp(max);
+	}
+	
+	static double[][] identity(int n) {
+		double[][] identity = new double[n][n];
+		for (int i=0; i<n; i++) {
+			identity[i][i] = 1;
+		}
+		return identity;
+	}
+}
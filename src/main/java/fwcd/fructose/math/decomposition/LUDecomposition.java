@@ -0,0 +1,235 @@
+package fwcd.fructose.math.decomposition;
+
+import fwcd.fructose.geometry.DoubleMatrix;
+
+/**
+ * An LU decomposition with partial pivoting, which factorizes a
+ * square matrix A into PA = LU, where P is a permutation matrix,
+ * L is unit lower triangular and U is upper triangular.
+ * 
+ * <p>The decomposition takes O(n^3) time once, after which
+ * linear systems can be solved in O(n^2) each.</p>
+ * 
+ * <p>A pivot is considered to be zero if it does not exceed
+ * the rounding errors relative to the largest entry of its
+ * original row. Scaling by rows (instead of the whole matrix)
+ * keeps badly scaled, but regular matrices like diag(1e-20, 1)
+ * from being treated as singular.</p>
+ */
+public class LUDecomposition {
+	private final int n;
+	private final double[][] lu; // L (without the unit diagonal) below and U on and above the diagonal
+	private final int[] pivot;
+	private final int pivotSign;
+	private final boolean singular;
+	
+	/**
+	 * Decomposes a square matrix.
+	 * 
+	 * @param matrix - The matrix
+	 * @throws IllegalArgumentException If the matrix is not square-shaped
+	 */
+	public LUDecomposition(DoubleMatrix matrix) {
+		if (!matrix.isSquareShaped()) {
+			throw new IllegalArgumentException("Can't LU-decompose a non-square matrix.");
+		}
+		
+		n = matrix.getHeight();
+		lu = matrix.toArray();
+		pivot = new int[n];
+		
+		for (int i=0; i<n; i++) {
+			pivot[i] = i;
+		}
+		
+		double[] rowTolerances = new double[n];
+		for (int i=0; i<n; i++) {
+			double max = 0;
+			for (double value : lu[i]) {
+				max = Math.max(max, Math.abs(value));
+			}
+			rowTolerances[i] = n * Math.ulp(max);
+		}
+		
+		int sign = 1;
+		boolean foundZeroPivot = false;
+		
+		for (int k=0; k<n; k++) {
+			int maxRow = k;
+			for (int i=k+1; i<n; i++) {
+				if (Math.abs(lu[i][k]) > Math.abs(lu[maxRow][k])) {
+					maxRow = i;
+				}
+			}
+			
+			if (maxRow != k) {
+				double[] tmpRow = lu[k];
+				lu[k] = lu[maxRow];
+				lu[maxRow] = tmpRow;
+				int tmpIndex = pivot[k];
+				pivot[k] = pivot[maxRow];
+				pivot[maxRow] = tmpIndex;
+				sign = -sign;
+			}
+			
+			double[] pivotRow = lu[k];
+			if (Math.abs(pivotRow[k]) <= rowTolerances[pivot[k]]) {
+				foundZeroPivot = true;
+				continue;
+			}
+			
+			for (int i=k+1; i<n; i++) {
+				double[] row = lu[i];
+				double factor = row[k] / pivotRow[k];
+				row[k] = factor;
+				
+				if (factor != 0) {
+					for (int j=k+1; j<n; j++) {
+						row[j] -= factor * pivotRow[j];
+					}
+				}
+			}
+		}
+		
+		pivotSign = sign;
+		singular = foundZeroPivot;
+	}
+	
+	/**
+	 * @return Whether a pivot of the decomposition is zero (up to rounding errors)
+	 */
+	public boolean isSingular() {
+		return singular;
+	}
+	
+	public double determinant() {
+		if (singular) {
+			return 0;
+		}
+		
+		double det = pivotSign;
+		for (int i=0; i<n; i++) {
+			det *= lu[i][i];
+		}
+		return det;
+	}
+	
+	/**
+	 * @return The unit lower triangular factor L
+	 */
+	public DoubleMatrix getL() {
+		double[][] l = new double[n][n];
+		for (int y=0; y<n; y++) {
+			System.arraycopy(lu[y], 0, l[y], 0, y);
+			l[y][y] = 1;
+		}
+		return new DoubleMatrix(l);
+	}
+	
+	/**
+	 * @return The upper triangular factor U
+	 */
+	public DoubleMatrix getU() {
+		double[][] u = new double[n][n];
+		for (int y=0; y<n; y++) {
+			System.arraycopy(lu[y], y, u[y], y, n - y);
+		}
+		return new DoubleMatrix(u);
+	}
+	
+	/**
+	 * @return The row permutation, i.e. row i of PA is row pivot[i] of A
+	 */
+	public int[] getPivot() {
+		return pivot.clone();
+	}
+	
+	/**
+	 * Solves the linear system Ax = b.
+	 * 
+	 * @param b - The right-hand side
+	 * @return The solution x
+	 * @throws ArithmeticException If the matrix is singular
+	 */
+	public double[] solve(double[] b) {
+		if (b.length != n) {
+			throw new ArithmeticException("The right-hand side needs to have " + n + " rows, but has " + b.length);
+		}
+		
+		double[][] x = new double[n][1];
+		for (int i=0; i<n; i++) {
+			x[i][0] = b[i];
+		}
+		
+		double[][] solution = solveInPlace(x, n);
+		double[] result = new double[n];
+		for (int i=0; i<n; i++) {
+			result[i] = solution[i][0];
+		}
+		return result;
+	}
+	
+	/**
+	 * Solves the linear systems AX = B.
+	 * 
+	 * @param b - The right-hand sides as columns
+	 * @return The solutions X as columns
+	 * @throws ArithmeticException If the matrix is singular
+	 */
+	public DoubleMatrix solve(DoubleMatrix b) {
+		return new DoubleMatrix(solveInPlace(b.toArray(), b.getHeight()));
+	}
+	
+	/**
+	 * @return The inverse matrix
+	 * @throws ArithmeticException If the matrix is singular
+	 */
+	public DoubleMatrix inverse() {
+		return new DoubleMatrix(solveInPlace(Decompositions.identity(n), n));
+	}
+	
+	private double[][] solveInPlace(double[][] b, int rows) {
+		if (rows != n) {
+			throw new ArithmeticException("The right-hand side needs to have " + n + " rows, but has " + rows);
+		} else if (singular) {
+			throw new ArithmeticException("Can't solve a linear system with a singular matrix.");
+		}
+		
+		// Apply the permutation
+		double[][] x = new double[n][];
+		for (int i=0; i<n; i++) {
+			x[i] = b[pivot[i]];
+		}
+		int columns = (n == 0) ? 0 : x[0].length;
+		
+		// Forward substitution with L
+		for (int k=0; k<n; k++) {
+			for (int i=k+1; i<n; i++) {
+				double factor = lu[i][k];
+				if (factor != 0) {
+					for (int j=0; j<columns; j++) {
+						x[i][j] -= factor * x[k][j];
+					}
+				}
+			}
+		}
+		
+		// Backward substitution with U
+		for (int k=n-1; k>=0; k--) {
+			double diagonal = lu[k][k];
+			for (int j=0; j<columns; j++) {
+				x[k][j] /= diagonal;
+			}
+			for (int i=0; i<k; i++) {
+				double factor = lu[i][k];
+				if (factor != 0) {
+					for (int j=0; j<columns; j++) {
+						x[i][j] -= factor * x[k][j];
+					}
+				}
+			}
+		}
+		
+		return x;
+	}
+}
@@ -0,0 +1,252 @@
+package fwcd.fructose.math.decomposition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import fwcd.fructose.math.Matrix;
+import fwcd.fructose.math.Numeric;
+import fwcd.fructose.math.Vector;
+
+/**
+ * An LU decomposition PA = LU of a square numeric matrix
+ * with partial pivoting, i.e. the element of largest magnitude
+ * in a column is used as the pivot.
+ * 
+ * <p>Like {@link LUDecomposition}, a pivot is considered to be
+ * zero if it does not exceed the rounding errors relative to the
+ * largest element of its original row.</p>
+ * 
+ * @param <V> - The element type
+ */
+public class NumericLUDecomposition<V extends Numeric<V>> {
+	private final int n;
+	private final List<List<V>> lu;
+	private final int[] pivot;
+	private final boolean singular;
+	private final boolean oddPermutation;
+	private final V zero;
+	private final V one;
+	
+	/**
+	 * Decomposes a square matrix.
+	 * 
+	 * @param matrix - The matrix
+	 * @throws IllegalArgumentException If the matrix is not square-shaped
+	 */
+	public NumericLUDecomposition(Matrix<V> matrix) {
+		if (!matrix.isSquareShaped()) {
+			throw new IllegalArgumentException("Can't LU-decompose a non-square matrix.");
+		}
+		
+		n = matrix.height();
+		lu = new ArrayList<>();
+		for (int y=0; y<n; y++) {
+			List<V> row = new ArrayList<>();
+			for (int x=0; x<n; x++) {
+				row.add(matrix.get(x, y));
+			}
+			lu.add(row);
+		}
+		
+		V anyElement = matrix.get(0, 0);
+		zero = anyElement.sub(anyElement);
+		V foundOne = null;
+		
+		pivot = new int[n];
+		for (int i=0; i<n; i++) {
+			pivot[i] = i;
+		}
+		
+		double[] rowTolerances = new double[n];
+		for (int i=0; i<n; i++) {
+			double max = 0;
+			for (V value : lu.get(i)) {
+				max = Math.max(max, value.abs());
+			}
+			rowTolerances[i] = n * Math.ulp(max);
+		}
+		
+		boolean odd = false;
+		boolean foundZeroPivot = false;
+		
+		for (int k=0; k<n; k++) {
+			int pivotRow = k;
+			double pivotMagnitude = lu.get(k).get(k).abs();
+			for (int i=k+1; i<n; i++) {
+				double magnitude = lu.get(i).get(k).abs();
+				if (magnitude > pivotMagnitude) {
+					pivotRow = i;
+					pivotMagnitude = magnitude;
+				}
+			}
+			
+			if (pivotRow != k) {
+				Collections.swap(lu, k, pivotRow);
+				int tmp = pivot[k];
+				pivot[k] = pivot[pivotRow];
+				pivot[pivotRow] = tmp;
+				odd = !odd;
+			}
+			
+			if (pivotMagnitude <= rowTolerances[pivot[k]]) {
+				foundZeroPivot = true;
+				continue;
+			}
+			
+			List<V> pivotValues = lu.get(k);
+			V reciprocal = pivotValues.get(k).reciprocal();
+			if (foundOne == null) {
+				foundOne = pivotValues.get(k).multiply(reciprocal);
+			}
+			
+			for (int i=k+1; i<n; i++) {
+				List<V> row = lu.get(i);
+				V factor = row.get(k).multiply(reciprocal);
+				row.set(k, factor);
+				
+				if (!isZero(factor)) {
+					for (int j=k+1; j<n; j++) {
+						row.set(j, row.get(j).sub(factor.multiply(pivotValues.get(j))));
+					}
+				}
+			}
+		}
+		
+		singular = foundZeroPivot;
+		oddPermutation = odd;
+		one = foundOne;
+	}
+	
+	private boolean isZero(V value) {
+		return value.equals(zero, 0);
+	}
+	
+	public boolean isSingular() {
+		return singular;
+	}
+	
+	public V determinant() {
+		if (singular) {
+			return zero;
+		}
+		
+		V det = lu.get(0).get(0);
+		for (int i=1; i<n; i++) {
+			det = det.multiply(lu.get(i).get(i));
+		}
+		return oddPermutation ? det.negate() : det;
+	}
+	
+	/**
+	 * Solves the linear system Ax = b.
+	 * 
+	 * @param b - The right-hand side
+	 * @return The solution x
+	 * @throws ArithmeticException If the matrix is singular
+	 */
+	public Vector<V> solve(Vector<V> b) {
+		if (b.size() != n) {
+			throw new ArithmeticException("The right-hand side needs to have " + n + " elements, but has " + b.size());
+		}
+		
+		List<List<V>> columns = new ArrayList<>();
+		for (int i=0; i<n; i++) {
+			columns.add(new ArrayList<>(Collections.singletonList(b.get(i))));
+		}
+		
+		List<List<V>> solution = solveInPlace(columns);
+		List<V> result = new ArrayList<>();
+		for (List<V> row : solution) {
+			result.add(row.get(0));
+		}
+		return new Vector<>(result);
+	}
+	
+	/**
+	 * Solves the linear systems AX = B.
+	 * 
+	 * @param b - The right-hand sides as columns
+	 * @return The solutions X as columns
+	 * @throws ArithmeticException If the matrix is singular
+	 */
+	public Matrix<V> solve(Matrix<V> b) {
+		if (b.height() != n) {
+			throw new ArithmeticException("The right-hand side needs to have " + n + " rows, but has " + b.height());
+		}
+		
+		List<List<V>> rows = new ArrayList<>();
+		for (int y=0; y<n; y++) {
+			List<V> row = new ArrayList<>();
+			for (int x=0; x<b.width(); x++) {
+				row.add(b.get(x, y));
+			}
+			rows.add(row);
+		}
+		
+		return new Matrix<>(solveInPlace(rows));
+	}
+	
+	/**
+	 * @return The inverse matrix
+	 * @throws ArithmeticException If the matrix is singular
+	 */
+	public Matrix<V> inverse() {
+		if (singular) {
+			throw new ArithmeticException("Can't invert a singular matrix.");
+		}
+		
+		List<List<V>> identity = new ArrayList<>();
+		for (int y=0; y<n; y++) {
+			List<V> row = new ArrayList<>();
+			for (int x=0; x<n; x++) {
+				row.add((x == y) ? one : zero);
+			}
+			identity.add(row);
+		}
+		
+		return new Matrix<>(solveInPlace(identity));
+	}
+	
+	private List<List<V>> solveInPlace(List<List<V>> b) {
+		if (singular) {
+			throw new ArithmeticException("Can't solve a linear system with a singular matrix.");
+		}
+		
+		List<List<V>> x = new ArrayList<>();
+		for (int i=0; i<n; i++) {
+			x.add(b.get(pivot[i]));
+		}
+		int columns = x.get(0).size();
+		
+		// Forward substitution with L
+		for (int k=0; k<n; k++) {
+			for (int i=k+1; i<n; i++) {
+				V factor = lu.get(i).get(k);
+				if (!isZero(factor)) {
+					for (int j=0; j<columns; j++) {
+						x.get(i).set(j, x.get(i).get(j).sub(factor.multiply(x.get(k).get(j))));
+					}
+				}
+			}
+		}
+		
+		// Backward substitution with U
+		for (int k=n-1; k>=0; k--) {
+			V reciprocal = lu.get(k).get(k).reciprocal();
+			for (int j=0; j<columns; j++) {
+				x.get(k).set(j, x.get(k).get(j).multiply(reciprocal));
+			}
+			for (int i=0; i<k; i++) {
+				V factor = lu.get(i).get(k);
+				if (!isZero(factor)) {
+					for (int j=0; j<columns; j++) {
+						x.get(i).set(j, x.get(i).get(j).sub(factor.multiply(x.get(k).get(j))));
+					}
+				}
+			}
+		}
+		
+		return x;
+	}
+}
@@ -0,0 +1,190 @@
+package fwcd.fructose.math.decomposition;
+
+import fwcd.fructose.geometry.DoubleMatrix;
+
+/**
+ * A QR decomposition using Householder reflections, which
+ * factorizes an m x n matrix A (with m &gt;= n) into A = QR,
+ * where Q has orthonormal columns and R is upper triangular.
+ * 
+ * <p>This is primarily used to solve linear least squares
+ * problems, which it does more accurately than solving
+ * the normal equations.</p>
+ */
+public class QRDecomposition {
+	private final int m;
+	private final int n;
+	private final double[][] qr; // The Householder vectors on and below the diagonal, R above
+	private final double[] rDiagonal;
+	private final boolean fullRank;
+	
+	/**
+	 * Decomposes a matrix.
+	 * 
+	 * @param matrix - A matrix that is at least as high as it is wide
+	 * @throws IllegalArgumentException If the matrix is wider than it is high
+	 */
+	public QRDecomposition(DoubleMatrix matrix) {
+		m = matrix.getHeight();
+		n = matrix.getWidth();
+		
+		if (m < n) {
+			throw new IllegalArgumentException("Can't QR-decompose a matrix with more columns than rows.");
+		}
+		
+		qr = matrix.toArray();
+		rDiagonal = new double[n];
+		boolean hasZeroDiagonal = false;
+		
+		for (int k=0; k<n; k++) {
+			// The norm of the k-th column below the diagonal
+			double norm = 0;
+			for (int i=k; i<m; i++) {
+				norm = Math.hypot(norm, qr[i][k]);
+			}
+			
+			if (norm != 0) {
+				if (qr[k][k] < 0) {
+					norm = -norm;
+				}
+				for (int i=k; i<m; i++) {
+					qr[i][k] /= norm;
+				}
+				qr[k][k] += 1;
+				
+				// Reflect the remaining columns
+				for (int j=k+1; j<n; j++) {
+					double s = 0;
+					for (int i=k; i<m; i++) {
+						s += qr[i][k] * qr[i][j];
+					}
+					s = -s / qr[k][k];
+					for (int i=k; i<m; i++) {
+						qr[i][j] += s * qr[i][k];
+					}
+				}
+			}
+			
+			rDiagonal[k] = -norm;
+			if (norm == 0) {
+				hasZeroDiagonal = true;
+			}
+		}
+		
+		fullRank = !hasZeroDiagonal;
+	}
+	
+	/**
+	 * @return Whether no diagonal entry of R is exactly zero
+	 */
+	public boolean isFullRank() {
+		return fullRank;
+	}
+	
+	/**
+	 * Estimates the numerical rank by counting the diagonal
+	 * entries of R whose magnitude exceeds the given tolerance.
+	 * 
+	 * @param tolerance - The magnitude at or below which an entry counts as zero
+	 * @return The numerical rank
+	 */
+	public int rank(double tolerance) {
+		int rank = 0;
+		for (double value : rDiagonal) {
+			if (Math.abs(value) > tolerance) {
+				rank++;
+			}
+		}
+		return rank;
+	}
+	
+	/**
+	 * @return The m x n factor Q with orthonormal columns
+	 */
+	public DoubleMatrix getQ() {
+		double[][] q = new double[m][n];
+		
+		for (int k=n-1; k>=0; k--) {
+			q[k][k] = 1;
+			for (int j=k; j<n; j++) {
+				if (qr[k][k] != 0) {
+					double s = 0;
+					for (int i=k; i<m; i++) {
+						s += qr[i][k] * q[i][j];
+					}
+					s = -s / qr[k][k];
+					for (int i=k; i<m; i++) {
+						q[i][j] += s * qr[i][k];
+					}
+				}
+			}
+		}
+		
+		return new DoubleMatrix(q);
+	}
+	
+	/**
+	 * @return The n x n upper triangular factor R
+	 */
+	public DoubleMatrix getR() {
+		double[][] r = new double[n][n];
+		
+		for (int y=0; y<n; y++) {
+			r[y][y] = rDiagonal[y];
+			for (int x=y+1; x<n; x++) {
+				r[y][x] = qr[y][x];
+			}
+		}
+		
+		return new DoubleMatrix(r);
+	}
+	
+	/**
+	 * Finds the least squares solution X that minimizes
+	 * the (Frobenius) norm of AX - B.
+	 * 
+	 * @param b - The right-hand sides as columns (with m rows)
+	 * @return The solutions X as columns (with n rows)
+	 * @throws ArithmeticException If the matrix is rank deficient
+	 */
+	public DoubleMatrix solve(DoubleMatrix b) {
+		if (b.getHeight() != m) {
+			throw new ArithmeticException("The right-hand side needs to have " + m + " rows, but has " + b.getHeight());
+		} else if (!fullRank) {
+			throw new ArithmeticException("Can't solve a least squares problem with a rank deficient matrix.");
+		}
+		
+		double[][] x = b.toArray();
+		int columns = b.getWidth();
+		
+		// Compute the first n rows of Q^T * B
+		for (int k=0; k<n; k++) {
+			for (int j=0; j<columns; j++) {
+				double s = 0;
+				for (int i=k; i<m; i++) {
+					s += qr[i][k] * x[i][j];
+				}
+				s = -s / qr[k][k];
+				for (int i=k; i<m; i++) {
+					x[i][j] += s * qr[i][k];
+				}
+			}
+		}
+		
+		// Solve RX = Q^T * B
+		for (int k=n-1; k>=0; k--) {
+			for (int j=0; j<columns; j++) {
+				x[k][j] /= rDiagonal[k];
+			}
+			for (int i=0; i<k; i++) {
+				for (int j=0; j<columns; j++) {
+					x[i][j] -= x[k][j] * qr[i][k];
+				}
+			}
+		}
+		
+		double[][] solution = new double[n][];
+		System.arraycopy(x, 0, solution, 0, n);
+		return new DoubleMatrix(solution);
+	}
+}
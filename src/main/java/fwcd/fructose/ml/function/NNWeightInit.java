@@ -1,12 +1,12 @@
 package fwcd.fructose.ml.function;
 
-import java.util.concurrent.ThreadLocalRandom;
+import fwcd.fructose.RandomStreams;
 
 public enum NNWeightInit implements WeightInit {
 	XAVIER {
 		@Override
 		public float getWeight(int inputNeurons, int outputNeurons) {
-			return (float) (ThreadLocalRandom.current().nextGaussian() * Math.sqrt(2D / (inputNeurons + outputNeurons)));
+			return (float) (RandomStreams.current().nextGaussian() * Math.sqrt(2D / (inputNeurons + outputNeurons)));
 		}
 	},
 	ZERO {
@@ -19,13 +19,13 @@ public enum NNWeightInit implements WeightInit {
 		@Override
 		public float getWeight(int inputNeurons, int outputNeurons) {
 			float a = 1 / (float) Math.sqrt(inputNeurons);
-			return (ThreadLocalRandom.current().nextFloat() * 2 * a) - a;
+			return (RandomStreams.current().nextFloat() * 2 * a) - a;
 		}
 	},
 	NORMALIZED {
 		@Override
 		public float getWeight(int inputNeurons, int outputNeurons) {
-			return ThreadLocalRandom.current().nextFloat();
+			return RandomStreams.current().nextFloat();
 		}
 	}
 }
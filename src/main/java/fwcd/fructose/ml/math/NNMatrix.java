@@ -3,9 +3,10 @@ package fwcd.fructose.ml.math;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.Iterator;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.Random;
 
 import fwcd.fructose.ArrayIterator;
+import fwcd.fructose.RandomStreams;
 import fwcd.fructose.exception.SizeMismatchException;
 import fwcd.fructose.function.FloatSupplier;
 import fwcd.fructose.function.FloatUnaryOperator;
@@ -86,7 +87,7 @@ public class NNMatrix implements Iterable<float[]>, Serializable {
 	}
 	
 	public void fillRandomly() {
-		ThreadLocalRandom rand = ThreadLocalRandom.current();
+		Random rand = RandomStreams.current();
 		
 		for (int y=0; y<height(); y++) {
 			for (int x=0; x<width(); x++) {
@@ -3,8 +3,9 @@ package fwcd.fructose.ml.math;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.Iterator;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.Random;
 
+import fwcd.fructose.RandomStreams;
 import fwcd.fructose.exception.SizeMismatchException;
 import fwcd.fructose.function.FloatBinaryOperator;
 import fwcd.fructose.function.FloatSupplier;
@@ -230,7 +231,7 @@ public class NNVector implements Iterable<Float>, Serializable {
 	}
 	
 	public void fillRandomly() {
-		ThreadLocalRandom rand = ThreadLocalRandom.current();
+		Random rand = RandomStreams.current();
 		
 		for (int i=0; i<size(); i++) {
 			data[i] = rand.nextFloat();
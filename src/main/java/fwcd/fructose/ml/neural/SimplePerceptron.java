@@ -6,8 +6,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Random;
-import java.util.concurrent.ThreadLocalRandom;
 
+import fwcd.fructose.RandomStreams;
 import fwcd.fructose.exception.SerializationException;
 import fwcd.fructose.exception.SizeMismatchException;
 
@@ -37,7 +37,7 @@ public class SimplePerceptron implements NeuralNetwork<float[], float[]> {
 		
 		weights = new float[weightsCount];
 		
-		Random r = ThreadLocalRandom.current();
+		Random r = RandomStreams.current();
 		for (int i=0; i<weights.length; i++) {
 			// Gaussian weight initialization
 			weights[i] = (float) r.nextGaussian();
@@ -0,0 +1,104 @@
+package fwcd.fructose.structs;
+
+import java.util.Random;
+
+/**
+ * An immutable table for sampling indices from a discrete
+ * distribution in constant time, built in linear time
+ * using Vose's variant of Walker's alias method.
+ * 
+ * <p>Since the table is immutable, it can safely
+ * be sampled from multiple threads.</p>
+ */
+public class AliasTable {
+	private final double[] probabilities;
+	private final double[] thresholds;
+	private final int[] aliases;
+	
+	/**
+	 * Creates a new alias table. If all weights are
+	 * zero, indices are sampled uniformly.
+	 * 
+	 * @param weights - The non-negative (not necessarily normalized) weights
+	 */
+	public AliasTable(double[] weights) {
+		int n = weights.length;
+		if (n == 0) {
+			throw new IllegalArgumentException("Can not create an alias table without weights");
+		}
+		
+		double total = 0;
+		for (double weight : weights) {
+			if (weight < 0 || !Double.isFinite(weight)) {
+				throw new IllegalArgumentException("Invalid weight: " + weight);
+			}
+			total += weight;
+		}
+		
+		probabilities = new double[n];
+		thresholds = new double[n];
+		aliases = new int[n];
+		
+		double[] scaled = new double[n];
+		int[] small = new int[n];
+		int[] large = new int[n];
+		int smallCount = 0;
+		int largeCount = 0;
+		
+		for (int i = 0; i < n; i++) {
+			probabilities[i] = (total > 0) ? (weights[i] / total) : (1.0 / n);
+			scaled[i] = probabilities[i] * n;
+			
+			if (scaled[i] < 1) {
+				small[smallCount++] = i;
+			} else {
+				large[largeCount++] = i;
+			}
+		}
+		
+		while (smallCount > 0 && largeCount > 0) {
+			int less = small[--smallCount];
+			int more = large[--largeCount];
+			
+			thresholds[less] = scaled[less];
+			aliases[less] = more;
+			scaled[more] = (scaled[more] + scaled[less]) - 1;
+			
+			if (scaled[more] < 1) {
+				small[smallCount++] = more;
+			} else {
+				large[largeCount++] = more;
+			}
+		}
+		
+		// The remaining columns are (up to rounding errors) full
+		while (largeCount > 0) {
+			thresholds[large[--largeCount]] = 1;
+		}
+		while (smallCount > 0) {
+			thresholds[small[--smallCount]] = 1;
+		}
+	}
+	
+	/**
+	 * Samples an index in constant time.
+	 * 
+	 * @param random - The random number generator
+	 * @return The sampled index
+	 */
+	public int sample(Random random) {
+		int column = random.nextInt(thresholds.length);
+		return (random.nextDouble() < thresholds[column]) ? column : aliases[column];
+	}
+	
+	/**
+	 * @return The normalized probability of the given index
+	 */
+	public double getProbability(int index) {
+		return probabilities[index];
+	}
+	
+	public int size() {
+		return probabilities.length;
+	}
+}
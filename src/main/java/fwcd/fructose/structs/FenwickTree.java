@@ -0,0 +1,150 @@
+package fwcd.fructose.structs;
+
+import java.util.Arrays;
+
+/**
+ * A binary indexed (Fenwick) tree over a growable list of
+ * doubles, which supports point updates and prefix sums
+ * in logarithmic time.
+ * 
+ * <p>This is particularly useful for sampling from
+ * discrete distributions whose weights change
+ * (see {@link #search(double)}).</p>
+ */
+public class FenwickTree {
+	private double[] values;
+	private double[] tree; // 1-based
+	private int size = 0;
+	
+	public FenwickTree() {
+		this(16);
+	}
+	
+	public FenwickTree(int initialCapacity) {
+		values = new double[Math.max(initialCapacity, 1)];
+		tree = new double[values.length + 1];
+	}
+	
+	public FenwickTree(double[] values) {
+		this(values.length);
+		for (double value : values) {
+			add(value);
+		}
+	}
+	
+	/**
+	 * Appends a value in amortized logarithmic time.
+	 * 
+	 * @param value - The value
+	 */
+	public void add(double value) {
+		if (size == values.length) {
+			grow();
+		}
+		
+		int node = size + 1;
+		// A new node covers the values (node - lowbit(node), node]
+		double sum = value;
+		int lowBit = node & -node;
+		for (int child = node - 1; child > node - lowBit; child -= child & -child) {
+			sum += tree[child];
+		}
+		
+		tree[node] = sum;
+		values[size++] = value;
+	}
+	
+	private void grow() {
+		values = Arrays.copyOf(values, values.length * 2);
+		double[] newTree = new double[values.length + 1];
+		// Rebuild in linear time, since the coverage of the nodes changes
+		for (int i = 1; i <= size; i++) {
+			newTree[i] += values[i - 1];
+			int parent = i + (i & -i);
+			if (parent <= size) {
+				newTree[parent] += newTree[i];
+			}
+		}
+		tree = newTree;
+	}
+	
+	public double get(int index) {
+		checkIndex(index);
+		return values[index];
+	}
+	
+	/**
+	 * Replaces a value in logarithmic time.
+	 * 
+	 * @param index - The index
+	 * @param value - The new value
+	 */
+	public void set(int index, double value) {
+		checkIndex(index);
+		double delta = value - values[index];
+		values[index] = value;
+		
+		for (int node = index + 1; node <= size; node += node & -node) {
+			tree[node] += delta;
+		}
+	}
+	
+	/**
+	 * Computes the sum of the first values in logarithmic time.
+	 * 
+	 * @param count - The number of values (exclusive end index)
+	 * @return The sum of the values at the indices [0, count)
+	 */
+	public double prefixSum(int count) {
+		if (count < 0 || count > size) {
+			throw new IndexOutOfBoundsException("Prefix length " + count + " is out of bounds (size: " + size + ")");
+		}
+		
+		double sum = 0;
+		for (int node = count; node > 0; node -= node & -node) {
+			sum += tree[node];
+		}
+		return sum;
+	}
+	
+	public double sum() {
+		return prefixSum(size);
+	}
+	
+	/**
+	 * Finds the first index whose prefix sum (inclusive)
+	 * exceeds the given value in logarithmic time. All
+	 * values are required to be non-negative.
+	 * 
+	 * @param value - A value in the range [0, sum())
+	 * @return The index or size() - 1 if the value is too large
+	 */
+	public int search(double value) {
+		if (size == 0) {
+			throw new IllegalStateException("Can not search an empty tree");
+		}
+		
+		int node = 0;
+		double remaining = value;
+		
+		for (int step = Integer.highestOneBit(size); step > 0; step >>= 1) {
+			int next = node + step;
+			if (next <= size && tree[next] <= remaining) {
+				node = next;
+				remaining -= tree[next];
+			}
+		}
+		
+		return Math.min(node, size - 1);
+	}
+	
+	public int size() {
+		return size;
+	}
+	
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index " + index + " is out of bounds (size: " + size + ")");
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package fwcd.fructose;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+public class SplitRandomTest {
+	@Test
+	public void testSeeded() {
+		SplitRandom a = new SplitRandom(3);
+		SplitRandom b = new SplitRandom(3);
+		for (int i=0; i<100; i++) {
+			assertEquals(a.nextLong(), b.nextLong());
+		}
+		
+		SplitRandom splitA = a.split();
+		SplitRandom splitB = b.split();
+		for (int i=0; i<100; i++) {
+			assertEquals(splitA.nextGaussian(), splitB.nextGaussian(), 0);
+		}
+		
+		a.setSeed(9);
+		b.setSeed(9);
+		assertEquals(a.nextInt(1000), b.nextInt(1000));
+	}
+	
+	@Test
+	public void testSerialization() throws IOException, ClassNotFoundException {
+		SplitRandom random = new SplitRandom(5);
+		SplitRandom twin = new SplitRandom(5);
+		random.nextDouble();
+		twin.nextDouble();
+		
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(random);
+		}
+		
+		SplitRandom copy;
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			copy = (SplitRandom) in.readObject();
+		}
+		
+		// Serializing does not advance the generator
+		for (int i=0; i<100; i++) {
+			long expected = twin.nextLong();
+			assertEquals(expected, random.nextLong());
+			assertEquals(expected, copy.nextLong());
+		}
+	}
+	
+	@Test
+	public void testSplittableRandomCompatibility() {
+		SplittableRandom expected = new SplittableRandom(11);
+		SplitRandom actual = new SplitRandom(11);
+		
+		for (int i=0; i<100; i++) {
+			assertEquals(expected.nextLong(), actual.nextLong());
+			assertEquals(expected.nextInt(1000), actual.nextInt(1000));
+			assertEquals(expected.nextDouble(), actual.nextDouble(), 0);
+		}
+		assertEquals(expected.split().nextLong(), actual.split().nextLong());
+	}
+}
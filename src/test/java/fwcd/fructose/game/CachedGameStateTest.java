@@ -0,0 +1,80 @@
+package fwcd.fructose.game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Test;
+
+public class CachedGameStateTest {
+	@Test
+	public void testCaching() {
+		CountingTicTacToe game = new CountingTicTacToe();
+		CachedGameState<TicTacToe.Move, TicTacToe.Role> cached = CachedGameState.of(game);
+		
+		assertSame(cached, CachedGameState.of(cached));
+		assertSame(game, cached.unwrap());
+		
+		cached.getLegalMoves();
+		cached.getLegalMoves();
+		assertTrue(cached.isLegal(new TicTacToe.Move(4)));
+		assertFalse(cached.isGameOver());
+		assertEquals(1, game.legalMoveQueries);
+		
+		// Performing a move invalidates the cache
+		cached.perform(new TicTacToe.Move(4));
+		assertFalse(cached.isLegal(new TicTacToe.Move(4)));
+		cached.getLegalMoves();
+		assertEquals(2, game.legalMoveQueries);
+	}
+	
+	@Test
+	public void testReversible() {
+		CachedGameState<TicTacToe.Move, TicTacToe.Role> cached = CachedGameState.of(TicTacToe.of(4));
+		assertTrue(cached instanceof ReversibleGameState);
+		
+		GameTreeWalker<TicTacToe.Move, TicTacToe.Role> walker = GameTreeWalker.of(cached);
+		assertTrue(walker.isInPlace());
+		
+		walk(cached, walker, TicTacToe.of(4));
+		assertEquals(TicTacToe.of(4), cached.unwrap());
+	}
+	
+	/**
+	 * Walks the whole game tree in place and compares the
+	 * cached results to the uncached ones at every node.
+	 */
+	private void walk(GameState<TicTacToe.Move, TicTacToe.Role> cached, GameTreeWalker<TicTacToe.Move, TicTacToe.Role> walker, TicTacToe expected) {
+		List<TicTacToe.Move> moves = expected.getLegalMoves();
+		assertEquals(moves, cached.getLegalMoves());
+		assertEquals(expected.getWinners(), new HashSet<>(cached.getWinners()));
+		assertEquals(expected.isGameOver(), cached.isGameOver());
+		
+		for (TicTacToe.Move move : moves) {
+			GameState<TicTacToe.Move, TicTacToe.Role> child = walker.enter(cached, move);
+			TicTacToe expectedChild = expected.copy();
+			expectedChild.perform(move);
+			
+			walk(child, walker, expectedChild);
+			walker.leave(child);
+			
+			// The cached results of the parent are restored
+			assertEquals(moves, cached.getLegalMoves());
+			assertEquals(expected.getWinners(), new HashSet<>(cached.getWinners()));
+		}
+	}
+	
+	private static class CountingTicTacToe extends TicTacToe {
+		private int legalMoveQueries = 0;
+		
+		@Override
+		public List<Move> getLegalMoves() {
+			legalMoveQueries++;
+			return super.getLegalMoves();
+		}
+	}
+}
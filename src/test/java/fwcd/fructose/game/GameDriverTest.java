@@ -0,0 +1,77 @@
+package fwcd.fructose.game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import fwcd.fructose.game.ai.AlphaBeta;
+import fwcd.fructose.game.ai.GamePlayer;
+
+public class GameDriverTest {
+	@Test
+	public void testPerfectPlayDraws() {
+		GameDriver<TicTacToe.Move, TicTacToe.Role> driver = new GameDriver<>(TicTacToe::new);
+		driver.setPlayer(TicTacToe.Role.X, new AlphaBeta<>());
+		driver.setPlayer(TicTacToe.Role.O, new AlphaBeta<>());
+		
+		TournamentStats<TicTacToe.Role> stats = driver.play(3);
+		
+		assertEquals(3, stats.getGames());
+		assertEquals(3, stats.getDraws());
+		assertEquals(0.5, stats.getScore(TicTacToe.Role.X), 0);
+		assertEquals(0, stats.getEloDifference(TicTacToe.Role.X), 1e-9);
+		assertTrue(stats.getAverageMoveMillis() > 0);
+	}
+	
+	@Test
+	public void testStats() {
+		GameDriver<TicTacToe.Move, TicTacToe.Role> driver = new GameDriver<>(TicTacToe::new);
+		driver.setPlayer(TicTacToe.Role.X, new AlphaBeta<>());
+		driver.setPlayer(TicTacToe.Role.O, new FirstMovePlayer());
+		
+		TournamentStats<TicTacToe.Role> stats = driver.play(4);
+		double gamesPerSecond = stats.getGamesPerSecond();
+		
+		assertEquals(4, stats.getGames());
+		assertEquals(4, stats.getWins(TicTacToe.Role.X));
+		assertEquals(4, stats.getLosses(TicTacToe.Role.O));
+		assertEquals(0, stats.getDraws());
+		assertEquals(1, stats.getScore(TicTacToe.Role.X), 0);
+		assertTrue(stats.getEloDifference(TicTacToe.Role.X) > 0);
+		assertTrue(stats.getEloDifference(TicTacToe.Role.O) < 0);
+		
+		// The clock is stopped once all games are played
+		assertTrue(gamesPerSecond > 0);
+		assertEquals(gamesPerSecond, stats.getGamesPerSecond(), 0);
+	}
+	
+	@Test
+	public void testConcurrentStats() {
+		GameDriver<TicTacToe.Move, TicTacToe.Role> driver = new GameDriver<>(TicTacToe::new);
+		driver.setPlayerFactory(TicTacToe.Role.X, AlphaBeta::new);
+		driver.setPlayerFactory(TicTacToe.Role.O, FirstMovePlayer::new);
+		
+		TournamentStats<TicTacToe.Role> stats = driver.playConcurrently(8, 3);
+		
+		assertEquals(8, stats.getGames());
+		assertEquals(8, stats.getWins(TicTacToe.Role.X));
+		assertEquals(8, stats.getLosses(TicTacToe.Role.O));
+	}
+	
+	/**
+	 * Always plays the first legal move.
+	 */
+	private static class FirstMovePlayer implements GamePlayer<TicTacToe.Move, TicTacToe.Role> {
+		@Override
+		public TicTacToe.Move chooseMove(GameState<TicTacToe.Move, TicTacToe.Role> game) {
+			return game.getLegalMoves().get(0);
+		}
+		
+		@Override
+		public void setSoftMaxTime(long ms) {}
+		
+		@Override
+		public void setHardMaxTime(long ms) {}
+	}
+}
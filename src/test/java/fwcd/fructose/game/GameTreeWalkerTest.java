@@ -0,0 +1,73 @@
+package fwcd.fructose.game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import fwcd.fructose.game.ai.AlphaBeta;
+
+public class GameTreeWalkerTest {
+	@Test
+	public void testReversibleRoundTrip() {
+		TicTacToe game = TicTacToe.of(4, 0);
+		TicTacToe before = game.copy();
+		
+		for (TicTacToe.Move move : before.getLegalMoves()) {
+			TicTacToe.Move token = game.performReversibly(move);
+			assertEquals(before.getMoveCount() + 1, game.getMoveCount());
+			game.undo(token);
+			assertEquals(before, game);
+			assertEquals(before.hash(), game.hash());
+		}
+	}
+	
+	@Test
+	public void testWalkers() {
+		TicTacToe root = TicTacToe.of(4);
+		GameTreeWalker<TicTacToe.Move, TicTacToe.Role> inPlace = GameTreeWalker.of(root);
+		GameTreeWalker<TicTacToe.Move, TicTacToe.Role> copying = GameTreeWalker.copying();
+		
+		assertTrue(inPlace.isInPlace());
+		assertFalse(copying.isInPlace());
+		assertEquals(walk(root.copy(), copying), walk(root, inPlace));
+		assertEquals(TicTacToe.of(4), root);
+	}
+	
+	@Test
+	public void testSearchLeavesRootUnchanged() {
+		TicTacToe root = TicTacToe.of(0, 4, 8);
+		new AlphaBeta<TicTacToe.Move, TicTacToe.Role>().chooseMove(root);
+		assertEquals(TicTacToe.of(0, 4, 8), root);
+	}
+	
+	/**
+	 * Walks the whole game tree and checks that every node
+	 * is restored after visiting its children.
+	 * 
+	 * @return The number of visited nodes
+	 */
+	private int walk(GameState<TicTacToe.Move, TicTacToe.Role> state, GameTreeWalker<TicTacToe.Move, TicTacToe.Role> walker) {
+		TicTacToe snapshot = ((TicTacToe) state).copy();
+		int nodes = 1;
+		
+		for (TicTacToe.Move move : state.getLegalMoves()) {
+			GameState<TicTacToe.Move, TicTacToe.Role> child = walker.enter(state, move);
+			if (walker.isInPlace()) {
+				assertSame(state, child);
+			} else {
+				assertNotSame(state, child);
+			}
+			assertEquals(snapshot.spawnChild(move), child);
+			
+			nodes += walk(child, walker);
+			walker.leave(child);
+			assertEquals(snapshot, state);
+		}
+		
+		return nodes;
+	}
+}
@@ -0,0 +1,171 @@
+package fwcd.fructose.game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A minimal tic-tac-toe implementation used to test the game AIs.
+ */
+public class TicTacToe implements ReversibleGameState<TicTacToe.Move, TicTacToe.Role, TicTacToe.Move> {
+	private static final int[][] LINES = {
+		{0, 1, 2}, {3, 4, 5}, {6, 7, 8},
+		{0, 3, 6}, {1, 4, 7}, {2, 5, 8},
+		{0, 4, 8}, {2, 4, 6}
+	};
+	private final Role[] board = new Role[9];
+	private int moveCount = 0;
+	
+	public static TicTacToe of(int... cells) {
+		TicTacToe game = new TicTacToe();
+		for (int cell : cells) {
+			game.perform(new Move(cell));
+		}
+		return game;
+	}
+	
+	@Override
+	public List<Move> getLegalMoves() {
+		List<Move> moves = new ArrayList<>();
+		if (getWinners().isEmpty()) {
+			for (int cell=0; cell<board.length; cell++) {
+				if (board[cell] == null) {
+					moves.add(new Move(cell));
+				}
+			}
+		}
+		return moves;
+	}
+	
+	@Override
+	public Set<Role> getWinners() {
+		for (int[] line : LINES) {
+			Role role = board[line[0]];
+			if (role != null && role == board[line[1]] && role == board[line[2]]) {
+				return Collections.singleton(role);
+			}
+		}
+		return Collections.emptySet();
+	}
+	
+	@Override
+	public Role getCurrentRole() {
+		return (moveCount % 2 == 0) ? Role.X : Role.O;
+	}
+	
+	@Override
+	public boolean perform(Move move) {
+		performReversibly(move);
+		return true;
+	}
+	
+	@Override
+	public Move performReversibly(Move move) {
+		if (board[move.cell] != null) {
+			throw new IllegalArgumentException("Cell " + move.cell + " is not empty");
+		}
+		board[move.cell] = getCurrentRole();
+		moveCount++;
+		return move;
+	}
+	
+	@Override
+	public void undo(Move move) {
+		board[move.cell] = null;
+		moveCount--;
+	}
+	
+	@Override
+	public int getMoveCount() {
+		return moveCount;
+	}
+	
+	@Override
+	public TicTacToe copy() {
+		TicTacToe copy = new TicTacToe();
+		System.arraycopy(board, 0, copy.board, 0, board.length);
+		copy.moveCount = moveCount;
+		return copy;
+	}
+	
+	/**
+	 * @param cell - The cell index (0-8, row by row)
+	 * @return The role that occupies the cell or null if it is empty
+	 */
+	public Role get(int cell) {
+		return board[cell];
+	}
+	
+	/**
+	 * @return A unique hash of the position
+	 */
+	public long hash() {
+		long hash = 0;
+		for (Role role : board) {
+			hash = (hash * 3) + ((role == null) ? 0 : (role.ordinal() + 1));
+		}
+		return hash;
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof TicTacToe)) {
+			return false;
+		}
+		TicTacToe other = (TicTacToe) obj;
+		return moveCount == other.moveCount && Arrays.equals(board, other.board);
+	}
+	
+	@Override
+	public int hashCode() {
+		return Long.hashCode(hash());
+	}
+	
+	@Override
+	public String toString() {
+		return Arrays.toString(board);
+	}
+	
+	public static enum Role implements GameRole {
+		X, O;
+		
+		@Override
+		public GameRole getOpponent() {
+			return (this == X) ? O : X;
+		}
+		
+		@Override
+		public boolean hasOpponent() {
+			return true;
+		}
+	}
+	
+	public static class Move implements GameMove {
+		private final int cell;
+		
+		public Move(int cell) {
+			this.cell = cell;
+		}
+		
+		public int getCell() {
+			return cell;
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			return (obj instanceof Move) && ((Move) obj).cell == cell;
+		}
+		
+		@Override
+		public int hashCode() {
+			return cell;
+		}
+		
+		@Override
+		public String toString() {
+			return Integer.toString(cell);
+		}
+	}
+}
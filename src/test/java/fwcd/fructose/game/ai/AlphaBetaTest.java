@@ -0,0 +1,133 @@
+package fwcd.fructose.game.ai;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import fwcd.fructose.game.PositionHasher;
+import fwcd.fructose.game.TicTacToe;
+import fwcd.fructose.time.Timer;
+
+public class AlphaBetaTest {
+	@Test
+	public void testIterativeDeepening() {
+		AlphaBeta<TicTacToe.Move, TicTacToe.Role> plain = new AlphaBeta<>();
+		AlphaBeta<TicTacToe.Move, TicTacToe.Role> deepening = new AlphaBeta<>();
+		deepening.setIterativeDeepening(true);
+		AlphaBeta<TicTacToe.Move, TicTacToe.Role> aspirated = new AlphaBeta<>();
+		aspirated.setIterativeDeepening(true);
+		aspirated.setAspirationWindow(1);
+		
+		for (TicTacToe position : positions()) {
+			int optimal = solve(position);
+			assertEquals(position.toString(), optimal, -solve(after(position, plain.chooseMove(position))));
+			assertEquals(position.toString(), optimal, -solve(after(position, deepening.chooseMove(position))));
+			assertEquals(position.toString(), optimal, -solve(after(position, aspirated.chooseMove(position))));
+		}
+	}
+	
+	@Test
+	public void testTranspositionTable() {
+		PositionHasher<TicTacToe.Move, TicTacToe.Role> hasher = state -> ((TicTacToe) state).hash();
+		AlphaBeta<TicTacToe.Move, TicTacToe.Role> plain = new AlphaBeta<>();
+		AlphaBeta<TicTacToe.Move, TicTacToe.Role> cached = new AlphaBeta<>();
+		// The table is shared across all positions
+		cached.setTranspositionTable(hasher, new TranspositionTable<>(1 << 16));
+		
+		for (TicTacToe position : positions()) {
+			for (TicTacToe.Move move : position.getLegalMoves()) {
+				assertEquals(position + " " + move, plain.rateMove(position, move, unlimited()), cached.rateMove(position, move, unlimited()), 0);
+			}
+		}
+	}
+	
+	@Test
+	public void testLazySMP() {
+		AlphaBeta<TicTacToe.Move, TicTacToe.Role> ai = new AlphaBeta<>();
+		ai.setIterativeDeepening(true);
+		ai.setTranspositionTable(state -> ((TicTacToe) state).hash(), new TranspositionTable<>(1 << 16));
+		ai.setHelperThreads(3);
+		
+		for (TicTacToe position : positions()) {
+			assertEquals(position.toString(), solve(position), -solve(after(position, ai.chooseMove(position))));
+		}
+	}
+	
+	@Test
+	public void testMoveOrdering() {
+		MoveOrdering<TicTacToe.Move> ordering = new MoveOrdering<>();
+		List<TicTacToe.Move> moves = new TicTacToe().getLegalMoves();
+		
+		assertEquals(moves, ordering.order(moves, 1));
+		
+		ordering.recordCutoff(move(7), 1, 3);
+		ordering.recordCutoff(move(2), 1, 1);
+		ordering.recordCutoff(move(5), 2, 4);
+		ordering.setPrincipalVariation(Arrays.asList(move(0), move(8)));
+		
+		// Hash move, principal variation, killers (most recent first), history
+		assertEquals(Arrays.asList(move(3), move(8), move(2), move(7), move(5)), ordering.order(moves, 1, move(3)).subList(0, 5));
+	}
+	
+	/**
+	 * Generates non-terminal positions by playing random moves.
+	 */
+	static List<TicTacToe> positions() {
+		List<TicTacToe> positions = new ArrayList<>();
+		Random random = new Random(4);
+		
+		while (positions.size() < 40) {
+			TicTacToe game = new TicTacToe();
+			int moves = 1 + random.nextInt(6);
+			for (int i=0; i<moves && !game.isGameOver(); i++) {
+				List<TicTacToe.Move> legal = game.getLegalMoves();
+				game.perform(legal.get(random.nextInt(legal.size())));
+			}
+			if (!game.isGameOver()) {
+				positions.add(game);
+			}
+		}
+		
+		return positions;
+	}
+	
+	/**
+	 * Solves a position by exhaustive negamax.
+	 * 
+	 * @return 1 if the player to move wins, -1 if they lose and 0 for a draw
+	 */
+	static int solve(TicTacToe game) {
+		if (!game.getWinners().isEmpty()) {
+			return game.getWinners().contains(game.getCurrentRole()) ? 1 : -1;
+		}
+		
+		int best = Integer.MIN_VALUE;
+		for (TicTacToe.Move move : game.getLegalMoves()) {
+			game.performReversibly(move);
+			best = Math.max(best, -solve(game));
+			game.undo(move);
+		}
+		return (best == Integer.MIN_VALUE) ? 0 : best;
+	}
+	
+	static TicTacToe after(TicTacToe game, TicTacToe.Move move) {
+		TicTacToe child = game.copy();
+		child.perform(move);
+		return child;
+	}
+	
+	static Timer unlimited() {
+		Timer timer = new Timer();
+		timer.start(Long.MAX_VALUE / 4);
+		return timer;
+	}
+	
+	static TicTacToe.Move move(int cell) {
+		return new TicTacToe.Move(cell);
+	}
+}
@@ -0,0 +1,120 @@
+package fwcd.fructose.game.ai;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import fwcd.fructose.game.TicTacToe;
+
+public class EvaluationCacheTest {
+	@Test
+	public void testCache() {
+		EvaluationCache cache = new EvaluationCache(10);
+		assertTrue(cache.capacity() >= 10);
+		
+		assertFalse(cache.get(42).isPresent());
+		cache.put(42, 0.5);
+		assertEquals(0.5, cache.get(42).unwrap(), 0);
+		cache.put(42, 0.25);
+		assertEquals(0.25, cache.get(42).unwrap(), 0);
+		
+		AtomicInteger evaluations = new AtomicInteger();
+		assertEquals(3, cache.getOrCompute(7, () -> evaluations.incrementAndGet() * 3), 0);
+		assertEquals(3, cache.getOrCompute(7, () -> evaluations.incrementAndGet() * 3), 0);
+		assertEquals(1, evaluations.get());
+		
+		assertEquals(3, cache.getHits());
+		assertEquals(2, cache.getMisses());
+		assertEquals(0.6, cache.getHitRate(), 1e-9);
+		
+		cache.clear();
+		assertFalse(cache.get(42).isPresent());
+		cache.resetStatistics();
+		assertEquals(0, cache.getHitRate(), 0);
+	}
+	
+	@Test
+	public void testEviction() {
+		// A single set with four slots
+		EvaluationCache cache = new EvaluationCache(4);
+		for (long key=0; key<4; key++) {
+			cache.put(key, key);
+		}
+		
+		cache.get(0);
+		cache.put(4, 4);
+		
+		// The recently referenced entry gets a second chance
+		assertEquals(1, cache.getEvictions());
+		assertTrue(cache.get(0).isPresent());
+		assertFalse(cache.get(1).isPresent());
+		assertTrue(cache.get(4).isPresent());
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidCapacity() {
+		new EvaluationCache(0);
+	}
+	
+	@Test
+	public void testConcurrentAccess() throws Exception {
+		EvaluationCache cache = new EvaluationCache(64);
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		List<Future<Boolean>> results = new ArrayList<>();
+		
+		try {
+			for (int t=0; t<4; t++) {
+				long offset = t;
+				results.add(pool.submit(() -> {
+					boolean consistent = true;
+					for (long i=0; i<10000; i++) {
+						long key = (i * 7 + offset) % 256;
+						consistent &= cache.getOrCompute(key, () -> key * 0.5) == key * 0.5;
+					}
+					return consistent;
+				}));
+			}
+			for (Future<Boolean> result : results) {
+				assertTrue(result.get());
+			}
+		} finally {
+			pool.shutdown();
+		}
+		
+		assertEquals(40000, cache.getHits() + cache.getMisses());
+	}
+	
+	@Test
+	public void testCachingEvaluator() {
+		AtomicInteger evaluations = new AtomicInteger();
+		CachingEvaluator<TicTacToe.Move, TicTacToe.Role> evaluator = new CachingEvaluator<>(
+			(role, before, after, move, depth) -> {
+				evaluations.incrementAndGet();
+				return (role == TicTacToe.Role.X) ? move.getCell() : -move.getCell();
+			},
+			state -> ((TicTacToe) state).hash(),
+			64
+		);
+		TicTacToe before = TicTacToe.of(0, 4);
+		TicTacToe after = TicTacToe.of(0, 4, 8);
+		TicTacToe transposed = TicTacToe.of(8, 4, 0);
+		
+		assertEquals(8, evaluator.rate(TicTacToe.Role.X, before, after, new TicTacToe.Move(8), 0), 0);
+		assertEquals(8, evaluator.rate(TicTacToe.Role.X, TicTacToe.of(8, 4), transposed, new TicTacToe.Move(0), 0), 0);
+		assertEquals(1, evaluations.get());
+		
+		// Ratings are cached per role
+		assertEquals(-8, evaluator.rate(TicTacToe.Role.O, before, after, new TicTacToe.Move(8), 0), 0);
+		assertEquals(2, evaluations.get());
+		assertEquals(1, evaluator.getCache().getHits());
+	}
+}
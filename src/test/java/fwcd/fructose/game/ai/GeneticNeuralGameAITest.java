@@ -0,0 +1,72 @@
+package fwcd.fructose.game.ai;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import fwcd.fructose.game.GameState;
+import fwcd.fructose.game.TicTacToe;
+import fwcd.fructose.genetic.operators.Encoder;
+
+public class GeneticNeuralGameAITest {
+	@Test
+	public void testSelfPlay() {
+		Set<Thread> threads = ConcurrentHashMap.newKeySet();
+		GeneticNeuralGameAI<TicTacToe.Move, TicTacToe.Role> ai = ai(state -> {
+			threads.add(Thread.currentThread());
+			return encode(state);
+		});
+		
+		ai.train(TicTacToe::new, 2, 2, 4);
+		
+		assertTrue(threads.size() > 1);
+		TicTacToe game = TicTacToe.of(4);
+		assertTrue(game.isLegal(ai.chooseMove(game)));
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidSelfPlay() {
+		ai(GeneticNeuralGameAITest::encode).trainGeneration(TicTacToe::new, 0, 1);
+	}
+	
+	@Test
+	public void testEvaluationCache() {
+		AtomicInteger evaluations = new AtomicInteger();
+		GeneticNeuralGameAI<TicTacToe.Move, TicTacToe.Role> ai = ai(state -> {
+			evaluations.incrementAndGet();
+			return encode(state);
+		});
+		ai.setEvaluationCache(state -> ((TicTacToe) state).hash(), 64);
+		TicTacToe game = TicTacToe.of(4);
+		ai.onGameStart(game, TicTacToe.Role.O);
+		
+		TicTacToe.Move move = ai.chooseMove(game);
+		assertEquals(8, evaluations.get());
+		assertEquals(move, ai.chooseMove(game));
+		assertEquals(8, evaluations.get());
+		
+		// The cache is cleared once the network changes
+		ai.onGameStart(game, TicTacToe.Role.O);
+		ai.chooseMove(game);
+		assertEquals(16, evaluations.get());
+	}
+	
+	private static GeneticNeuralGameAI<TicTacToe.Move, TicTacToe.Role> ai(Encoder<float[], GameState<TicTacToe.Move, TicTacToe.Role>> encoder) {
+		return new GeneticNeuralGameAI<>(8, new int[] {9, 6, 1}, encoder, output -> output[0]);
+	}
+	
+	private static float[] encode(GameState<TicTacToe.Move, TicTacToe.Role> state) {
+		TicTacToe game = (TicTacToe) state;
+		float[] input = new float[9];
+		for (int cell=0; cell<9; cell++) {
+			TicTacToe.Role role = game.get(cell);
+			input[cell] = (role == null) ? 0 : ((role == game.getCurrentRole()) ? 1 : -1);
+		}
+		return input;
+	}
+}
@@ -0,0 +1,109 @@
+package fwcd.fructose.game.ai;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import fwcd.fructose.game.CachedGameState;
+import fwcd.fructose.game.GameRole;
+import fwcd.fructose.game.GameState;
+import fwcd.fructose.game.PlayoutState;
+import fwcd.fructose.game.TicTacToe;
+
+public class MCTSTest {
+	@Test
+	public void testPlayouts() {
+		Playouts<TicTacToe.Move, TicTacToe.Role> playouts = new Playouts<>(TicTacToePlayouts::new);
+		Playouts.Worker<TicTacToe.Move, TicTacToe.Role> worker = playouts.get();
+		// Only cell 6 is empty and X wins by playing it
+		TicTacToe game = TicTacToe.of(0, 1, 3, 2, 5, 4, 7, 8);
+		
+		// The scratch state is loaded with the unwrapped position
+		assertEquals(1, worker.play(CachedGameState.of(game), TicTacToe.Role.X, 36));
+		assertEquals(-1, worker.play(game, TicTacToe.Role.O, 36));
+		assertTrue(worker.wasPlayedFirstBy(6, TicTacToe.Role.X));
+		assertEquals(TicTacToe.of(0, 1, 3, 2, 5, 4, 7, 8), game);
+		
+		worker.markPlayedEarlier(6, TicTacToe.Role.O);
+		assertTrue(worker.wasPlayedFirstBy(6, TicTacToe.Role.O));
+		
+		worker.clearPlayed();
+		assertFalse(worker.wasPlayedFirstBy(6, TicTacToe.Role.X));
+		assertFalse(worker.wasPlayedFirstBy(6, TicTacToe.Role.O));
+	}
+	
+	@Test
+	public void testSearch() {
+		MCTS<TicTacToe.Move, TicTacToe.Role> plain = new MCTS<>();
+		MCTS<TicTacToe.Move, TicTacToe.Role> rave = new MCTS<>();
+		rave.setPlayoutState(TicTacToePlayouts::new);
+		rave.setPlayoutsPerLeaf(4);
+		rave.setRaveEquivalence(100);
+		
+		for (MCTS<TicTacToe.Move, TicTacToe.Role> ai : Arrays.asList(plain, rave)) {
+			ai.setSeed(0);
+			ai.setSoftMaxTime(300);
+			assertEquals(new TicTacToe.Move(2), ai.chooseMove(TicTacToe.of(0, 3, 1, 4)));
+		}
+	}
+	
+	/**
+	 * A (not allocation-free) scratch state
+	 * based on a copy of the loaded position.
+	 */
+	private static class TicTacToePlayouts implements PlayoutState<TicTacToe.Move, TicTacToe.Role> {
+		private TicTacToe game;
+		
+		@Override
+		public void load(GameState<TicTacToe.Move, TicTacToe.Role> state) {
+			game = ((TicTacToe) state).copy();
+		}
+		
+		@Override
+		public int getMoveCodeCount() {
+			return 9;
+		}
+		
+		@Override
+		public int encode(TicTacToe.Move move) {
+			return move.getCell();
+		}
+		
+		@Override
+		public int generateMoves(int[] buffer) {
+			List<TicTacToe.Move> moves = game.getLegalMoves();
+			for (int i=0; i<moves.size(); i++) {
+				buffer[i] = moves.get(i).getCell();
+			}
+			return moves.size();
+		}
+		
+		@Override
+		public void play(int moveCode) {
+			game.perform(new TicTacToe.Move(moveCode));
+		}
+		
+		@Override
+		public TicTacToe.Role getCurrentRole() {
+			return game.getCurrentRole();
+		}
+		
+		@Override
+		public boolean isGameOver() {
+			return game.isGameOver();
+		}
+		
+		@Override
+		public int getOutcome(GameRole role) {
+			if (game.getWinners().isEmpty()) {
+				return 0;
+			}
+			return game.getWinners().contains(role) ? 1 : -1;
+		}
+	}
+}
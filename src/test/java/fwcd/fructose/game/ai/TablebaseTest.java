@@ -0,0 +1,115 @@
+package fwcd.fructose.game.ai;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import fwcd.fructose.game.GameState;
+import fwcd.fructose.game.PositionEncoder;
+import fwcd.fructose.game.TicTacToe;
+import fwcd.fructose.game.ai.Tablebase.Outcome;
+
+public class TablebaseTest {
+	private static final PositionEncoder<TicTacToe.Move, TicTacToe.Role> ENCODER = new PositionEncoder<TicTacToe.Move, TicTacToe.Role>() {
+		@Override
+		public long getPositionCount() {
+			return 19683; // 3^9
+		}
+		
+		@Override
+		public long encode(GameState<? extends TicTacToe.Move, ? extends TicTacToe.Role> state) {
+			return ((TicTacToe) state).hash();
+		}
+	};
+	
+	@Test
+	public void testTicTacToe() throws IOException {
+		Path file = Files.createTempFile("tablebase", ".ftb");
+		
+		try {
+			Tablebase<TicTacToe.Move, TicTacToe.Role> tablebase = new TablebaseBuilder<>(ENCODER).build(new TicTacToe(), file);
+			assertEquals(ENCODER.getPositionCount(), tablebase.getPositionCount());
+			
+			assertEquals(Outcome.DRAW, tablebase.probe(new TicTacToe()).getOutcome());
+			
+			Tablebase.Result winning = tablebase.probe(TicTacToe.of(0, 3, 1, 4));
+			assertEquals(Outcome.WIN, winning.getOutcome());
+			assertEquals(1, winning.getDistance());
+			assertEquals(new TicTacToe.Move(2), tablebase.bestMove(TicTacToe.of(0, 3, 1, 4)));
+			
+			Tablebase.Result lost = tablebase.probe(TicTacToe.of(0, 3, 1, 4, 2));
+			assertEquals(Outcome.LOSS, lost.getOutcome());
+			assertEquals(0, lost.getDistance());
+			
+			// Unreachable positions are not covered
+			assertNull(tablebase.probe(TicTacToe.of(0, 3, 1, 4, 2, 5)));
+			
+			assertEquals(5478, checkReachable(tablebase, new TicTacToe(), new HashSet<>()));
+		} finally {
+			Files.delete(file);
+		}
+	}
+	
+	@Test
+	public void testSearchUsesTablebase() throws IOException {
+		Path file = Files.createTempFile("tablebase", ".ftb");
+		
+		try {
+			AlphaBeta<TicTacToe.Move, TicTacToe.Role> ai = new AlphaBeta<>();
+			ai.setTablebase(new TablebaseBuilder<>(ENCODER).build(new TicTacToe(), file));
+			
+			for (TicTacToe position : AlphaBetaTest.positions()) {
+				assertEquals(position.toString(), AlphaBetaTest.solve(position), -AlphaBetaTest.solve(AlphaBetaTest.after(position, ai.chooseMove(position))));
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+	
+	@Test(expected = IOException.class)
+	public void testInvalidFile() throws IOException {
+		Path file = Files.createTempFile("tablebase", ".ftb");
+		
+		try {
+			Files.write(file, new byte[32]);
+			Tablebase.open(file, ENCODER);
+		} finally {
+			Files.delete(file);
+		}
+	}
+	
+	/**
+	 * Compares the stored outcomes of all reachable
+	 * positions to the exhaustively solved ones.
+	 * 
+	 * @return The number of reachable positions
+	 */
+	private int checkReachable(Tablebase<TicTacToe.Move, TicTacToe.Role> tablebase, TicTacToe game, Set<Long> visited) {
+		if (!visited.add(game.hash())) {
+			return 0;
+		}
+		
+		Tablebase.Result result = tablebase.probe(game);
+		assertNotNull(game.toString(), result);
+		
+		int value = AlphaBetaTest.solve(game);
+		Outcome expected = (value > 0) ? Outcome.WIN : ((value < 0) ? Outcome.LOSS : Outcome.DRAW);
+		assertEquals(game.toString(), expected, result.getOutcome());
+		
+		int positions = 1;
+		for (TicTacToe.Move move : game.getLegalMoves()) {
+			game.performReversibly(move);
+			positions += checkReachable(tablebase, game, visited);
+			game.undo(move);
+		}
+		return positions;
+	}
+}
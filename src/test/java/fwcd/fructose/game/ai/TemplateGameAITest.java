@@ -0,0 +1,102 @@
+package fwcd.fructose.game.ai;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import fwcd.fructose.game.GameState;
+import fwcd.fructose.game.TicTacToe;
+
+public class TemplateGameAITest {
+	@Test
+	public void testTimeout() {
+		TemplateGameAI<TicTacToe.Move, TicTacToe.Role> ai = new TemplateGameAI<TicTacToe.Move, TicTacToe.Role>() {
+			@Override
+			protected TicTacToe.Move selectMove(GameState<TicTacToe.Move, TicTacToe.Role> game, long softMaxTime) {
+				publishBestMove(new TicTacToe.Move(4));
+				while (!isCancelled()) {
+					Thread.yield();
+				}
+				return new TicTacToe.Move(0);
+			}
+		};
+		ai.setHardMaxTime(200);
+		
+		// The published move is used when the search times out
+		assertEquals(new TicTacToe.Move(4), ai.chooseMove(new TicTacToe()));
+	}
+	
+	@Test
+	public void testStaleSearchDoesNotDelayNextSearch() throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		TemplateGameAI<TicTacToe.Move, TicTacToe.Role> ai = new TemplateGameAI<TicTacToe.Move, TicTacToe.Role>() {
+			private boolean first = true;
+			
+			@Override
+			protected TicTacToe.Move selectMove(GameState<TicTacToe.Move, TicTacToe.Role> game, long softMaxTime) {
+				if (first) {
+					first = false;
+					publishBestMove(new TicTacToe.Move(4));
+					// Ignores the cancellation
+					awaitUninterruptibly(release);
+				}
+				return new TicTacToe.Move(0);
+			}
+		};
+		ai.setHardMaxTime(300);
+		
+		try {
+			assertEquals(new TicTacToe.Move(4), ai.chooseMove(new TicTacToe()));
+			// The second search runs although the first one is still blocked
+			assertEquals(new TicTacToe.Move(0), ai.chooseMove(new TicTacToe()));
+		} finally {
+			release.countDown();
+		}
+	}
+	
+	@Test
+	public void testHelpersObserveCancellation() throws InterruptedException {
+		CountDownLatch helperStopped = new CountDownLatch(1);
+		TemplateGameAI<TicTacToe.Move, TicTacToe.Role> ai = new TemplateGameAI<TicTacToe.Move, TicTacToe.Role>() {
+			private boolean first = true;
+			
+			@Override
+			protected TicTacToe.Move selectMove(GameState<TicTacToe.Move, TicTacToe.Role> game, long softMaxTime) {
+				if (first) {
+					first = false;
+					Thread helper = new Thread(bindToSearch(() -> {
+						while (!isCancelled()) {
+							Thread.yield();
+						}
+						helperStopped.countDown();
+					}));
+					helper.setDaemon(true);
+					helper.start();
+					publishBestMove(new TicTacToe.Move(4));
+					awaitUninterruptibly(helperStopped);
+				}
+				return new TicTacToe.Move(0);
+			}
+		};
+		ai.setHardMaxTime(200);
+		
+		assertEquals(new TicTacToe.Move(4), ai.chooseMove(new TicTacToe()));
+		assertEquals(new TicTacToe.Move(0), ai.chooseMove(new TicTacToe()));
+		assertTrue(helperStopped.await(5, TimeUnit.SECONDS));
+	}
+	
+	private static void awaitUninterruptibly(CountDownLatch latch) {
+		while (true) {
+			try {
+				latch.await();
+				return;
+			} catch (InterruptedException e) {
+				// Ignore
+			}
+		}
+	}
+}
@@ -0,0 +1,155 @@
+package fwcd.fructose.genetic.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import fwcd.fructose.RandomStreams;
+
+import fwcd.fructose.genetic.operators.FitnessFunction;
+import fwcd.fructose.genetic.operators.FloatSliceMutator;
+import fwcd.fructose.genetic.operators.Mutator;
+import fwcd.fructose.genetic.operators.UniformFloatCrossover;
+
+public class FlatFloatPopulationTest {
+	private static final FitnessFunction<float[]> FITNESS = genes -> {
+		float distance = 0;
+		for (int i=0; i<genes.length; i++) {
+			distance += (genes[i] - i) * (genes[i] - i);
+		}
+		return 1 / (1 + distance);
+	};
+	
+	@Test
+	public void testSameTrendAsTemplatePopulation() {
+		List<float[]> individuals = individuals();
+		FlatFloatPopulation flat = new FlatFloatPopulation(4);
+		flat.setAllGenes(individuals);
+		flat.setFitnessFunction(FITNESS);
+		flat.setMutator(new Nudge());
+		flat.setSeed(11);
+		
+		List<float[]> copies = new ArrayList<>();
+		for (float[] genes : individuals) {
+			copies.add(genes.clone());
+		}
+		BreedingPopulation<float[]> template = new BreedingPopulation<>(new UniformFloatCrossover(), FITNESS, new Nudge(), copies, 0.1F);
+		template.setSeed(11);
+		
+		float initialMean = mean(flat.getAllGenes());
+		assertEquals(initialMean, mean(template.getAllGenes()), 0);
+		float initialBest = flat.getFitness(flat.selectBestIndex());
+		float best = initialBest;
+		
+		for (int i=0; i<300; i++) {
+			flat.evolve();
+			template.evolve();
+			
+			// The fittest individual always survives
+			float newBest = flat.getFitness(flat.selectBestIndex());
+			assertTrue(newBest >= best);
+			best = newBest;
+		}
+		
+		// Both populations improve on average and find better individuals
+		assertTrue(mean(flat.getAllGenes()) > initialMean);
+		assertTrue(mean(template.getAllGenes()) > initialMean);
+		assertTrue(best > initialBest);
+		assertTrue(FITNESS.getFitness(template.selectBestGenes()) > initialBest);
+	}
+	
+	@Test
+	public void testBufferSwapping() {
+		AtomicInteger evaluations = new AtomicInteger();
+		FlatFloatPopulation population = new FlatFloatPopulation(4);
+		population.setAllGenes(individuals());
+		population.setFitnessFunction(genes -> {
+			evaluations.incrementAndGet();
+			return FITNESS.getFitness(genes);
+		});
+		population.setMutationChance(0);
+		population.setSeed(2);
+		
+		float[] buffer = population.getGenomeBuffer();
+		population.evolve();
+		assertEquals(20, evaluations.get());
+		assertNotSame(buffer, population.getGenomeBuffer());
+		
+		population.evolve();
+		// The survivor keeps its fitness
+		assertEquals(39, evaluations.get());
+		assertSame(buffer, population.getGenomeBuffer());
+		
+		for (int i=0; i<population.size(); i++) {
+			int offset = population.getOffset(i);
+			assertArrayEquals(Arrays.copyOfRange(buffer, offset, offset + 4), population.getGenes(i), 0);
+		}
+		assertEquals(2, population.getGeneration());
+	}
+	
+	@Test
+	public void testGenesAreCopied() {
+		FlatFloatPopulation population = new FlatFloatPopulation(4);
+		population.setAllGenes(individuals());
+		
+		float[] genes = population.getGenes(3);
+		genes[0] = 42;
+		assertEquals(individuals().get(3)[0], population.getGenes(3)[0], 0);
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidGenes() {
+		new FlatFloatPopulation(4).addGenes(new float[3]);
+	}
+	
+	/**
+	 * Adds a small gaussian offset to every gene.
+	 */
+	private static class Nudge implements Mutator<float[]>, FloatSliceMutator {
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		public float[] mutate(float[] genes) {
+			float[] result = genes.clone();
+			mutate(result, 0, result.length);
+			return result;
+		}
+		
+		@Override
+		public void mutate(float[] genes, int offset, int length) {
+			Random random = RandomStreams.current();
+			for (int i=offset; i<offset+length; i++) {
+				genes[i] += (float) random.nextGaussian() * 0.1F;
+			}
+		}
+	}
+	
+	private float mean(List<float[]> individuals) {
+		float sum = 0;
+		for (float[] genes : individuals) {
+			sum += FITNESS.getFitness(genes);
+		}
+		return sum / individuals.size();
+	}
+	
+	private List<float[]> individuals() {
+		Random random = new Random(0);
+		List<float[]> individuals = new ArrayList<>();
+		
+		for (int i=0; i<20; i++) {
+			individuals.add(new float[] {random.nextFloat() * 4, random.nextFloat() * 4, random.nextFloat() * 4, random.nextFloat() * 4});
+		}
+		
+		return individuals;
+	}
+}
@@ -0,0 +1,135 @@
+package fwcd.fructose.genetic.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Test;
+
+import fwcd.fructose.exception.Rethrow;
+
+public class IslandModelTest {
+	private static final float[] TARGET = {1, 2, 3};
+	
+	@Test
+	public void testMigration() {
+		List<StaticPopulation> islands = islands(3);
+		float[] champion = TARGET.clone();
+		islands.get(0).addGenes(champion);
+		
+		IslandModel<float[]> model = new IslandModel<>(islands);
+		model.setMigrationInterval(1);
+		model.setMigrantCopier(float[]::clone);
+		model.evolve(4);
+		
+		// The champion travels along the ring
+		for (StaticPopulation island : islands) {
+			assertTrue(contains(island, champion));
+		}
+		assertEquals(6, islands.get(0).size());
+		assertEquals(5, islands.get(1).size());
+		assertTrue(islands.get(0).getAllGenes().stream().anyMatch(genes -> genes == champion));
+		assertNotSame(champion, islands.get(1).selectBestGenes());
+		assertTrue(Arrays.equals(champion, model.selectBestGenes()));
+		
+		for (IslandModel.IslandStats stats : model.getStats()) {
+			assertEquals(4, stats.getGenerations());
+			assertTrue(stats.getImmigrants() >= 3);
+		}
+	}
+	
+	@Test
+	public void testReplacesWorstGenes() {
+		List<StaticPopulation> islands = islands(2);
+		islands.get(0).addGenes(TARGET.clone());
+		float[] worst = {100, 100, 100};
+		islands.get(1).addGenes(worst);
+		
+		IslandModel<float[]> model = new IslandModel<>(islands);
+		model.setMigrationInterval(1);
+		model.evolve(2);
+		
+		assertTrue(contains(islands.get(1), TARGET));
+		assertFalse(islands.get(1).getAllGenes().contains(worst));
+	}
+	
+	@Test
+	public void testWithoutMigrants() {
+		List<StaticPopulation> islands = islands(2);
+		islands.get(0).addGenes(TARGET.clone());
+		
+		IslandModel<float[]> model = new IslandModel<>(islands);
+		model.setMigrationInterval(1);
+		model.setMigrantsPerMigration(0);
+		model.evolve(4);
+		
+		assertFalse(contains(islands.get(1), TARGET));
+		assertEquals(0, model.getStats().get(1).getImmigrants());
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeMigrants() {
+		new IslandModel<>(islands(2)).setMigrantsPerMigration(-1);
+	}
+	
+	private boolean contains(StaticPopulation island, float[] genes) {
+		return island.getAllGenes().stream().anyMatch(individual -> Arrays.equals(individual, genes));
+	}
+	
+	private List<StaticPopulation> islands(int count) {
+		Random random = new Random(0);
+		CyclicBarrier barrier = new CyclicBarrier(count);
+		List<StaticPopulation> islands = new ArrayList<>();
+		
+		for (int i=0; i<count; i++) {
+			StaticPopulation island = new StaticPopulation(barrier);
+			for (int j=0; j<5; j++) {
+				island.addGenes(new float[] {random.nextFloat(), random.nextFloat(), random.nextFloat()});
+			}
+			island.setFitnessFunction(genes -> {
+				float distance = 0;
+				for (int k=0; k<genes.length; k++) {
+					distance += (genes[k] - TARGET[k]) * (genes[k] - TARGET[k]);
+				}
+				return -distance;
+			});
+			islands.add(island);
+		}
+		
+		return islands;
+	}
+	
+	/**
+	 * A population that does not change by itself, thus only
+	 * migration affects its individuals. The islands evolve in
+	 * lockstep, so migrants sent in one generation are always
+	 * received in the next one at the latest.
+	 */
+	private static class StaticPopulation extends TemplatePopulation<float[]> {
+		private final CyclicBarrier barrier;
+		
+		public StaticPopulation(CyclicBarrier barrier) {
+			this.barrier = barrier;
+		}
+		
+		@Override
+		public void evolve() {
+			try {
+				barrier.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
+				throw new Rethrow(e);
+			}
+			incrementGeneration();
+		}
+	}
+}
@@ -0,0 +1,158 @@
+package fwcd.fructose.genetic.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+public class PopulationCheckpointTest {
+	@Test
+	public void testRoundTrip() throws IOException {
+		FlatFloatPopulation population = population(1);
+		population.evolve();
+		population.evolve();
+		
+		Path dir = Files.createTempDirectory("checkpoint");
+		Path file = dir.resolve("population.bin");
+		try {
+			PopulationCheckpoint.of(population).write(file);
+			PopulationCheckpoint checkpoint = PopulationCheckpoint.read(file);
+			assertEquals(population.size(), checkpoint.size());
+			assertEquals(4, checkpoint.getGeneCount());
+			assertEquals(2, checkpoint.getGeneration());
+			
+			FlatFloatPopulation restored = population(2);
+			checkpoint.restore(restored);
+			assertEquals(2, restored.getGeneration());
+			assertArrayEquals(population.getGenomeBuffer(), restored.getGenomeBuffer(), 0);
+			for (int i=0; i<population.size(); i++) {
+				assertEquals(population.getFitness(i), restored.getFitness(i), 0);
+			}
+			
+			// The restored population continues with the same random numbers
+			for (int i=0; i<3; i++) {
+				population.evolve();
+				restored.evolve();
+			}
+			assertArrayEquals(population.getGenomeBuffer(), restored.getGenomeBuffer(), 0);
+		} finally {
+			Files.deleteIfExists(file);
+			Files.delete(dir);
+		}
+	}
+	
+	@Test
+	public void testCheckpointDoesNotAffectRun() {
+		FlatFloatPopulation withCheckpoints = population(3);
+		FlatFloatPopulation withoutCheckpoints = population(3);
+		
+		for (int i=0; i<5; i++) {
+			PopulationCheckpoint.of(withCheckpoints);
+			withCheckpoints.evolve();
+			withoutCheckpoints.evolve();
+		}
+		
+		assertArrayEquals(withoutCheckpoints.getGenomeBuffer(), withCheckpoints.getGenomeBuffer(), 0);
+	}
+	
+	@Test
+	public void testFailedWriteRemovesTemporaryFile() throws IOException {
+		Path dir = Files.createTempDirectory("checkpoint");
+		// A non-empty directory can not be replaced by the checkpoint
+		Path file = Files.createDirectory(dir.resolve("population.bin"));
+		Path blocker = Files.createFile(file.resolve("blocker"));
+		
+		try {
+			PopulationCheckpoint.of(population(4)).write(file);
+			fail("Replaced a non-empty directory");
+		} catch (IOException e) {
+			try (Stream<Path> files = Files.list(dir)) {
+				assertEquals(1, files.count());
+			}
+		} finally {
+			Files.delete(blocker);
+			Files.delete(file);
+			Files.delete(dir);
+		}
+	}
+	
+	@Test
+	public void testConcurrentWrites() throws IOException {
+		Path dir = Files.createTempDirectory("checkpoint");
+		Path file = dir.resolve("population.bin");
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		
+		try {
+			List<CompletableFuture<Void>> writes = new ArrayList<>();
+			for (int i=0; i<8; i++) {
+				writes.add(PopulationCheckpoint.of(population(i)).writeAsync(file, executor));
+			}
+			CompletableFuture.allOf(writes.toArray(new CompletableFuture<?>[0])).join();
+			
+			assertEquals(20, PopulationCheckpoint.read(file).size());
+			try (Stream<Path> files = Files.list(dir)) {
+				assertEquals(1, files.count());
+			}
+		} finally {
+			executor.shutdown();
+			Files.deleteIfExists(file);
+			Files.delete(dir);
+		}
+	}
+	
+	@Test
+	public void testOverflowingHeader() throws IOException {
+		Path file = Files.createTempFile("checkpoint", ".bin");
+		
+		try {
+			ByteBuffer header = ByteBuffer.allocate(PopulationCheckpoint.HEADER_BYTES)
+				.putInt(PopulationCheckpoint.MAGIC)
+				.putInt(PopulationCheckpoint.VERSION)
+				.putInt(1 << 16) // Gene count
+				.putInt(1 << 16) // Size
+				.putInt(0)
+				.putInt(0)
+				.putLong(0);
+			Files.write(file, header.array());
+			
+			PopulationCheckpoint.read(file);
+			fail("Read a checkpoint with 2^32 genes");
+		} catch (IOException e) {
+			// Expected
+		} finally {
+			Files.delete(file);
+		}
+	}
+	
+	private FlatFloatPopulation population(long seed) {
+		FlatFloatPopulation population = new FlatFloatPopulation(4);
+		Random random = new Random(0);
+		
+		for (int i=0; i<20; i++) {
+			population.addGenes(new float[] {random.nextFloat(), random.nextFloat(), random.nextFloat(), random.nextFloat()});
+		}
+		
+		population.setFitnessFunction(genes -> {
+			float sum = 0;
+			for (float gene : genes) {
+				sum += gene * gene;
+			}
+			return 1 / (1 + sum);
+		});
+		population.setSeed(seed);
+		return population;
+	}
+}
@@ -0,0 +1,77 @@
+package fwcd.fructose.genetic.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import fwcd.fructose.RandomStreams;
+
+public class SeededEvolutionTest {
+	@Test
+	public void testSeededPopulation() {
+		FlatFloatPopulation a = population();
+		FlatFloatPopulation b = population();
+		FlatFloatPopulation c = population();
+		a.setSeed(7);
+		b.setSeed(7);
+		c.setSeed(8);
+		
+		for (int i=0; i<10; i++) {
+			a.evolve();
+			b.evolve();
+			c.evolve();
+		}
+		
+		assertArrayEquals(a.getGenomeBuffer(), b.getGenomeBuffer(), 0);
+		assertFalse(Arrays.equals(a.getGenomeBuffer(), c.getGenomeBuffer()));
+	}
+	
+	@Test
+	public void testRootSeed() {
+		float[] first = evolveUnseeded(42);
+		float[] second = evolveUnseeded(42);
+		assertArrayEquals(first, second, 0);
+	}
+	
+	@Test
+	public void testForTask() {
+		long[] inOrder = IntStream.range(0, 64)
+			.mapToLong(i -> RandomStreams.forTask(5, i).nextLong())
+			.toArray();
+		long[] inParallel = IntStream.range(0, 64)
+			.parallel()
+			.mapToLong(i -> RandomStreams.forTask(5, i).nextLong())
+			.toArray();
+		
+		assertArrayEquals(inOrder, inParallel);
+		assertEquals(64, Arrays.stream(inOrder).distinct().count());
+	}
+	
+	private float[] evolveUnseeded(long rootSeed) {
+		RandomStreams.setSeed(rootSeed);
+		FlatFloatPopulation population = population();
+		
+		for (int i=0; i<10; i++) {
+			population.evolve();
+		}
+		return population.getGenomeBuffer().clone();
+	}
+	
+	private FlatFloatPopulation population() {
+		FlatFloatPopulation population = new FlatFloatPopulation(3);
+		Random random = new Random(0);
+		
+		for (int i=0; i<16; i++) {
+			population.addGenes(new float[] {random.nextFloat(), random.nextFloat(), random.nextFloat()});
+		}
+		
+		population.setFitnessFunction(genes -> 1 / (1 + Math.abs(genes[0] + genes[1] - genes[2])));
+		return population;
+	}
+}
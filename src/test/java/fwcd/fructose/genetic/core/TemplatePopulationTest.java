@@ -0,0 +1,114 @@
+package fwcd.fructose.genetic.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import fwcd.fructose.genetic.operators.FitnessFunction;
+import fwcd.fructose.genetic.operators.GaussianFloatMutator;
+import fwcd.fructose.genetic.operators.UniformFloatCrossover;
+
+public class TemplatePopulationTest {
+	@Test
+	public void testMemoization() {
+		CountingFitness fitness = new CountingFitness();
+		BreedingPopulation<float[]> population = population(fitness);
+		population.setMutationChance(0);
+		
+		float[] best = population.selectBestGenes();
+		assertEquals(20, fitness.calls.get());
+		assertSame(best, population.selectBestGenes());
+		assertEquals(best, population.selectFittestGenes(3).get(0));
+		assertEquals(20, fitness.calls.get());
+		
+		// Only the two children are evaluated
+		population.evolve();
+		population.selectBestGenes();
+		assertEquals(22, fitness.calls.get());
+		
+		// Changing the fitness function discards the memoized values
+		population.setFitnessFunction(fitness);
+		population.evaluateFitness();
+		assertEquals(42, fitness.calls.get());
+	}
+	
+	@Test
+	public void testEvaluatesEveryIndividualOnce() {
+		CountingFitness fitness = new CountingFitness();
+		BreedingPopulation<float[]> population = population(fitness);
+		population.setMutationChance(0.5F);
+		population.setSeed(3);
+		
+		for (int i=0; i<30; i++) {
+			population.evolve();
+		}
+		population.evaluateFitness();
+		
+		assertEquals(fitness.evaluated.size(), fitness.calls.get());
+	}
+	
+	@Test
+	public void testParallelEvaluation() {
+		CountingFitness sequentialFitness = new CountingFitness();
+		BreedingPopulation<float[]> sequential = population(sequentialFitness);
+		CountingFitness parallelFitness = new CountingFitness();
+		BreedingPopulation<float[]> parallel = population(parallelFitness);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		
+		try {
+			parallel.setFitnessExecutor(executor);
+			sequential.setSeed(5);
+			parallel.setSeed(5);
+			
+			for (int i=0; i<10; i++) {
+				sequential.evolve();
+				parallel.evolve();
+			}
+			
+			assertEquals(sequential.getAllGenes().indexOf(sequential.selectBestGenes()), parallel.getAllGenes().indexOf(parallel.selectBestGenes()));
+			assertEquals(sequentialFitness.calls.get(), parallelFitness.calls.get());
+			assertEquals(parallelFitness.evaluated.size(), parallelFitness.calls.get());
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
+	private BreedingPopulation<float[]> population(FitnessFunction<float[]> fitness) {
+		Random random = new Random(0);
+		List<float[]> individuals = new ArrayList<>();
+		
+		for (int i=0; i<20; i++) {
+			individuals.add(new float[] {random.nextFloat(), random.nextFloat(), random.nextFloat()});
+		}
+		
+		return new BreedingPopulation<>(new UniformFloatCrossover(), fitness, new GaussianFloatMutator(), individuals, 0.1F);
+	}
+	
+	/**
+	 * A thread-safe fitness function that tracks which
+	 * individuals (by identity) it has evaluated.
+	 */
+	private static class CountingFitness implements FitnessFunction<float[]> {
+		private static final long serialVersionUID = 1L;
+		private final AtomicInteger calls = new AtomicInteger();
+		private final Set<float[]> evaluated = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+		
+		@Override
+		public float getFitness(float[] genes) {
+			calls.incrementAndGet();
+			evaluated.add(genes);
+			return 1 / (1 + Math.abs(genes[0] + genes[1] - genes[2]));
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package fwcd.fructose.math;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigInteger;
+
+import org.junit.Test;
+
+public class CombinatoricsTest {
+	@Test
+	public void testFibonacci() {
+		BigInteger a = BigInteger.ZERO;
+		BigInteger b = BigInteger.ONE;
+		
+		for (int n = 0; n < 500; n++) {
+			assertEquals(a, Combinatorics.fibonacci(n));
+			assertEquals(b.shiftLeft(1).subtract(a), Combinatorics.lucas(n)); // L(n) = 2F(n + 1) - F(n)
+			BigInteger next = a.add(b);
+			a = b;
+			b = next;
+		}
+		
+		assertEquals(BigInteger.valueOf(2), Combinatorics.lucas(0));
+		assertEquals(BigInteger.valueOf(123), Combinatorics.lucas(10));
+		assertEquals(7540113804746346429L, ExtMath.fibonacci(92));
+	}
+	
+	@Test
+	public void testFactorial() {
+		BigInteger expected = BigInteger.ONE;
+		
+		for (int n = 0; n <= 1000; n++) {
+			if (n > 0) {
+				expected = expected.multiply(BigInteger.valueOf(n));
+			}
+			assertEquals(expected, Combinatorics.factorial(n));
+		}
+		
+		BigInteger large = BigInteger.ONE;
+		for (int n = 2; n <= 30_000; n++) {
+			large = large.multiply(BigInteger.valueOf(n));
+		}
+		assertEquals(large, Combinatorics.factorial(30_000));
+	}
+	
+	@Test
+	public void testBinomial() {
+		for (int n = 0; n <= 60; n++) {
+			for (int k = 0; k <= n; k++) {
+				BigInteger expected = Combinatorics.factorial(n).divide(Combinatorics.factorial(k).multiply(Combinatorics.factorial(n - k)));
+				assertEquals(expected, Combinatorics.binomial(n, k));
+			}
+		}
+		
+		assertEquals(BigInteger.ZERO, Combinatorics.binomial(5, 6));
+		assertEquals(BigInteger.valueOf(10), ExtMath.binomCoefficient(5, 2));
+		
+		int n = 20_000;
+		int k = 7_000;
+		BigInteger expected = Combinatorics.factorial(n).divide(Combinatorics.factorial(k).multiply(Combinatorics.factorial(n - k)));
+		assertEquals(expected, Combinatorics.binomial(n, k));
+	}
+}
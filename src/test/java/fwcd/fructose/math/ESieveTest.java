@@ -0,0 +1,59 @@
+package fwcd.fructose.math;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+public class ESieveTest {
+	@Test
+	public void testSmallPrimes() {
+		int bound = 10007;
+		ESieve sieve = new ESieve(bound);
+		int[] expected = IntStream.rangeClosed(0, bound).filter(ESieveTest::isPrimeNaive).toArray();
+		
+		assertArrayEquals(expected, sieve.toArray());
+		assertArrayEquals(expected, sieve.longStream().mapToInt(p -> (int) p).toArray());
+		assertEquals(expected.length, sieve.count());
+		
+		int count = 0;
+		for (int i = 0; i <= bound; i++) {
+			if (isPrimeNaive(i)) {
+				count++;
+			}
+			assertEquals(isPrimeNaive(i), sieve.isPrime(i));
+			assertEquals(count, sieve.pi(i));
+		}
+		
+		assertFalse(sieve.contains(10009));
+		assertEquals(2, sieve.get(0));
+		assertEquals(0, new ESieve(1).count());
+		assertArrayEquals(new int[] {2}, new ESieve(2).toArray());
+	}
+	
+	@Test
+	public void testPrimeCounting() {
+		ESieve sieve = new ESieve(10_000_000);
+		assertEquals(78498, sieve.pi(1_000_000));
+		assertEquals(664579, sieve.pi(10_000_000));
+		assertEquals(664579, sieve.toArray().length);
+		assertTrue(sieve.isPrime(9_999_991));
+		assertFalse(sieve.isPrime(9_999_993));
+	}
+	
+	private static boolean isPrimeNaive(int n) {
+		if (n < 2) {
+			return false;
+		}
+		for (int d = 2; d * d <= n; d++) {
+			if (n % d == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
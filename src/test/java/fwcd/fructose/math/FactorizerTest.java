@@ -0,0 +1,51 @@
+package fwcd.fructose.math;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class FactorizerTest {
+	@Test
+	public void testFactorize() {
+		Factorizer factorizer = new Factorizer(16);
+		Factorization f = factorizer.factorize(360);
+		
+		assertArrayEquals(new long[] {2, 3, 5}, f.getPrimes());
+		assertArrayEquals(new int[] {3, 2, 1}, f.getExponents());
+		assertEquals(96, f.phi());
+		assertEquals(24, f.divisorCount());
+		assertEquals("2^3 * 3^2 * 5", f.toString());
+		assertEquals(0, factorizer.factorize(1).size());
+		
+		long semiprime = 2_147_483_647L * 4_294_967_291L;
+		assertArrayEquals(new long[] {2_147_483_647L, 4_294_967_291L}, factorizer.factorize(semiprime).getPrimes());
+		assertEquals(factorizer.factorize(semiprime), factorizer.factorize(semiprime));
+		
+		long square = 3_037_000_493L * 3_037_000_493L;
+		assertArrayEquals(new int[] {2}, factorizer.factorize(square).getExponents());
+		
+		Random random = new Random(3);
+		for (int i = 0; i < 500; i++) {
+			long n = (random.nextLong() >>> 1) + 1;
+			Factorization factorization = factorizer.factorize(n);
+			assertEquals(n, factorization.value());
+			for (long prime : factorization.getPrimes()) {
+				assertTrue(MillerRabin.isPrime(prime));
+			}
+		}
+	}
+	
+	@Test
+	public void testExtMath() {
+		assertArrayEquals(new int[] {2, 2, 3}, ExtMath.primeFactors(12).toArray());
+		assertEquals(1, ExtMath.phi(1));
+		assertEquals(4, ExtMath.phi(12));
+		assertEquals(ExtMath.phi(1_000_000), ExtMath.phi(ExtMath.primeFactors(1_000_000)));
+		assertEquals(400_000, ExtMath.phi(1_000_000));
+		assertEquals(2, ExtMath.expPrimeFactors(12).size());
+	}
+}
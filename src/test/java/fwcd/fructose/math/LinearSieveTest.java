@@ -0,0 +1,49 @@
+package fwcd.fructose.math;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class LinearSieveTest {
+	@Test
+	public void testTables() {
+		int limit = 300_000; // Large enough for the parallel path
+		LinearSieve sieve = new LinearSieve(limit);
+		int[] phi = sieve.phiTable();
+		int[] mobius = sieve.mobiusTable();
+		int[] divisorCounts = sieve.divisorCountTable();
+		long[] divisorSums = sieve.divisorSumTable();
+		
+		assertArrayEquals(new ESieve(limit).toArray(), sieve.getPrimes());
+		
+		for (int n = 1; n <= limit; n += 7) {
+			int count = 0;
+			long sum = 0;
+			for (int d = 1; d * d <= n; d++) {
+				if (n % d == 0) {
+					int other = n / d;
+					count += (d == other) ? 1 : 2;
+					sum += (d == other) ? d : (d + other);
+				}
+			}
+			
+			Factorization factorization = sieve.factorize(n);
+			int expectedMobius = (factorization.value() == 1) ? 1 : 0;
+			if (n > 1 && factorization.divisorCount() == (1L << factorization.size())) {
+				expectedMobius = (factorization.size() % 2 == 0) ? 1 : -1;
+			}
+			
+			assertEquals(n, factorization.value());
+			assertEquals(ExtMath.factorize(n), factorization);
+			assertEquals(ExtMath.phi(n), phi[n]);
+			assertEquals(expectedMobius, mobius[n]);
+			assertEquals(count, divisorCounts[n]);
+			assertEquals(sum, divisorSums[n]);
+		}
+		
+		assertEquals(2, sieve.smallestPrimeFactor(limit));
+		assertEquals(-1, mobius[30]);
+		assertEquals(0, mobius[12]);
+	}
+}
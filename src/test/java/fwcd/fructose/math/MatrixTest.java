@@ -5,9 +5,12 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Random;
+
 import org.junit.Test;
 
 import fwcd.fructose.geometry.DoubleMatrix;
+import fwcd.fructose.geometry.DoubleMatrixMultiplier;
 
 public class MatrixTest {
 	@Test
@@ -32,6 +35,31 @@ public class MatrixTest {
 		assertEquals(mat2.determinant(), 39, 0.0001D);
 	}
 	
+	@Test
+	public void testLargeDoubleMatrixProduct() {
+		Random random = new Random(1);
+		DoubleMatrix a = new DoubleMatrix(301, 259, pos -> random.nextDouble());
+		DoubleMatrix b = new DoubleMatrix(203, 301, pos -> random.nextDouble());
+		DoubleMatrix product = a.multiply(b);
+		
+		assertEquals(203, product.getWidth());
+		assertEquals(259, product.getHeight());
+		for (int y=0; y<product.getHeight(); y+=7) {
+			for (int x=0; x<product.getWidth(); x+=5) {
+				double expected = 0;
+				for (int i=0; i<a.getWidth(); i++) {
+					expected += a.get(i, y) * b.get(x, i);
+				}
+				assertEquals(expected, product.get(x, y), 1e-9);
+			}
+		}
+		
+		DoubleMatrix square = new DoubleMatrix(256, 256, pos -> random.nextDouble() - 0.5);
+		DoubleMatrixMultiplier strassen = new DoubleMatrixMultiplier();
+		strassen.setStrassenThreshold(64);
+		assertThat(strassen.multiply(square, square), approxEquals(square.multiply(square), 1e-9));
+	}
+	
 	@Test
 	public void testRealMatrix() throws InterruptedException {
 		Matrix<Real> mat1 = rMat(new double[][] {
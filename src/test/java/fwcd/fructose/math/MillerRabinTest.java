@@ -0,0 +1,58 @@
+package fwcd.fructose.math;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class MillerRabinTest {
+	@Test
+	public void testAgainstSieve() {
+		ESieve sieve = new ESieve(1_000_000);
+		for (int i = -5; i <= 1_000_000; i++) {
+			assertEquals(i > 0 && sieve.isPrime(i), MillerRabin.isPrime(i));
+		}
+	}
+	
+	@Test
+	public void testLargeNumbers() {
+		assertTrue(MillerRabin.isPrime(Long.MAX_VALUE - 24)); // 2^63 - 25
+		assertFalse(MillerRabin.isPrime(Long.MAX_VALUE));
+		assertTrue(MillerRabin.isPrime(1_000_000_007L));
+		assertFalse(MillerRabin.isPrime(3215031751L)); // Strong pseudoprime to the bases 2, 3, 5 and 7
+		assertFalse(MillerRabin.isPrime(3825123056546413051L)); // Strong pseudoprime to the first 9 prime bases
+		assertFalse(MillerRabin.isPrime(2_147_483_647L * 4_294_967_291L));
+		
+		Random random = new Random(42);
+		long[] numbers = new long[2000];
+		for (int i = 0; i < numbers.length; i++) {
+			numbers[i] = random.nextLong() >>> 1;
+		}
+		
+		boolean[] results = MillerRabin.isPrime(numbers);
+		for (int i = 0; i < numbers.length; i++) {
+			assertEquals(BigInteger.valueOf(numbers[i]).isProbablePrime(50), results[i]);
+		}
+	}
+	
+	@Test
+	public void testModularArithmetic() {
+		Random random = new Random(7);
+		for (int i = 0; i < 1000; i++) {
+			long a = random.nextLong();
+			long b = random.nextLong() >>> 2;
+			long m = (random.nextLong() >>> (1 + random.nextInt(40))) + 1;
+			BigInteger bigM = BigInteger.valueOf(m);
+			
+			assertEquals(BigInteger.valueOf(a).multiply(BigInteger.valueOf(b)).mod(bigM).longValue(), MillerRabin.mulMod(a, b, m));
+			assertEquals(BigInteger.valueOf(a).modPow(BigInteger.valueOf(b), bigM).longValue(), MillerRabin.powMod(a, b, m));
+		}
+		
+		assertArrayEquals(new boolean[] {false, true, true}, MillerRabin.isPrime(new long[] {1, 2, 3}));
+	}
+}
@@ -0,0 +1,41 @@
+package fwcd.fructose.math;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class PrimeGeneratorTest {
+	@Test
+	public void testGenerator() {
+		int[] expected = new ESieve(2_000_000).toArray();
+		PrimeGenerator generator = new PrimeGenerator();
+		
+		for (int prime : expected) {
+			assertEquals(prime, generator.nextLong());
+		}
+		
+		assertEquals(2, new PrimeGenerator(0).nextLong());
+		assertEquals(3, new PrimeGenerator(3).nextLong());
+		assertEquals(1_000_003, new PrimeGenerator(1_000_000).nextLong());
+		assertEquals(1_000_000_007L, new PrimeGenerator(1_000_000_000L).nextLong());
+		assertEquals(11, (int) new PrimeIterator(7).next());
+	}
+	
+	@Test
+	public void testRange() {
+		assertArrayEquals(new long[] {2, 3, 5, 7}, PrimeGenerator.range(0, 11).toArray());
+		assertEquals(664579, PrimeGenerator.range(0, 10_000_000).parallel().count());
+		assertEquals(PrimeGenerator.range(5_000_000, 30_000_000).sum(), PrimeGenerator.range(5_000_000, 30_000_000).parallel().sum());
+		assertArrayEquals(PrimeGenerator.stream().limit(1000).toArray(), PrimeGenerator.range(0, 7920).toArray());
+	}
+	
+	@Test
+	public void testPrimeFactors() {
+		assertArrayEquals(new int[] {2, 2, 3}, ExtMath.primeFactors(12).toArray());
+		assertArrayEquals(new int[] {1}, ExtMath.primeFactors(1).toArray());
+		assertArrayEquals(new int[] {0}, ExtMath.primeFactors(0).toArray());
+		assertArrayEquals(new int[] {97}, ExtMath.primeFactors(97).toArray());
+		assertArrayEquals(new int[] {65537, 65539}, ExtMath.primeFactors(65537L * 65539).toArray());
+	}
+}
@@ -0,0 +1,153 @@
+package fwcd.fructose.math.decomposition;
+
+import static fwcd.fructose.test.TestUtils.approxEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import fwcd.fructose.geometry.DoubleMatrix;
+import fwcd.fructose.math.Complex;
+import fwcd.fructose.math.Matrix;
+import fwcd.fructose.math.Numbers;
+import fwcd.fructose.math.Real;
+
+public class DecompositionTest {
+	@Test
+	public void testLU() {
+		DoubleMatrix a = random(60, 60, 1);
+		LUDecomposition lu = a.lu();
+		
+		assertFalse(lu.isSingular());
+		assertTrue(a.inverse().multiply(a).isIdentity(1e-9));
+		assertThat(lu.getL().multiply(lu.getU()), approxEquals(permuteRows(a, lu.getPivot()), 1e-9));
+		
+		DoubleMatrix b = random(60, 3, 2);
+		assertThat(a.multiply(a.solve(b)), approxEquals(b, 1e-9));
+		
+		DoubleMatrix singular = new DoubleMatrix(new double[][] {
+			{1, 2, 3},
+			{2, 4, 6},
+			{1, 1, 1}
+		});
+		assertTrue(singular.lu().isSingular());
+		assertEquals(0, singular.determinant(), 0);
+		
+		DoubleMatrix nearlySingular = new DoubleMatrix(new double[][] {
+			{1, 2, 3},
+			{4, 5, 6},
+			{7, 8, 9}
+		});
+		assertTrue(nearlySingular.lu().isSingular());
+		assertEquals(0, nearlySingular.determinant(), 0);
+		try {
+			nearlySingular.inverse();
+			fail("Inverted a singular matrix");
+		} catch (IllegalStateException e) {
+			// Expected
+		}
+		assertEquals(-3, new DoubleMatrix(new double[][] {{0, 3}, {1, 5}}).determinant(), 1e-12);
+	}
+	
+	@Test
+	public void testBadlyScaledLU() {
+		DoubleMatrix a = new DoubleMatrix(new double[][] {
+			{1e-20, 0},
+			{0, 1}
+		});
+		
+		assertFalse(a.lu().isSingular());
+		assertEquals(1e-20, a.determinant(), 0);
+		assertEquals(1e20, a.inverse().get(0, 0), 0);
+		assertTrue(a.qr().isFullRank());
+		assertEquals(1, a.qr().rank(1e-10));
+	}
+	
+	@Test(expected = ArithmeticException.class)
+	public void testShortRightHandSide() {
+		random(3, 3, 6).lu().solve(new double[2]);
+	}
+	
+	@Test
+	public void testQR() {
+		DoubleMatrix a = random(40, 5, 3);
+		QRDecomposition qr = a.qr();
+		
+		assertTrue(qr.isFullRank());
+		assertThat(qr.getQ().multiply(qr.getR()), approxEquals(a, 1e-9));
+		assertTrue(qr.getQ().transpose().multiply(qr.getQ()).isIdentity(1e-9));
+		
+		// The least squares solution satisfies the normal equations A^T A x = A^T b
+		DoubleMatrix b = random(40, 1, 4);
+		DoubleMatrix x = a.leastSquares(b);
+		assertThat(a.transpose().multiply(a).solve(a.transpose().multiply(b)), approxEquals(x, 1e-9));
+	}
+	
+	@Test
+	public void testCholesky() {
+		DoubleMatrix m = random(30, 30, 5);
+		DoubleMatrix spd = m.transpose().multiply(m);
+		CholeskyDecomposition cholesky = spd.cholesky();
+		
+		assertThat(cholesky.getL().multiply(cholesky.getL().transpose()), approxEquals(spd, 1e-9));
+		assertEquals(1, cholesky.determinant() / spd.determinant(), 1e-6);
+		assertTrue(cholesky.inverse().multiply(spd).isIdentity(1e-6));
+	}
+	
+	@Test
+	public void testNumericLU() {
+		Matrix<Real> real = Numbers.realMatrix(new double[][] {
+			{0, 2, 1},
+			{1, 1, 0},
+			{3, 0, 1}
+		});
+		assertEquals(-5, real.determinant().getValue(), 1e-12);
+		assertThat(real.inverse().multiply(real), approxEquals(Numbers.realMatrix(new double[][] {
+			{1, 0, 0},
+			{0, 1, 0},
+			{0, 0, 1}
+		}), 1e-12));
+		
+		Matrix<Real> badlyPivoted = Numbers.realMatrix(new double[][] {
+			{1e-20, 1},
+			{1, 1}
+		});
+		assertThat(badlyPivoted.inverse(), approxEquals(Numbers.realMatrix(new double[][] {
+			{-1, 1},
+			{1, 0}
+		}), 1e-12));
+		
+		Matrix<Real> singular = Numbers.realMatrix(new double[][] {
+			{1, 2, 3},
+			{4, 5, 6},
+			{7, 8, 9}
+		});
+		assertTrue(singular.lu().isSingular());
+		assertEquals(0, singular.determinant().getValue(), 0);
+		
+		Matrix<Complex> complex = Numbers.complexMatrix(new double[][][] {
+			{{1, 1}, {2, 0}},
+			{{0, 1}, {3, -1}}
+		});
+		// (1 + i)(3 - i) - 2i = 4
+		assertTrue(complex.determinant().equals(Complex.of(4, 0), 1e-12));
+		assertThat(complex.multiply(complex.inverse()), approxEquals(Numbers.complexMatrix(new double[][][] {
+			{{1, 0}, {0, 0}},
+			{{0, 0}, {1, 0}}
+		}), 1e-12));
+	}
+	
+	private DoubleMatrix random(int height, int width, long seed) {
+		Random random = new Random(seed);
+		return new DoubleMatrix(width, height, pos -> random.nextDouble() - 0.5);
+	}
+	
+	private DoubleMatrix permuteRows(DoubleMatrix matrix, int[] pivot) {
+		return new DoubleMatrix(matrix.getWidth(), matrix.getHeight(), pos -> matrix.get(pos.getX(), pivot[pos.getY()]));
+	}
+}
@@ -0,0 +1,35 @@
+package fwcd.fructose.structs;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class AliasTableTest {
+	@Test
+	public void testSampling() {
+		AliasTable table = new AliasTable(new double[] {1, 0, 3, 4});
+		assertEquals(4, table.size());
+		assertEquals(0.125, table.getProbability(0), 0.0001);
+		assertEquals(0, table.getProbability(1), 0.0001);
+		
+		Random random = new Random(42);
+		int samples = 200000;
+		int[] counts = new int[4];
+		for (int i = 0; i < samples; i++) {
+			counts[table.sample(random)]++;
+		}
+		
+		assertEquals(0, counts[1]);
+		assertEquals(0.125, counts[0] / (double) samples, 0.01);
+		assertEquals(0.375, counts[2] / (double) samples, 0.01);
+		assertEquals(0.5, counts[3] / (double) samples, 0.01);
+	}
+	
+	@Test
+	public void testZeroWeights() {
+		AliasTable table = new AliasTable(new double[] {0, 0});
+		assertEquals(0.5, table.getProbability(1), 0.0001);
+	}
+}
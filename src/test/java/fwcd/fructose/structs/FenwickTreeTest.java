@@ -0,0 +1,47 @@
+package fwcd.fructose.structs;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class FenwickTreeTest {
+	@Test
+	public void testPrefixSums() {
+		Random random = new Random(7);
+		FenwickTree tree = new FenwickTree(2);
+		double[] values = new double[100];
+		
+		for (int i = 0; i < values.length; i++) {
+			values[i] = random.nextInt(10);
+			tree.add(values[i]);
+		}
+		for (int i = 0; i < 50; i++) {
+			int index = random.nextInt(values.length);
+			values[index] = random.nextInt(10);
+			tree.set(index, values[index]);
+		}
+		
+		double sum = 0;
+		for (int i = 0; i < values.length; i++) {
+			assertEquals(sum, tree.prefixSum(i), 0.0001);
+			sum += values[i];
+		}
+		assertEquals(sum, tree.sum(), 0.0001);
+	}
+	
+	@Test
+	public void testSearch() {
+		FenwickTree tree = new FenwickTree(new double[] {1, 0, 2, 3});
+		assertEquals(0, tree.search(0));
+		assertEquals(0, tree.search(0.99));
+		assertEquals(2, tree.search(1));
+		assertEquals(2, tree.search(2.5));
+		assertEquals(3, tree.search(3));
+		assertEquals(3, tree.search(5.99));
+		
+		tree.set(3, 0);
+		assertEquals(2, tree.search(2.99));
+	}
+}
@@ -0,0 +1,74 @@
+package fwcd.fructose.test.demo;
+
+import java.util.Random;
+
+import fwcd.fructose.geometry.DoubleMatrix;
+import fwcd.fructose.geometry.DoubleMatrixMultiplier;
+
+/**
+ * Compares the throughput (in GFLOP/s) of the naive triple loop
+ * over double[][] with the blocked, parallel and Strassen
+ * multiplication of {@link DoubleMatrix}.
+ */
+public class MatrixMultiplicationBenchmark {
+	private static final int[] SIZES = {128, 256, 512, 1024};
+	private static final int WARMUP_RUNS = 5;
+	private static final int MEASURED_RUNS = 5;
+	
+	public static void main(String[] args) {
+		Random random = new Random(0);
+		DoubleMatrixMultiplier blocked = new DoubleMatrixMultiplier();
+		DoubleMatrixMultiplier strassen = new DoubleMatrixMultiplier();
+		strassen.setStrassenThreshold(256);
+		
+		System.out.println("size\tnaive\tblocked\tstrassen (GFLOP/s)");
+		
+		for (int size : SIZES) {
+			DoubleMatrix a = new DoubleMatrix(size, size, pos -> random.nextDouble());
+			DoubleMatrix b = new DoubleMatrix(size, size, pos -> random.nextDouble());
+			double[][] rawA = a.toArray();
+			double[][] rawB = b.toArray();
+			
+			double naive = measure(size, () -> naiveMultiply(rawA, rawB));
+			double fast = measure(size, () -> blocked.multiply(a, b));
+			double fastest = measure(size, () -> strassen.multiply(a, b));
+			
+			System.out.printf("%d\t%.2f\t%.2f\t%.2f%n", size, naive, fast, fastest);
+		}
+	}
+	
+	private static double measure(int size, Runnable multiplication) {
+		for (int i=0; i<WARMUP_RUNS; i++) {
+			multiplication.run();
+		}
+		
+		long start = System.nanoTime();
+		for (int i=0; i<MEASURED_RUNS; i++) {
+			multiplication.run();
+		}
+		double seconds = (System.nanoTime() - start) / 1e9 / MEASURED_RUNS;
+		
+		return (2.0 * size * size * size) / seconds / 1e9;
+	}
+	
+	/**
+	 * The previous implementation of DoubleMatrix.multiply.
+	 */
+	private static double[][] naiveMultiply(double[][] left, double[][] right) {
+		double[][] product = new double[left.length][right[0].length];
+		
+		for (int y=0; y<left.length; y++) {
+			for (int x=0; x<right[0].length; x++) {
+				double cell = 0;
+				
+				for (int i=0; i<left[y].length; i++) {
+					cell += left[y][i] * right[i][x];
+				}
+				
+				product[y][x] = cell;
+			}
+		}
+		
+		return product;
+	}
+}